@@ -0,0 +1,117 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.service.AsyncPostService;
+import com.ict.socialmedia.post.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of {@code concurrency} simultaneous lookups through {@link AsyncPostService}, comparing
+ * a virtual thread per call with a fixed pool of platform threads. One benchmark operation is a
+ * whole burst, so requests per second = score × concurrency.
+ *
+ * <p>Backend concurrency is capped the same way in both modes (the pool size for PostgreSQL), so
+ * the difference is what it costs to hold thousands of waiting requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@Threads(1)
+public class AsyncThroughputBenchmark {
+    static final int SEED_ROWS = 1_000;
+    static final int PLATFORM_THREADS = 200;
+
+    @Param({"memory", "postgres", "mongo"})
+    public String backend;
+
+    @Param({"100", "1000", "10000"})
+    public int concurrency;
+
+    @Param({"virtual", "platform"})
+    public String executor;
+
+    private PostRepository repo;
+    private PostService service;
+    private ExecutorService platformPool;
+    private AsyncPostService async;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = BenchEnv.repository(backend, "posts_async_bench");
+        service = new PostService(repo);
+        Instant now = Instant.now();
+        List<Post> seed = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            seed.add(new Post(UUID.randomUUID(), "bench", "async", Visibility.PUBLIC, 0, now.minusMillis(i), now));
+        }
+        repo.createAll(seed);
+        ids = seed.stream().map(Post::getId).toArray(UUID[]::new);
+
+        int limit = switch (backend) {
+            case "postgres" -> PostgresPoolSettings.defaults().getMaxSize();
+            case "mongo" -> 100;
+            default -> 1024;
+        };
+        if (executor.equals("virtual")) {
+            async = new AsyncPostService(service, limit, AsyncPostService.NO_TIMEOUT);
+        } else {
+            platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            async = new AsyncPostService(service, platformPool, limit, AsyncPostService.NO_TIMEOUT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        async.close();
+        if (platformPool != null) platformPool.shutdownNow();
+        repo.deleteAll(List.of(ids));
+        service.close();
+        BenchEnv.close(repo);
+    }
+
+    @Benchmark
+    public int burst() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        List<CompletableFuture<Optional<Post>>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(async.get(ids[rnd.nextInt(ids.length)], Duration.ofSeconds(30)));
+        }
+        int found = 0;
+        for (CompletableFuture<Optional<Post>> f : futures) {
+            if (f.join().isPresent()) found++;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.mongo.MongoPostRepository;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows/sec for inserting and deleting {@link #ROWS} posts one at a time versus through
+ * createAll/deleteAll. Scores are per row thanks to {@link OperationsPerInvocation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchWriteBenchmark {
+    static final int ROWS = 2_000;
+
+    @Param({"postgres", "mongo"})
+    public String backend;
+
+    @Param({"100", "500", "2000"})
+    public int batchSize;
+
+    private PostRepository repo;
+    private List<Post> posts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("mongo".equals(backend)) {
+            repo = new MongoPostRepository(BenchEnv.mongoConnectionString(), BenchEnv.mongoDatabase(), "posts_batch_bench", batchSize,
+                    MongoPostRepository.DEFAULT_FETCH_SIZE);
+        } else {
+            PostgresConnectionPool pool = new PostgresConnectionPool(
+                    BenchEnv.postgresUrl(), BenchEnv.postgresUser(), BenchEnv.postgresPassword(), PostgresPoolSettings.defaults());
+            repo = new PostgresPostRepository(pool, batchSize);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newRows() {
+        Instant now = Instant.now();
+        posts = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            posts.add(new Post(UUID.randomUUID(), "bench", "batch benchmark row " + i, Visibility.PUBLIC, 0, now, now));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) repo).close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int oneAtATime() {
+        for (Post p : posts) repo.create(p);
+        int deleted = 0;
+        for (Post p : posts) {
+            if (repo.delete(p.getId())) deleted++;
+        }
+        return deleted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BatchResult batched() {
+        repo.createAll(posts);
+        return repo.deleteAll(posts.stream().map(Post::getId).toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.file.FilePostRepository;
+import com.ict.socialmedia.post.repository.file.FileStoreSettings;
+import com.ict.socialmedia.post.repository.memory.InMemoryPostRepository;
+import com.ict.socialmedia.post.repository.mongo.MongoPostRepository;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Where the benchmarks find their databases. By default they expect local instances, configured
+ * through {@code -Dbench.*} properties; with {@code -Dbench.containers=true} they start throwaway
+ * Testcontainers instances instead (Docker required).
+ */
+final class BenchEnv {
+    private BenchEnv() {
+    }
+
+    static boolean useContainers() {
+        return Boolean.getBoolean("bench.containers");
+    }
+
+    static String postgresUrl() {
+        if (useContainers()) return Containers.postgres().getJdbcUrl();
+        return System.getProperty("bench.postgres.url", "jdbc:postgresql://localhost:5432/social_media");
+    }
+
+    static String postgresUser() {
+        if (useContainers()) return Containers.postgres().getUsername();
+        return System.getProperty("bench.postgres.user", "postgres");
+    }
+
+    static String postgresPassword() {
+        if (useContainers()) return Containers.postgres().getPassword();
+        return System.getProperty("bench.postgres.password", "postgres");
+    }
+
+    static String mongoConnectionString() {
+        if (useContainers()) return Containers.mongo().getConnectionString();
+        return System.getProperty("bench.mongo.connectionString", "mongodb://localhost:27017");
+    }
+
+    static String mongoDatabase() {
+        return System.getProperty("bench.mongo.database", "social_media_bench");
+    }
+
+    /**
+     * Opens a repository for {@code backend} (memory, file, postgres or mongo). Mongo uses
+     * {@code collection}; the file backend gets a fresh temporary directory.
+     */
+    static PostRepository repository(String backend, String collection) {
+        return switch (backend) {
+            case "memory" -> new InMemoryPostRepository();
+            case "file" -> {
+                try {
+                    yield new FilePostRepository(FileStoreSettings.defaults(Files.createTempDirectory("posts-bench")));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            case "postgres" -> new PostgresPostRepository(new PostgresConnectionPool(
+                    postgresUrl(), postgresUser(), postgresPassword(), PostgresPoolSettings.defaults()));
+            case "mongo" -> new MongoPostRepository(mongoConnectionString(), mongoDatabase(), collection);
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+
+    static void close(PostRepository repo) throws Exception {
+        if (repo instanceof AutoCloseable c) c.close();
+    }
+}
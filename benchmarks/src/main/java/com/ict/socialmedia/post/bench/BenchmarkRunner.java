@@ -0,0 +1,47 @@
+package com.ict.socialmedia.post.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the selected benchmarks once per thread count and writes one JSON result file per run,
+ * so results can be diffed across commits (e.g. with jmh.morethan.io or a small script):
+ *
+ * <pre>
+ *   java -Dbench.threads=1,4,16 -Dbench.out=target/jmh \
+ *        -cp target/benchmarks.jar com.ict.socialmedia.post.bench.BenchmarkRunner ServiceBenchmark
+ * </pre>
+ *
+ * Any other arguments are passed through as regular JMH options.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        File outDir = new File(System.getProperty("bench.out", "target/jmh"));
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + outDir);
+        }
+        for (String raw : System.getProperty("bench.threads", "1,4,16").split(",")) {
+            int threads = Integer.parseInt(raw.trim());
+            File out = new File(outDir, "result-" + threads + "t.json");
+            Options opts = new OptionsBuilder()
+                    .parent(cli)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(out.getPath())
+                    .build();
+            new Runner(opts).run();
+            System.out.println("Wrote " + out);
+        }
+    }
+}
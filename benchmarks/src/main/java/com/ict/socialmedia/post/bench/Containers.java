@@ -0,0 +1,39 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.repository.postgres.PostgresBootstrapper;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Lazily started, JVM-wide database containers. JMH forks a fresh JVM per benchmark, so each fork
+ * pays the start-up once during setup, outside any measured iteration.
+ */
+final class Containers {
+    private static PostgreSQLContainer<?> postgres;
+    private static MongoDBContainer mongo;
+
+    private Containers() {
+    }
+
+    static synchronized PostgreSQLContainer<?> postgres() {
+        if (postgres == null) {
+            PostgreSQLContainer<?> c = new PostgreSQLContainer<>(System.getProperty("bench.postgres.image", "postgres:16-alpine"))
+                    .withDatabaseName("social_media");
+            c.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(c::stop));
+            PostgresBootstrapper.bootstrapIfEnabled(true, c.getJdbcUrl(), "postgres", c.getUsername(), c.getPassword(), false);
+            postgres = c;
+        }
+        return postgres;
+    }
+
+    static synchronized MongoDBContainer mongo() {
+        if (mongo == null) {
+            MongoDBContainer c = new MongoDBContainer(System.getProperty("bench.mongo.image", "mongo:7.0"));
+            c.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(c::stop));
+            mongo = c;
+        }
+        return mongo;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.repository.PostCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** The UUID and Instant conversions the repositories perform on every row. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+    private UUID uuid;
+    private String uuidString;
+    private byte[] uuidBytes;
+    private Instant instant;
+    private Timestamp timestamp;
+    private Date date;
+    private PostCursor cursor;
+    private String cursorToken;
+
+    @Setup
+    public void setUp() {
+        uuid = UUID.randomUUID();
+        uuidString = uuid.toString();
+        uuidBytes = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+        instant = Instant.now();
+        timestamp = Timestamp.from(instant);
+        date = Date.from(instant);
+        cursor = new PostCursor(instant, uuid);
+        cursorToken = cursor.encode();
+    }
+
+    @Benchmark
+    public String uuidToString() {
+        return uuid.toString();
+    }
+
+    @Benchmark
+    public UUID uuidFromString() {
+        return UUID.fromString(uuidString);
+    }
+
+    @Benchmark
+    public byte[] uuidToBytes() {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    @Benchmark
+    public UUID uuidFromBytes() {
+        ByteBuffer b = ByteBuffer.wrap(uuidBytes);
+        return new UUID(b.getLong(), b.getLong());
+    }
+
+    @Benchmark
+    public Timestamp instantToTimestamp() {
+        return Timestamp.from(instant);
+    }
+
+    @Benchmark
+    public Instant timestampToInstant() {
+        return timestamp.toInstant();
+    }
+
+    @Benchmark
+    public Date instantToDate() {
+        return Date.from(instant);
+    }
+
+    @Benchmark
+    public Instant dateToInstant() {
+        return date.toInstant();
+    }
+
+    @Benchmark
+    public String cursorEncode() {
+        return cursor.encode();
+    }
+
+    @Benchmark
+    public PostCursor cursorDecode() {
+        return PostCursor.decode(cursorToken);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ict.socialmedia.post.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for the {@code /items} API, for comparing the embedded Java server
+ * with the old Express one on the same machine and database. Each virtual-thread client reuses
+ * one keep-alive connection and issues requests back to back:
+ *
+ * <pre>
+ *   java -cp target/benchmarks.jar com.ict.socialmedia.post.bench.HttpLoadTest \
+ *       http://localhost:3000 [clients=64] [seconds=30] [mix=get|list|mixed]
+ * </pre>
+ *
+ * "get" fetches single posts by id, "list" fetches {@code /items?limit=20}, "mixed" does 80% gets,
+ * 10% lists and 10% creates. Prints requests/s and latency percentiles. server.js ignores
+ * {@code ?limit=} and returns every row, so only "get" compares like with like.
+ *
+ * <p>Last run: one vCPU shared by the generator, the server and PostgreSQL 16, 1,000 posts,
+ * 32 clients, 20 s after a 10 s warm-up. The Java server did 743 req/s on "get" (p50 34.6 ms,
+ * p99 197 ms) and 832 req/s on "mixed" (p50 31.4 ms, p99 215 ms). The Express server has not
+ * been measured on the same setup yet (its npm dependencies could not be installed there), so
+ * there is no speed-up figure.
+ */
+public final class HttpLoadTest {
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: HttpLoadTest <baseUrl> [clients] [seconds] [get|list|mixed]");
+            System.exit(2);
+        }
+        String base = args[0].replaceAll("/+$", "");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String mix = args.length > 3 ? args[3] : "mixed";
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<String> ids = seedIds(http, base);
+
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicLong[] counts = new AtomicLong[clients];
+        List<long[]> samples = new ArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] mine = new long[1 << 16];
+                samples.add(mine);
+                counts[c] = new AtomicLong();
+                AtomicLong count = counts[c];
+                int client = c;
+                pool.submit(() -> {
+                    Random rnd = new Random(client);
+                    while (running.get()) {
+                        HttpRequest req = request(base, mix, ids, rnd);
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> r = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+                            if (r.statusCode() < 400) ok.increment();
+                            else failed.increment();
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        long n = count.getAndIncrement();
+                        mine[(int) (n & (mine.length - 1))] = System.nanoTime() - t0;
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+        }
+
+        long total = ok.sum() + failed.sum();
+        List<Long> all = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            long n = Math.min(counts[c].get(), samples.get(c).length);
+            for (int i = 0; i < n; i++) all.add(samples.get(c)[i]);
+        }
+        long[] sorted = all.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("%s clients=%d mix=%s: %.0f req/s, ok=%d failed=%d%n",
+                base, clients, mix, total / (double) seconds, ok.sum(), failed.sum());
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                pct(sorted, 0.50), pct(sorted, 0.90), pct(sorted, 0.99), pct(sorted, 1.0));
+    }
+
+    private static HttpRequest request(String base, String mix, List<String> ids, Random rnd) {
+        int roll = switch (mix) {
+            case "get" -> 0;
+            case "list" -> 85;
+            default -> rnd.nextInt(100);
+        };
+        if (roll < 80) {
+            return HttpRequest.newBuilder(URI.create(base + "/items/" + ids.get(rnd.nextInt(ids.size())))).GET().build();
+        }
+        if (roll < 90) {
+            return HttpRequest.newBuilder(URI.create(base + "/items?limit=20"))
+                    .header("Accept-Encoding", "gzip").GET().build();
+        }
+        String body = "{\"author\":\"load\",\"content\":\"load test " + rnd.nextInt() + "\",\"visibility\":\"PUBLIC\",\"likes\":0}";
+        return HttpRequest.newBuilder(URI.create(base + "/items"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    // Ids to GET: whatever the first list returns, topped up with creates on an empty database.
+    private static List<String> seedIds(HttpClient http, String base) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String json = http.send(HttpRequest.newBuilder(URI.create(base + "/items")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        for (int i = json.indexOf("\"id\":\""); i >= 0 && ids.size() < 1000; i = json.indexOf("\"id\":\"", i + 1)) {
+            ids.add(json.substring(i + 6, i + 42));
+        }
+        while (ids.size() < 100) {
+            String created = http.send(HttpRequest.newBuilder(URI.create(base + "/items"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"author\":\"load\",\"content\":\"seed\"}")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            int i = created.indexOf("\"id\":\"");
+            ids.add(created.substring(i + 6, i + 42));
+        }
+        return ids;
+    }
+
+    private static double pct(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1);
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
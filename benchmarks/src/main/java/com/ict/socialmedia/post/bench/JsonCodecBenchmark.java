@@ -0,0 +1,153 @@
+package com.ict.socialmedia.post.bench;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.transfer.PostJson;
+import com.ict.socialmedia.post.transfer.PostJsonReader;
+import com.ict.socialmedia.post.transfer.PostJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PostJsonWriter}/{@link PostJsonReader} against the StringBuilder-based {@link PostJson}
+ * and a generic reflection-based mapper (Jackson databind with the JSR-310 module). Run with
+ * {@code -prof gc} to compare allocation per operation as well as time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+    static final int ARRAY_SIZE = 100;
+
+    /** Content length; "unicode" adds non-ASCII text so the UTF-8 slow path is exercised. */
+    @Param({"64", "1024", "16384"})
+    public int payloadSize;
+
+    @Param({"ascii", "unicode"})
+    public String charset;
+
+    private Post post;
+    private List<Post> posts;
+    private byte[] encoded;
+    private String encodedString;
+    private PostJsonWriter writer;
+    private final PostJsonReader reader = new PostJsonReader();
+    private ObjectMapper jackson;
+    private ByteArrayOutputStream sink;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        String unit = charset.equals("unicode") ? "héllo wörld – 你好 \"q\" " : "hello world \"quoted\" ";
+        String content = unit.repeat(payloadSize / unit.length() + 1).substring(0, payloadSize);
+        Instant now = Instant.parse("2024-05-01T12:34:56.789123456Z");
+        post = new Post(UUID.randomUUID(), "alice", content, Visibility.FRIENDS, 42, now, now, 7);
+        posts = new ArrayList<>(ARRAY_SIZE);
+        for (int i = 0; i < ARRAY_SIZE; i++) {
+            posts.add(new Post(UUID.randomUUID(), "alice", content, Visibility.PUBLIC, i, now.minusSeconds(i), now, i));
+        }
+        writer = new PostJsonWriter();
+        sink = new ByteArrayOutputStream(ARRAY_SIZE * (payloadSize * 3 + 256));
+        jackson = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(Post.class, PostMixin.class);
+        encoded = writer.write(post).toByteArray();
+        writer.reset();
+        encodedString = new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int writeOne() {
+        writer.reset();
+        return writer.write(post).size();
+    }
+
+    @Benchmark
+    public byte[] writeOneStringBuilder() {
+        return PostJson.toJson(post).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeOneJackson() throws JsonProcessingException {
+        return jackson.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public int writeArray() throws IOException {
+        sink.reset();
+        writer.reset();
+        writer.writeArray(posts.iterator(), sink, 64 * 1024);
+        return sink.size();
+    }
+
+    @Benchmark
+    public int writeArrayJackson() throws IOException {
+        sink.reset();
+        jackson.writeValue(sink, posts);
+        return sink.size();
+    }
+
+    @Benchmark
+    public Post readOne() {
+        return reader.read(encoded);
+    }
+
+    @Benchmark
+    public Post readOneStringParser() {
+        return PostJson.parse(encodedString);
+    }
+
+    @Benchmark
+    public Post readOneJackson() throws IOException {
+        return jackson.readValue(encoded, Post.class);
+    }
+
+    @Benchmark
+    public void roundTrip(Blackhole bh) {
+        writer.reset();
+        bh.consume(reader.read(writer.write(post).toByteArray()));
+    }
+
+    abstract static class PostMixin {
+        @JsonCreator
+        PostMixin(
+                @JsonProperty("id") UUID id,
+                @JsonProperty("author") String author,
+                @JsonProperty("content") String content,
+                @JsonProperty("visibility") Visibility visibility,
+                @JsonProperty("likes") int likes,
+                @JsonProperty("createdAt") Instant createdAt,
+                @JsonProperty("updatedAt") Instant updatedAt,
+                @JsonProperty("version") long version
+        ) {
+        }
+    }
+}
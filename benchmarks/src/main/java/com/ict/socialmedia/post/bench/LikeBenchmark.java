@@ -0,0 +1,71 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import com.ict.socialmedia.post.service.LikeAccumulator;
+import com.ict.socialmedia.post.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Likes/sec on a single hot post: one atomic UPDATE per like ("direct") versus the write-behind
+ * accumulator, which coalesces likes and flushes them every 200ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class LikeBenchmark {
+    @Param({"direct", "writeBehind"})
+    public String mode;
+
+    private PostgresPostRepository repo;
+    private PostService service;
+    private UUID id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PostgresPoolSettings settings = new PostgresPoolSettings(8, 16, 5_000, 300_000, 30_000, false, 2);
+        repo = new PostgresPostRepository(new PostgresConnectionPool(
+                BenchEnv.postgresUrl(), BenchEnv.postgresUser(), BenchEnv.postgresPassword(), settings));
+        LikeAccumulator acc = "writeBehind".equals(mode) ? new LikeAccumulator(repo, 200) : null;
+        service = new PostService(repo, acc);
+        Instant now = Instant.now();
+        id = UUID.randomUUID();
+        repo.create(new Post(id, "bench", "hot post", Visibility.PUBLIC, 0, now, now));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        service.close();
+        repo.delete(id);
+        repo.close();
+    }
+
+    @Benchmark
+    public boolean like() {
+        return service.like(id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.mongo.MongoPostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB reads end to end, string versus binary {@code _id}: one findById, and findAll over the
+ * whole collection. Run with {@code -prof gc} for allocation per operation; run the same
+ * benchmark on a build from before {@code PostCodec} for the Document-mapping baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MongoReadBenchmark {
+    static final String COLLECTION = "posts_read_bench";
+
+    @Param({"false", "true"})
+    public boolean binaryIds;
+
+    @Param({"10000"})
+    public int rows;
+
+    private MongoPostRepository repo;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = new MongoPostRepository(BenchEnv.mongoConnectionString(), BenchEnv.mongoDatabase(), COLLECTION,
+                MongoPostRepository.DEFAULT_BATCH_SIZE, MongoPostRepository.DEFAULT_FETCH_SIZE, binaryIds);
+        repo.getClient().getDatabase(BenchEnv.mongoDatabase()).getCollection(COLLECTION).drop();
+        Instant start = Instant.now().minusSeconds(rows);
+        List<Post> posts = new ArrayList<>(rows);
+        ids = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            Instant at = start.plusSeconds(i);
+            ids[i] = UUID.randomUUID();
+            posts.add(new Post(ids[i], "bench-" + (i % 100), "read benchmark row " + i + " " + "x".repeat(200),
+                    Visibility.values()[i % 3], i % 50, at, at));
+        }
+        repo.createAll(posts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repo.getClient().getDatabase(BenchEnv.mongoDatabase()).getCollection(COLLECTION).drop();
+        repo.close();
+    }
+
+    @Benchmark
+    public Optional<Post> findById() {
+        return repo.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MINUTES)
+    public int findAll() {
+        return repo.findAll().size();
+    }
+}
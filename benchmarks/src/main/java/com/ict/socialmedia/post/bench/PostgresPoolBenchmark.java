@@ -0,0 +1,73 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findById against a local PostgreSQL, with a fresh DriverManager-style connection per call
+ * ("unpooled", the pre-pool behaviour) versus the built-in pool. Run with -t N to vary threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostgresPoolBenchmark {
+    @Param({"unpooled", "pooled"})
+    public String mode;
+
+    private PostgresPostRepository repo;
+    private UUID id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("pooled".equals(mode)) {
+            PostgresPoolSettings settings = new PostgresPoolSettings(8, 32, 5_000, 300_000, 30_000, true, 2);
+            repo = new PostgresPostRepository(new PostgresConnectionPool(
+                    BenchEnv.postgresUrl(), BenchEnv.postgresUser(), BenchEnv.postgresPassword(), settings));
+        } else {
+            PGSimpleDataSource ds = new PGSimpleDataSource();
+            ds.setUrl(BenchEnv.postgresUrl());
+            ds.setUser(BenchEnv.postgresUser());
+            ds.setPassword(BenchEnv.postgresPassword());
+            repo = new PostgresPostRepository(ds);
+        }
+        Instant now = Instant.now();
+        id = UUID.randomUUID();
+        repo.create(new Post(id, "bench", "pool benchmark row", Visibility.PUBLIC, 0, now, now));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repo.delete(id);
+        repo.close();
+    }
+
+    @Benchmark
+    public Optional<Post> findById() {
+        return repo.findById(id);
+    }
+}
@@ -0,0 +1,204 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.mongo.MongoBootstrapper;
+import com.ict.socialmedia.post.repository.postgres.PostgresBulkLoader;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked full-text search over a synthetic corpus: posts of 8-40 words drawn from a Zipf-like
+ * distribution over a generated vocabulary, so a few words are in most posts and most words are
+ * rare, as in real text. Queries are one rare word, two mid-frequency words, or one common word
+ * (where ranking has to read a large share of the corpus), first page and a deep page.
+ *
+ * <p>The corpus is loaded once per trial (COPY for PostgreSQL) and removed afterwards; a few
+ * million rows take minutes to load and index. The memory backend needs a large heap, e.g.
+ * {@code -Xmx16g} at two million posts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class SearchBenchmark {
+    static final String AUTHOR = "search-bench";
+    static final int VOCABULARY = 50_000;
+    static final int LOAD_CHUNK = 10_000;
+
+    @Param({"memory", "postgres", "mongo"})
+    public String backend;
+
+    @Param({"2000000"})
+    public int corpusSize;
+
+    @Param({"rare", "mid", "common"})
+    public String selectivity;
+
+    private PostRepository repo;
+    private String[] words;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        repo = BenchEnv.repository(backend, "posts_search_bench");
+        if (backend.equals("mongo")) {
+            try (MongoClient client = MongoClients.create(BenchEnv.mongoConnectionString())) {
+                MongoBootstrapper.bootstrapIfEnabled(true, client, BenchEnv.mongoDatabase(), "posts_search_bench", false);
+            }
+        }
+        words = vocabulary();
+        load();
+        queries = queries();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        List<UUID> batch = new ArrayList<>(LOAD_CHUNK);
+        try (var posts = repo.stream(PostFilter.all().withAuthor(AUTHOR))) {
+            for (Iterator<Post> it = posts.iterator(); it.hasNext(); ) {
+                batch.add(it.next().getId());
+                if (batch.size() == LOAD_CHUNK) {
+                    repo.deleteAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) repo.deleteAll(batch);
+        BenchEnv.close(repo);
+    }
+
+    @Benchmark
+    public int firstPage() {
+        return repo.search(query(), PostFilter.all(), null, 20).getHits().size();
+    }
+
+    @Benchmark
+    public int fifthPage() {
+        String q = query();
+        SearchPage page = repo.search(q, PostFilter.all(), null, 20);
+        for (int i = 1; i < 5 && page.hasNext(); i++) {
+            page = repo.search(q, PostFilter.all(), page.getNext(), 20);
+        }
+        return page.getHits().size();
+    }
+
+    @Benchmark
+    public int publicOnly() {
+        return repo.search(query(), PostRepository.PUBLIC_FEED, null, 20).getHits().size();
+    }
+
+    private String query() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    // Word rank r (0 = most frequent) appears with probability ~ 1 / (r + 1).
+    private String[] queries() {
+        SplittableRandom rnd = new SplittableRandom(7);
+        String[] out = new String[64];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = switch (selectivity) {
+                case "rare" -> words[20_000 + rnd.nextInt(20_000)];
+                case "mid" -> words[200 + rnd.nextInt(800)] + " " + words[200 + rnd.nextInt(800)];
+                case "common" -> words[rnd.nextInt(5)];
+                default -> throw new IllegalArgumentException("Unknown selectivity: " + selectivity);
+            };
+        }
+        return out;
+    }
+
+    private void load() {
+        Iterator<Post> corpus = corpus(words, corpusSize);
+        if (repo instanceof PostgresPostRepository pg) {
+            new PostgresBulkLoader(pg.getDataSource()).load(corpus, false);
+            return;
+        }
+        List<Post> chunk = new ArrayList<>(LOAD_CHUNK);
+        while (corpus.hasNext()) {
+            chunk.add(corpus.next());
+            if (chunk.size() == LOAD_CHUNK) {
+                repo.createAll(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) repo.createAll(chunk);
+    }
+
+    // Pronounceable, distinct, lowercase letters only: consonant-vowel pairs spelling the rank.
+    static String[] vocabulary() {
+        String consonants = "bcdfghjklmnprstvz";
+        String vowels = "aeiou";
+        String[] out = new String[VOCABULARY];
+        for (int r = 0; r < VOCABULARY; r++) {
+            StringBuilder sb = new StringBuilder();
+            int v = r;
+            do {
+                sb.append(consonants.charAt(v % consonants.length()));
+                v /= consonants.length();
+                sb.append(vowels.charAt(v % vowels.length()));
+                v /= vowels.length();
+            } while (v > 0);
+            out[r] = sb.append("x").toString();
+        }
+        return out;
+    }
+
+    static Iterator<Post> corpus(String[] words, int size) {
+        // Inverse CDF of the 1/(r+1) distribution: r = floor(exp(u * ln(V + 1))) - 1.
+        double logV = Math.log(words.length + 1.0);
+        SplittableRandom rnd = new SplittableRandom(42);
+        Instant start = Instant.now().minusSeconds(size);
+        Visibility[] visibilities = Visibility.values();
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Post next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int n = 8 + rnd.nextInt(33);
+                StringBuilder sb = new StringBuilder(n * 8);
+                for (int w = 0; w < n; w++) {
+                    int r = (int) Math.min(words.length - 1, Math.floor(Math.exp(rnd.nextDouble() * logV)) - 1);
+                    if (w > 0) sb.append(' ');
+                    sb.append(words[r]);
+                }
+                Instant at = start.plusSeconds(i++);
+                return new Post(UUID.randomUUID(), AUTHOR, sb.toString(), visibilities[rnd.nextInt(visibilities.length)], 0, at, at);
+            }
+        };
+    }
+}
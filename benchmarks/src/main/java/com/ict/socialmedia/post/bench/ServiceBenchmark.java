@@ -0,0 +1,118 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link PostService} operations per backend and content size. Thread count is set
+ * from the command line ({@code -t}) or by {@link BenchmarkRunner}, which sweeps several.
+ *
+ * <p>There is no standalone delete benchmark, since deleting needs a fresh row per call:
+ * {@code createThenDelete} minus {@code create} approximates it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+    static final int SEED_ROWS = 1_000;
+
+    @Param({"memory", "file", "postgres", "mongo"})
+    public String backend;
+
+    @Param({"64", "1024", "16384"})
+    public int payloadSize;
+
+    private PostRepository repo;
+    private PostService service;
+    private String content;
+    private UUID[] ids;
+    private final ConcurrentLinkedQueue<UUID> created = new ConcurrentLinkedQueue<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = BenchEnv.repository(backend, "posts_service_bench");
+        service = new PostService(repo);
+        content = "x".repeat(payloadSize);
+        Instant now = Instant.now();
+        List<Post> seed = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            seed.add(new Post(UUID.randomUUID(), "bench", content, Visibility.PUBLIC, 0, now.minusMillis(i), now));
+        }
+        repo.createAll(seed);
+        ids = seed.stream().map(Post::getId).toArray(UUID[]::new);
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropCreated() {
+        List<UUID> batch = new ArrayList<>(created);
+        created.clear();
+        if (!batch.isEmpty()) repo.deleteAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repo.deleteAll(List.of(ids));
+        service.close();
+        BenchEnv.close(repo);
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public PostPage list() {
+        return service.list(null, 20, PostFilter.all());
+    }
+
+    @Benchmark
+    public Optional<Post> get() {
+        return service.get(randomId());
+    }
+
+    @Benchmark
+    public Post create() {
+        Post p = service.create("bench", content, Visibility.PUBLIC, 0);
+        created.add(p.getId());
+        return p;
+    }
+
+    @Benchmark
+    public boolean update() {
+        return service.update(randomId(), "bench", content, Visibility.FRIENDS, 1);
+    }
+
+    @Benchmark
+    public boolean createThenDelete() {
+        return service.delete(service.create("bench", content, Visibility.PUBLIC, 0).getId());
+    }
+}
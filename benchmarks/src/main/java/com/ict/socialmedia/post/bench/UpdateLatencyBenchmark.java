@@ -0,0 +1,74 @@
+package com.ict.socialmedia.post.bench;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.mongo.MongoPostRepository;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update latency: the old findById + update path versus the single-round-trip conditional update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UpdateLatencyBenchmark {
+    @Param({"postgres", "mongo"})
+    public String backend;
+
+    private PostRepository repo;
+    private Post post;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("mongo".equals(backend)) {
+            repo = new MongoPostRepository(BenchEnv.mongoConnectionString(), BenchEnv.mongoDatabase(), "posts_update_bench");
+        } else {
+            repo = new PostgresPostRepository(new PostgresConnectionPool(
+                    BenchEnv.postgresUrl(), BenchEnv.postgresUser(), BenchEnv.postgresPassword(), PostgresPoolSettings.defaults()));
+        }
+        Instant now = Instant.now();
+        post = repo.create(new Post(UUID.randomUUID(), "bench", "update benchmark row", Visibility.PUBLIC, 0, now, now));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repo.delete(post.getId());
+        ((AutoCloseable) repo).close();
+    }
+
+    @Benchmark
+    public boolean readThenUpdate() {
+        Post current = repo.findById(post.getId()).orElseThrow();
+        return repo.update(current.withUpdatedFields("bench", "edited", Visibility.FRIENDS, 1, Instant.now()));
+    }
+
+    @Benchmark
+    public Post conditionalUpdate() {
+        post = repo.updateIfVersion(post.getId(), post.getVersion(), "bench", "edited", Visibility.FRIENDS, 1, Instant.now())
+                .orElseThrow();
+        return post;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ict.socialmedia.post.repository.mongo;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BSON to {@link Post} and back, the way the driver does it on the wire: through a
+ * {@link Document} (the mapping the repository used before {@link PostCodec}) and through the
+ * codec, with string and binary ids. Run with {@code -prof gc} for bytes allocated per operation.
+ *
+ * <p>Lives in the repository's package (in this module) because map and PostCodec are package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MongoMappingBenchmark {
+    @Param({"64", "1024", "16384"})
+    public int payloadSize;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final PostCodec stringIds = new PostCodec(false);
+    private final PostCodec binaryIds = new PostCodec(true);
+    private Post post;
+    private byte[] stringIdBson;
+    private byte[] binaryIdBson;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        post = new Post(UUID.randomUUID(), "bench", "x".repeat(payloadSize), Visibility.PUBLIC, 42, now, now, 7);
+        stringIdBson = new RawBsonDocument(post, stringIds).getByteBuffer().array();
+        binaryIdBson = new RawBsonDocument(post, binaryIds).getByteBuffer().array();
+    }
+
+    @Benchmark
+    public int encodeDocument() {
+        BasicOutputBuffer out = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(out), toDoc(post), EncoderContext.builder().build());
+        return out.getPosition();
+    }
+
+    @Benchmark
+    public int encodeCodec() {
+        BasicOutputBuffer out = new BasicOutputBuffer();
+        stringIds.encode(new BsonBinaryWriter(out), post, EncoderContext.builder().build());
+        return out.getPosition();
+    }
+
+    @Benchmark
+    public Post decodeDocument() {
+        return MongoPostRepository.map(documentCodec.decode(reader(stringIdBson), DecoderContext.builder().build()));
+    }
+
+    @Benchmark
+    public Post decodeCodec() {
+        return stringIds.decode(reader(stringIdBson), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public Post decodeCodecBinaryId() {
+        return binaryIds.decode(reader(binaryIdBson), DecoderContext.builder().build());
+    }
+
+    private static BsonBinaryReader reader(byte[] bson) {
+        return new BsonBinaryReader(ByteBuffer.wrap(bson));
+    }
+
+    // The Document the repository built per write before PostCodec.
+    static Document toDoc(Post p) {
+        return new Document("_id", p.getId().toString())
+                .append("author", p.getAuthor())
+                .append("content", p.getContent())
+                .append("visibility", p.getVisibility().name())
+                .append("likes", p.getLikes())
+                .append("createdAt", Date.from(p.getCreatedAt()))
+                .append("updatedAt", Date.from(p.getUpdatedAt()))
+                .append("version", p.getVersion());
+    }
+}
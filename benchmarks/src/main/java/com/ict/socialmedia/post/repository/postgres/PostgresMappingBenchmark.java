@@ -0,0 +1,80 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PostgresPostRepository#map} on one row, without the driver or the network. The
+ * row comes from a dynamic-proxy ResultSet; {@code readColumnsOnly} performs the same getter calls
+ * without building a Post, so the difference between the two is the mapping itself.
+ *
+ * <p>Lives in the repository's package (in this module) because map is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostgresMappingBenchmark {
+    @Param({"64", "1024", "16384"})
+    public int payloadSize;
+
+    private ResultSet row;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", UUID.randomUUID());
+        columns.put("author", "bench");
+        columns.put("content", "x".repeat(payloadSize));
+        columns.put("visibility", "PUBLIC");
+        columns.put("likes", 42);
+        columns.put("created_at", Timestamp.from(now));
+        columns.put("updated_at", Timestamp.from(now));
+        columns.put("version", 7L);
+        row = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> columns.get((String) args[0])
+        );
+    }
+
+    @Benchmark
+    public Post map() throws Exception {
+        return PostgresPostRepository.map(row);
+    }
+
+    @Benchmark
+    public void readColumnsOnly(Blackhole bh) throws Exception {
+        bh.consume(row.getObject("id"));
+        bh.consume(row.getString("author"));
+        bh.consume(row.getString("content"));
+        bh.consume(row.getString("visibility"));
+        bh.consume(row.getInt("likes"));
+        bh.consume(row.getTimestamp("created_at"));
+        bh.consume(row.getTimestamp("updated_at"));
+        bh.consume(row.getLong("version"));
+    }
+}
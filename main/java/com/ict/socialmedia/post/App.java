@@ -1,41 +1,133 @@
 package com.ict.socialmedia.post;
 
 import com.ict.socialmedia.post.config.AppConfig;
+import com.ict.socialmedia.post.http.PostHttpServer;
 import com.ict.socialmedia.post.model.Post;
 import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
 import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.QueryPlan;
+import com.ict.socialmedia.post.repository.RepositoryDecorator;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.cache.CacheSettings;
+import com.ict.socialmedia.post.repository.cache.CachingPostRepository;
+import com.ict.socialmedia.post.repository.changefeed.ChangeBatch;
+import com.ict.socialmedia.post.repository.changefeed.ChangeCursor;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeed;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeedSettings;
+import com.ict.socialmedia.post.repository.file.FilePostRepository;
+import com.ict.socialmedia.post.repository.file.FileStoreSettings;
+import com.ict.socialmedia.post.repository.file.FsyncPolicy;
+import com.ict.socialmedia.post.repository.memory.InMemoryPostRepository;
+import com.ict.socialmedia.post.repository.metrics.InstrumentedPostRepository;
+import com.ict.socialmedia.post.repository.metrics.MetricsJmx;
+import com.ict.socialmedia.post.repository.metrics.MetricsReporter;
+import com.ict.socialmedia.post.repository.metrics.RepositoryMetrics;
 import com.ict.socialmedia.post.repository.mongo.MongoBootstrapper;
+import com.ict.socialmedia.post.repository.mongo.MongoChangeFeed;
 import com.ict.socialmedia.post.repository.mongo.MongoPostRepository;
-import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
 import com.ict.socialmedia.post.repository.postgres.PostgresBootstrapper;
+import com.ict.socialmedia.post.repository.postgres.PostgresChangeFeed;
+import com.ict.socialmedia.post.repository.postgres.PostgresConnectionPool;
+import com.ict.socialmedia.post.repository.postgres.PostgresPartitionManager;
+import com.ict.socialmedia.post.repository.postgres.PostgresPartitionSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPoolSettings;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+import com.ict.socialmedia.post.repository.postgres.PostgresReplicaRouter;
+import com.ict.socialmedia.post.repository.postgres.PostgresReplicaSettings;
+import com.ict.socialmedia.post.repository.shard.ShardRebalancer;
+import com.ict.socialmedia.post.repository.shard.ShardedPostRepository;
+import com.ict.socialmedia.post.service.AsyncPostService;
+import com.ict.socialmedia.post.service.HotFeeds;
+import com.ict.socialmedia.post.service.LikeAccumulator;
 import com.ict.socialmedia.post.service.PostService;
+import com.ict.socialmedia.post.transfer.MigrationSettings;
+import com.ict.socialmedia.post.transfer.PostExporter;
+import com.ict.socialmedia.post.transfer.PostFileFormat;
+import com.ict.socialmedia.post.transfer.PostImporter;
+import com.ict.socialmedia.post.transfer.PostMigrator;
 import com.ict.socialmedia.post.util.ConsoleIO;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 public class App {
     public static void main(String[] args) {
         AppConfig cfg = AppConfig.loadFromClasspath("application.properties");
-        PostRepository repo = buildRepository(cfg);
-        PostService service = new PostService(repo);
+        PostRepository repo = withCache(cfg, withMetrics(cfg, buildRepository(cfg)));
+        if (args.length > 0 && args[0].equalsIgnoreCase("serve")) {
+            serve(cfg, repo);
+            return;
+        }
+        if (args.length > 0) {
+            try {
+                runCommandLine(cfg, repo, args);
+            } finally {
+                closeIfNeeded(repo);
+            }
+            return;
+        }
+        LikeAccumulator likeAccumulator = cfg.getBoolean("likes.writeBehind.enabled", false)
+                ? new LikeAccumulator(repo, cfg.getLong("likes.writeBehind.flushIntervalMillis", 200))
+                : null;
+        PostService service = new PostService(repo, likeAccumulator, hotFeeds(cfg));
+        AsyncPostService async = new AsyncPostService(
+                service,
+                asyncConcurrency(cfg),
+                Duration.ofMillis(cfg.getLong("async.timeoutMillis", 0))
+        );
         ConsoleIO io = new ConsoleIO();
+        int pageSize = cfg.getInt("app.list.pageSize", 20);
 
         System.out.println("=== Post Repository App (Java) ===");
         System.out.println("Repository: " + repo.getClass().getSimpleName());
-        System.out.println("Commands: list | get | create | update | delete | help | exit");
+        System.out.println("Commands: list | search | get | getmany | create | update | delete | like | import | export | stats | help | exit");
 
         while (true) {
             String cmd = io.ask("\n> ").trim().toLowerCase();
             try {
                 switch (cmd) {
                     case "list" -> {
-                        List<Post> posts = service.list();
-                        if (posts.isEmpty()) {
+                        String author = io.ask("author [any]: ").trim();
+                        String rawVisibility = io.ask("visibility (PUBLIC/FRIENDS/PRIVATE) [any]: ");
+                        Visibility visibility = Visibility.parseOrDefault(rawVisibility, null);
+                        PostFilter filter = PostFilter.all()
+                                .withAuthor(author)
+                                .withVisibilities(visibility == null ? List.of() : List.of(visibility));
+                        PostPage page = service.list(null, pageSize, filter);
+                        if (page.getItems().isEmpty()) {
                             System.out.println("(empty)");
-                        } else {
-                            posts.forEach(System.out::println);
+                        }
+                        while (true) {
+                            page.getItems().forEach(System.out::println);
+                            if (!page.hasNext() || !io.ask("more? (y/N): ").trim().equalsIgnoreCase("y")) break;
+                            page = service.list(page.getNext(), pageSize, filter);
+                        }
+                    }
+                    case "search" -> {
+                        String q = io.ask("words: ").trim();
+                        SearchPage page = service.search(q, PostFilter.all(), null, pageSize);
+                        if (page.getHits().isEmpty()) {
+                            System.out.println("(no matches)");
+                        }
+                        while (true) {
+                            page.getHits().forEach(h -> System.out.printf("%.4f  %s%n", h.getScore(), h.getPost()));
+                            if (!page.hasNext() || !io.ask("more? (y/N): ").trim().equalsIgnoreCase("y")) break;
+                            page = service.search(q, PostFilter.all(), page.getNext(), pageSize);
                         }
                     }
                     case "get" -> {
@@ -43,6 +135,16 @@ public class App {
                         Optional<Post> p = service.get(id);
                         System.out.println(p.map(Object::toString).orElse("(not found)"));
                     }
+                    case "getmany" -> {
+                        List<UUID> ids = new ArrayList<>();
+                        for (String raw : io.ask("ids (space-separated uuids): ").trim().split("\\s+")) {
+                            if (!raw.isEmpty()) ids.add(UUID.fromString(raw));
+                        }
+                        List<Post> found = async.getAll(ids).join();
+                        for (int i = 0; i < ids.size(); i++) {
+                            System.out.println(found.get(i) == null ? ids.get(i) + " (not found)" : found.get(i));
+                        }
+                    }
                     case "create" -> {
                         String author = io.ask("author: ").trim();
                         String content = io.ask("content: ").trim();
@@ -68,18 +170,46 @@ public class App {
                                 old.getVisibility()
                         );
                         int likes = io.askInt("likes [" + old.getLikes() + "]: ", old.getLikes());
-                        boolean ok = service.update(id, author, content, visibility, likes);
-                        System.out.println(ok ? "Updated." : "Update failed.");
+                        Optional<Post> saved = service.update(id, old.getVersion(), author, content, visibility, likes);
+                        System.out.println(saved.isPresent()
+                                ? "Updated: " + saved.get()
+                                : "Update conflict: the post was changed or deleted since it was read. Try again.");
                     }
                     case "delete" -> {
                         UUID id = UUID.fromString(io.ask("id (uuid): ").trim());
                         boolean ok = service.delete(id);
                         System.out.println(ok ? "Deleted." : "(not found)");
                     }
+                    case "like" -> {
+                        UUID id = UUID.fromString(io.ask("id (uuid): ").trim());
+                        System.out.println(service.like(id) ? "Liked." : "(not found)");
+                    }
+                    case "import" -> {
+                        Path file = Path.of(io.ask("file (.ndjson/.csv): ").trim());
+                        boolean staged = io.ask("skip existing ids (staged load)? (y/N): ").trim().equalsIgnoreCase("y");
+                        PostImporter importer = new PostImporter(repo, cfg.getInt("import.batch.size", 1000));
+                        System.out.println("Imported: " + importer.importFile(file, PostFileFormat.fromFileName(file), staged));
+                    }
+                    case "export" -> {
+                        Path file = Path.of(io.ask("file (.ndjson/.csv): ").trim());
+                        long rows = new PostExporter(repo).exportTo(file, PostFileFormat.fromFileName(file), PostFilter.all());
+                        System.out.println("Exported " + rows + " post(s) to " + file);
+                    }
+                    case "stats" -> {
+                        printStats(repo);
+                        if (service.getLikeAccumulator() != null) {
+                            System.out.println("Likes: " + service.getLikeAccumulator());
+                        }
+                        if (service.getHotFeeds() != null) {
+                            System.out.println("Feeds: " + service.getHotFeeds());
+                        }
+                    }
                     case "help" -> {
-                        System.out.println("Commands: list | get | create | update | delete | help | exit");
+                        System.out.println("Commands: list | search | get | getmany | create | update | delete | like | import | export | stats | help | exit");
                     }
                     case "exit", "quit" -> {
+                        async.close();
+                        service.close();
                         closeIfNeeded(repo);
                         System.out.println("Bye.");
                         return;
@@ -92,6 +222,166 @@ public class App {
         }
     }
 
+    // serve: the /items HTTP API until the process is stopped.
+    private static void serve(AppConfig cfg, PostRepository repo) {
+        LikeAccumulator likeAccumulator = cfg.getBoolean("likes.writeBehind.enabled", false)
+                ? new LikeAccumulator(repo, cfg.getLong("likes.writeBehind.flushIntervalMillis", 200))
+                : null;
+        PostService service = new PostService(repo, likeAccumulator, hotFeeds(cfg));
+        String staticDir = cfg.getOptional("http.staticDir", null);
+        PostHttpServer server;
+        try {
+            server = new PostHttpServer(
+                    service,
+                    new InetSocketAddress(cfg.getOptional("http.host", "0.0.0.0"), cfg.getInt("http.port", 3000)),
+                    staticDir == null ? null : Path.of(staticDir),
+                    cfg.getInt("http.backlog", 0)
+            );
+        } catch (IOException e) {
+            service.close();
+            closeIfNeeded(repo);
+            throw new UncheckedIOException("Failed to start HTTP server", e);
+        }
+        List<PostgresPartitionManager> maintenance = startPartitionMaintenance(cfg);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // First, so no partition is detached or dropped while the server drains.
+            maintenance.forEach(PostgresPartitionManager::stop);
+            server.close();
+            service.close();
+            closeIfNeeded(repo);
+            stopped.countDown();
+        }, "http-shutdown"));
+        server.start();
+        System.out.println("Server running on http://localhost:" + server.getAddress().getPort()
+                + " (" + repo.getClass().getSimpleName() + ")");
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Non-interactive modes:
+    //   import <file> [--format=ndjson|csv] [--staged]
+    //   export <file> [--format=ndjson|csv]
+    //   explain [author]   checks that timeline and feed pages are planned as index ranges
+    //   migrate-ids        rewrites string MongoDB ids as binary UUIDs (needs mongo.ids.binary=true)
+    //   migrate-data [--verify] [--repair]
+    //                      copies posts from migration.source.* to migration.target.* (resumable);
+    //                      --verify only compares the two, --repair also re-copies windows that differ
+    //   rebalance          moves posts to the shard that owns them after shards were added
+    //                      (needs repository.type=sharded; stop writes, set sharding.rebalancing=true)
+    //   changes [--from=<token>]
+    //                      prints the change feed until stopped, with a resume token after each batch
+    private static void runCommandLine(AppConfig cfg, PostRepository repo, String[] args) {
+        List<String> rest = Arrays.asList(args).subList(1, args.length);
+        switch (args[0].toLowerCase()) {
+            case "import" -> {
+                if (rest.isEmpty()) throw new IllegalArgumentException("Usage: import <file> [--format=ndjson|csv] [--staged]");
+                Path file = Path.of(rest.get(0));
+                PostFileFormat format = PostFileFormat.parseOrDefault(option(rest, "--format"), PostFileFormat.fromFileName(file));
+                PostImporter importer = new PostImporter(repo, cfg.getInt("import.batch.size", 1000));
+                System.out.println("Imported: " + importer.importFile(file, format, rest.contains("--staged")));
+            }
+            case "export" -> {
+                if (rest.isEmpty()) throw new IllegalArgumentException("Usage: export <file> [--format=ndjson|csv]");
+                Path file = Path.of(rest.get(0));
+                PostFileFormat format = PostFileFormat.parseOrDefault(option(rest, "--format"), PostFileFormat.fromFileName(file));
+                long rows = new PostExporter(repo).exportTo(file, format, PostFilter.all());
+                System.out.println("Exported " + rows + " post(s) to " + file);
+            }
+            case "explain" -> {
+                if (!explainFeeds(repo, rest.isEmpty() ? "alice" : rest.get(0))) System.exit(1);
+            }
+            case "migrate-ids" -> {
+                MongoPostRepository mongo = RepositoryDecorator.unwrap(repo, MongoPostRepository.class)
+                        .orElseThrow(() -> new IllegalArgumentException("migrate-ids needs repository.type=mongo"));
+                System.out.println("Rewrote " + mongo.migrateIdsToBinary() + " post(s) with binary ids");
+            }
+            case "migrate-data" -> {
+                PostRepository source = buildRepository(cfg.withPrefix("migration.source."));
+                try {
+                    PostRepository target = buildRepository(cfg.withPrefix("migration.target."));
+                    try {
+                        PostMigrator migrator = new PostMigrator(source, target, migrationSettings(cfg));
+                        boolean verify = rest.contains("--verify") || rest.contains("--repair");
+                        if (!verify) System.out.println("Migrated: " + migrator.migrate());
+                        PostMigrator.VerifyReport report = migrator.verify(rest.contains("--repair"));
+                        report.mismatches().forEach(m -> System.out.println("DIFF " + m));
+                        System.out.println("Verified: " + report);
+                        if (!report.matches() && !rest.contains("--repair")) System.exit(1);
+                    } finally {
+                        closeIfNeeded(target);
+                    }
+                } finally {
+                    closeIfNeeded(source);
+                }
+            }
+            case "rebalance" -> {
+                ShardedPostRepository sharded = RepositoryDecorator.unwrap(repo, ShardedPostRepository.class)
+                        .orElseThrow(() -> new IllegalArgumentException("rebalance needs repository.type=sharded"));
+                System.out.println("Rebalanced: " + new ShardRebalancer(sharded, cfg.getInt("sharding.rebalance.batchSize", 500)).run());
+            }
+            case "changes" -> {
+                List<ChangeFeed> feeds = changeFeeds(cfg, repo);
+                if (feeds.size() != 1) throw new IllegalArgumentException("changes needs repository.type=postgres or mongo");
+                try (ChangeCursor cursor = feeds.get(0).open(option(rest, "--from"))) {
+                    while (true) {
+                        ChangeBatch batch = cursor.next();
+                        if (batch.isEmpty()) continue;
+                        batch.getEvents().forEach(System.out::println);
+                        System.out.println("# --from=" + batch.getResumeToken());
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + args[0]);
+        }
+    }
+
+    private static boolean explainFeeds(PostRepository repo, String author) {
+        Optional<PostgresPostRepository> pg = RepositoryDecorator.unwrap(repo, PostgresPostRepository.class);
+        Optional<MongoPostRepository> mongo = RepositoryDecorator.unwrap(repo, MongoPostRepository.class);
+        if (pg.isEmpty() && mongo.isEmpty()) {
+            System.out.println("(no query plans for " + repo.getClass().getSimpleName() + ")");
+            return true;
+        }
+        String authorIndex = pg.isPresent() ? PostgresPostRepository.AUTHOR_TIMELINE_INDEX : MongoPostRepository.AUTHOR_TIMELINE_INDEX;
+        String feedIndex = pg.isPresent() ? PostgresPostRepository.VISIBILITY_FEED_INDEX : MongoPostRepository.VISIBILITY_FEED_INDEX;
+        PostCursor cursor = new PostCursor(Instant.now(), new UUID(Long.MAX_VALUE, Long.MAX_VALUE));
+        PostFilter timeline = PostFilter.all().withAuthor(author);
+        PostFilter shared = timeline.withVisibilities(List.of(Visibility.PUBLIC, Visibility.FRIENDS));
+        int pageSize = 20;
+
+        record Check(String name, PostFilter filter, PostCursor after, String index) {
+        }
+        List<Check> checks = List.of(
+                new Check("author timeline", timeline, null, authorIndex),
+                new Check("author timeline, next page", timeline, cursor, authorIndex),
+                new Check("author timeline, PUBLIC+FRIENDS", shared, cursor, authorIndex),
+                new Check("public feed", PostRepository.PUBLIC_FEED, null, feedIndex),
+                new Check("public feed, next page", PostRepository.PUBLIC_FEED, cursor, feedIndex)
+        );
+        boolean ok = true;
+        for (Check check : checks) {
+            QueryPlan plan = pg.isPresent()
+                    ? pg.get().explainPage(check.after(), pageSize, check.filter())
+                    : mongo.get().explainPage(check.after(), pageSize, check.filter());
+            boolean pass = plan.isIndexRange(check.index());
+            ok &= pass;
+            System.out.println((pass ? "OK   " : "FAIL ") + check.name() + ": expected a range of " + check.index() + ", got " + plan);
+            if (!pass) System.out.println(plan.getRaw());
+        }
+        return ok;
+    }
+
+    private static String option(List<String> args, String name) {
+        for (String a : args) {
+            if (a.startsWith(name + "=")) return a.substring(name.length() + 1);
+        }
+        return null;
+    }
+
     private static PostRepository buildRepository(AppConfig cfg) {
         String type = cfg.getOptional("repository.type", "postgres").toLowerCase();
         return switch (type) {
@@ -103,6 +393,7 @@ public class App {
 
                 boolean bootstrapEnabled = Boolean.parseBoolean(cfg.getOptional("postgres.bootstrap.enabled", "true"));
                 boolean bootstrapSeed = Boolean.parseBoolean(cfg.getOptional("postgres.bootstrap.seed", "false"));
+                PostgresPartitionSettings partitioning = partitionSettings(cfg);
 
                 PostgresBootstrapper.bootstrapIfEnabled(
                         bootstrapEnabled,
@@ -110,17 +401,24 @@ public class App {
                         adminDb,
                         user,
                         password,
-                        bootstrapSeed
+                        bootstrapSeed,
+                        partitioning
                 );
-
-                yield new PostgresPostRepository(url, user, password);
+                PostgresConnectionPool pool = new PostgresConnectionPool(url, user, password, poolSettings(cfg));
+                int batchSize = cfg.getInt("postgres.batch.size", PostgresPostRepository.DEFAULT_BATCH_SIZE);
+                int fetchSize = cfg.getInt("postgres.fetch.size", PostgresPostRepository.DEFAULT_FETCH_SIZE);
+                yield new PostgresPostRepository(pool, batchSize, fetchSize, PostgresPartitionManager.isPartitioned(pool),
+                        replicaRouter(cfg, pool, user, password));
             }
             case "mongo", "mongodb" -> {
                 String cs = cfg.getRequired("mongo.connectionString");
                 String db = cfg.getRequired("mongo.database");
                 String col = cfg.getRequired("mongo.collection");
 
-                MongoPostRepository repo = new MongoPostRepository(cs, db, col);
+                int batchSize = cfg.getInt("mongo.batch.size", MongoPostRepository.DEFAULT_BATCH_SIZE);
+                int fetchSize = cfg.getInt("mongo.fetch.size", MongoPostRepository.DEFAULT_FETCH_SIZE);
+                boolean binaryIds = cfg.getBoolean("mongo.ids.binary", false);
+                MongoPostRepository repo = new MongoPostRepository(cs, db, col, batchSize, fetchSize, binaryIds);
                 boolean mongoBootstrapEnabled = Boolean.parseBoolean(cfg.getOptional("mongo.bootstrap.enabled", "true"));
                 boolean mongoBootstrapSeed = Boolean.parseBoolean(cfg.getOptional("mongo.bootstrap.seed", "true"));
                 MongoBootstrapper.bootstrapIfEnabled(
@@ -128,14 +426,267 @@ public class App {
                         repo.getClient(),
                         db,
                         col,
-                        mongoBootstrapSeed
+                        mongoBootstrapSeed,
+                        binaryIds
                 );
                 yield repo;
             }
+            case "memory" -> {
+                InMemoryPostRepository repo = new InMemoryPostRepository(cfg.getInt(
+                        "memory.concurrency", Runtime.getRuntime().availableProcessors() * 4
+                ));
+                if (cfg.getBoolean("memory.seed", true)) seed(repo);
+                yield repo;
+            }
+            case "file" -> {
+                FileStoreSettings d = FileStoreSettings.defaults(Path.of(cfg.getOptional("file.dir", "data/posts")));
+                FilePostRepository repo = new FilePostRepository(new FileStoreSettings(
+                        d.getDirectory(),
+                        cfg.getInt("file.segmentSizeBytes", d.getSegmentSizeBytes()),
+                        FsyncPolicy.parseOrDefault(cfg.getOptional("file.fsync", null), d.getFsyncPolicy()),
+                        cfg.getLong("file.fsyncIntervalMillis", d.getFsyncIntervalMillis()),
+                        cfg.getLong("file.compaction.intervalMillis", d.getCompactionIntervalMillis()),
+                        cfg.getDouble("file.compaction.minDeadRatio", d.getCompactionMinDeadRatio())
+                ));
+                if (repo.size() == 0 && cfg.getBoolean("file.seed", true)) seed(repo);
+                yield repo;
+            }
+            case "sharded" -> {
+                Map<String, PostRepository> shards = new LinkedHashMap<>();
+                try {
+                    for (Map.Entry<String, AppConfig> shard : shardConfigs(cfg).entrySet()) {
+                        shards.put(shard.getKey(), buildRepository(shard.getValue()));
+                    }
+                    yield new ShardedPostRepository(shards, cfg.getBoolean("sharding.rebalancing", false));
+                } catch (RuntimeException e) {
+                    shards.values().forEach(App::closeIfNeeded);
+                    throw e;
+                }
+            }
             default -> throw new IllegalArgumentException("Unknown repository.type: " + type);
         };
     }
 
+    private static void seed(PostRepository repo) {
+        Instant now = Instant.now();
+        repo.create(new Post(UUID.fromString("11111111-1111-1111-1111-111111111111"), "alice",
+                "Hello, world! This is my first post.", Visibility.PUBLIC, 3, now, now));
+        repo.create(new Post(UUID.fromString("22222222-2222-2222-2222-222222222222"), "bob",
+                "Studying ICT repository pattern today.", Visibility.FRIENDS, 1, now, now));
+        repo.create(new Post(UUID.fromString("33333333-3333-3333-3333-333333333333"), "carol",
+                "Private note: This is is some prviate post.", Visibility.PRIVATE, 0, now, now));
+    }
+
+    // Sits directly on the backend, under the cache, so latencies are backend round trips.
+    private static PostRepository withMetrics(AppConfig cfg, PostRepository repo) {
+        if (!cfg.getBoolean("metrics.enabled", false)) return repo;
+        RepositoryMetrics metrics = new RepositoryMetrics(cfg.getOptional("repository.type", "postgres").toLowerCase());
+        List<AutoCloseable> publishers = new ArrayList<>();
+        if (cfg.getBoolean("metrics.jmx.enabled", true)) publishers.add(new MetricsJmx(metrics));
+        long interval = cfg.getLong("metrics.report.intervalSeconds", 60);
+        if (interval > 0) {
+            String file = cfg.getOptional("metrics.report.file", null);
+            publishers.add(new MetricsReporter(metrics, file == null ? null : Path.of(file), interval * 1000));
+        }
+        return new InstrumentedPostRepository(repo, metrics, publishers.toArray(new AutoCloseable[0]));
+    }
+
+    private static PostRepository withCache(AppConfig cfg, PostRepository repo) {
+        if (!cfg.getBoolean("repository.cache.enabled", false)) return repo;
+        CacheSettings d = CacheSettings.defaults();
+        CacheSettings settings = new CacheSettings(
+                cfg.getLong("repository.cache.maxEntries", d.getMaxEntries()),
+                cfg.getLong("repository.cache.maxWeightBytes", d.getMaxWeightBytes()),
+                cfg.getLong("repository.cache.ttlSeconds", d.getTtlMillis() / 1000) * 1000
+        );
+        CachingPostRepository cache = new CachingPostRepository(repo, settings);
+        if (cfg.getBoolean("repository.cache.followChanges", false)) {
+            changeFeeds(cfg, repo).forEach(cache::follow);
+        }
+        return cache;
+    }
+
+    /** One feed per backend (per shard when sharded); none for the memory and file stores, which live in one process. */
+    private static List<ChangeFeed> changeFeeds(AppConfig cfg, PostRepository repo) {
+        Optional<ShardedPostRepository> sharded = RepositoryDecorator.unwrap(repo, ShardedPostRepository.class);
+        if (sharded.isPresent()) {
+            List<String> names = sharded.get().getRouter().getNames();
+            List<PostRepository> shards = sharded.get().getShards();
+            List<ChangeFeed> feeds = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                feeds.addAll(changeFeeds(cfg.withPrefix("sharding.shard." + names.get(i) + "."), shards.get(i)));
+            }
+            return feeds;
+        }
+        ChangeFeedSettings d = ChangeFeedSettings.defaults();
+        ChangeFeedSettings settings = new ChangeFeedSettings(
+                cfg.getInt("changefeed.maxBatchSize", d.getMaxBatchSize()),
+                cfg.getLong("changefeed.maxWaitMillis", d.getMaxWaitMillis()),
+                cfg.getLong("changefeed.pollIntervalMillis", d.getPollIntervalMillis()),
+                cfg.getLong("changefeed.postgres.retentionHours", d.getRetentionMillis() / 3_600_000) * 3_600_000
+        );
+        if (RepositoryDecorator.unwrap(repo, PostgresPostRepository.class).isPresent()) {
+            return List.of(new PostgresChangeFeed(cfg.getRequired("postgres.url"), cfg.getRequired("postgres.user"),
+                    cfg.getRequired("postgres.password"), settings));
+        }
+        Optional<MongoPostRepository> mongo = RepositoryDecorator.unwrap(repo, MongoPostRepository.class);
+        if (mongo.isPresent()) {
+            return List.of(new MongoChangeFeed(mongo.get().getClient(), cfg.getRequired("mongo.database"),
+                    cfg.getRequired("mongo.collection"), settings));
+        }
+        return List.of();
+    }
+
+    /**
+     * Calls the async service lets through to the backend at once. PostgreSQL defaults to the pool
+     * size, since more would only queue inside the pool; the in-process backends barely block.
+     */
+    private static int asyncConcurrency(AppConfig cfg) {
+        return switch (cfg.getOptional("repository.type", "postgres").toLowerCase()) {
+            case "postgres", "postgresql" -> cfg.getInt("async.maxConcurrency.postgres",
+                    cfg.getInt("postgres.pool.maxSize", PostgresPoolSettings.defaults().getMaxSize()));
+            case "mongo", "mongodb" -> cfg.getInt("async.maxConcurrency.mongo", 100);
+            case "memory" -> cfg.getInt("async.maxConcurrency.memory", 1024);
+            case "sharded" -> cfg.getInt("async.maxConcurrency.sharded", 100);
+            default -> cfg.getInt("async.maxConcurrency.file", 1024);
+        };
+    }
+
+    private static HotFeeds hotFeeds(AppConfig cfg) {
+        if (!cfg.getBoolean("feeds.hot.enabled", false)) return null;
+        return new HotFeeds(cfg.getInt("feeds.hot.capacity", 200));
+    }
+
+    private static PostgresPoolSettings poolSettings(AppConfig cfg) {
+        PostgresPoolSettings d = PostgresPoolSettings.defaults();
+        return new PostgresPoolSettings(
+                cfg.getInt("postgres.pool.minSize", d.getMinSize()),
+                cfg.getInt("postgres.pool.maxSize", d.getMaxSize()),
+                cfg.getLong("postgres.pool.connectionTimeoutMillis", d.getConnectionTimeoutMillis()),
+                cfg.getLong("postgres.pool.idleTimeoutMillis", d.getIdleTimeoutMillis()),
+                cfg.getLong("postgres.pool.evictionIntervalMillis", d.getEvictionIntervalMillis()),
+                cfg.getBoolean("postgres.pool.validateOnBorrow", d.isValidateOnBorrow()),
+                cfg.getInt("postgres.pool.validationTimeoutSeconds", d.getValidationTimeoutSeconds())
+        );
+    }
+
+    private static MigrationSettings migrationSettings(AppConfig cfg) {
+        MigrationSettings d = MigrationSettings.defaults();
+        String checkpoint = cfg.getOptional("migration.checkpoint", d.getCheckpoint().toString());
+        return new MigrationSettings(
+                Duration.parse(cfg.getOptional("migration.window", d.getWindow().toString())),
+                cfg.getInt("migration.workers", d.getWorkers()),
+                cfg.getInt("migration.batchSize", d.getBatchSize()),
+                cfg.getInt("migration.rowsPerSecond", d.getRowsPerSecond()),
+                checkpoint.equalsIgnoreCase("none") ? null : Path.of(checkpoint)
+        );
+    }
+
+    /** Null when no replicas are configured. Replica pools use the primary's credentials and pool settings. */
+    private static PostgresReplicaRouter replicaRouter(AppConfig cfg, PostgresConnectionPool primary, String user, String password) {
+        List<String> urls = Arrays.stream(cfg.getOptional("postgres.replicas", "").split(","))
+                .map(String::trim)
+                .filter(u -> !u.isEmpty())
+                .toList();
+        if (urls.isEmpty()) return null;
+        PostgresReplicaSettings d = PostgresReplicaSettings.defaults();
+        PostgresReplicaSettings settings = new PostgresReplicaSettings(
+                cfg.getLong("postgres.replicas.healthCheckIntervalMillis", d.getHealthCheckIntervalMillis()),
+                cfg.getInt("postgres.replicas.healthCheckTimeoutSeconds", d.getHealthCheckTimeoutSeconds()),
+                cfg.getLong("postgres.replicas.maxLagMillis", d.getMaxLagMillis()),
+                cfg.getLong("postgres.replicas.readYourWritesMillis", d.getReadYourWritesMillis())
+        );
+        // A replica that is down at startup joins once it passes a check, so pools start empty.
+        PostgresPoolSettings p = poolSettings(cfg);
+        PostgresPoolSettings replicaPool = new PostgresPoolSettings(0, p.getMaxSize(), p.getConnectionTimeoutMillis(),
+                p.getIdleTimeoutMillis(), p.getEvictionIntervalMillis(), p.isValidateOnBorrow(), p.getValidationTimeoutSeconds());
+        Map<String, PostgresConnectionPool> pools = new LinkedHashMap<>();
+        for (String replicaUrl : urls) {
+            pools.put(replicaUrl, new PostgresConnectionPool(replicaUrl, user, password, replicaPool));
+        }
+        return new PostgresReplicaRouter(primary, pools, settings);
+    }
+
+    // Each shard reads sharding.shard.<name>.<key> first and inherits the rest.
+    private static Map<String, AppConfig> shardConfigs(AppConfig cfg) {
+        Map<String, AppConfig> out = new LinkedHashMap<>();
+        for (String name : cfg.getRequired("sharding.shards").split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            AppConfig shardCfg = cfg.withPrefix("sharding.shard." + name + ".");
+            if (!shardCfg.isSetHere("repository.type")) {
+                throw new IllegalStateException("Missing required config: sharding.shard." + name + ".repository.type");
+            }
+            if (shardCfg.getRequired("repository.type").equalsIgnoreCase("sharded")) {
+                throw new IllegalStateException("Shard " + name + " cannot itself be sharded");
+            }
+            out.put(name, shardCfg);
+        }
+        return out;
+    }
+
+    /**
+     * Starts partition maintenance for every partitioned PostgreSQL repository in the config, shards
+     * included. Only the server runs it; one-off commands leave it to the running instances.
+     */
+    private static List<PostgresPartitionManager> startPartitionMaintenance(AppConfig cfg) {
+        List<PostgresPartitionManager> out = new ArrayList<>();
+        switch (cfg.getOptional("repository.type", "postgres").toLowerCase()) {
+            case "postgres", "postgresql" -> {
+                PostgresPartitionSettings partitioning = partitionSettings(cfg);
+                if (partitioning != null) {
+                    PostgresPartitionManager manager = new PostgresPartitionManager(cfg.getRequired("postgres.url"),
+                            cfg.getRequired("postgres.user"), cfg.getRequired("postgres.password"), partitioning);
+                    manager.start();
+                    out.add(manager);
+                }
+            }
+            case "sharded" -> shardConfigs(cfg).values().forEach(shardCfg -> out.addAll(startPartitionMaintenance(shardCfg)));
+            default -> {
+            }
+        }
+        return out;
+    }
+
+    private static PostgresPartitionSettings partitionSettings(AppConfig cfg) {
+        if (!cfg.getBoolean("postgres.partitioning.enabled", false)) return null;
+        PostgresPartitionSettings d = PostgresPartitionSettings.defaults();
+        return new PostgresPartitionSettings(
+                PostgresPartitionSettings.Interval.parseOrDefault(cfg.getOptional("postgres.partitioning.interval", null), d.getInterval()),
+                cfg.getInt("postgres.partitioning.premake", d.getPremake()),
+                cfg.getInt("postgres.partitioning.retain", d.getRetain()),
+                cfg.getBoolean("postgres.partitioning.dropDetached", d.isDropDetached()),
+                cfg.getLong("postgres.partitioning.maintenanceIntervalMillis", d.getMaintenanceIntervalMillis())
+        );
+    }
+
+    private static void printStats(PostRepository repo) {
+        boolean printed = false;
+        Optional<CachingPostRepository> cache = RepositoryDecorator.unwrap(repo, CachingPostRepository.class);
+        if (cache.isPresent()) {
+            System.out.println("Cache: " + cache.get().stats());
+            cache.get().getSubscribers().forEach(s -> System.out.println("Change feed: " + s));
+            printed = true;
+        }
+        Optional<InstrumentedPostRepository> instrumented = RepositoryDecorator.unwrap(repo, InstrumentedPostRepository.class);
+        if (instrumented.isPresent()) {
+            System.out.println("Metrics: " + instrumented.get().getMetrics());
+            printed = true;
+        }
+        Optional<PostgresPostRepository> pg = RepositoryDecorator.unwrap(repo, PostgresPostRepository.class);
+        if (pg.isPresent() && pg.get().getDataSource() instanceof PostgresConnectionPool pool) {
+            System.out.println("Pool: " + pool.stats());
+            printed = true;
+        }
+        if (pg.isPresent() && pg.get().getReplicas().isPresent()) {
+            PostgresReplicaRouter router = pg.get().getReplicas().get();
+            System.out.println("Replicas: " + router.status() + ", primary reads=" + router.getPrimaryReads());
+        }
+        if (!printed) {
+            System.out.println("(no stats for " + repo.getClass().getSimpleName() + ")");
+        }
+    }
+
     private static void closeIfNeeded(PostRepository repo) {
         if (repo instanceof AutoCloseable closable) {
             try {
@@ -7,9 +7,28 @@ import java.util.Properties;
 
 public class AppConfig {
     private final Properties props;
+    private final String prefix;
+    private final AppConfig parent;
 
     public AppConfig(Properties props) {
         this.props = Objects.requireNonNull(props, "props");
+        this.prefix = "";
+        this.parent = null;
+    }
+
+    private AppConfig(AppConfig parent, String prefix) {
+        this.props = parent.props;
+        this.prefix = parent.prefix + prefix;
+        this.parent = parent;
+    }
+
+    /**
+     * A view where {@code key} reads {@code prefix + key} first and falls back to this config, so
+     * one part of the app (a shard, say) can override any setting and inherit the rest. The
+     * environment is consulted the same way ({@code SHARDING_SHARD_A_POSTGRES_URL}).
+     */
+    public AppConfig withPrefix(String prefix) {
+        return new AppConfig(this, Objects.requireNonNull(prefix, "prefix"));
     }
 
     public static AppConfig loadFromClasspath(String resourceName) {
@@ -26,18 +45,69 @@ public class AppConfig {
     }
 
     public String getRequired(String key) {
-        String v = System.getenv(envKey(key));
-        if (v == null || v.isBlank()) v = props.getProperty(key);
-        if (v == null || v.isBlank()) {
-            throw new IllegalStateException("Missing required config: " + key);
+        String v = lookup(key);
+        if (v == null) {
+            throw new IllegalStateException("Missing required config: " + prefix + key);
         }
-        return v.trim();
+        return v;
     }
 
     public String getOptional(String key, String fallback) {
-        String v = System.getenv(envKey(key));
-        if (v == null || v.isBlank()) v = props.getProperty(key);
-        if (v == null || v.isBlank()) return fallback;
+        String v = lookup(key);
+        return v == null ? fallback : v;
+    }
+
+    /** Whether {@code key} is set in this view itself, not only inherited from the config it was derived from. */
+    public boolean isSetHere(String key) {
+        return raw(prefix + key) != null;
+    }
+
+    public int getInt(String key, int fallback) {
+        String v = getOptional(key, null);
+        if (v == null) return fallback;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Config " + key + " must be an integer: " + v);
+        }
+    }
+
+    public long getLong(String key, long fallback) {
+        String v = getOptional(key, null);
+        if (v == null) return fallback;
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Config " + key + " must be a number: " + v);
+        }
+    }
+
+    public double getDouble(String key, double fallback) {
+        String v = getOptional(key, null);
+        if (v == null) return fallback;
+        try {
+            return Double.parseDouble(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Config " + key + " must be a number: " + v);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean fallback) {
+        String v = getOptional(key, null);
+        if (v == null) return fallback;
+        return Boolean.parseBoolean(v);
+    }
+
+    private String lookup(String key) {
+        String v = raw(prefix + key);
+        if (v == null && parent != null) return parent.lookup(key);
+        return v;
+    }
+
+    private String raw(String fullKey) {
+        String v = System.getenv(envKey(fullKey));
+        if (v == null || v.isBlank()) v = props.getProperty(fullKey);
+        if (v == null || v.isBlank()) return null;
         return v.trim();
     }
 
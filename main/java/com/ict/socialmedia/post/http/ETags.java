@@ -0,0 +1,71 @@
+package com.ict.socialmedia.post.http;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.util.List;
+
+/**
+ * Validators for {@code /items} responses. Every write sets {@code updatedAt}, so a post's
+ * {@code updatedAt} is enough to tell two representations apart; a list folds in each row's id and
+ * {@code updatedAt} so an insert, delete or edit anywhere in it changes the tag.
+ */
+final class ETags {
+    private ETags() {
+    }
+
+    static String forPost(Post p) {
+        return "\"" + Long.toHexString(p.getUpdatedAt().getEpochSecond()) + "." + Integer.toHexString(p.getUpdatedAt().getNano()) + "\"";
+    }
+
+    /** Weak: the same list may be sent gzipped or not. */
+    static String forList(List<Post> items, String nextCursor) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (Post p : items) {
+            h = mix(h ^ p.getId().getMostSignificantBits());
+            h = mix(h ^ p.getId().getLeastSignificantBits());
+            h = mix(h ^ p.getUpdatedAt().getEpochSecond());
+            h = mix(h ^ p.getUpdatedAt().getNano());
+        }
+        if (nextCursor != null) h = mix(h ^ nextCursor.hashCode());
+        return "W/\"" + Integer.toHexString(items.size()) + "-" + Long.toHexString(h) + "\"";
+    }
+
+    // SplitMix64 finalizer.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value names {@code etag}. Uses the weak comparison
+     * (the W/ prefix is ignored), which is what a 304 needs.
+     */
+    static boolean matches(String header, String etag) {
+        if (header == null) return false;
+        String want = opaque(etag);
+        for (String candidate : header.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(want)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code If-Match} header value names {@code etag} under the strong comparison
+     * (RFC 9110 13.1.1): a weak tag on either side never matches, so a write is never made
+     * against a representation that was only equivalent.
+     */
+    static boolean matchesStrong(String header, String etag) {
+        if (header == null || etag.startsWith("W/")) return false;
+        for (String candidate : header.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
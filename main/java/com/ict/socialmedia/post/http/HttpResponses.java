@@ -0,0 +1,147 @@
+package com.ict.socialmedia.post.http;
+
+import com.ict.socialmedia.post.transfer.PostJson;
+import com.ict.socialmedia.post.transfer.PostJsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response helpers. Every body is written with an exact {@code Content-Length} so the connection
+ * stays reusable (keep-alive) instead of falling back to chunked encoding or close-delimited.
+ */
+final class HttpResponses {
+    /** Below this, gzip costs more CPU than it saves on the wire. */
+    static final int GZIP_MIN_BYTES = 1024;
+
+    private HttpResponses() {
+    }
+
+    static void json(HttpExchange ex, int status, CharSequence json, String etag, boolean compressible) throws IOException {
+        json(ex, status, json.toString().getBytes(StandardCharsets.UTF_8), etag, compressible);
+    }
+
+    /** Sends the writer's bytes straight to the socket (no intermediate copy unless gzipped). */
+    static void json(HttpExchange ex, int status, PostJsonWriter json, String etag, boolean compressible) throws IOException {
+        if (jsonHeaders(ex, etag, compressible, json.size())) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(json.size() / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(buf, 8192)) {
+                json.drainTo(gz);
+            }
+            send(ex, status, buf.toByteArray());
+            return;
+        }
+        if (ex.getRequestMethod().equals("HEAD")) {
+            ex.getResponseHeaders().set("Content-Length", Integer.toString(json.size()));
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+        ex.sendResponseHeaders(status, json.size() == 0 ? -1 : json.size());
+        try (OutputStream out = ex.getResponseBody()) {
+            json.drainTo(out);
+        }
+    }
+
+    static void json(HttpExchange ex, int status, byte[] body, String etag, boolean compressible) throws IOException {
+        send(ex, status, jsonHeaders(ex, etag, compressible, body.length) ? gzip(body) : body);
+    }
+
+    /** Sets the JSON response headers; true if the body should be gzipped. */
+    private static boolean jsonHeaders(HttpExchange ex, String etag, boolean compressible, int length) {
+        var headers = ex.getResponseHeaders();
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        if (etag != null) headers.set("ETag", etag);
+        if (!compressible) return false;
+        headers.add("Vary", "Accept-Encoding");
+        if (length < GZIP_MIN_BYTES || !acceptsGzip(ex)) return false;
+        headers.set("Content-Encoding", "gzip");
+        return true;
+    }
+
+    static void error(HttpExchange ex, int status, String message) throws IOException {
+        StringBuilder sb = new StringBuilder(32 + message.length());
+        sb.append("{\"error\":");
+        PostJson.quote(message, sb);
+        sb.append('}');
+        json(ex, status, sb, null, false);
+    }
+
+    static void methodNotAllowed(HttpExchange ex, String allow) throws IOException {
+        ex.getResponseHeaders().set("Allow", allow);
+        error(ex, 405, "Method not allowed");
+    }
+
+    static void notModified(HttpExchange ex, String etag) throws IOException {
+        ex.getResponseHeaders().set("ETag", etag);
+        ex.sendResponseHeaders(304, -1);
+    }
+
+    static void empty(HttpExchange ex, int status) throws IOException {
+        ex.sendResponseHeaders(status, -1);
+    }
+
+    static void send(HttpExchange ex, int status, byte[] body) throws IOException {
+        if (ex.getRequestMethod().equals("HEAD")) {
+            ex.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+        ex.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static boolean acceptsGzip(HttpExchange ex) {
+        for (String v : ex.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())) {
+            for (String coding : v.split(",")) {
+                String[] parts = coding.split(";");
+                if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+                double q = 1.0;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            q = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            q = 0;
+                        }
+                    }
+                }
+                return q > 0;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(buf, 8192)) {
+            gz.write(body);
+        }
+        return buf.toByteArray();
+    }
+
+    static Map<String, String> query(URI uri) {
+        Map<String, String> out = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.putIfAbsent(key, value);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,325 @@
+package com.ict.socialmedia.post.http;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.CallerContext;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchHit;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.service.PostService;
+import com.ict.socialmedia.post.transfer.PostJson;
+import com.ict.socialmedia.post.transfer.PostJsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The {@code /items} contract of the old Express server:
+ *
+ * <pre>
+ *   GET    /items       all posts, newest first (or one keyset page with ?limit=&amp;cursor=)
+ *   GET    /items?q=    full-text search, best match first, paged with ?limit= (default 20)&amp;cursor=
+ *   GET    /items/{id}  one post, 404 if missing
+ *   POST   /items       create; 201 with the new post
+ *   PUT    /items/{id}  partial update, missing fields keep their value
+ *   DELETE /items/{id}  204, or 404 if missing
+ * </pre>
+ *
+ * Errors are {@code {"error": "..."}} with the same status codes and messages as before.
+ * Responses carry an ETag derived from {@code updatedAt}; a matching {@code If-None-Match} gets a
+ * bodyless 304, and {@code If-Match} on PUT/DELETE turns the write into a compare-and-set on the
+ * version the tag was checked against. HEAD answers like GET without the body.
+ */
+final class ItemsHandler implements HttpHandler {
+    private static final Logger log = LoggerFactory.getLogger(ItemsHandler.class);
+    private static final String PREFIX = "/items";
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final PostService service;
+
+    ItemsHandler(PostService service) {
+        this.service = service;
+    }
+
+    @Override
+    @SuppressWarnings("try") // the binding is only held for the scope
+    public void handle(HttpExchange ex) throws IOException {
+        try (CallerContext.Binding ignored = CallerContext.bind(caller(ex))) {
+            dispatch(ex);
+        }
+    }
+
+    /**
+     * The client's {@code X-Client-Id}, else its address: reads made right after its own writes
+     * then see them, even when reads are otherwise served by a replica.
+     */
+    private static String caller(HttpExchange ex) {
+        String id = ex.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        if (id != null && !id.isBlank()) return "client-" + id.trim();
+        return "addr-" + ex.getRemoteAddress().getAddress().getHostAddress();
+    }
+
+    private void dispatch(HttpExchange ex) throws IOException {
+        try {
+            String path = ex.getRequestURI().getPath();
+            String rest = path.length() > PREFIX.length() ? path.substring(PREFIX.length()) : "";
+            if (rest.equals("/")) rest = "";
+            if (!rest.isEmpty() && (rest.charAt(0) != '/' || rest.indexOf('/', 1) >= 0)) {
+                HttpResponses.error(ex, 404, "Not found");
+                return;
+            }
+            String method = ex.getRequestMethod();
+            if (rest.isEmpty()) {
+                switch (method) {
+                    case "GET", "HEAD" -> list(ex);
+                    case "POST" -> create(ex);
+                    default -> HttpResponses.methodNotAllowed(ex, "GET, HEAD, POST");
+                }
+                return;
+            }
+            UUID id;
+            try {
+                id = UUID.fromString(rest.substring(1));
+            } catch (IllegalArgumentException e) {
+                HttpResponses.error(ex, 404, "Not found");
+                return;
+            }
+            switch (method) {
+                case "GET", "HEAD" -> get(ex, id);
+                case "PUT" -> update(ex, id);
+                case "DELETE" -> delete(ex, id);
+                default -> HttpResponses.methodNotAllowed(ex, "GET, HEAD, PUT, DELETE");
+            }
+        } catch (BadRequest e) {
+            HttpResponses.error(ex, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("{} {} failed", ex.getRequestMethod(), ex.getRequestURI(), e);
+            HttpResponses.error(ex, 500, "Internal server error");
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void list(HttpExchange ex) throws IOException {
+        Map<String, String> query = HttpResponses.query(ex.getRequestURI());
+        PostFilter filter = PostFilter.all().withAuthor(query.get("author"));
+        String rawVisibility = query.get("visibility");
+        if (rawVisibility != null && !rawVisibility.isBlank()) {
+            Visibility v = Visibility.parseOrDefault(rawVisibility, null);
+            if (v == null) throw new BadRequest("visibility must be PUBLIC, FRIENDS or PRIVATE");
+            filter = filter.withVisibilities(List.of(v));
+        }
+        List<Post> items;
+        String next = null;
+        String q = query.get("q");
+        if (q != null) {
+            int limit = query.containsKey("limit") ? parseLimit(query.get("limit")) : DEFAULT_SEARCH_LIMIT;
+            SearchCursor after;
+            try {
+                after = query.get("cursor") == null ? null : SearchCursor.decode(query.get("cursor"));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequest("invalid cursor");
+            }
+            SearchPage page = service.search(q, filter, after, limit);
+            items = page.getHits().stream().map(SearchHit::getPost).toList();
+            if (page.hasNext()) next = page.getNext().encode();
+        } else if (query.containsKey("limit")) {
+            int limit = parseLimit(query.get("limit"));
+            PostCursor after;
+            try {
+                after = query.get("cursor") == null ? null : PostCursor.decode(query.get("cursor"));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequest("invalid cursor");
+            }
+            PostPage page = service.list(after, limit, filter);
+            items = page.getItems();
+            if (page.hasNext()) next = page.getNext().encode();
+        } else {
+            items = service.listAll(filter);
+        }
+        String etag = ETags.forList(items, next);
+        if (next != null) ex.getResponseHeaders().set("X-Next-Cursor", next);
+        if (ETags.matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            HttpResponses.notModified(ex, etag);
+            return;
+        }
+        PostJsonWriter json = new PostJsonWriter(64 + items.size() * 256).beginArray();
+        for (Post p : items) {
+            json.element(p);
+        }
+        HttpResponses.json(ex, 200, json.endArray(), etag, true);
+    }
+
+    private void get(HttpExchange ex, UUID id) throws IOException {
+        Optional<Post> p = service.get(id);
+        if (p.isEmpty()) {
+            HttpResponses.error(ex, 404, "Not found");
+            return;
+        }
+        String etag = ETags.forPost(p.get());
+        if (ETags.matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            HttpResponses.notModified(ex, etag);
+            return;
+        }
+        HttpResponses.json(ex, 200, json(p.get()), etag, false);
+    }
+
+    private void create(HttpExchange ex) throws IOException {
+        Map<String, Object> body = body(ex);
+        String author = trimmed(body.get("author"), "");
+        String content = trimmed(body.get("content"), "");
+        Visibility visibility = Visibility.parseOrDefault(str(body.get("visibility")), Visibility.PUBLIC);
+        int likes = likes(body.get("likes"), 0);
+        validate(author, content, likes);
+        Post p = service.create(author, content, visibility, likes);
+        ex.getResponseHeaders().set("Location", PREFIX + "/" + p.getId());
+        HttpResponses.json(ex, 201, json(p), ETags.forPost(p), false);
+    }
+
+    private void update(HttpExchange ex, UUID id) throws IOException {
+        Map<String, Object> body = body(ex);
+        String ifMatch = ex.getRequestHeaders().getFirst("If-Match");
+        Optional<Post> saved;
+        if (ifMatch == null) {
+            // Last writer wins, as before, but each field falls back to the copy being replaced, so
+            // a concurrent writer's change to a field this request did not send is kept.
+            saved = service.updateWithRetry(id, old -> merge(body, old), PostService.DEFAULT_UPDATE_ATTEMPTS);
+        } else {
+            Optional<Post> current = service.get(id);
+            if (current.isEmpty()) {
+                HttpResponses.error(ex, 404, "Not found");
+                return;
+            }
+            Post old = current.get();
+            if (!ETags.matchesStrong(ifMatch, ETags.forPost(old))) {
+                HttpResponses.error(ex, 412, "Precondition failed");
+                return;
+            }
+            Post p = merge(body, old);
+            saved = service.update(id, old.getVersion(), p.getAuthor(), p.getContent(), p.getVisibility(), p.getLikes());
+            if (saved.isEmpty() && service.get(id).isPresent()) {
+                HttpResponses.error(ex, 412, "Precondition failed");
+                return;
+            }
+        }
+        if (saved.isEmpty()) {
+            HttpResponses.error(ex, 404, "Not found");
+            return;
+        }
+        HttpResponses.json(ex, 200, json(saved.get()), ETags.forPost(saved.get()), false);
+    }
+
+    private static Post merge(Map<String, Object> body, Post old) {
+        String author = trimmed(body.get("author"), old.getAuthor());
+        String content = trimmed(body.get("content"), old.getContent());
+        Visibility visibility = Visibility.parseOrDefault(str(body.get("visibility")), old.getVisibility());
+        int likes = likes(body.get("likes"), old.getLikes());
+        validate(author, content, likes);
+        return old.withUpdatedFields(author, content, visibility, likes, Instant.now());
+    }
+
+    private void delete(HttpExchange ex, UUID id) throws IOException {
+        String ifMatch = ex.getRequestHeaders().getFirst("If-Match");
+        boolean removed;
+        if (ifMatch == null) {
+            removed = service.delete(id);
+        } else {
+            Optional<Post> current = service.get(id);
+            if (current.isEmpty()) {
+                HttpResponses.error(ex, 404, "Not found");
+                return;
+            }
+            if (!ETags.matchesStrong(ifMatch, ETags.forPost(current.get()))) {
+                HttpResponses.error(ex, 412, "Precondition failed");
+                return;
+            }
+            // Deletes the version the tag was checked against, or nothing if a write got in between.
+            removed = service.delete(id, current.get().getVersion());
+            if (!removed && service.get(id).isPresent()) {
+                HttpResponses.error(ex, 412, "Precondition failed");
+                return;
+            }
+        }
+        if (!removed) {
+            HttpResponses.error(ex, 404, "Not found");
+            return;
+        }
+        HttpResponses.empty(ex, 204);
+    }
+
+    private static PostJsonWriter json(Post p) {
+        return new PostJsonWriter(256 + p.getContent().length() * 3).write(p);
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        String raw = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (raw.isBlank()) return Map.of();
+        try {
+            return PostJson.parseFields(raw);
+        } catch (RuntimeException e) {
+            throw new BadRequest("invalid JSON body");
+        }
+    }
+
+    private static void validate(String author, String content, int likes) {
+        if (author.isEmpty()) throw new BadRequest("author is required");
+        if (content.isEmpty()) throw new BadRequest("content is required");
+        if (likes < 0) throw new BadRequest("likes must be an integer >= 0");
+    }
+
+    private static String str(Object v) {
+        return v == null ? null : v.toString();
+    }
+
+    private static String trimmed(Object v, String fallback) {
+        return v == null ? fallback : v.toString().trim();
+    }
+
+    private static int likes(Object v, int fallback) {
+        if (v == null) return fallback;
+        if (v instanceof Long n && n >= Integer.MIN_VALUE && n <= Integer.MAX_VALUE) return n.intValue();
+        if (v instanceof String s) {
+            if (s.isBlank()) return fallback;
+            return parseInt(s.trim(), "likes");
+        }
+        throw new BadRequest("likes must be an integer >= 0");
+    }
+
+    private static int parseLimit(String raw) {
+        int limit = parseInt(raw, "limit");
+        if (limit < 1 || limit > PostRepository.MAX_PAGE_SIZE) {
+            throw new BadRequest("limit must be between 1 and " + PostRepository.MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static int parseInt(String raw, String name) {
+        try {
+            return Integer.parseInt(raw);
+        } catch (NumberFormatException e) {
+            throw new BadRequest(name.equals("likes") ? "likes must be an integer >= 0" : name + " must be an integer");
+        }
+    }
+
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private BadRequest(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
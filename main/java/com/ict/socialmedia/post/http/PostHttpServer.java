@@ -0,0 +1,62 @@
+package com.ict.socialmedia.post.http;
+
+import com.ict.socialmedia.post.service.PostService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@code /items} JSON API (and optionally the static front end) on the JDK's built-in HTTP
+ * server, in the same process as the repositories. Each exchange runs on its own virtual thread,
+ * so a request blocked on JDBC or Mongo costs a parked continuation rather than a platform thread;
+ * the PostgreSQL pool still bounds how many reach the database.
+ *
+ * <p>Connections are persistent (HTTP/1.1 keep-alive) as long as every response has a known
+ * length, which {@link HttpResponses} guarantees.
+ */
+public class PostHttpServer implements AutoCloseable {
+    static {
+        // Small JSON responses on a kept-alive connection otherwise sit out Nagle + delayed ACK
+        // (~40 ms each). The server reads this once, when its config class loads.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param staticDir directory served at {@code /}, or null to serve the API only
+     * @param backlog   pending-connection queue length; 0 for the system default
+     */
+    public PostHttpServer(PostService service, InetSocketAddress address, Path staticDir, int backlog) throws IOException {
+        this.server = HttpServer.create(address, backlog);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/items", new ItemsHandler(service));
+        if (staticDir != null && Files.isDirectory(staticDir)) {
+            server.createContext("/", new StaticFileHandler(staticDir));
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /** Stops accepting connections, gives in-flight exchanges up to a second, then stops. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+}
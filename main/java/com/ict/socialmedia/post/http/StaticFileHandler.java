@@ -0,0 +1,61 @@
+package com.ict.socialmedia.post.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
+
+/** Serves the jQuery front end (index.html, app.js, styles.css) from a directory. */
+final class StaticFileHandler implements HttpHandler {
+    private static final Map<String, String> TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "js", "text/javascript; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "json", "application/json; charset=utf-8",
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "ico", "image/x-icon"
+    );
+
+    private final Path root;
+
+    StaticFileHandler(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                HttpResponses.methodNotAllowed(ex, "GET, HEAD");
+                return;
+            }
+            String path = ex.getRequestURI().getPath();
+            if (path.endsWith("/")) path += "index.html";
+            Path file = root.resolve(path.substring(1)).normalize();
+            if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+                HttpResponses.error(ex, 404, "Not found");
+                return;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            String etag = "\"" + Long.toHexString(attrs.lastModifiedTime().toMillis()) + "-" + Long.toHexString(attrs.size()) + "\"";
+            ex.getResponseHeaders().set("ETag", etag);
+            if (ETags.matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                HttpResponses.notModified(ex, etag);
+                return;
+            }
+            String name = file.getFileName().toString();
+            String ext = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            ex.getResponseHeaders().set("Content-Type", TYPES.getOrDefault(ext, "application/octet-stream"));
+            HttpResponses.send(ex, 200, Files.readAllBytes(file));
+        } finally {
+            ex.close();
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class Post {
     private final int likes;
     private final Instant createdAt;
     private final Instant updatedAt;
+    private final long version;
 
     public Post(
             UUID id,
@@ -21,6 +22,19 @@ public class Post {
             int likes,
             Instant createdAt,
             Instant updatedAt
+    ) {
+        this(id, author, content, visibility, likes, createdAt, updatedAt, 0);
+    }
+
+    public Post(
+            UUID id,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant createdAt,
+            Instant updatedAt,
+            long version
     ) {
         this.id = Objects.requireNonNull(id, "id");
         this.author = Objects.requireNonNull(author, "author");
@@ -30,6 +44,8 @@ public class Post {
         this.likes = likes;
         this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
         this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+        if (version < 0) throw new IllegalArgumentException("version must be >= 0");
+        this.version = version;
     }
 
     public UUID getId() {
@@ -60,8 +76,17 @@ public class Post {
         return updatedAt;
     }
 
+    /** Optimistic-locking version; bumped by the repository on every successful write. */
+    public long getVersion() {
+        return version;
+    }
+
     public Post withUpdatedFields(String author, String content, Visibility visibility, int likes, Instant updatedAt) {
-        return new Post(this.id, author, content, visibility, likes, this.createdAt, updatedAt);
+        return new Post(this.id, author, content, visibility, likes, this.createdAt, updatedAt, this.version);
+    }
+
+    public Post withVersion(long version) {
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version);
     }
 
     @Override
@@ -73,6 +98,7 @@ public class Post {
                 ", likes=" + likes +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 ", content='" + (content.length() > 60 ? content.substring(0, 60) + "..." : content) + '\'' +
                 '}';
     }
@@ -0,0 +1,97 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+public final class BatchResult {
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        /** A create whose id was already stored; the stored post is left as it was. */
+        DUPLICATE,
+        FAILED
+    }
+
+    public static final class Item {
+        private final UUID id;
+        private final Status status;
+        private final String error;
+
+        public Item(UUID id, Status status, String error) {
+            this.id = Objects.requireNonNull(id, "id");
+            this.status = Objects.requireNonNull(status, "status");
+            this.error = error;
+        }
+
+        public static Item applied(UUID id) {
+            return new Item(id, Status.APPLIED, null);
+        }
+
+        public static Item notFound(UUID id) {
+            return new Item(id, Status.NOT_FOUND, null);
+        }
+
+        public static Item duplicate(UUID id) {
+            return new Item(id, Status.DUPLICATE, null);
+        }
+
+        public static Item failed(UUID id, String error) {
+            return new Item(id, Status.FAILED, error);
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /** Failure reason for {@link Status#FAILED} items, otherwise null. */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + status + (error == null ? "" : "(" + error + ")");
+        }
+    }
+
+    private final List<Item> items;
+
+    public BatchResult(List<Item> items) {
+        this.items = List.copyOf(items);
+    }
+
+    public static BatchResult of(Item[] items) {
+        return new BatchResult(Arrays.asList(items));
+    }
+
+    /** One entry per input element, in input order. */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public int count(Status status) {
+        int n = 0;
+        for (Item i : items) {
+            if (i.status == status) n++;
+        }
+        return n;
+    }
+
+    public boolean allApplied() {
+        return count(Status.APPLIED) == items.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{applied=" + count(Status.APPLIED) +
+                ", notFound=" + count(Status.NOT_FOUND) +
+                ", duplicate=" + count(Status.DUPLICATE) +
+                ", failed=" + count(Status.FAILED) + '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.ict.socialmedia.post.repository;
+
+/**
+ * Who the repository calls on the current thread are made for: an HTTP client, a console
+ * session. Backends that serve reads from copies which may lag (PostgreSQL replicas) use it to
+ * send a caller's reads to the primary for a while after that caller wrote, so it sees its own
+ * writes. Without a bound caller, the thread is the caller.
+ */
+public final class CallerContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CallerContext() {
+    }
+
+    /** The caller bound on this thread, or null. */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /** The bound caller, else one identifying the current thread. */
+    public static String currentOrThread() {
+        String id = CURRENT.get();
+        return id != null ? id : "thread-" + Thread.currentThread().threadId();
+    }
+
+    /**
+     * Binds {@code callerId} to this thread until the returned binding is closed, which restores
+     * the previous one. A null id leaves the current binding as it is.
+     */
+    public static Binding bind(String callerId) {
+        String previous = CURRENT.get();
+        if (callerId != null) CURRENT.set(callerId);
+        return new Binding(previous);
+    }
+
+    public static final class Binding implements AutoCloseable {
+        private final String previous;
+
+        private Binding(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.UUID;
+
+/** Thrown by {@link PostRepository#create} when a post with the same id is already stored. */
+public class DuplicatePostException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+
+    public DuplicatePostException(UUID id) {
+        this(id, null);
+    }
+
+    public DuplicatePostException(UUID id, Throwable cause) {
+        super("duplicate id " + id, cause);
+        this.id = id;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
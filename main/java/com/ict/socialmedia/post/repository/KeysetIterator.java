@@ -0,0 +1,41 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Walks a repository page by page through findPage; only one page is held at a time.
+final class KeysetIterator implements Iterator<Post> {
+    private final PostRepository repo;
+    private final PostFilter filter;
+    private final int pageSize;
+    private PostPage page;
+    private int index;
+
+    KeysetIterator(PostRepository repo, PostFilter filter, int pageSize) {
+        this.repo = repo;
+        this.filter = filter;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page == null) {
+            page = repo.findPage(null, pageSize, filter);
+            index = 0;
+        }
+        while (index >= page.getItems().size()) {
+            if (!page.hasNext()) return false;
+            page = repo.findPage(page.getNext(), pageSize, filter);
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public Post next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.getItems().get(index++);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in the listing order {@code createdAt DESC, id DESC}. Cursors compare in that order,
+ * newest first, so they double as index keys for backends that sort in memory.
+ */
+public final class PostCursor implements Comparable<PostCursor> {
+    private final Instant createdAt;
+    private final UUID id;
+
+    public PostCursor(Instant createdAt, UUID id) {
+        this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    public static PostCursor of(Post post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PostCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new PostCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Ids compare as unsigned 128-bit values, which is how PostgreSQL orders uuid and how Mongo
+     * orders the lowercase string form, so every backend pages in the same order.
+     * ({@link UUID#compareTo} is signed.)
+     */
+    @Override
+    public int compareTo(PostCursor o) {
+        int c = o.createdAt.compareTo(createdAt);
+        if (c != 0) return c;
+        c = Long.compareUnsigned(o.id.getMostSignificantBits(), id.getMostSignificantBits());
+        if (c != 0) return c;
+        return Long.compareUnsigned(o.id.getLeastSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PostCursor that)) return false;
+        return createdAt.equals(that.createdAt) && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,62 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public final class PostFilter {
+    private static final PostFilter ALL = new PostFilter(null, EnumSet.noneOf(Visibility.class));
+
+    private final String author;
+    private final Set<Visibility> visibilities;
+
+    private PostFilter(String author, EnumSet<Visibility> visibilities) {
+        this.author = author;
+        this.visibilities = Collections.unmodifiableSet(visibilities);
+    }
+
+    public static PostFilter all() {
+        return ALL;
+    }
+
+    public PostFilter withAuthor(String author) {
+        String a = author == null || author.isBlank() ? null : author.trim();
+        return new PostFilter(a, copy(visibilities));
+    }
+
+    public PostFilter withVisibilities(Collection<Visibility> visibilities) {
+        return new PostFilter(author, copy(visibilities));
+    }
+
+    /** Null when any author matches. */
+    public String getAuthor() {
+        return author;
+    }
+
+    /** Empty when any visibility matches. */
+    public Set<Visibility> getVisibilities() {
+        return visibilities;
+    }
+
+    public boolean matches(Post post) {
+        if (author != null && !author.equals(post.getAuthor())) return false;
+        return visibilities.isEmpty() || visibilities.contains(post.getVisibility());
+    }
+
+    public boolean isUnfiltered() {
+        return author == null && visibilities.isEmpty();
+    }
+
+    private static EnumSet<Visibility> copy(Collection<Visibility> v) {
+        return v == null || v.isEmpty() ? EnumSet.noneOf(Visibility.class) : EnumSet.copyOf(v);
+    }
+
+    @Override
+    public String toString() {
+        return "PostFilter{author=" + author + ", visibilities=" + visibilities + '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class PostPage {
+    private final List<Post> items;
+    private final PostCursor next;
+
+    public PostPage(List<Post> items, PostCursor next) {
+        this.items = List.copyOf(Objects.requireNonNull(items, "items"));
+        this.next = next;
+    }
+
+    public static PostPage empty() {
+        return new PostPage(List.of(), null);
+    }
+
+    /**
+     * Builds a page from up to {@code limit + 1} rows fetched in order: the extra row only
+     * signals that another page exists.
+     */
+    public static PostPage fromOverfetch(List<Post> rows, int limit) {
+        if (rows.size() <= limit) return new PostPage(rows, null);
+        List<Post> items = rows.subList(0, limit);
+        return new PostPage(items, PostCursor.of(items.get(limit - 1)));
+    }
+
+    public List<Post> getItems() {
+        return items;
+    }
+
+    /** Cursor to pass as {@code after} for the next page, or null on the last page. */
+    public PostCursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -1,21 +1,178 @@
 package com.ict.socialmedia.post.repository;
 
 import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.search.TermScorer;
+import com.ict.socialmedia.post.repository.search.TextAnalyzer;
+import com.ict.socialmedia.post.repository.search.TopHits;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface PostRepository {
+    int MAX_PAGE_SIZE = 1000;
+    PostFilter PUBLIC_FEED = PostFilter.all().withVisibilities(List.of(Visibility.PUBLIC));
+
     List<Post> findAll();
 
+    /**
+     * Keyset page ordered by {@code createdAt DESC, id DESC}, starting strictly after {@code after}
+     * (null for the first page).
+     */
+    PostPage findPage(PostCursor after, int limit, PostFilter filter);
+
+    /**
+     * Lazily streams matching posts newest first. The stream may hold a connection or cursor open,
+     * so callers must close it (try-with-resources).
+     */
+    default Stream<Post> stream(PostFilter filter) {
+        KeysetIterator it = new KeysetIterator(this, filter == null ? PostFilter.all() : filter, MAX_PAGE_SIZE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * One author's timeline, newest first, optionally limited to some visibilities (empty or null
+     * for all). Backends with indexes serve this from an {@code (author, createdAt, id)} index.
+     */
+    default PostPage findByAuthor(String author, Set<Visibility> visibilities, PostCursor after, int limit) {
+        if (author == null || author.isBlank()) throw new IllegalArgumentException("author is required");
+        return findPage(after, limit, PostFilter.all().withAuthor(author).withVisibilities(visibilities));
+    }
+
+    /** Public posts from everyone, newest first, served from a {@code (visibility, createdAt, id)} index. */
+    default PostPage findPublicFeed(PostCursor after, int limit) {
+        return findPage(after, limit, PUBLIC_FEED);
+    }
+
+    /**
+     * Posts whose content contains any word of {@code query}, best match first (ties newest first),
+     * keyset-paged after {@code after} (null for the first page). Scores come from the backend's
+     * own ranking; this default reads every matching post through {@link #stream} and scores it in
+     * process, so backends with a text index override it.
+     */
+    default SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        checkLimit(limit);
+        List<String> terms = TextAnalyzer.queryTerms(query);
+        if (terms.isEmpty()) return SearchPage.empty();
+        TopHits top = new TopHits(after, limit);
+        try (Stream<Post> posts = stream(filter)) {
+            posts.forEach(p -> top.offer(p, TermScorer.score(terms, p.getContent())));
+        }
+        return top.toPage();
+    }
+
     Optional<Post> findById(UUID id);
 
     Post create(Post post);
 
     boolean update(Post post);
 
+    /**
+     * Conditional update in one round trip: applies the new field values and bumps the version only
+     * if the stored version still equals {@code expectedVersion}. Returns the stored post after the
+     * update, or empty if the post is missing or was changed concurrently.
+     */
+    Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    );
+
     boolean delete(UUID id);
-}
 
+    /**
+     * Conditional delete in one round trip: removes the post only if its stored version still
+     * equals {@code expectedVersion}. Returns false if the post is missing or was changed
+     * concurrently.
+     */
+    boolean deleteIfVersion(UUID id, long expectedVersion);
+
+    /**
+     * Atomically adds {@code delta} to the like counter in a single statement (no read-modify-write).
+     * The result is clamped at zero. Returns false if the post does not exist.
+     */
+    boolean incrementLikes(UUID id, int delta);
+
+    default BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        BatchResult.Item[] out = new BatchResult.Item[deltas.size()];
+        int i = 0;
+        for (Map.Entry<UUID, Integer> e : deltas.entrySet()) {
+            int idx = i++;
+            UUID id = e.getKey();
+            try {
+                out[idx] = incrementLikes(id, e.getValue()) ? BatchResult.Item.applied(id) : BatchResult.Item.notFound(id);
+            } catch (RuntimeException ex) {
+                out[idx] = BatchResult.Item.failed(id, String.valueOf(ex.getMessage()));
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    /**
+     * Inserts every post; an id already stored is reported as {@link BatchResult.Status#DUPLICATE},
+     * other per-row failures as FAILED, none of them thrown.
+     */
+    default BatchResult createAll(Collection<Post> posts) {
+        BatchResult.Item[] out = new BatchResult.Item[posts.size()];
+        int i = 0;
+        for (Post p : posts) {
+            int idx = i++;
+            try {
+                create(p);
+                out[idx] = BatchResult.Item.applied(p.getId());
+            } catch (DuplicatePostException e) {
+                out[idx] = BatchResult.Item.duplicate(p.getId());
+            } catch (RuntimeException e) {
+                out[idx] = BatchResult.Item.failed(p.getId(), String.valueOf(e.getMessage()));
+            }
+        }
+        return BatchResult.of(out);
+    }
 
+    default BatchResult updateAll(Collection<Post> posts) {
+        BatchResult.Item[] out = new BatchResult.Item[posts.size()];
+        int i = 0;
+        for (Post p : posts) {
+            int idx = i++;
+            try {
+                out[idx] = update(p) ? BatchResult.Item.applied(p.getId()) : BatchResult.Item.notFound(p.getId());
+            } catch (RuntimeException e) {
+                out[idx] = BatchResult.Item.failed(p.getId(), String.valueOf(e.getMessage()));
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    default BatchResult deleteAll(Collection<UUID> ids) {
+        BatchResult.Item[] out = new BatchResult.Item[ids.size()];
+        int i = 0;
+        for (UUID id : ids) {
+            int idx = i++;
+            try {
+                out[idx] = delete(id) ? BatchResult.Item.applied(id) : BatchResult.Item.notFound(id);
+            } catch (RuntimeException e) {
+                out[idx] = BatchResult.Item.failed(id, String.valueOf(e.getMessage()));
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+    }
+}
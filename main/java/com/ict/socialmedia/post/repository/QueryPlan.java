@@ -0,0 +1,50 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What a backend's planner chose for one page query, reduced to what matters for keyset paging:
+ * which indexes are scanned, whether any part of the collection is scanned in full, and whether
+ * rows are sorted after they are read instead of coming out of the index in order.
+ */
+public final class QueryPlan {
+    private final List<String> indexes;
+    private final boolean fullScan;
+    private final boolean sorted;
+    private final String raw;
+
+    public QueryPlan(List<String> indexes, boolean fullScan, boolean sorted, String raw) {
+        this.indexes = List.copyOf(Objects.requireNonNull(indexes, "indexes"));
+        this.fullScan = fullScan;
+        this.sorted = sorted;
+        this.raw = Objects.requireNonNull(raw, "raw");
+    }
+
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /** The plan as the database printed it. */
+    public String getRaw() {
+        return raw;
+    }
+
+    /** True if the page is read as a range of {@code index}, in index order, with nothing else scanned. */
+    public boolean isIndexRange(String index) {
+        return !fullScan && !sorted && indexes.contains(index);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlan{indexes=" + indexes + ", fullScan=" + fullScan + ", sorted=" + sorted + '}';
+    }
+}
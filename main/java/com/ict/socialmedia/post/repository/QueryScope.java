@@ -0,0 +1,120 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deadline and cancellation for the repository calls made on the current thread. A caller that
+ * may give up on a call (a timeout, a cancelled future) runs it inside a scope; repositories look
+ * up {@link #current()} and register hooks that abort the in-flight statement or cursor, so
+ * {@link #cancel()} reaches the database instead of leaving the query to run to completion.
+ *
+ * <p>Outside a scope every method here is a cheap no-op, so synchronous callers are unaffected.
+ */
+public final class QueryScope {
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final Set<Registration> hooks = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public QueryScope() {
+        this.deadlineNanos = 0;
+        this.hasDeadline = false;
+    }
+
+    public QueryScope(long timeout, TimeUnit unit) {
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        this.hasDeadline = true;
+    }
+
+    /** The scope active on this thread, or null. */
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    /** Runs {@code body} with this scope active on the current thread. */
+    public <T> T call(Supplier<T> body) {
+        QueryScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            checkActive();
+            return body.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    /** Milliseconds until the deadline (at least 1), or -1 when the scope has none. */
+    public long remainingMillis() {
+        if (!hasDeadline) return -1;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** @throws CancellationException if the scope was cancelled */
+    public void checkActive() {
+        if (cancelled) throw new CancellationException("Query scope was cancelled");
+    }
+
+    /**
+     * Registers a hook that aborts the operation now in flight. Close the returned registration
+     * once the operation is over so a late cancel cannot hit whatever reuses the resource next.
+     * If the scope is already cancelled, the hook runs immediately.
+     */
+    public Registration onCancel(Runnable hook) {
+        Registration r = new Registration(this, hook);
+        hooks.add(r);
+        if (cancelled) r.fire();
+        return r;
+    }
+
+    /** Registers {@code hook} with the current thread's scope, if there is one. */
+    public static Registration register(Runnable hook) {
+        QueryScope scope = CURRENT.get();
+        return scope == null ? Registration.NONE : scope.onCancel(hook);
+    }
+
+    public void cancel() {
+        cancelled = true;
+        for (Registration r : hooks) {
+            r.fire();
+        }
+    }
+
+    public static final class Registration implements AutoCloseable {
+        private static final Registration NONE = new Registration(null, null);
+
+        private final QueryScope scope;
+        private final Runnable hook;
+        private boolean closed;
+
+        private Registration(QueryScope scope, Runnable hook) {
+            this.scope = scope;
+            this.hook = hook;
+        }
+
+        // Synchronized with close() so a hook never runs after the resource was handed back.
+        private synchronized void fire() {
+            if (closed || hook == null) return;
+            try {
+                hook.run();
+            } catch (RuntimeException ignored) {
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (scope != null) scope.hooks.remove(this);
+        }
+    }
+}
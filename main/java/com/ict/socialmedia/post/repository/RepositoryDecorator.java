@@ -0,0 +1,18 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.Optional;
+
+/** A {@link PostRepository} that wraps another one (caching, metrics, ...). */
+public interface RepositoryDecorator {
+    PostRepository getDelegate();
+
+    /** Finds a repository of the given type in a decorator chain, starting with {@code repo} itself. */
+    static <T> Optional<T> unwrap(PostRepository repo, Class<T> type) {
+        Object r = repo;
+        while (r != null) {
+            if (type.isInstance(r)) return Optional.of(type.cast(r));
+            r = r instanceof RepositoryDecorator d ? d.getDelegate() : null;
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in search order: {@code score DESC}, then the listing order {@code createdAt DESC,
+ * id DESC} among equal scores. Scores only depend on the post and the query, so a cursor stays
+ * valid while other posts are written.
+ */
+public final class SearchCursor implements Comparable<SearchCursor> {
+    private final double score;
+    private final PostCursor position;
+
+    public SearchCursor(double score, PostCursor position) {
+        this.score = score;
+        this.position = Objects.requireNonNull(position, "position");
+    }
+
+    public static SearchCursor of(SearchHit hit) {
+        return new SearchCursor(hit.getScore(), PostCursor.of(hit.getPost()));
+    }
+
+    public static SearchCursor of(Post post, double score) {
+        return new SearchCursor(score, PostCursor.of(post));
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public PostCursor getPosition() {
+        return position;
+    }
+
+    public String encode() {
+        // Score bits in hex so the cursor round-trips exactly.
+        String raw = Long.toHexString(Double.doubleToLongBits(score)) + "|" + position.getCreatedAt() + "|" + position.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            double score = Double.longBitsToDouble(Long.parseUnsignedLong(parts[0], 16));
+            return new SearchCursor(score, new PostCursor(Instant.parse(parts[1]), UUID.fromString(parts[2])));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /** Higher scores first, then newest first. */
+    @Override
+    public int compareTo(SearchCursor o) {
+        int c = Double.compare(o.score, score);
+        return c != 0 ? c : position.compareTo(o.position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchCursor that)) return false;
+        return Double.compare(score, that.score) == 0 && position.equals(that.position);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(score, position);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,33 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.util.Objects;
+
+/** A post matched by a search, with the backend's relevance score (higher is better). */
+public final class SearchHit {
+    private final Post post;
+    private final double score;
+
+    public SearchHit(Post post, double score) {
+        this.post = Objects.requireNonNull(post, "post");
+        this.score = score;
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    /**
+     * Comparable only within one backend: PostgreSQL reports {@code ts_rank}, MongoDB its text
+     * score, and the in-process backends a term-frequency score.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{score=" + score + ", post=" + post + '}';
+    }
+}
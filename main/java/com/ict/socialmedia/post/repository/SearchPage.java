@@ -0,0 +1,38 @@
+package com.ict.socialmedia.post.repository;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class SearchPage {
+    private final List<SearchHit> hits;
+    private final SearchCursor next;
+
+    public SearchPage(List<SearchHit> hits, SearchCursor next) {
+        this.hits = List.copyOf(Objects.requireNonNull(hits, "hits"));
+        this.next = next;
+    }
+
+    public static SearchPage empty() {
+        return new SearchPage(List.of(), null);
+    }
+
+    /** Builds a page from up to {@code limit + 1} hits in rank order, like {@link PostPage#fromOverfetch}. */
+    public static SearchPage fromOverfetch(List<SearchHit> rows, int limit) {
+        if (rows.size() <= limit) return new SearchPage(rows, null);
+        List<SearchHit> hits = rows.subList(0, limit);
+        return new SearchPage(hits, SearchCursor.of(hits.get(limit - 1)));
+    }
+
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    /** Cursor to pass as {@code after} for the next page, or null on the last page. */
+    public SearchCursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ict.socialmedia.post.repository.cache;
+
+public final class CacheSettings {
+    private final long maxEntries;
+    private final long maxWeightBytes;
+    private final long ttlMillis;
+
+    public CacheSettings(long maxEntries, long maxWeightBytes, long ttlMillis) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+        if (maxWeightBytes < 1) throw new IllegalArgumentException("maxWeightBytes must be >= 1");
+        if (ttlMillis < 0) throw new IllegalArgumentException("ttlMillis must be >= 0");
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static CacheSettings defaults() {
+        return new CacheSettings(10_000, 64L * 1024 * 1024, 60_000);
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /** 0 disables expiry. */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+}
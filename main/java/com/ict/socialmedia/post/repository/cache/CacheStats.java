@@ -0,0 +1,93 @@
+package com.ict.socialmedia.post.repository.cache;
+
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long coalescedLoads;
+    private final long loadFailures;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final long entries;
+    private final long weightBytes;
+
+    CacheStats(
+            long hits,
+            long misses,
+            long coalescedLoads,
+            long loadFailures,
+            long evictions,
+            long expirations,
+            long invalidations,
+            long entries,
+            long weightBytes
+    ) {
+        this.hits = hits;
+        this.misses = misses;
+        this.coalescedLoads = coalescedLoads;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.weightBytes = weightBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Misses that waited on another caller's in-flight load instead of querying the backend. */
+    public long getCoalescedLoads() {
+        return coalescedLoads;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getWeightBytes() {
+        return weightBytes;
+    }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", coalesced=" + coalescedLoads +
+                ", loadFailures=" + loadFailures +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                ", invalidations=" + invalidations +
+                ", entries=" + entries +
+                ", weightBytes=" + weightBytes +
+                '}';
+    }
+}
@@ -0,0 +1,294 @@
+package com.ict.socialmedia.post.repository.cache;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.RepositoryDecorator;
+import com.ict.socialmedia.post.repository.changefeed.ChangeBatch;
+import com.ict.socialmedia.post.repository.changefeed.ChangeEvent;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeed;
+import com.ict.socialmedia.post.repository.changefeed.ChangeSubscriber;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache for {@link #findById}. Every other read goes straight to the delegate; every
+ * write goes to the delegate first and then drops the affected ids from the cache.
+ *
+ * <p>Concurrent misses for the same id share one backend load. A write removes the id's in-flight
+ * load and its cached entry in one step, and a load publishes its result in one step only if it
+ * is still the registered one, both under the in-flight map's lock for that id. Either the write
+ * comes second and drops what the load cached, or the load comes second and finds itself
+ * unregistered, so a read that raced with a write can never cache the pre-write row.
+ *
+ * <p>Writes made through other nodes reach this cache only if it {@link #follow follows} the
+ * backend's change feed; until the event arrives, those posts can be served stale.
+ */
+@SuppressWarnings("try") // close() passes on whatever the wrapped repositories throw
+public class CachingPostRepository implements PostRepository, RepositoryDecorator, AutoCloseable {
+    private final PostRepository delegate;
+    private final PostCache cache;
+    private final ConcurrentHashMap<UUID, CompletableFuture<Optional<Post>>> inFlight = new ConcurrentHashMap<>();
+    private final List<ChangeSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CachingPostRepository(PostRepository delegate, CacheSettings settings) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.cache = new PostCache(Objects.requireNonNull(settings, "settings"));
+    }
+
+    @Override
+    public PostRepository getDelegate() {
+        return delegate;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(
+                hits.sum(),
+                misses.sum(),
+                coalesced.sum(),
+                loadFailures.sum(),
+                cache.evictions(),
+                cache.expirations(),
+                invalidations.sum(),
+                cache.size(),
+                cache.weight()
+        );
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        cache.clear();
+    }
+
+    /**
+     * Drops every post the feed reports as written, including this node's own writes (already
+     * dropped; the event only costs one extra miss). Whenever the feed has to start over, the
+     * whole cache is dropped, since changes in between are unknown.
+     */
+    public void follow(ChangeFeed feed) {
+        ChangeSubscriber subscriber = new ChangeSubscriber(feed, null, new ChangeSubscriber.Listener() {
+            @Override
+            public void onChanges(ChangeBatch batch) {
+                for (ChangeEvent e : batch.getEvents()) invalidate(e.getId());
+            }
+
+            @Override
+            public void onReset() {
+                invalidateAll();
+            }
+        }, "cache-change-feed-" + (subscribers.size() + 1));
+        subscribers.add(subscriber);
+        subscriber.start();
+    }
+
+    public List<ChangeSubscriber> getSubscribers() {
+        return List.copyOf(subscribers);
+    }
+
+    @Override
+    public Optional<Post> findById(UUID id) {
+        Post cached = cache.get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+
+        CompletableFuture<Optional<Post>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Post>> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            Optional<Post> loaded = delegate.findById(id);
+            // Publishes under the id's map lock, which invalidate() also takes, and only while this
+            // load is still registered; a write that invalidated it meanwhile has already unmapped it.
+            inFlight.computeIfPresent(id, (k, registered) -> {
+                if (registered != mine) return registered;
+                loaded.ifPresent(cache::put);
+                return null;
+            });
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            inFlight.remove(id, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Post> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        return delegate.findPage(after, limit, filter);
+    }
+
+    @Override
+    public PostPage findByAuthor(String author, Set<Visibility> visibilities, PostCursor after, int limit) {
+        return delegate.findByAuthor(author, visibilities, after, limit);
+    }
+
+    @Override
+    public PostPage findPublicFeed(PostCursor after, int limit) {
+        return delegate.findPublicFeed(after, limit);
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        return delegate.stream(filter);
+    }
+
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        return delegate.search(query, filter, after, limit);
+    }
+
+    @Override
+    public Post create(Post post) {
+        try {
+            return delegate.create(post);
+        } finally {
+            invalidate(post.getId());
+        }
+    }
+
+    @Override
+    public boolean update(Post post) {
+        try {
+            return delegate.update(post);
+        } finally {
+            invalidate(post.getId());
+        }
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        try {
+            return delegate.updateIfVersion(id, expectedVersion, author, content, visibility, likes, updatedAt);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        try {
+            return delegate.deleteIfVersion(id, expectedVersion);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        try {
+            return delegate.incrementLikes(id, delta);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        try {
+            return delegate.incrementLikesAll(deltas);
+        } finally {
+            deltas.keySet().forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public BatchResult createAll(Collection<Post> posts) {
+        try {
+            return delegate.createAll(posts);
+        } finally {
+            posts.forEach(p -> invalidate(p.getId()));
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Post> posts) {
+        try {
+            return delegate.updateAll(posts);
+        } finally {
+            posts.forEach(p -> invalidate(p.getId()));
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    private void invalidate(UUID id) {
+        inFlight.compute(id, (k, running) -> {
+            cache.invalidate(k);
+            return null;
+        });
+        invalidations.increment();
+    }
+
+    @Override
+    public void close() throws Exception {
+        subscribers.forEach(ChangeSubscriber::close);
+        invalidateAll();
+        if (delegate instanceof AutoCloseable c) c.close();
+    }
+}
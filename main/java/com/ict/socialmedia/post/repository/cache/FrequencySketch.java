@@ -0,0 +1,68 @@
+package com.ict.socialmedia.post.repository.cache;
+
+/**
+ * Count-min sketch of 4-bit-style saturating counters (capped at 15) used to estimate how often a
+ * key was requested recently. All counters are halved every {@code sampleSize} increments, so
+ * popularity decays and yesterday's hot keys do not stay resident forever. Not thread-safe; the
+ * cache only touches it under its eviction lock.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0x0c7d3a1f, 0xa3c59ac3, 0x5f356495};
+
+    private final byte[] table;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedEntries) {
+        int w = Integer.highestOneBit((int) Math.min(1 << 24, Math.max(16, expectedEntries)) - 1) << 1;
+        this.width = w;
+        this.mask = w - 1;
+        this.table = new byte[DEPTH * w];
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(16, expectedEntries));
+    }
+
+    int frequency(Object key) {
+        int h = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, table[i * width + index(h, i)]);
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        int h = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int slot = i * width + index(h, i);
+            if (table[slot] < MAX_COUNT) {
+                table[slot]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions /= 2;
+    }
+
+    private int index(int h, int row) {
+        int x = (h ^ SEEDS[row]) * 0x9E3779B9;
+        return (x ^ (x >>> 16)) & mask;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        return h;
+    }
+}
@@ -0,0 +1,298 @@
+package com.ict.socialmedia.post.repository.cache;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded post cache with a W-TinyLFU policy: new entries land in a small LRU window, and when
+ * the cache is full a window survivor is only admitted into the main segmented LRU if the
+ * frequency sketch says it is requested more often than the entry it would evict. A one-off scan
+ * therefore cannot flush the hot set.
+ *
+ * <p>Lookups are lock-free. Hits are recorded in a bounded buffer and replayed against the LRU
+ * lists under the eviction lock in batches; when the buffer is full, hits are dropped, which only
+ * makes the recency order slightly less exact.
+ */
+final class PostCache {
+    private static final int READ_BUFFER_SIZE = 256;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+    // Rough per-entry cost on top of the strings: node, map entry, Post, UUID, Instants, enums.
+    private static final long ENTRY_OVERHEAD_BYTES = 200;
+
+    private final long maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final long windowMax;
+    private final long protectedMax;
+
+    private final ConcurrentHashMap<UUID, Node> map = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<Node> readBuffer = new ArrayBlockingQueue<>(READ_BUFFER_SIZE);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+
+    // Guarded by evictionLock.
+    private final AccessOrderList window = new AccessOrderList();
+    private final AccessOrderList probation = new AccessOrderList();
+    private final AccessOrderList protectedSegment = new AccessOrderList();
+    private long weight;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    PostCache(CacheSettings settings) {
+        this.maxEntries = settings.getMaxEntries();
+        this.maxWeight = settings.getMaxWeightBytes();
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(settings.getTtlMillis());
+        this.windowMax = Math.max(1, maxEntries / 100);
+        this.protectedMax = Math.max(1, (maxEntries - windowMax) * 8 / 10);
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /** Returns the cached post, or null on a miss (absent or expired). */
+    Post get(UUID id) {
+        Node n = map.get(id);
+        if (n == null) return null;
+        if (isExpired(n, System.nanoTime())) {
+            if (map.remove(id, n)) {
+                expirations.increment();
+                evictionLock.lock();
+                try {
+                    unlink(n);
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        if (!readBuffer.offer(n) || readBuffer.size() >= DRAIN_THRESHOLD) tryDrain();
+        return n.value;
+    }
+
+    void put(Post post) {
+        Node n = new Node(post.getId(), post, weigh(post), ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos);
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            Node old = map.put(n.key, n);
+            if (old != null) unlink(old);
+            sketch.increment(n.key);
+            n.segment = Segment.WINDOW;
+            window.addFirst(n);
+            weight += n.weight;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    void invalidate(UUID id) {
+        Node n = map.remove(id);
+        if (n == null) return;
+        evictionLock.lock();
+        try {
+            unlink(n);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    void clear() {
+        evictionLock.lock();
+        try {
+            map.clear();
+            readBuffer.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            weight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    long size() {
+        return map.size();
+    }
+
+    long weight() {
+        evictionLock.lock();
+        try {
+            return weight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    private void tryDrain() {
+        if (!evictionLock.tryLock()) return;
+        try {
+            drainReadBuffer();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void drainReadBuffer() {
+        Node n;
+        while ((n = readBuffer.poll()) != null) {
+            // The entry may have been replaced or invalidated since it was read.
+            if (n.segment == null) continue;
+            sketch.increment(n.key);
+            onHit(n);
+        }
+    }
+
+    private void onHit(Node n) {
+        switch (n.segment) {
+            case WINDOW -> window.moveToFront(n);
+            case PROTECTED -> protectedSegment.moveToFront(n);
+            case PROBATION -> {
+                probation.remove(n);
+                n.segment = Segment.PROTECTED;
+                protectedSegment.addFirst(n);
+                while (protectedSegment.size > protectedMax) {
+                    Node demoted = protectedSegment.removeLast();
+                    demoted.segment = Segment.PROBATION;
+                    probation.addFirst(demoted);
+                }
+            }
+        }
+    }
+
+    private void evict() {
+        // Window overflow moves into probation, where it competes for admission below.
+        while (window.size > windowMax) {
+            Node n = window.removeLast();
+            n.segment = Segment.PROBATION;
+            probation.addFirst(n);
+        }
+        while (map.size() > maxEntries || weight > maxWeight) {
+            Node victim = probation.last();
+            Node candidate = probation.first();
+            Node evicted;
+            if (victim == null) {
+                evicted = protectedSegment.last() != null ? protectedSegment.last() : window.last();
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            }
+            if (evicted == null) break;
+            unlink(evicted);
+            map.remove(evicted.key, evicted);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node n) {
+        if (n.segment == null) return;
+        switch (n.segment) {
+            case WINDOW -> window.remove(n);
+            case PROBATION -> probation.remove(n);
+            case PROTECTED -> protectedSegment.remove(n);
+        }
+        n.segment = null;
+        weight -= n.weight;
+    }
+
+    private static boolean isExpired(Node n, long now) {
+        return n.expiresAtNanos != 0 && now - n.expiresAtNanos >= 0;
+    }
+
+    static long weigh(Post p) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (p.getAuthor().length() + p.getContent().length());
+    }
+
+    private enum Segment {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    private static final class Node {
+        private final UUID key;
+        private final Post value;
+        private final long weight;
+        private final long expiresAtNanos;
+        // Guarded by evictionLock; null once the node is no longer linked.
+        private volatile Segment segment;
+        private Node prev;
+        private Node next;
+
+        private Node(UUID key, Post value, long weight, long expiresAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /** Intrusive doubly linked list, most recently used first. */
+    private static final class AccessOrderList {
+        private Node head;
+        private Node tail;
+        private long size;
+
+        private Node first() {
+            return head;
+        }
+
+        private Node last() {
+            return tail;
+        }
+
+        private void addFirst(Node n) {
+            n.prev = null;
+            n.next = head;
+            if (head != null) head.prev = n;
+            head = n;
+            if (tail == null) tail = n;
+            size++;
+        }
+
+        private Node removeLast() {
+            Node n = tail;
+            if (n != null) remove(n);
+            return n;
+        }
+
+        private void moveToFront(Node n) {
+            if (head == n) return;
+            remove(n);
+            addFirst(n);
+        }
+
+        private void remove(Node n) {
+            if (n.prev != null) n.prev.next = n.next;
+            else head = n.next;
+            if (n.next != null) n.next.prev = n.prev;
+            else tail = n.prev;
+            n.prev = null;
+            n.next = null;
+            size--;
+        }
+
+        private void clear() {
+            for (Node n = head; n != null; n = n.next) {
+                n.segment = null;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class ChangeBatch {
+    private final List<ChangeEvent> events;
+    private final String resumeToken;
+
+    public ChangeBatch(List<ChangeEvent> events, String resumeToken) {
+        this.events = List.copyOf(Objects.requireNonNull(events, "events"));
+        this.resumeToken = Objects.requireNonNull(resumeToken, "resumeToken");
+    }
+
+    /** In the order the backend committed them; may be empty when nothing changed in time. */
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Position just after this batch. Opening the feed with it delivers the next change and
+     * nothing before it, so a consumer that stores it once it has handled the batch picks up
+     * where it left off after a restart.
+     */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+/** A position in a {@link ChangeFeed}, holding its own backend connection until closed. Not thread-safe. */
+public interface ChangeCursor extends AutoCloseable {
+    /**
+     * Waits up to the feed's max wait for at least one change and returns what is ready, at most
+     * the feed's max batch size. The batch is empty if nothing changed in time.
+     */
+    ChangeBatch next();
+
+    @Override
+    void close();
+}
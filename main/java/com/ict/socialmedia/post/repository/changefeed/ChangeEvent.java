@@ -0,0 +1,42 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/** One post written by any node, as reported by a {@link ChangeFeed}. */
+public final class ChangeEvent {
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private final Type type;
+    private final UUID id;
+    private final Instant updatedAt;
+
+    public ChangeEvent(Type type, UUID id, Instant updatedAt) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.id = Objects.requireNonNull(id, "id");
+        this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    /** The post's updatedAt after the change; for a delete, when the delete happened. */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id + " @ " + updatedAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+/**
+ * Creates, updates and deletes of posts made through any node sharing the backend, so that
+ * per-node state (such as a cache) can follow them.
+ *
+ * <p>Consumers pull: a cursor reads nothing until {@link ChangeCursor#next()} is called, and
+ * unread changes wait in the backend, so a slow consumer only falls behind. How far it may fall
+ * behind is the backend's retention (PostgreSQL's change log, MongoDB's oplog); opening with an
+ * older token fails with {@link ResumeTokenExpiredException}.
+ */
+public interface ChangeFeed {
+    /**
+     * @param resumeToken a {@link ChangeBatch#getResumeToken()} from this feed, or null to start
+     *                    with changes made from now on
+     */
+    ChangeCursor open(String resumeToken);
+}
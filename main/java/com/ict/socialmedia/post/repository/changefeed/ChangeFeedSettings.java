@@ -0,0 +1,49 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+/** Batching and waiting for {@link ChangeCursor#next()}, and PostgreSQL's change-log upkeep. */
+public final class ChangeFeedSettings {
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final long pollIntervalMillis;
+    private final long retentionMillis;
+
+    /**
+     * @param maxBatchSize       most changes one next() returns
+     * @param maxWaitMillis      how long next() waits for a first change before returning empty
+     * @param pollIntervalMillis PostgreSQL: how often a waiting cursor re-reads the change log when
+     *                           no notification arrives (notifications off, or a change held back
+     *                           behind an older open transaction)
+     * @param retentionMillis    PostgreSQL: how long the change log keeps changes; MongoDB keeps
+     *                           them for its oplog window
+     */
+    public ChangeFeedSettings(int maxBatchSize, long maxWaitMillis, long pollIntervalMillis, long retentionMillis) {
+        if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        if (maxWaitMillis < 1) throw new IllegalArgumentException("maxWaitMillis must be >= 1");
+        if (pollIntervalMillis < 1) throw new IllegalArgumentException("pollIntervalMillis must be >= 1");
+        if (retentionMillis < 1) throw new IllegalArgumentException("retentionMillis must be >= 1");
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    public static ChangeFeedSettings defaults() {
+        return new ChangeFeedSettings(500, 1_000, 1_000, 24 * 60 * 60 * 1_000L);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows a {@link ChangeFeed} on a daemon thread and hands each non-empty batch to a listener.
+ * The next batch is only read once the listener returns, so a busy listener slows the reading
+ * down instead of queueing changes in memory.
+ *
+ * <p>Delivery is at least once. If reading or the listener fails, the cursor is reopened from
+ * the last batch the listener finished, after a growing pause. If that position has expired,
+ * following starts again from the current position and {@link Listener#onReset()} is called,
+ * since changes in between were lost. Starting without a token counts as such a reset too.
+ */
+public final class ChangeSubscriber implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeSubscriber.class);
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    public interface Listener {
+        void onChanges(ChangeBatch batch);
+
+        /** Changes may have been missed; anything derived from earlier ones should be dropped. */
+        void onReset();
+    }
+
+    private final ChangeFeed feed;
+    private final Listener listener;
+    private final String name;
+    private volatile String resumeToken;
+    private volatile boolean closed;
+    private Thread thread;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    /**
+     * @param resumeToken where to start, or null for changes made from now on
+     * @param name        thread name, also used in log messages
+     */
+    public ChangeSubscriber(ChangeFeed feed, String resumeToken, Listener listener, String name) {
+        this.feed = Objects.requireNonNull(feed, "feed");
+        this.resumeToken = resumeToken;
+        this.listener = Objects.requireNonNull(listener, "listener");
+        this.name = Objects.requireNonNull(name, "name");
+    }
+
+    public synchronized void start() {
+        if (thread != null || closed) return;
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Position after the last batch the listener finished, or null before the first one. */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!closed) {
+            try (ChangeCursor cursor = open()) {
+                while (!closed) {
+                    ChangeBatch batch = cursor.next();
+                    if (!batch.isEmpty()) {
+                        listener.onChanges(batch);
+                        events.add(batch.getEvents().size());
+                        batches.increment();
+                    }
+                    resumeToken = batch.getResumeToken();
+                    backoff = MIN_BACKOFF_MILLIS;
+                }
+            } catch (RuntimeException e) {
+                if (closed) break;
+                failures.increment();
+                log.warn("{}: change feed failed; reopening in {} ms", name, backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    // Opens at the current position before resetting, so nothing written after the reset is missed.
+    private ChangeCursor open() {
+        String token = resumeToken;
+        if (token == null) {
+            // Also on the first open: whatever the listener built before it was not being kept current.
+            ChangeCursor cursor = feed.open(null);
+            reset(cursor);
+            return cursor;
+        }
+        try {
+            return feed.open(token);
+        } catch (ResumeTokenExpiredException e) {
+            log.warn("{}: {}; starting over from the current position", name, e.getMessage());
+            ChangeCursor cursor = feed.open(null);
+            resumeToken = null;
+            reset(cursor);
+            return cursor;
+        }
+    }
+
+    private void reset(ChangeCursor cursor) {
+        try {
+            listener.onReset();
+            resets.increment();
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        // The thread notices within one max wait; interrupting it could break a shared client's connection.
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "events=" + events.sum()
+                + ", batches=" + batches.sum()
+                + ", failures=" + failures.sum()
+                + ", resets=" + resets.sum();
+    }
+}
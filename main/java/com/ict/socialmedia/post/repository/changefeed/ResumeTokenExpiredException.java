@@ -0,0 +1,14 @@
+package com.ict.socialmedia.post.repository.changefeed;
+
+/** The backend no longer holds every change after the token, so resuming from it could skip some. */
+public class ResumeTokenExpiredException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ResumeTokenExpiredException(String message) {
+        super(message);
+    }
+
+    public ResumeTokenExpiredException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
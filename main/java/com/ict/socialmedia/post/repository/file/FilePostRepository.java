@@ -0,0 +1,533 @@
+package com.ict.socialmedia.post.repository.file;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.DuplicatePostException;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Durable repository backed by an append-only log of memory-mapped {@link Segment} files, for
+ * nodes that cannot run a database server.
+ *
+ * <p>Every write appends a full new version of the post (or a tombstone for a delete) to the
+ * active segment and repoints the in-memory id index at it; nothing on disk is overwritten. When a
+ * segment fills up it is sealed and a new one is started. On startup the index is rebuilt by
+ * scanning all segments in order and verifying each record's checksum; the first invalid record in
+ * the newest segment is treated as a torn write, and the log is cut there and resumes from it. A
+ * sealed segment was forced before the next one was started, so an invalid record in one is
+ * corruption and fails the open.
+ *
+ * <p>Superseded versions and tombstones are garbage. A background task rewrites sealed segments
+ * whose dead share exceeds the configured ratio by re-appending their live records and then
+ * deleting the file.
+ */
+public final class FilePostRepository implements PostRepository, AutoCloseable {
+    private final FileStoreSettings settings;
+    private final ConcurrentHashMap<UUID, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<PostCursor> byTime = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Held for a whole compaction pass, so a manual compact() and the scheduled one never rewrite the same segment.
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final GroupCommit groupCommit = new GroupCommit();
+    private final ScheduledExecutorService background;
+    private volatile Segment active;
+    private volatile boolean closed;
+
+    public FilePostRepository(FileStoreSettings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings");
+        try {
+            Files.createDirectories(settings.getDirectory());
+            recover();
+        } catch (IOException e) {
+            segments.values().forEach(Segment::close);
+            throw new UncheckedIOException("Failed to open post log in " + settings.getDirectory(), e);
+        }
+
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "file-repository-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        if (settings.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+            long interval = settings.getFsyncIntervalMillis();
+            background.scheduleWithFixedDelay(this::forceQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        if (settings.getCompactionIntervalMillis() > 0) {
+            long interval = settings.getCompactionIntervalMillis();
+            background.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public List<Post> findAll() {
+        List<Post> out = new ArrayList<>(index.size());
+        scan(null, PostFilter.all()).forEachRemaining(out::add);
+        return out;
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        Iterator<Post> it = scan(after, filter == null ? PostFilter.all() : filter);
+        List<Post> rows = new ArrayList<>(Math.min(limit + 1, 64));
+        while (rows.size() <= limit && it.hasNext()) {
+            rows.add(it.next());
+        }
+        return PostPage.fromOverfetch(rows, limit);
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        Iterator<Post> it = scan(null, filter == null ? PostFilter.all() : filter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Optional<Post> findById(UUID id) {
+        Location loc = index.get(id);
+        return loc == null ? Optional.empty() : Optional.of(loc.read());
+    }
+
+    @Override
+    public Post create(Post post) {
+        Objects.requireNonNull(post, "post");
+        ByteBuffer record = Segment.encodePut(post);
+        long seq;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            if (index.containsKey(post.getId())) {
+                throw new DuplicatePostException(post.getId());
+            }
+            index.put(post.getId(), appendLocked(record));
+            byTime.add(PostCursor.of(post));
+            seq = groupCommit.appended();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(seq);
+        return post;
+    }
+
+    @Override
+    public boolean update(Post post) {
+        Objects.requireNonNull(post, "post");
+        return rewrite(post.getId(), current -> current.withUpdatedFields(
+                post.getAuthor(), post.getContent(), post.getVisibility(), post.getLikes(), post.getUpdatedAt()
+        )).isPresent();
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        return rewrite(id, current -> current.getVersion() != expectedVersion
+                ? null
+                : current.withUpdatedFields(author, content, visibility, likes, updatedAt));
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        return rewrite(id, current -> current.withUpdatedFields(
+                current.getAuthor(),
+                current.getContent(),
+                current.getVisibility(),
+                Math.max(0, Math.addExact(current.getLikes(), delta)),
+                Instant.now()
+        )).isPresent();
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return delete(id, null);
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        return delete(id, current -> current.getVersion() == expectedVersion);
+    }
+
+    // A null condition deletes without reading the current version.
+    private boolean delete(UUID id, Predicate<Post> condition) {
+        ByteBuffer record = Segment.encodeDelete(id);
+        long seq;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            Location old = index.get(id);
+            if (old == null) return false;
+            if (condition != null && !condition.test(old.read())) return false;
+            Location tombstone = appendLocked(record);
+            index.remove(id);
+            byTime.remove(new PostCursor(old.segment.createdAt(old.offset), id));
+            old.segment.markDead(old.length);
+            // A tombstone is garbage from the start: it only has to outlive older versions of the id.
+            tombstone.segment.markDead(tombstone.length);
+            seq = groupCommit.appended();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(seq);
+        return true;
+    }
+
+    /**
+     * Appends a new version produced by {@code change} from the current one, bumping the version.
+     * {@code change} returning null aborts without writing.
+     */
+    private Optional<Post> rewrite(UUID id, UnaryOperator<Post> change) {
+        Post stored;
+        long seq;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            Location old = index.get(id);
+            if (old == null) return Optional.empty();
+            Post current = old.read();
+            Post updated = change.apply(current);
+            if (updated == null) return Optional.empty();
+            stored = updated.withVersion(current.getVersion() + 1);
+            index.put(id, appendLocked(Segment.encodePut(stored)));
+            old.segment.markDead(old.length);
+            seq = groupCommit.appended();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(seq);
+        return Optional.of(stored);
+    }
+
+    private Location appendLocked(ByteBuffer record) {
+        int length = record.remaining();
+        if (length > settings.getSegmentSizeBytes()) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds segment size " + settings.getSegmentSizeBytes());
+        }
+        if (active.remaining() < length) roll();
+        Segment s = active;
+        int offset = s.append(record);
+        if (settings.getFsyncPolicy() == FsyncPolicy.ALWAYS) s.force(offset, length);
+        return new Location(s, offset, length);
+    }
+
+    // Caller holds writeLock. The sealed segment is forced here so later group commits and interval
+    // syncs only ever have to force the active one.
+    private void roll() {
+        try {
+            active.force();
+            Segment next = Segment.open(active.id + 1, segmentPath(active.id + 1), settings.getSegmentSizeBytes());
+            segments.put(next.id, next);
+            active = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll post log segment", e);
+        }
+    }
+
+    private void awaitDurable(long seq) {
+        if (settings.getFsyncPolicy() == FsyncPolicy.GROUP) groupCommit.awaitDurable(seq);
+    }
+
+    private void forceQuietly() {
+        try {
+            Segment s = active;
+            if (s != null && !closed) s.force();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Repository is closed");
+    }
+
+    private Path segmentPath(long id) {
+        return settings.getDirectory().resolve(Segment.fileName(id));
+    }
+
+    // --- recovery ---
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(settings.getDirectory())) {
+            list.filter(p -> Segment.parseId(p) >= 0).forEach(files::add);
+        }
+        files.sort((a, b) -> Long.compare(Segment.parseId(a), Segment.parseId(b)));
+
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            Segment s = Segment.open(Segment.parseId(file), file, settings.getSegmentSizeBytes());
+            segments.put(s.id, s);
+            replay(s, i < files.size() - 1);
+        }
+        if (segments.isEmpty()) {
+            Segment first = Segment.open(0, segmentPath(0), settings.getSegmentSizeBytes());
+            segments.put(first.id, first);
+        }
+        active = segments.lastEntry().getValue();
+    }
+
+    private void replay(Segment s, boolean sealed) throws IOException {
+        int offset = 0;
+        int length;
+        while ((length = s.validRecordLength(offset)) > 0) {
+            UUID id = s.id(offset);
+            Location previous;
+            if (s.type(offset) == Segment.PUT) {
+                previous = index.put(id, new Location(s, offset, length));
+                if (previous == null) byTime.add(new PostCursor(s.createdAt(offset), id));
+            } else {
+                previous = index.remove(id);
+                if (previous != null) byTime.remove(new PostCursor(previous.segment.createdAt(previous.offset), id));
+                s.markDead(length);
+            }
+            if (previous != null) previous.segment.markDead(previous.length);
+            offset += length;
+        }
+        if (sealed && !s.endsAt(offset)) {
+            throw new IOException("Corrupt record at offset " + offset + " of sealed segment " + s.path);
+        }
+        // In the newest segment, anything after the last valid record is a torn write.
+        s.recoveredTo(offset);
+    }
+
+    // --- compaction ---
+
+    /**
+     * Rewrites every sealed segment whose dead share is at least the configured ratio. Waits for a
+     * pass already running, background or not, to finish first.
+     */
+    public int compact() {
+        compactionLock.lock();
+        try {
+            int compacted = 0;
+            for (Segment s : List.copyOf(segments.values())) {
+                if (closed) break;
+                if (s == active || s.deadRatio() < settings.getCompactionMinDeadRatio()) continue;
+                try {
+                    compact(s);
+                    compacted++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to compact " + s.path, e);
+                }
+            }
+            return compacted;
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private void compact(Segment s) throws IOException {
+        int end = s.writePosition();
+        int offset = 0;
+        while (offset < end) {
+            int length = s.validRecordLength(offset);
+            if (length <= 0) break;
+            UUID id = s.id(offset);
+            boolean put = s.type(offset) == Segment.PUT;
+            // Lock per record so writers are never held up for a whole segment.
+            writeLock.lock();
+            try {
+                ensureOpen();
+                Location current = index.get(id);
+                if (put && current != null && current.segment == s && current.offset == offset) {
+                    index.put(id, appendLocked(s.copyRecord(offset, length)));
+                } else if (!put && current == null && hasOlderThan(s)) {
+                    // Still needed to shadow a PUT in an older segment on recovery.
+                    Location moved = appendLocked(s.copyRecord(offset, length));
+                    moved.segment.markDead(moved.length);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            offset += length;
+        }
+
+        writeLock.lock();
+        try {
+            // The copies must be durable before the only other copy goes away.
+            active.force();
+            segments.remove(s.id);
+        } finally {
+            writeLock.unlock();
+        }
+        s.delete();
+    }
+
+    private boolean hasOlderThan(Segment s) {
+        return segments.lowerKey(s.id) != null;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            writeLock.unlock();
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment s : segments.values()) {
+            s.force();
+            s.close();
+        }
+        groupCommit.markAllDurable();
+    }
+
+    // --- reads ---
+
+    private Iterator<Post> scan(PostCursor after, PostFilter filter) {
+        NavigableSet<PostCursor> keys = after == null ? byTime : byTime.tailSet(after, false);
+        Iterator<PostCursor> it = keys.iterator();
+        return new Iterator<>() {
+            private Post next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && it.hasNext()) {
+                    Location loc = index.get(it.next().getId());
+                    if (loc == null) continue;
+                    Post p = loc.read();
+                    if (filter.matches(p)) next = p;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Post next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Post p = next;
+                next = null;
+                return p;
+            }
+        };
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        private Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        private Post read() {
+            return segment.readPost(offset);
+        }
+    }
+
+    /**
+     * Group commit for {@link FsyncPolicy#GROUP}: writers take a sequence number under the write
+     * lock and then wait outside it. The first waiter to find no force in progress becomes the
+     * leader and forces the active segment once for everything appended so far; the rest wait for
+     * that force (or the next one) to cover their sequence number. Records in segments older than
+     * the active one are already durable because {@link #roll()} forces a segment when sealing it.
+     */
+    private final class GroupCommit {
+        private long appendedSeq;
+        private long durableSeq;
+        private boolean forcing;
+
+        // Caller holds writeLock.
+        private synchronized long appended() {
+            return ++appendedSeq;
+        }
+
+        private void awaitDurable(long seq) {
+            boolean leader = false;
+            long target = 0;
+            Segment segment = null;
+            synchronized (this) {
+                while (durableSeq < seq) {
+                    if (!forcing) {
+                        forcing = true;
+                        leader = true;
+                        target = appendedSeq;
+                        segment = active;
+                        break;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for fsync", e);
+                    }
+                }
+            }
+            if (!leader) return;
+            try {
+                segment.force();
+            } finally {
+                synchronized (this) {
+                    forcing = false;
+                    durableSeq = Math.max(durableSeq, target);
+                    notifyAll();
+                }
+            }
+        }
+
+        private synchronized void markAllDurable() {
+            durableSeq = appendedSeq;
+            notifyAll();
+        }
+    }
+}
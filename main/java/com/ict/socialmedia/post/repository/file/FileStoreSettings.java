@@ -0,0 +1,69 @@
+package com.ict.socialmedia.post.repository.file;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+public final class FileStoreSettings {
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long compactionIntervalMillis;
+    private final double compactionMinDeadRatio;
+
+    public FileStoreSettings(
+            Path directory,
+            int segmentSizeBytes,
+            FsyncPolicy fsyncPolicy,
+            long fsyncIntervalMillis,
+            long compactionIntervalMillis,
+            double compactionMinDeadRatio
+    ) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        if (segmentSizeBytes < 4096) throw new IllegalArgumentException("segmentSizeBytes must be >= 4096");
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy");
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && fsyncIntervalMillis < 1) {
+            throw new IllegalArgumentException("fsyncIntervalMillis must be >= 1 with INTERVAL");
+        }
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        if (compactionIntervalMillis < 0) throw new IllegalArgumentException("compactionIntervalMillis must be >= 0");
+        this.compactionIntervalMillis = compactionIntervalMillis;
+        if (compactionMinDeadRatio <= 0 || compactionMinDeadRatio > 1) {
+            throw new IllegalArgumentException("compactionMinDeadRatio must be in (0, 1]");
+        }
+        this.compactionMinDeadRatio = compactionMinDeadRatio;
+    }
+
+    public static FileStoreSettings defaults(Path directory) {
+        return new FileStoreSettings(directory, 64 * 1024 * 1024, FsyncPolicy.GROUP, 100, 60_000, 0.5);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** Size each segment file is mapped at; a post larger than this cannot be stored. */
+    public int getSegmentSizeBytes() {
+        return segmentSizeBytes;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /** Only used with {@link FsyncPolicy#INTERVAL}. */
+    public long getFsyncIntervalMillis() {
+        return fsyncIntervalMillis;
+    }
+
+    /** 0 disables background compaction. */
+    public long getCompactionIntervalMillis() {
+        return compactionIntervalMillis;
+    }
+
+    /** A sealed segment is rewritten once at least this share of its bytes is superseded. */
+    public double getCompactionMinDeadRatio() {
+        return compactionMinDeadRatio;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ict.socialmedia.post.repository.file;
+
+/** When appended records are forced to disk. */
+public enum FsyncPolicy {
+    /** Force every write before it returns. Slowest; nothing acknowledged is ever lost. */
+    ALWAYS,
+    /**
+     * Writers wait until a force covers their record, but one force is shared by every writer that
+     * appended while the previous one was running. Same guarantee as ALWAYS at a fraction of the
+     * fsync count under concurrency.
+     */
+    GROUP,
+    /** A background thread forces on a fixed interval; a crash can lose that much acknowledged data. */
+    INTERVAL;
+
+    public static FsyncPolicy parseOrDefault(String raw, FsyncPolicy fallback) {
+        if (raw == null || raw.isBlank()) return fallback;
+        try {
+            return FsyncPolicy.valueOf(raw.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
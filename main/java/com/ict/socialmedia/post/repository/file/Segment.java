@@ -0,0 +1,260 @@
+package com.ict.socialmedia.post.repository.file;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped log file. Records are appended at {@link #writePosition} and never modified:
+ *
+ * <pre>
+ *   int  bodyLength          length of type + payload
+ *   int  crc32c              over type + payload
+ *   byte type                PUT or DELETE
+ *   ...  payload             PUT: the post; DELETE: the id
+ * </pre>
+ *
+ * A mapped file is zero-filled past the last record, so a zero length marks the end of the log. A
+ * torn write at the tail fails its checksum and is dropped on recovery, together with everything
+ * after it.
+ *
+ * <p>Appends are serialized by the repository's write lock. Reads use absolute gets on the shared
+ * mapping, which never touch the buffer's position, so any number of readers can decode records
+ * straight out of the page cache without a read syscall or a lock.
+ */
+final class Segment {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final int HEADER_BYTES = 9;
+
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+
+    final long id;
+    final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private volatile int writePosition;
+    private final AtomicLong deadBytes = new AtomicLong();
+
+    private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    static Segment open(long id, Path path, int size) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int mapSize = (int) Math.max(size, ch.size());
+            return new Segment(id, path, ch, ch.map(FileChannel.MapMode.READ_WRITE, 0, mapSize));
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    static String fileName(long id) {
+        return String.format("segment-%010d.log", id);
+    }
+
+    static long parseId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("segment-") || !name.endsWith(".log")) return -1;
+        try {
+            return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    int remaining() {
+        return capacity - writePosition;
+    }
+
+    long deadBytes() {
+        return deadBytes.get();
+    }
+
+    void markDead(int recordLength) {
+        deadBytes.addAndGet(recordLength);
+    }
+
+    double deadRatio() {
+        int used = writePosition;
+        return used == 0 ? 0.0 : (double) deadBytes.get() / used;
+    }
+
+    /** Appends an encoded record and returns its offset. Caller holds the write lock. */
+    int append(ByteBuffer record) {
+        int offset = writePosition;
+        int len = record.remaining();
+        buffer.put(offset, record, record.position(), len);
+        writePosition = offset + len;
+        return offset;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /** Forces only the given byte range, e.g. one just-appended record. */
+    void force(int offset, int length) {
+        buffer.force(offset, length);
+    }
+
+    /**
+     * Validates the record at {@code offset} and returns its total length, or -1 at the end of the
+     * log or at a torn/corrupt record.
+     */
+    int validRecordLength(int offset) {
+        if (offset + HEADER_BYTES > capacity) return -1;
+        int bodyLength = buffer.getInt(offset);
+        if (bodyLength <= 0 || offset + 8 + (long) bodyLength > capacity) return -1;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, bodyLength));
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) return -1;
+        return 8 + bodyLength;
+    }
+
+    /** True if no record starts at {@code offset}: the zero fill past the last one, or the end of the file. */
+    boolean endsAt(int offset) {
+        return offset + 4 > capacity || buffer.getInt(offset) == 0;
+    }
+
+    /**
+     * Sets the append position after recovery and zeroes everything after it. Pages can reach disk
+     * out of order, so intact records may follow a torn one; left in place, they would replay after
+     * whatever is appended over the torn record. The zeroed range is forced before returning.
+     */
+    void recoveredTo(int position) {
+        int dirtyFrom = -1;
+        int p = position;
+        for (; p + 8 <= capacity; p += 8) {
+            if (buffer.getLong(p) != 0) {
+                buffer.putLong(p, 0);
+                if (dirtyFrom < 0) dirtyFrom = p;
+            }
+        }
+        for (; p < capacity; p++) {
+            if (buffer.get(p) != 0) {
+                buffer.put(p, (byte) 0);
+                if (dirtyFrom < 0) dirtyFrom = p;
+            }
+        }
+        if (dirtyFrom >= 0) buffer.force(dirtyFrom, capacity - dirtyFrom);
+        writePosition = position;
+    }
+
+    byte type(int offset) {
+        return buffer.get(offset + 8);
+    }
+
+    UUID id(int offset) {
+        int p = offset + HEADER_BYTES;
+        return new UUID(buffer.getLong(p), buffer.getLong(p + 8));
+    }
+
+    /** createdAt of a PUT record, read without decoding the strings. */
+    Instant createdAt(int offset) {
+        int p = offset + HEADER_BYTES + 28;
+        return Instant.ofEpochSecond(buffer.getLong(p), buffer.getInt(p + 8));
+    }
+
+    Post readPost(int offset) {
+        int p = offset + HEADER_BYTES;
+        UUID id = new UUID(buffer.getLong(p), buffer.getLong(p + 8));
+        long version = buffer.getLong(p + 16);
+        int likes = buffer.getInt(p + 24);
+        Instant createdAt = Instant.ofEpochSecond(buffer.getLong(p + 28), buffer.getInt(p + 36));
+        Instant updatedAt = Instant.ofEpochSecond(buffer.getLong(p + 40), buffer.getInt(p + 48));
+        Visibility visibility = VISIBILITIES[buffer.get(p + 52)];
+        p += 53;
+        int authorLen = buffer.getInt(p);
+        String author = string(p + 4, authorLen);
+        p += 4 + authorLen;
+        String content = string(p + 4, buffer.getInt(p));
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version);
+    }
+
+    /** Copies the raw bytes of a record, e.g. to move it into another segment during compaction. */
+    ByteBuffer copyRecord(int offset, int length) {
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.put(0, buffer, offset, length);
+        return out;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Closes and deletes the file. Readers still holding an offset into this segment keep working:
+     * the mapping stays valid until the buffer is garbage collected.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    // --- encoding ---
+
+    static ByteBuffer encodePut(Post post) {
+        byte[] author = post.getAuthor().getBytes(StandardCharsets.UTF_8);
+        byte[] content = post.getContent().getBytes(StandardCharsets.UTF_8);
+        int body = 1 + 53 + 4 + author.length + 4 + content.length;
+        ByteBuffer b = ByteBuffer.allocate(8 + body);
+        b.putInt(body).putInt(0).put(PUT);
+        b.putLong(post.getId().getMostSignificantBits()).putLong(post.getId().getLeastSignificantBits());
+        b.putLong(post.getVersion());
+        b.putInt(post.getLikes());
+        b.putLong(post.getCreatedAt().getEpochSecond()).putInt(post.getCreatedAt().getNano());
+        b.putLong(post.getUpdatedAt().getEpochSecond()).putInt(post.getUpdatedAt().getNano());
+        b.put((byte) post.getVisibility().ordinal());
+        b.putInt(author.length).put(author);
+        b.putInt(content.length).put(content);
+        return seal(b);
+    }
+
+    static ByteBuffer encodeDelete(UUID id) {
+        int body = 1 + 16;
+        ByteBuffer b = ByteBuffer.allocate(8 + body);
+        b.putInt(body).putInt(0).put(DELETE);
+        b.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return seal(b);
+    }
+
+    private static ByteBuffer seal(ByteBuffer b) {
+        CRC32C crc = new CRC32C();
+        crc.update(b.array(), 8, b.position() - 8);
+        b.putInt(4, (int) crc.getValue());
+        return b.flip();
+    }
+}
@@ -0,0 +1,319 @@
+package com.ict.socialmedia.post.repository.memory;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.DuplicatePostException;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.search.InvertedIndex;
+import com.ict.socialmedia.post.repository.search.TermScorer;
+import com.ict.socialmedia.post.repository.search.TextAnalyzer;
+import com.ict.socialmedia.post.repository.search.TopHits;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Heap-resident repository with the same semantics as the database backends.
+ *
+ * <p>Rows live in a {@link ConcurrentHashMap} keyed by id. A skip list of {@link PostCursor} keys,
+ * newest first, serves ordering and keyset pagination, and a per-author skip list serves
+ * author-filtered pages. Since {@code createdAt} and {@code id} never change, the time index is
+ * only touched by creates and deletes.
+ *
+ * <p>An {@link InvertedIndex} over content serves {@link #search}.
+ *
+ * <p>Reads take no locks: they walk an index and resolve ids against the primary map, skipping
+ * keys whose row is gone. Writes lock only the stripe owning the id, so writers on different posts
+ * proceed in parallel and each post's read-check-write sequence is atomic.
+ */
+public class InMemoryPostRepository implements PostRepository {
+    private final ConcurrentHashMap<UUID, Post> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<PostCursor> byTime = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<PostCursor>> byAuthor = new ConcurrentHashMap<>();
+    private final InvertedIndex byTerm = new InvertedIndex();
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    public InMemoryPostRepository() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public InMemoryPostRepository(int concurrency) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency must be >= 1");
+        int n = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = n - 1;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public List<Post> findAll() {
+        List<Post> out = new ArrayList<>(byId.size());
+        for (PostCursor k : byTime) {
+            Post p = byId.get(k.getId());
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        Iterator<Post> it = scan(after, filter == null ? PostFilter.all() : filter);
+        List<Post> rows = new ArrayList<>(Math.min(limit + 1, 64));
+        while (rows.size() <= limit && it.hasNext()) {
+            rows.add(it.next());
+        }
+        return PostPage.fromOverfetch(rows, limit);
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        Iterator<Post> it = scan(null, filter == null ? PostFilter.all() : filter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Scores only the posts the inverted index lists for some query term. */
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        List<String> terms = TextAnalyzer.queryTerms(query);
+        if (terms.isEmpty()) return SearchPage.empty();
+        PostFilter f = filter == null ? PostFilter.all() : filter;
+        TopHits top = new TopHits(after, limit);
+        for (UUID id : byTerm.candidates(terms)) {
+            Post p = byId.get(id);
+            // Scored from the current row: a candidate whose content just changed scores 0 and is dropped.
+            if (p != null && f.matches(p)) top.offer(p, TermScorer.score(terms, p.getContent()));
+        }
+        return top.toPage();
+    }
+
+    @Override
+    public Optional<Post> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public Post create(Post post) {
+        Objects.requireNonNull(post, "post");
+        ReentrantLock lock = lockFor(post.getId());
+        lock.lock();
+        try {
+            if (byId.putIfAbsent(post.getId(), post) != null) {
+                throw new DuplicatePostException(post.getId());
+            }
+            PostCursor key = PostCursor.of(post);
+            byTime.add(key);
+            indexAuthor(post.getAuthor(), key);
+            byTerm.add(post.getId(), post.getContent());
+            return post;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean update(Post post) {
+        Objects.requireNonNull(post, "post");
+        ReentrantLock lock = lockFor(post.getId());
+        lock.lock();
+        try {
+            Post current = byId.get(post.getId());
+            if (current == null) return false;
+            replace(current, current.withUpdatedFields(
+                    post.getAuthor(), post.getContent(), post.getVisibility(), post.getLikes(), post.getUpdatedAt()
+            ));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Post current = byId.get(id);
+            if (current == null || current.getVersion() != expectedVersion) return Optional.empty();
+            return Optional.of(replace(current, current.withUpdatedFields(author, content, visibility, likes, updatedAt)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Post current = byId.get(id);
+            if (current == null) return false;
+            remove(current);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Post current = byId.get(id);
+            if (current == null || current.getVersion() != expectedVersion) return false;
+            remove(current);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Post current = byId.get(id);
+            if (current == null) return false;
+            int likes = Math.max(0, Math.addExact(current.getLikes(), delta));
+            replace(current, current.withUpdatedFields(
+                    current.getAuthor(), current.getContent(), current.getVisibility(), likes, Instant.now()
+            ));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (UUID id : byId.keySet()) {
+            delete(id);
+        }
+    }
+
+    // Caller holds the id's stripe lock.
+    private void remove(Post current) {
+        byId.remove(current.getId());
+        PostCursor key = PostCursor.of(current);
+        byTime.remove(key);
+        unindexAuthor(current.getAuthor(), key);
+        byTerm.remove(current.getId(), current.getContent());
+    }
+
+    private Post replace(Post current, Post updated) {
+        Post stored = updated.withVersion(current.getVersion() + 1);
+        if (!current.getAuthor().equals(stored.getAuthor())) {
+            PostCursor key = PostCursor.of(current);
+            indexAuthor(stored.getAuthor(), key);
+            unindexAuthor(current.getAuthor(), key);
+        }
+        byTerm.replace(stored.getId(), current.getContent(), stored.getContent());
+        byId.put(stored.getId(), stored);
+        return stored;
+    }
+
+    // Both run inside the map's per-key compute so an add can never land in a set that a
+    // concurrent remove has just dropped as empty.
+    private void indexAuthor(String author, PostCursor key) {
+        byAuthor.compute(author, (a, keys) -> {
+            if (keys == null) keys = new ConcurrentSkipListSet<>();
+            keys.add(key);
+            return keys;
+        });
+    }
+
+    private void unindexAuthor(String author, PostCursor key) {
+        byAuthor.computeIfPresent(author, (a, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private ReentrantLock lockFor(UUID id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    private Iterator<Post> scan(PostCursor after, PostFilter filter) {
+        NavigableSet<PostCursor> index;
+        if (filter.getAuthor() != null) {
+            index = byAuthor.get(filter.getAuthor());
+            if (index == null) return Collections.emptyIterator();
+        } else {
+            index = byTime;
+        }
+        if (after != null) index = index.tailSet(after, false);
+        return new MatchingIterator(index.iterator(), filter);
+    }
+
+    /** Resolves index keys against the primary map and applies the filter to the current row. */
+    private final class MatchingIterator implements Iterator<Post> {
+        private final Iterator<PostCursor> keys;
+        private final PostFilter filter;
+        private Post next;
+
+        private MatchingIterator(Iterator<PostCursor> keys, PostFilter filter) {
+            this.keys = keys;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && keys.hasNext()) {
+                Post p = byId.get(keys.next().getId());
+                if (p != null && matches(p)) next = p;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Post next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Post p = next;
+            next = null;
+            return p;
+        }
+
+        private boolean matches(Post p) {
+            // Re-checked because the author index can briefly hold a key under the old author.
+            return filter.matches(p);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.RepositoryDecorator;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Records latency, rows and failures for every call into the wrapped repository. "Rows" is what a
+ * read returned or how many rows a write affected. For {@link #stream} the latency covers opening
+ * the stream only; rows are counted as the caller consumes them.
+ */
+@SuppressWarnings("try") // close() passes on whatever the wrapped repositories throw
+public class InstrumentedPostRepository implements PostRepository, RepositoryDecorator, AutoCloseable {
+    private final PostRepository delegate;
+    private final RepositoryMetrics metrics;
+    private final List<AutoCloseable> publishers;
+
+    /** @param publishers closed with this repository, e.g. a {@link MetricsJmx} or {@link MetricsReporter} */
+    public InstrumentedPostRepository(PostRepository delegate, RepositoryMetrics metrics, AutoCloseable... publishers) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        this.publishers = List.of(publishers);
+    }
+
+    @Override
+    public PostRepository getDelegate() {
+        return delegate;
+    }
+
+    public RepositoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public List<Post> findAll() {
+        long t0 = System.nanoTime();
+        try {
+            List<Post> r = delegate.findAll();
+            done(Operation.FIND_ALL, t0, r.size());
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.FIND_ALL, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        long t0 = System.nanoTime();
+        try {
+            PostPage r = delegate.findPage(after, limit, filter);
+            done(Operation.FIND_PAGE, t0, r.getItems().size());
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.FIND_PAGE, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PostPage findByAuthor(String author, Set<Visibility> visibilities, PostCursor after, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            PostPage r = delegate.findByAuthor(author, visibilities, after, limit);
+            done(Operation.FIND_BY_AUTHOR, t0, r.getItems().size());
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.FIND_BY_AUTHOR, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PostPage findPublicFeed(PostCursor after, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            PostPage r = delegate.findPublicFeed(after, limit);
+            done(Operation.FIND_PUBLIC_FEED, t0, r.getItems().size());
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.FIND_PUBLIC_FEED, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        long t0 = System.nanoTime();
+        try {
+            Stream<Post> r = delegate.stream(filter);
+            done(Operation.STREAM, t0, 0);
+            OperationMetrics m = metrics.get(Operation.STREAM);
+            return r.peek(p -> m.addRows(1));
+        } catch (RuntimeException e) {
+            failed(Operation.STREAM, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            SearchPage r = delegate.search(query, filter, after, limit);
+            done(Operation.SEARCH, t0, r.getHits().size());
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.SEARCH, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Post> findById(UUID id) {
+        long t0 = System.nanoTime();
+        try {
+            Optional<Post> r = delegate.findById(id);
+            done(Operation.FIND_BY_ID, t0, r.isPresent() ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.FIND_BY_ID, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Post create(Post post) {
+        long t0 = System.nanoTime();
+        try {
+            Post r = delegate.create(post);
+            done(Operation.CREATE, t0, 1);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.CREATE, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean update(Post post) {
+        long t0 = System.nanoTime();
+        try {
+            boolean r = delegate.update(post);
+            done(Operation.UPDATE, t0, r ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.UPDATE, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        long t0 = System.nanoTime();
+        try {
+            Optional<Post> r = delegate.updateIfVersion(id, expectedVersion, author, content, visibility, likes, updatedAt);
+            done(Operation.UPDATE_IF_VERSION, t0, r.isPresent() ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.UPDATE_IF_VERSION, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        long t0 = System.nanoTime();
+        try {
+            boolean r = delegate.delete(id);
+            done(Operation.DELETE, t0, r ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.DELETE, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        long t0 = System.nanoTime();
+        try {
+            boolean r = delegate.deleteIfVersion(id, expectedVersion);
+            done(Operation.DELETE_IF_VERSION, t0, r ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.DELETE_IF_VERSION, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        long t0 = System.nanoTime();
+        try {
+            boolean r = delegate.incrementLikes(id, delta);
+            done(Operation.INCREMENT_LIKES, t0, r ? 1 : 0);
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.INCREMENT_LIKES, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        long t0 = System.nanoTime();
+        try {
+            BatchResult r = delegate.incrementLikesAll(deltas);
+            done(Operation.INCREMENT_LIKES_ALL, t0, r.count(BatchResult.Status.APPLIED));
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.INCREMENT_LIKES_ALL, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult createAll(Collection<Post> posts) {
+        long t0 = System.nanoTime();
+        try {
+            BatchResult r = delegate.createAll(posts);
+            done(Operation.CREATE_ALL, t0, r.count(BatchResult.Status.APPLIED));
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.CREATE_ALL, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Post> posts) {
+        long t0 = System.nanoTime();
+        try {
+            BatchResult r = delegate.updateAll(posts);
+            done(Operation.UPDATE_ALL, t0, r.count(BatchResult.Status.APPLIED));
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.UPDATE_ALL, t0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        long t0 = System.nanoTime();
+        try {
+            BatchResult r = delegate.deleteAll(ids);
+            done(Operation.DELETE_ALL, t0, r.count(BatchResult.Status.APPLIED));
+            return r;
+        } catch (RuntimeException e) {
+            failed(Operation.DELETE_ALL, t0, e);
+            throw e;
+        }
+    }
+
+    private void done(Operation op, long t0, long rows) {
+        metrics.get(op).record(System.nanoTime() - t0, rows);
+    }
+
+    private void failed(Operation op, long t0, RuntimeException e) {
+        metrics.get(op).recordError(System.nanoTime() - t0, e);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (AutoCloseable p : publishers) {
+            p.close();
+        }
+        if (delegate instanceof AutoCloseable c) c.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers one MXBean per operation under
+ * {@code com.ict.socialmedia.post:type=Repository,name=<metrics name>,operation=<method>}.
+ */
+public final class MetricsJmx implements AutoCloseable {
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public MetricsJmx(RepositoryMetrics metrics) {
+        try {
+            for (OperationMetrics m : metrics.all()) {
+                ObjectName name = new ObjectName("com.ict.socialmedia.post:type=Repository,name="
+                        + ObjectName.quote(metrics.getName()) + ",operation=" + m.getOperation().getMethodName());
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+                server.registerMBean(new OperationStats(m), name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            close();
+            throw new IllegalStateException("Failed to register repository MBeans", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException ignored) {
+            }
+        }
+        registered.clear();
+    }
+
+    private static final class OperationStats implements OperationStatsMXBean {
+        private final OperationMetrics m;
+
+        private OperationStats(OperationMetrics m) {
+            this.m = m;
+        }
+
+        @Override
+        public long getCalls() {
+            return m.latency().getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return m.getErrors();
+        }
+
+        @Override
+        public Map<String, Long> getErrorsByCause() {
+            return m.getErrorsByCause();
+        }
+
+        @Override
+        public long getRows() {
+            return m.getRows();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return m.latency().getMeanNanos() / 1_000.0;
+        }
+
+        @Override
+        public long getP50Micros() {
+            return RepositoryMetrics.micros(m.latency().valueAt(0.50));
+        }
+
+        @Override
+        public long getP99Micros() {
+            return RepositoryMetrics.micros(m.latency().valueAt(0.99));
+        }
+
+        @Override
+        public long getP999Micros() {
+            return RepositoryMetrics.micros(m.latency().valueAt(0.999));
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return RepositoryMetrics.micros(m.latency().getMaxNanos());
+        }
+    }
+}
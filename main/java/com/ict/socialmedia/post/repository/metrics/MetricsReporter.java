@@ -0,0 +1,96 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically emits one NDJSON line per active operation, either appended to a file or logged.
+ * Counters are cumulative since start-up, so consecutive lines can be diffed for rates.
+ */
+public final class MetricsReporter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private final RepositoryMetrics metrics;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    /** @param file NDJSON output, or null to log each line at INFO instead */
+    public MetricsReporter(RepositoryMetrics metrics, Path file, long intervalMillis) {
+        if (intervalMillis < 1) throw new IllegalArgumentException("intervalMillis must be >= 1");
+        this.metrics = metrics;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "repository-metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::reportQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void report() throws IOException {
+        String ts = Instant.now().toString();
+        StringBuilder out = new StringBuilder();
+        for (OperationMetrics m : metrics.all()) {
+            LatencyHistogram.Snapshot s = m.latency();
+            if (s.getCount() == 0) continue;
+            StringBuilder line = new StringBuilder(256)
+                    .append("{\"ts\":\"").append(ts)
+                    .append("\",\"repository\":\"").append(metrics.getName())
+                    .append("\",\"operation\":\"").append(m.getOperation().getMethodName())
+                    .append("\",\"calls\":").append(s.getCount())
+                    .append(",\"errors\":").append(m.getErrors())
+                    .append(",\"rows\":").append(m.getRows())
+                    .append(",\"meanUs\":").append(Math.round(s.getMeanNanos() / 1_000.0))
+                    .append(",\"p50Us\":").append(RepositoryMetrics.micros(s.valueAt(0.50)))
+                    .append(",\"p99Us\":").append(RepositoryMetrics.micros(s.valueAt(0.99)))
+                    .append(",\"p999Us\":").append(RepositoryMetrics.micros(s.valueAt(0.999)))
+                    .append(",\"maxUs\":").append(RepositoryMetrics.micros(s.getMaxNanos()))
+                    .append(",\"errorsByCause\":{");
+            boolean first = true;
+            for (Map.Entry<String, Long> e : m.getErrorsByCause().entrySet()) {
+                if (!first) line.append(',');
+                line.append('"').append(e.getKey()).append("\":").append(e.getValue());
+                first = false;
+            }
+            line.append("}}");
+            if (file == null) {
+                log.info(line.toString());
+            } else {
+                out.append(line).append('\n');
+            }
+        }
+        if (file != null && out.length() > 0) {
+            Files.writeString(file, out, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private void reportQuietly() {
+        try {
+            report();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write repository metrics: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reportQuietly();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+/** The {@link com.ict.socialmedia.post.repository.PostRepository} methods that are measured. */
+public enum Operation {
+    FIND_ALL("findAll"),
+    FIND_PAGE("findPage"),
+    FIND_BY_AUTHOR("findByAuthor"),
+    FIND_PUBLIC_FEED("findPublicFeed"),
+    STREAM("stream"),
+    SEARCH("search"),
+    FIND_BY_ID("findById"),
+    CREATE("create"),
+    UPDATE("update"),
+    UPDATE_IF_VERSION("updateIfVersion"),
+    DELETE("delete"),
+    DELETE_IF_VERSION("deleteIfVersion"),
+    INCREMENT_LIKES("incrementLikes"),
+    INCREMENT_LIKES_ALL("incrementLikesAll"),
+    CREATE_ALL("createAll"),
+    UPDATE_ALL("updateAll"),
+    DELETE_ALL("deleteAll");
+
+    private final String methodName;
+
+    Operation(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
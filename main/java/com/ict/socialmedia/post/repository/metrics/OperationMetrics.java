@@ -0,0 +1,68 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency, call, row and error counters for one repository method. */
+public final class OperationMetrics {
+    private final Operation operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+
+    OperationMetrics(Operation operation) {
+        this.operation = operation;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    void record(long nanos, long rowCount) {
+        latency.record(nanos);
+        if (rowCount > 0) rows.add(rowCount);
+    }
+
+    void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    void recordError(long nanos, Throwable error) {
+        latency.record(nanos);
+        errors.increment();
+        errorsByCause.computeIfAbsent(rootCause(error).getClass().getName(), k -> new LongAdder()).increment();
+    }
+
+    public LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Failures keyed by the class of the innermost cause, so a {@code RuntimeException("findById
+     * failed")} wrapping a PSQLException is counted as the PSQLException.
+     */
+    public Map<String, Long> getErrorsByCause() {
+        Map<String, Long> out = new TreeMap<>();
+        errorsByCause.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        Throwable c = t;
+        while (c.getCause() != null && c.getCause() != c) {
+            c = c.getCause();
+        }
+        return c;
+    }
+}
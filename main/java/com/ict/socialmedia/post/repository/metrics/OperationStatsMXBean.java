@@ -0,0 +1,24 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import java.util.Map;
+
+/** JMX view of one repository method; times are in microseconds. */
+public interface OperationStatsMXBean {
+    long getCalls();
+
+    long getErrors();
+
+    Map<String, Long> getErrorsByCause();
+
+    long getRows();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+}
@@ -0,0 +1,53 @@
+package com.ict.socialmedia.post.repository.metrics;
+
+import java.util.List;
+
+/** One {@link OperationMetrics} per {@link Operation}, looked up by ordinal on the hot path. */
+public final class RepositoryMetrics {
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final String name;
+    private final OperationMetrics[] byOperation = new OperationMetrics[OPERATIONS.length];
+
+    public RepositoryMetrics(String name) {
+        this.name = name;
+        for (Operation op : OPERATIONS) {
+            byOperation[op.ordinal()] = new OperationMetrics(op);
+        }
+    }
+
+    /** Label for reports and JMX object names, e.g. the backend type. */
+    public String getName() {
+        return name;
+    }
+
+    public OperationMetrics get(Operation op) {
+        return byOperation[op.ordinal()];
+    }
+
+    public List<OperationMetrics> all() {
+        return List.of(byOperation);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("RepositoryMetrics{").append(name);
+        for (OperationMetrics m : byOperation) {
+            LatencyHistogram.Snapshot s = m.latency();
+            if (s.getCount() == 0) continue;
+            sb.append("\n  ").append(m.getOperation().getMethodName())
+                    .append(": calls=").append(s.getCount())
+                    .append(", errors=").append(m.getErrors())
+                    .append(", rows=").append(m.getRows())
+                    .append(", p50=").append(micros(s.valueAt(0.50)))
+                    .append("us, p99=").append(micros(s.valueAt(0.99)))
+                    .append("us, p999=").append(micros(s.valueAt(0.999)))
+                    .append("us, max=").append(micros(s.getMaxNanos())).append("us");
+        }
+        return sb.append("\n}").toString();
+    }
+
+    static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+}
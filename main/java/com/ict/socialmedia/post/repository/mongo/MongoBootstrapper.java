@@ -1,17 +1,28 @@
 package com.ict.socialmedia.post.repository.mongo;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.UpdateOptions;
 import org.bson.Document;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.CRC32;
 
 public final class MongoBootstrapper {
+    private static final String HISTORY = "schema_history";
+
     private MongoBootstrapper() {
     }
 
@@ -21,6 +32,18 @@ public final class MongoBootstrapper {
             String database,
             String collectionName,
             boolean seed
+    ) {
+        bootstrapIfEnabled(enabled, client, database, collectionName, seed, false);
+    }
+
+    /** @param binaryIds seed posts get binary UUID ids, matching a repository that writes them */
+    public static void bootstrapIfEnabled(
+            boolean enabled,
+            MongoClient client,
+            String database,
+            String collectionName,
+            boolean seed,
+            boolean binaryIds
     ) {
         if (!enabled) return;
 
@@ -31,26 +54,25 @@ public final class MongoBootstrapper {
         MongoDatabase db = client.getDatabase(database);
         MongoCollection<Document> col = db.getCollection(collectionName);
 
-        col.createIndex(Indexes.descending("createdAt"));
-        col.createIndex(Indexes.ascending("author"));
+        migrateIndexes(db, col);
 
         if (!seed) return;
 
-        upsertSeed(col,
+        upsertSeed(col, binaryIds,
                 "11111111-1111-1111-1111-111111111111",
                 "alice",
                 "Hello, world! This is my first post.",
                 "PUBLIC",
                 3
         );
-        upsertSeed(col,
+        upsertSeed(col, binaryIds,
                 "22222222-2222-2222-2222-222222222222",
                 "bob",
                 "Studying ICT repository pattern today.",
                 "FRIENDS",
                 1
         );
-        upsertSeed(col,
+        upsertSeed(col, binaryIds,
                 "33333333-3333-3333-3333-333333333333",
                 "carol",
                 "Private note: This is is some prviate post.",
@@ -59,8 +81,82 @@ public final class MongoBootstrapper {
         );
     }
 
+    /**
+     * Index changes as numbered steps, each recorded in {@value #HISTORY} with a checksum of what it
+     * does, so a restart skips the ones already done instead of re-issuing every createIndex. A
+     * step whose definition changed after it ran fails startup; add a new step instead. Index builds
+     * on a populated collection do not block reads or writes (MongoDB 4.2+), so no step needs a
+     * maintenance window.
+     */
+    static void migrateIndexes(MongoDatabase db, MongoCollection<Document> col) {
+        MongoCollection<Document> history = db.getCollection(HISTORY);
+        for (IndexStep step : INDEX_STEPS) {
+            String id = col.getNamespace().getCollectionName() + ":" + step.version();
+            int checksum = step.checksum();
+            Document applied = history.find(Filters.eq("_id", id)).first();
+            if (applied != null) {
+                if (applied.getInteger("checksum", checksum) != checksum) {
+                    throw new IllegalStateException("Index step " + id + " (" + step.description()
+                            + ") changed after it was applied; add a new step instead of editing it");
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            for (IndexModel index : step.create()) col.createIndexes(List.of(index));
+            for (String name : step.drop()) {
+                try {
+                    col.dropIndex(name);
+                } catch (MongoCommandException ignored) {
+                    // not there: fresh collection, or already dropped
+                }
+            }
+            try {
+                history.insertOne(new Document("_id", id)
+                        .append("description", step.description())
+                        .append("checksum", checksum)
+                        .append("appliedAt", new Date())
+                        .append("executionMs", (System.nanoTime() - start) / 1_000_000));
+            } catch (MongoWriteException e) {
+                // Another instance ran the same step at the same time; index creation is idempotent.
+                if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) throw e;
+            }
+        }
+    }
+
+    private record IndexStep(int version, String description, List<IndexModel> create, List<String> drop) {
+        int checksum() {
+            StringBuilder sb = new StringBuilder();
+            for (IndexModel m : create) {
+                sb.append(m.getKeys().toBsonDocument().toJson()).append(' ').append(m.getOptions().getName()).append('\n');
+            }
+            sb.append(drop);
+            CRC32 crc = new CRC32();
+            crc.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return (int) crc.getValue();
+        }
+    }
+
+    // Append only: a step that has run on some database must not change.
+    private static final List<IndexStep> INDEX_STEPS = List.of(
+            new IndexStep(1, "newest-first listing", List.of(
+                    new IndexModel(Indexes.descending("createdAt")),
+                    new IndexModel(Indexes.descending("createdAt", "_id"))), List.of()),
+            // Timelines and the public feed: equality on the first key, then newest first, so a page
+            // is one index range already in order. The compound index also covers author lookups, so
+            // the old single-field index is dropped.
+            new IndexStep(2, "timeline and feed indexes", List.of(
+                    new IndexModel(Indexes.compoundIndex(Indexes.ascending("author"), Indexes.descending("createdAt", "_id")),
+                            new IndexOptions().name(MongoPostRepository.AUTHOR_TIMELINE_INDEX)),
+                    new IndexModel(Indexes.compoundIndex(Indexes.ascending("visibility"), Indexes.descending("createdAt", "_id")),
+                            new IndexOptions().name(MongoPostRepository.VISIBILITY_FEED_INDEX))), List.of("author_1")),
+            // Full-text search over content (a collection can have only one text index).
+            new IndexStep(3, "full-text search", List.of(
+                    new IndexModel(Indexes.text("content"),
+                            new IndexOptions().name(MongoPostRepository.TEXT_INDEX).defaultLanguage("english"))), List.of()));
+
     private static void upsertSeed(
             MongoCollection<Document> col,
+            boolean binaryIds,
             String id,
             String author,
             String content,
@@ -68,7 +164,8 @@ public final class MongoBootstrapper {
             int likes
     ) {
         Date now = new Date();
-        Document onInsert = new Document("_id", id)
+        Object key = PostCodec.id(UUID.fromString(id), binaryIds);
+        Document onInsert = new Document("_id", key)
                 .append("author", author)
                 .append("content", content)
                 .append("visibility", visibility)
@@ -77,7 +174,7 @@ public final class MongoBootstrapper {
                 .append("updatedAt", now);
 
         col.updateOne(
-                Filters.eq("_id", id),
+                Filters.eq("_id", key),
                 new Document("$setOnInsert", onInsert),
                 new UpdateOptions().upsert(true)
         );
@@ -0,0 +1,157 @@
+package com.ict.socialmedia.post.repository.mongo;
+
+import com.ict.socialmedia.post.repository.changefeed.ChangeBatch;
+import com.ict.socialmedia.post.repository.changefeed.ChangeCursor;
+import com.ict.socialmedia.post.repository.changefeed.ChangeEvent;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeed;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeedSettings;
+import com.ict.socialmedia.post.repository.changefeed.ResumeTokenExpiredException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A change stream on the posts collection, which needs a replica set (a single-node one is
+ * enough). Publishing costs writers nothing: the server reads changes back from its oplog.
+ *
+ * <p>The stream is trimmed on the server to what an event carries (id, updatedAt, event time).
+ * The resume token is the stream's own; resuming past the oplog window fails.
+ */
+public final class MongoChangeFeed implements ChangeFeed {
+    // ChangeStreamFatalError, ChangeStreamHistoryLost, CappedPositionLost: the token is gone from the oplog.
+    private static final Set<Integer> HISTORY_LOST = Set.of(280, 286, 136);
+    private static final List<Bson> PIPELINE = List.of(
+            Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete", "invalidate")),
+            Aggregates.project(Projections.include(
+                    "operationType",
+                    "documentKey",
+                    "fullDocument.updatedAt",
+                    "updateDescription.updatedFields.updatedAt",
+                    "wallTime",
+                    "clusterTime"
+            ))
+    );
+
+    private final MongoCollection<BsonDocument> collection;
+    private final ChangeFeedSettings settings;
+
+    public MongoChangeFeed(MongoClient client, String database, String collectionName, ChangeFeedSettings settings) {
+        this.collection = client.getDatabase(database).getCollection(collectionName, BsonDocument.class);
+        this.settings = Objects.requireNonNull(settings, "settings");
+    }
+
+    @Override
+    public ChangeCursor open(String resumeToken) {
+        ChangeStreamIterable<BsonDocument> stream = collection.watch(PIPELINE)
+                .batchSize(settings.getMaxBatchSize())
+                .maxAwaitTime(settings.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null) stream = stream.resumeAfter(new BsonDocument("_data", new BsonString(resumeToken)));
+        try {
+            return new Cursor(stream.cursor(), resumeToken);
+        } catch (MongoServerException e) {
+            if (resumeToken != null && HISTORY_LOST.contains(e.getCode())) {
+                throw new ResumeTokenExpiredException("Resume token " + resumeToken + " is no longer in the oplog", e);
+            }
+            throw e;
+        }
+    }
+
+    private final class Cursor implements ChangeCursor {
+        private final MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> cursor;
+        private String token;
+
+        Cursor(MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> cursor, String token) {
+            this.cursor = cursor;
+            this.token = token;
+        }
+
+        @Override
+        public ChangeBatch next() {
+            List<ChangeEvent> events = new ArrayList<>();
+            // tryNext waits up to maxAwaitTime for the server only when nothing is buffered.
+            ChangeStreamDocument<BsonDocument> d = cursor.tryNext();
+            while (d != null) {
+                ChangeEvent e = toEvent(d);
+                if (e != null) events.add(e);
+                if (events.size() >= settings.getMaxBatchSize() || cursor.available() == 0) break;
+                d = cursor.tryNext();
+            }
+            // After the last buffered event this is the server's post-batch token, so idle streams advance too.
+            BsonDocument t = cursor.getResumeToken();
+            if (t != null) token = t.getString("_data").getValue();
+            if (token == null) {
+                throw new IllegalStateException("MongoDB returned no resume token; change feeds need MongoDB 4.0.7 or later");
+            }
+            return new ChangeBatch(events, token);
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+
+    private ChangeEvent toEvent(ChangeStreamDocument<BsonDocument> d) {
+        OperationType op = d.getOperationType();
+        if (op == OperationType.INVALIDATE) {
+            throw new IllegalStateException("Change stream on " + collection.getNamespace() + " was invalidated (collection dropped or renamed)");
+        }
+        BsonValue key = d.getDocumentKey() == null ? null : d.getDocumentKey().get("_id");
+        UUID id = idOf(key);
+        // Documents that are not posts; PostCodec would not read them either.
+        if (id == null) return null;
+        BsonValue updatedAt = switch (op) {
+            case INSERT, REPLACE -> d.getFullDocument() == null ? null : d.getFullDocument().get("updatedAt");
+            case UPDATE -> d.getUpdateDescription() == null || d.getUpdateDescription().getUpdatedFields() == null
+                    ? null
+                    : d.getUpdateDescription().getUpdatedFields().get("updatedAt");
+            default -> null;
+        };
+        Instant at = updatedAt != null && updatedAt.isDateTime()
+                ? Instant.ofEpochMilli(updatedAt.asDateTime().getValue())
+                : eventTime(d);
+        ChangeEvent.Type type = switch (op) {
+            case INSERT -> ChangeEvent.Type.CREATE;
+            case DELETE -> ChangeEvent.Type.DELETE;
+            default -> ChangeEvent.Type.UPDATE;
+        };
+        return new ChangeEvent(type, id, at);
+    }
+
+    private static UUID idOf(BsonValue key) {
+        if (key == null) return null;
+        try {
+            if (key.isString()) return UUID.fromString(key.asString().getValue());
+            if (key.isBinary()) return key.asBinary().asUuid();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    // wallTime needs MongoDB 6.0; clusterTime is only to the second.
+    private static Instant eventTime(ChangeStreamDocument<BsonDocument> d) {
+        if (d.getWallTime() != null) return Instant.ofEpochMilli(d.getWallTime().getValue());
+        if (d.getClusterTime() != null) return Instant.ofEpochSecond(d.getClusterTime().getTime());
+        return Instant.now();
+    }
+}
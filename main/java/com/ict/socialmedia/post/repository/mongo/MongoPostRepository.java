@@ -2,89 +2,584 @@ package com.ict.socialmedia.post.repository.mongo;
 
 import com.ict.socialmedia.post.model.Post;
 import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.DuplicatePostException;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
 import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.QueryPlan;
+import com.ict.socialmedia.post.repository.QueryScope;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchHit;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.search.TextAnalyzer;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonBinary;
+import org.bson.BsonType;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Sorts.descending;
+import static com.mongodb.client.model.Sorts.orderBy;
 
 public class MongoPostRepository implements PostRepository, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    /** Serves {@link #findByAuthor}: equality on author, then newest first. */
+    public static final String AUTHOR_TIMELINE_INDEX = "author_createdAt_id";
+    /** Serves {@link #findPublicFeed}: equality on visibility, then newest first. */
+    public static final String VISIBILITY_FEED_INDEX = "visibility_createdAt_id";
+    /** Serves {@link #search}. */
+    public static final String TEXT_INDEX = "content_text";
+    private static final String SCORE = "score";
+    private static final Bson NEWEST_FIRST = orderBy(descending("createdAt"), descending("_id"));
+    private static final int DUPLICATE_KEY = 11000;
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
     private final MongoClient client;
-    private final MongoCollection<Document> collection;
+    private final MongoCollection<Post> collection;
+    // The same collection untyped, for aggregation results, plans and id-only projections.
+    private final MongoCollection<Document> documents;
+    private final PostCodec codec;
+    private final int batchSize;
+    private final int fetchSize;
+    // Some documents still have string ids after switching to binary ones; cleared by migrateIdsToBinary.
+    private volatile boolean mixedIds;
 
     public MongoPostRepository(String connectionString, String database, String collectionName) {
+        this(connectionString, database, collectionName, DEFAULT_BATCH_SIZE, DEFAULT_FETCH_SIZE);
+    }
+
+    public MongoPostRepository(String connectionString, String database, String collectionName, int batchSize, int fetchSize) {
+        this(connectionString, database, collectionName, batchSize, fetchSize, false);
+    }
+
+    /**
+     * @param binaryIds write {@code _id} as a binary UUID (subtype 4) rather than a string. Ids of
+     *                  both forms are read; while any string ids remain, lookups match either.
+     */
+    public MongoPostRepository(String connectionString, String database, String collectionName, int batchSize, int fetchSize,
+                               boolean binaryIds) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        if (fetchSize < 1) throw new IllegalArgumentException("fetchSize must be >= 1");
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
         this.client = MongoClients.create(connectionString);
         MongoDatabase db = client.getDatabase(database);
-        this.collection = db.getCollection(collectionName);
+        this.documents = db.getCollection(collectionName);
+        this.codec = new PostCodec(binaryIds);
+        this.collection = documents.withDocumentClass(Post.class)
+                .withCodecRegistry(CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codec), documents.getCodecRegistry()));
+        this.mixedIds = binaryIds && documents.find(Filters.type("_id", BsonType.STRING)).projection(Projections.include("_id")).first() != null;
     }
 
     public MongoClient getClient() {
         return client;
     }
 
+    /**
+     * The collection as seen by the current {@link QueryScope}: a scope with a deadline becomes a
+     * client-side operation timeout, so the server abandons the operation instead of finishing it
+     * for a caller that has already given up.
+     */
+    private MongoCollection<Post> collection() {
+        return scoped(collection);
+    }
+
+    private MongoCollection<Document> documents() {
+        return scoped(documents);
+    }
+
+    private static <T> MongoCollection<T> scoped(MongoCollection<T> c) {
+        QueryScope scope = QueryScope.current();
+        if (scope == null) return c;
+        scope.checkActive();
+        long remaining = scope.remainingMillis();
+        return remaining < 0 ? c : c.withTimeout(remaining, TimeUnit.MILLISECONDS);
+    }
+
+    private Bson idEq(UUID id) {
+        return mixedIds ? Filters.in("_id", PostCodec.id(id, true), PostCodec.id(id, false)) : Filters.eq("_id", codec.id(id));
+    }
+
     @Override
     public List<Post> findAll() {
-        List<Post> out = new ArrayList<>();
-        for (Document d : collection.find().sort(descending("createdAt"))) {
-            out.add(map(d));
+        return collection().find().sort(NEWEST_FIRST).into(new ArrayList<>());
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        List<Post> rows = collection().find(toQuery(filter, after)).sort(NEWEST_FIRST).limit(limit + 1).into(new ArrayList<>(limit + 1));
+        return PostPage.fromOverfetch(rows, limit);
+    }
+
+    /**
+     * Matches through the collection's text index (query words are OR-ed, with MongoDB's English
+     * stemming and stop words) and ranks by {@code textScore}. The score can only be compared once
+     * it is projected into a field, so this is an aggregation rather than a find.
+     */
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        List<String> tokens = TextAnalyzer.tokens(query);
+        if (tokens.isEmpty()) return SearchPage.empty();
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(Filters.and(Filters.text(String.join(" ", tokens)), toQuery(filter, null))));
+        pipeline.add(Aggregates.addFields(new Field<>(SCORE, new Document("$meta", "textScore"))));
+        if (after != null) {
+            double score = after.getScore();
+            Date ts = Date.from(after.getPosition().getCreatedAt());
+            pipeline.add(Aggregates.match(Filters.or(
+                    Filters.lt(SCORE, score),
+                    Filters.and(Filters.eq(SCORE, score), Filters.lt("createdAt", ts)),
+                    Filters.and(Filters.eq(SCORE, score), Filters.eq("createdAt", ts),
+                            Filters.lt("_id", codec.id(after.getPosition().getId())))
+            )));
+        }
+        pipeline.add(Aggregates.sort(orderBy(descending(SCORE), NEWEST_FIRST)));
+        pipeline.add(Aggregates.limit(limit + 1));
+
+        List<SearchHit> rows = new ArrayList<>(limit + 1);
+        for (Document d : documents().aggregate(pipeline)) {
+            rows.add(new SearchHit(map(d), d.getDouble(SCORE)));
         }
-        return out;
+        return SearchPage.fromOverfetch(rows, limit);
+    }
+
+    /** Plans the query {@link #findPage} would run, via {@code explain} at queryPlanner verbosity. */
+    public QueryPlan explainPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        Document explained = documents().find(toQuery(filter, after))
+                .sort(NEWEST_FIRST)
+                .limit(limit + 1)
+                .explain(ExplainVerbosity.QUERY_PLANNER);
+        Document planner = explained.get("queryPlanner", Document.class);
+        Document winning = planner == null ? null : planner.get("winningPlan", Document.class);
+        if (winning == null) throw new IllegalStateException("explain returned no winning plan: " + explained.toJson());
+        // Since 7.0 the slot-based engine nests the classic stage tree under "queryPlan".
+        Document root = winning.get("queryPlan", Document.class);
+        List<String> indexes = new ArrayList<>();
+        boolean[] flags = new boolean[2];
+        walkPlan(root == null ? winning : root, indexes, flags);
+        return new QueryPlan(indexes, flags[0], flags[1], winning.toJson());
+    }
+
+    private static void walkPlan(Document stage, List<String> indexes, boolean[] fullScanAndSorted) {
+        switch (stage.getString("stage")) {
+            case "IXSCAN" -> indexes.add(stage.getString("indexName"));
+            case "COLLSCAN" -> fullScanAndSorted[0] = true;
+            case "SORT" -> fullScanAndSorted[1] = true;
+            default -> {
+            }
+        }
+        Document input = stage.get("inputStage", Document.class);
+        if (input != null) walkPlan(input, indexes, fullScanAndSorted);
+        List<Document> inputs = stage.getList("inputStages", Document.class);
+        if (inputs != null) {
+            for (Document d : inputs) walkPlan(d, indexes, fullScanAndSorted);
+        }
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        MongoCursor<Post> cursor = collection().find(toQuery(filter, null))
+                .sort(NEWEST_FIRST)
+                .batchSize(fetchSize)
+                .cursor();
+        QueryScope.Registration cancel = QueryScope.register(cursor::close);
+        Iterator<Post> it = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Post next() {
+                return cursor.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    cancel.close();
+                    cursor.close();
+                });
+    }
+
+    private Bson toQuery(PostFilter filter, PostCursor after) {
+        PostFilter f = filter == null ? PostFilter.all() : filter;
+        List<Bson> conditions = new ArrayList<>();
+        if (f.getAuthor() != null) {
+            conditions.add(Filters.eq("author", f.getAuthor()));
+        }
+        if (!f.getVisibilities().isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (Visibility v : f.getVisibilities()) names.add(v.name());
+            conditions.add(Filters.in("visibility", names));
+        }
+        if (after != null) {
+            // createdAt <= ts bounds the index scan; the $or only breaks ties on _id within it.
+            Date ts = Date.from(after.getCreatedAt());
+            conditions.add(Filters.lte("createdAt", ts));
+            conditions.add(Filters.or(
+                    Filters.lt("createdAt", ts),
+                    Filters.and(Filters.eq("createdAt", ts), Filters.lt("_id", codec.id(after.getId())))
+            ));
+        }
+        return conditions.isEmpty() ? new Document() : Filters.and(conditions);
     }
 
     @Override
     public Optional<Post> findById(UUID id) {
-        Document d = collection.find(Filters.eq("_id", id.toString())).first();
-        return d == null ? Optional.empty() : Optional.of(map(d));
+        return Optional.ofNullable(collection().find(idEq(id)).first());
     }
 
     @Override
     public Post create(Post post) {
-        collection.insertOne(toDoc(post));
+        try {
+            collection().insertOne(post);
+        } catch (MongoWriteException e) {
+            if (e.getError().getCode() == DUPLICATE_KEY) throw new DuplicatePostException(post.getId(), e);
+            throw e;
+        }
         return post;
     }
 
     @Override
     public boolean update(Post post) {
-        ReplaceOptions opts = new ReplaceOptions().upsert(false);
-        return collection.replaceOne(Filters.eq("_id", post.getId().toString()), toDoc(post), opts).getModifiedCount() > 0;
+        return collection().updateOne(idEq(post.getId()), fieldsUpdate(post)).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        Bson filter = Filters.and(idEq(id), versionEq(expectedVersion));
+        Bson update = fieldsUpdate(author, content, visibility, likes, updatedAt);
+        return Optional.ofNullable(collection().findOneAndUpdate(filter, update, new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)));
+    }
+
+    // Documents written before versioning have no version field; treat them as version 0.
+    private static Bson versionEq(long expectedVersion) {
+        return expectedVersion == 0
+                ? Filters.or(Filters.eq("version", 0L), Filters.exists("version", false))
+                : Filters.eq("version", expectedVersion);
+    }
+
+    private static Bson fieldsUpdate(Post p) {
+        return fieldsUpdate(p.getAuthor(), p.getContent(), p.getVisibility(), p.getLikes(), p.getUpdatedAt());
+    }
+
+    private static Bson fieldsUpdate(String author, String content, Visibility visibility, int likes, Instant updatedAt) {
+        return Updates.combine(
+                Updates.set("author", author),
+                Updates.set("content", content),
+                Updates.set("visibility", visibility.name()),
+                Updates.set("likes", likes),
+                Updates.set("updatedAt", Date.from(updatedAt)),
+                Updates.inc("version", 1L)
+        );
     }
 
     @Override
     public boolean delete(UUID id) {
-        return collection.deleteOne(Filters.eq("_id", id.toString())).getDeletedCount() > 0;
+        return collection().deleteOne(idEq(id)).getDeletedCount() > 0;
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        return collection().deleteOne(Filters.and(idEq(id), versionEq(expectedVersion))).getDeletedCount() > 0;
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        Bson filter = idEq(id);
+        Date now = new Date();
+        UpdateResult r = delta >= 0
+                ? collection().updateOne(filter, likesInc(delta, now))
+                : collection().updateOne(filter, likesPipeline(delta, now));
+        return r.getMatchedCount() > 0;
+    }
+
+    @Override
+    public BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        List<Map.Entry<UUID, Integer>> list = List.copyOf(deltas.entrySet());
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        Date now = new Date();
+        for (int from = 0; from < list.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, list.size());
+            List<UUID> ids = new ArrayList<>(to - from);
+            List<WriteModel<Post>> models = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Map.Entry<UUID, Integer> e = list.get(i);
+                ids.add(e.getKey());
+                Bson filter = idEq(e.getKey());
+                models.add(e.getValue() >= 0
+                        ? new UpdateOneModel<>(filter, likesInc(e.getValue(), now))
+                        : new UpdateOneModel<>(filter, likesPipeline(e.getValue(), now)));
+            }
+            ChunkOutcome outcome = bulkWrite(models, ids);
+            Set<UUID> existing = outcome.matched == outcome.succeeded() ? null : existingIds(ids);
+            for (int i = from; i < to; i++) {
+                UUID id = ids.get(i - from);
+                if (outcome.errors[i - from] != null) {
+                    out[i] = outcome.errors[i - from];
+                } else if (existing == null || existing.contains(id)) {
+                    out[i] = BatchResult.Item.applied(id);
+                } else {
+                    out[i] = BatchResult.Item.notFound(id);
+                }
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    // $inc for increments; decrements need an aggregation pipeline to clamp at zero.
+    private static Bson likesInc(int delta, Date now) {
+        return Updates.combine(Updates.inc("likes", delta), Updates.set("updatedAt", now), Updates.inc("version", 1L));
+    }
+
+    private static List<Bson> likesPipeline(int delta, Date now) {
+        Document likes = new Document("$max", List.of(0, new Document("$add", List.of("$likes", delta))));
+        Document version = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+        return List.of(new Document("$set", new Document("likes", likes).append("updatedAt", now).append("version", version)));
+    }
+
+    @Override
+    public BatchResult createAll(Collection<Post> posts) {
+        List<Post> list = List.copyOf(posts);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        for (int from = 0; from < list.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, list.size());
+            List<WriteModel<Post>> models = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                models.add(new InsertOneModel<>(list.get(i)));
+            }
+            BatchResult.Item[] errors = bulkWrite(models, list.subList(from, to).stream().map(Post::getId).toList()).errors;
+            for (int i = from; i < to; i++) {
+                out[i] = errors[i - from] != null ? errors[i - from] : BatchResult.Item.applied(list.get(i).getId());
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Post> posts) {
+        List<Post> list = List.copyOf(posts);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        for (int from = 0; from < list.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, list.size());
+            List<UUID> ids = new ArrayList<>(to - from);
+            List<WriteModel<Post>> models = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Post p = list.get(i);
+                ids.add(p.getId());
+                models.add(new UpdateOneModel<>(idEq(p.getId()), fieldsUpdate(p)));
+            }
+            ChunkOutcome outcome = bulkWrite(models, ids);
+            BatchResult.Item[] errors = outcome.errors;
+            // The bulk result only carries an aggregate matched count, so resolve misses with one extra lookup.
+            Set<UUID> existing = outcome.matched == outcome.succeeded() ? null : existingIds(ids);
+            for (int i = from; i < to; i++) {
+                UUID id = ids.get(i - from);
+                if (errors[i - from] != null) {
+                    out[i] = errors[i - from];
+                } else if (existing == null || existing.contains(id)) {
+                    out[i] = BatchResult.Item.applied(id);
+                } else {
+                    out[i] = BatchResult.Item.notFound(id);
+                }
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        List<UUID> list = List.copyOf(ids);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        for (int from = 0; from < list.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, list.size());
+            List<UUID> chunk = list.subList(from, to);
+            Set<UUID> existing = existingIds(chunk);
+            List<UUID> targets = new ArrayList<>(existing.size());
+            List<WriteModel<Post>> models = new ArrayList<>(existing.size());
+            for (UUID id : chunk) {
+                if (existing.remove(id)) {
+                    targets.add(id);
+                    models.add(new DeleteOneModel<>(idEq(id)));
+                }
+            }
+            BatchResult.Item[] errors = models.isEmpty() ? new BatchResult.Item[0] : bulkWrite(models, targets).errors;
+            int t = 0;
+            for (int i = from; i < to; i++) {
+                UUID id = list.get(i);
+                if (t < targets.size() && targets.get(t).equals(id)) {
+                    out[i] = errors[t] != null ? errors[t] : BatchResult.Item.applied(id);
+                    t++;
+                } else {
+                    out[i] = BatchResult.Item.notFound(id);
+                }
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    private ChunkOutcome bulkWrite(List<WriteModel<Post>> models, List<UUID> ids) {
+        BatchResult.Item[] errors = new BatchResult.Item[models.size()];
+        try {
+            BulkWriteResult r = collection().bulkWrite(models, UNORDERED);
+            return new ChunkOutcome(errors, r.getMatchedCount());
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError err : e.getWriteErrors()) {
+                UUID id = ids.get(err.getIndex());
+                errors[err.getIndex()] = err.getCode() == DUPLICATE_KEY
+                        ? BatchResult.Item.duplicate(id)
+                        : BatchResult.Item.failed(id, err.getMessage());
+            }
+            return new ChunkOutcome(errors, e.getWriteResult().getMatchedCount());
+        } catch (MongoException e) {
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] = BatchResult.Item.failed(ids.get(i), e.getMessage());
+            }
+            return new ChunkOutcome(errors, 0);
+        }
+    }
+
+    private static final class ChunkOutcome {
+        private final BatchResult.Item[] errors;
+        private final int matched;
+
+        private ChunkOutcome(BatchResult.Item[] errors, int matched) {
+            this.errors = errors;
+            this.matched = matched;
+        }
+
+        private int succeeded() {
+            int n = 0;
+            for (BatchResult.Item e : errors) {
+                if (e == null) n++;
+            }
+            return n;
+        }
     }
 
-    private static Document toDoc(Post p) {
-        return new Document("_id", p.getId().toString())
-                .append("author", p.getAuthor())
-                .append("content", p.getContent())
-                .append("visibility", p.getVisibility().name())
-                .append("likes", p.getLikes())
-                .append("createdAt", Date.from(p.getCreatedAt()))
-                .append("updatedAt", Date.from(p.getUpdatedAt()));
+    private Set<UUID> existingIds(List<UUID> ids) {
+        List<Object> keys = new ArrayList<>(mixedIds ? ids.size() * 2 : ids.size());
+        for (UUID id : ids) {
+            if (mixedIds) {
+                keys.add(PostCodec.id(id, true));
+                keys.add(PostCodec.id(id, false));
+            } else {
+                keys.add(codec.id(id));
+            }
+        }
+        Set<UUID> found = new HashSet<>();
+        for (Document d : documents().find(Filters.in("_id", keys)).projection(Projections.include("_id"))) {
+            found.add(idOf(d.get("_id")));
+        }
+        return found;
     }
 
-    private static Post map(Document d) {
-        UUID id = UUID.fromString(d.getString("_id"));
+    /**
+     * Rewrites every document with a string {@code _id} under its binary UUID, a batch at a time:
+     * an upserted copy first, then the original is deleted if its version is still the one
+     * copied (otherwise the next pass copies it again). {@code _id} cannot be updated in place,
+     * so a writer running at the same time can still lose an update made to the copy before the
+     * original is gone; run it with writes stopped. An interrupted run can simply be repeated.
+     *
+     * @return documents rewritten
+     */
+    public long migrateIdsToBinary() {
+        if (!codec.isBinaryIds()) {
+            throw new IllegalStateException("repository writes string ids; enable binary ids first");
+        }
+        long moved = 0;
+        Bson stringIds = Filters.type("_id", BsonType.STRING);
+        List<Post> batch;
+        while (!(batch = collection.find(stringIds).limit(batchSize).into(new ArrayList<>(batchSize))).isEmpty()) {
+            List<WriteModel<Post>> copies = new ArrayList<>(batch.size());
+            List<WriteModel<Document>> originals = new ArrayList<>(batch.size());
+            for (Post p : batch) {
+                copies.add(new ReplaceOneModel<>(Filters.eq("_id", PostCodec.id(p.getId(), true)), p, new ReplaceOptions().upsert(true)));
+                originals.add(new DeleteOneModel<>(Filters.and(Filters.eq("_id", p.getId().toString()), versionEq(p.getVersion()))));
+            }
+            collection.bulkWrite(copies, UNORDERED);
+            moved += documents.bulkWrite(originals, UNORDERED).getDeletedCount();
+        }
+        mixedIds = false;
+        return moved;
+    }
+
+    // Package-private for the mapping microbenchmarks: the Document path the codec replaced, still used for search hits.
+    static Post map(Document d) {
+        UUID id = idOf(d.get("_id"));
         String author = d.getString("author");
         String content = d.getString("content");
         Visibility visibility = Visibility.valueOf(d.getString("visibility"));
         int likes = d.getInteger("likes", 0);
         Instant createdAt = d.getDate("createdAt").toInstant();
         Instant updatedAt = d.getDate("updatedAt").toInstant();
-        return new Post(id, author, content, visibility, likes, createdAt, updatedAt);
+        Number version = d.get("version", Number.class);
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version == null ? 0 : version.longValue());
+    }
+
+    private static UUID idOf(Object id) {
+        if (id instanceof String s) return UUID.fromString(s);
+        if (id instanceof Binary b) return new BsonBinary(b.getType(), b.getData()).asUuid();
+        if (id instanceof UUID u) return u;
+        throw new IllegalStateException("unexpected _id: " + id);
     }
 
     @Override
@@ -0,0 +1,117 @@
+package com.ict.socialmedia.post.repository.mongo;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Encodes a {@link Post} straight to and from the BSON stream, with no {@code Document} (and its
+ * map of boxed values) in between. Field names and types are the ones documents always had, so
+ * both forms read each other's writes.
+ *
+ * <p>{@code _id} is written as a string or as a standard binary UUID (subtype 4, 16 bytes instead
+ * of a 36-character string) depending on {@code binaryIds}, and read in either form.
+ */
+final class PostCodec implements Codec<Post> {
+    private final boolean binaryIds;
+
+    PostCodec(boolean binaryIds) {
+        this.binaryIds = binaryIds;
+    }
+
+    boolean isBinaryIds() {
+        return binaryIds;
+    }
+
+    /** {@code _id} as this codec writes it, for use in filters. */
+    Object id(UUID id) {
+        return id(id, binaryIds);
+    }
+
+    static Object id(UUID id, boolean binary) {
+        return binary ? new BsonBinary(id) : id.toString();
+    }
+
+    @Override
+    public void encode(BsonWriter w, Post p, EncoderContext ctx) {
+        w.writeStartDocument();
+        if (binaryIds) {
+            w.writeBinaryData("_id", new BsonBinary(p.getId()));
+        } else {
+            w.writeString("_id", p.getId().toString());
+        }
+        w.writeString("author", p.getAuthor());
+        w.writeString("content", p.getContent());
+        w.writeString("visibility", p.getVisibility().name());
+        w.writeInt32("likes", p.getLikes());
+        w.writeDateTime("createdAt", p.getCreatedAt().toEpochMilli());
+        w.writeDateTime("updatedAt", p.getUpdatedAt().toEpochMilli());
+        w.writeInt64("version", p.getVersion());
+        w.writeEndDocument();
+    }
+
+    @Override
+    public Post decode(BsonReader r, DecoderContext ctx) {
+        UUID id = null;
+        String author = null;
+        String content = null;
+        Visibility visibility = null;
+        int likes = 0;
+        Instant createdAt = null;
+        Instant updatedAt = null;
+        long version = 0;
+
+        r.readStartDocument();
+        while (r.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (r.readName()) {
+                case "_id" -> id = readId(r);
+                case "author" -> author = r.readString();
+                case "content" -> content = r.readString();
+                case "visibility" -> visibility = Visibility.valueOf(r.readString());
+                case "likes" -> likes = (int) readLong(r);
+                case "createdAt" -> createdAt = Instant.ofEpochMilli(r.readDateTime());
+                case "updatedAt" -> updatedAt = Instant.ofEpochMilli(r.readDateTime());
+                // Documents written before versioning have no version field: version 0.
+                case "version" -> version = readLong(r);
+                default -> r.skipValue();
+            }
+        }
+        r.readEndDocument();
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version);
+    }
+
+    private static UUID readId(BsonReader r) {
+        if (r.getCurrentBsonType() == BsonType.STRING) return UUID.fromString(r.readString());
+        BsonBinary b = r.readBinaryData();
+        if (b.getType() != BsonBinarySubType.UUID_STANDARD.getValue()) {
+            throw new BsonInvalidOperationException("_id is binary subtype " + b.getType() + ", expected a standard UUID (4)");
+        }
+        return b.asUuid();
+    }
+
+    // Numbers written by other tools may come back as any numeric type.
+    private static long readLong(BsonReader r) {
+        return switch (r.getCurrentBsonType()) {
+            case INT32 -> r.readInt32();
+            case INT64 -> r.readInt64();
+            case DOUBLE -> (long) r.readDouble();
+            default -> throw new BsonInvalidOperationException("expected a number, got " + r.getCurrentBsonType());
+        };
+    }
+
+    @Override
+    public Class<Post> getEncoderClass() {
+        return Post.class;
+    }
+}
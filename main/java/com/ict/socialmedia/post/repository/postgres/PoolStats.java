@@ -0,0 +1,94 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+public final class PoolStats {
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    PoolStats(
+            int total,
+            int active,
+            int idle,
+            int waiting,
+            long borrowCount,
+            long timeoutCount,
+            long createdCount,
+            long evictedCount,
+            long totalWaitNanos,
+            long maxWaitNanos
+    ) {
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "total=" + total +
+                ", active=" + active +
+                ", idle=" + idle +
+                ", waiting=" + waiting +
+                ", borrows=" + borrowCount +
+                ", timeouts=" + timeoutCount +
+                ", created=" + createdCount +
+                ", evicted=" + evictedCount +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                '}';
+    }
+}
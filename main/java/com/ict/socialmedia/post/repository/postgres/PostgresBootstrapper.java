@@ -1,7 +1,5 @@
 package com.ict.socialmedia.post.repository.postgres;
 
-import com.ict.socialmedia.post.util.SqlScriptRunner;
-
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -22,6 +20,22 @@ public final class PostgresBootstrapper {
             String user,
             String password,
             boolean runSeed
+    ) {
+        bootstrapIfEnabled(enabled, jdbcUrl, adminDb, user, password, runSeed, null);
+    }
+
+    /**
+     * @param partitioning when not null, posts is range-partitioned by created_at after migrations
+     *                     run (converting an existing table online) and its partitions maintained
+     */
+    public static void bootstrapIfEnabled(
+            boolean enabled,
+            String jdbcUrl,
+            String adminDb,
+            String user,
+            String password,
+            boolean runSeed,
+            PostgresPartitionSettings partitioning
     ) {
         if (!enabled) return;
 
@@ -46,12 +60,17 @@ public final class PostgresBootstrapper {
         }
 
         try (Connection c = DriverManager.getConnection(jdbcUrl, user, password)) {
-            SqlScriptRunner.runClasspathResource(c, "db/postgres/schema.sql");
+            PostgresMigrator migrator = new PostgresMigrator(c);
+            migrator.migrate();
             if (runSeed) {
-                SqlScriptRunner.runClasspathResource(c, "db/postgres/seed.sql");
+                migrator.applyRepeatable("db/postgres/seed.sql");
             }
         } catch (Exception e) {
-            throw new RuntimeException("Failed to bootstrap database (run schema/seed)", e);
+            throw new RuntimeException("Failed to bootstrap database (migrate/seed)", e);
+        }
+
+        if (partitioning != null) {
+            new PostgresPartitionManager(jdbcUrl, user, password, partitioning).ensurePartitioned();
         }
     }
 
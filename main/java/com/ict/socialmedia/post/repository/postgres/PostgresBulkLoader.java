@@ -0,0 +1,179 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.model.Post;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Streams posts into the posts table over the COPY protocol in binary format. Rows are encoded
+ * into a fixed-size buffer and flushed to the server as it fills, so input of any size is loaded
+ * without being held in memory.
+ */
+public class PostgresBulkLoader {
+    private static final String COLUMNS = "id, author, content, visibility, likes, created_at, updated_at, version";
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 8;
+    // Binary timestamptz is microseconds since 2000-01-01T00:00:00Z.
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    public PostgresBulkLoader(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    public static final class Result {
+        private final long copied;
+        private final long inserted;
+
+        Result(long copied, long inserted) {
+            this.copied = copied;
+            this.inserted = inserted;
+        }
+
+        public long getCopied() {
+            return copied;
+        }
+
+        /** Rows that ended up in posts; lower than copied when a staged load skipped existing ids. */
+        public long getInserted() {
+            return inserted;
+        }
+
+        @Override
+        public String toString() {
+            return "copied=" + copied + ", inserted=" + inserted;
+        }
+    }
+
+    /**
+     * @param staged when true, rows are copied into a temporary (unlogged) table and merged with
+     *               {@code ON CONFLICT DO NOTHING}, so re-running the same input is a no-op.
+     *               When false, rows go straight into posts and a duplicate id aborts the load
+     *               (on partitioned posts the id locator's trigger skips it instead).
+     */
+    public Result load(Iterator<Post> posts, boolean staged) {
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                Result r = staged ? loadStaged(c, posts) : loadDirect(c, posts);
+                c.commit();
+                return r;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("bulk load failed", e);
+        }
+    }
+
+    private static Result loadDirect(Connection c, Iterator<Post> posts) throws SQLException {
+        long copied = copy(c, "posts", posts);
+        return new Result(copied, copied);
+    }
+
+    private static Result loadStaged(Connection c, Iterator<Post> posts) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("CREATE TEMP TABLE posts_stage (" +
+                    "id UUID, author VARCHAR(100), content TEXT, visibility VARCHAR(16), likes INT, " +
+                    "created_at TIMESTAMPTZ, updated_at TIMESTAMPTZ, version BIGINT) ON COMMIT DROP");
+            long copied = copy(c, "posts_stage", posts);
+            long inserted = st.executeUpdate(
+                    "INSERT INTO posts (" + COLUMNS + ") SELECT DISTINCT ON (id) " + COLUMNS +
+                            " FROM posts_stage ON CONFLICT DO NOTHING");
+            return new Result(copied, inserted);
+        }
+    }
+
+    private static long copy(Connection c, String table, Iterator<Post> posts) throws SQLException {
+        CopyIn copy = c.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + COLUMNS + ") FROM STDIN (FORMAT binary)");
+        try {
+            BinaryRowWriter w = new BinaryRowWriter(copy);
+            w.header();
+            long rows = 0;
+            while (posts.hasNext()) {
+                w.row(posts.next());
+                rows++;
+            }
+            w.trailer();
+            w.flush();
+            copy.endCopy();
+            return rows;
+        } finally {
+            if (copy.isActive()) copy.cancelCopy();
+        }
+    }
+
+    private static final class BinaryRowWriter {
+        private final CopyIn copy;
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private BinaryRowWriter(CopyIn copy) {
+            this.copy = copy;
+        }
+
+        private void header() throws SQLException {
+            ensure(SIGNATURE.length + 8);
+            buf.put(SIGNATURE).putInt(0).putInt(0);
+        }
+
+        private void row(Post p) throws SQLException {
+            ensure(2 + 4 + 16);
+            buf.putShort(FIELD_COUNT);
+            buf.putInt(16).putLong(p.getId().getMostSignificantBits()).putLong(p.getId().getLeastSignificantBits());
+            text(p.getAuthor());
+            text(p.getContent());
+            text(p.getVisibility().name());
+            ensure(4 + 4 + 3 * (4 + 8));
+            buf.putInt(4).putInt(p.getLikes());
+            buf.putInt(8).putLong(pgMicros(p.getCreatedAt()));
+            buf.putInt(8).putLong(pgMicros(p.getUpdatedAt()));
+            buf.putInt(8).putLong(p.getVersion());
+        }
+
+        private void trailer() throws SQLException {
+            ensure(2);
+            buf.putShort((short) -1);
+        }
+
+        private void text(String s) throws SQLException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4);
+            buf.putInt(bytes.length);
+            int off = 0;
+            while (off < bytes.length) {
+                if (!buf.hasRemaining()) flush();
+                int n = Math.min(buf.remaining(), bytes.length - off);
+                buf.put(bytes, off, n);
+                off += n;
+            }
+        }
+
+        private void ensure(int bytes) throws SQLException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        private void flush() throws SQLException {
+            if (buf.position() == 0) return;
+            copy.writeToCopy(buf.array(), 0, buf.position());
+            buf.clear();
+        }
+
+        private static long pgMicros(Instant t) {
+            return (t.getEpochSecond() - PG_EPOCH_SECONDS) * 1_000_000L + t.getNano() / 1_000;
+        }
+    }
+}
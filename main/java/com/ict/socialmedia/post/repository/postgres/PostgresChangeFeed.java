@@ -0,0 +1,208 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.repository.changefeed.ChangeBatch;
+import com.ict.socialmedia.post.repository.changefeed.ChangeCursor;
+import com.ict.socialmedia.post.repository.changefeed.ChangeEvent;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeed;
+import com.ict.socialmedia.post.repository.changefeed.ChangeFeedSettings;
+import com.ict.socialmedia.post.repository.changefeed.ResumeTokenExpiredException;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the {@code post_changes} log that triggers on posts fill in the writing transaction
+ * (migration V5), so a change is published if and only if it commits, at the cost of one extra
+ * insert per statement.
+ *
+ * <p>A cursor holds its own connection (not a pooled one) that LISTENs on {@code post_changes}:
+ * a notification wakes it at once, and it also re-reads every poll interval. It only reads rows
+ * of transactions older than every running transaction, in (txid, seq) order; that delays a
+ * change while an older write transaction is still open, but means no row can later commit
+ * behind the cursor's position. The position is the resume token.
+ *
+ * <p>Cursors also prune rows past retention now and then. The newest pruned position is kept in
+ * {@code post_changes_horizon}; opening with a token before it fails.
+ */
+public final class PostgresChangeFeed implements ChangeFeed {
+    private static final String CHANNEL = "post_changes";
+    private static final int PRUNE_BATCH = 10_000;
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final String XMIN = "txid_snapshot_xmin(txid_current_snapshot())";
+    private static final String READ = "SELECT txid, seq, op, post_id, updated_at FROM post_changes"
+            + " WHERE (txid, seq) > (?, ?) AND txid < " + XMIN
+            + " ORDER BY txid, seq LIMIT ?";
+    // Oldest rows first, so the horizon only moves past what is really gone.
+    private static final String PRUNE = "WITH gone AS ("
+            + "DELETE FROM post_changes WHERE (txid, seq) IN (SELECT txid, seq FROM post_changes WHERE txid < " + XMIN
+            + " ORDER BY txid, seq LIMIT " + PRUNE_BATCH + ") AND changed_at < now() - ? * INTERVAL '1 millisecond'"
+            + " RETURNING txid, seq), "
+            + "newest AS (SELECT txid, seq FROM gone ORDER BY txid DESC, seq DESC LIMIT 1), "
+            + "moved AS (UPDATE post_changes_horizon h SET txid = n.txid, seq = n.seq FROM newest n"
+            + " WHERE (n.txid, n.seq) > (h.txid, h.seq) RETURNING 1) "
+            + "SELECT count(*) FROM gone";
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final ChangeFeedSettings settings;
+
+    public PostgresChangeFeed(String jdbcUrl, String user, String password, ChangeFeedSettings settings) {
+        this.jdbcUrl = Objects.requireNonNull(jdbcUrl, "jdbcUrl");
+        this.user = Objects.requireNonNull(user, "user");
+        this.password = Objects.requireNonNull(password, "password");
+        this.settings = Objects.requireNonNull(settings, "settings");
+    }
+
+    @Override
+    public ChangeCursor open(String resumeToken) {
+        long[] position = resumeToken == null ? null : parse(resumeToken);
+        Connection c = null;
+        try {
+            c = DriverManager.getConnection(jdbcUrl, user, password);
+            try (Statement st = c.createStatement()) {
+                // Listening first: a change committed from here on either notifies or is past the start.
+                st.execute("LISTEN " + CHANNEL);
+                if (position == null) {
+                    try (ResultSet rs = st.executeQuery("SELECT " + XMIN)) {
+                        rs.next();
+                        position = new long[]{rs.getLong(1) - 1, Long.MAX_VALUE};
+                    }
+                } else if (expired(c, position)) {
+                    throw new ResumeTokenExpiredException("Resume token " + resumeToken
+                            + " is older than the change log's retention");
+                }
+            }
+            return new Cursor(c, position[0], position[1]);
+        } catch (SQLException | RuntimeException e) {
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            if (e instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Opening the change feed failed", e);
+        }
+    }
+
+    /** Deletes changes older than the retention; returns how many. Cursors call it about once a minute. */
+    public long prune() {
+        try (Connection c = DriverManager.getConnection(jdbcUrl, user, password)) {
+            return prune(c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Pruning the change log failed", e);
+        }
+    }
+
+    private long prune(Connection c) throws SQLException {
+        long total = 0;
+        try (PreparedStatement ps = c.prepareStatement(PRUNE)) {
+            ps.setLong(1, settings.getRetentionMillis());
+            while (true) {
+                long n;
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    n = rs.getLong(1);
+                }
+                total += n;
+                if (n == 0) return total;
+            }
+        }
+    }
+
+    private static boolean expired(Connection c, long[] position) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT (txid, seq) > (?, ?) FROM post_changes_horizon")) {
+            ps.setLong(1, position[0]);
+            ps.setLong(2, position[1]);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static long[] parse(String token) {
+        int colon = token.indexOf(':');
+        try {
+            if (colon < 0) throw new NumberFormatException();
+            return new long[]{Long.parseLong(token.substring(0, colon)), Long.parseLong(token.substring(colon + 1))};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a PostgreSQL change feed token: " + token);
+        }
+    }
+
+    private final class Cursor implements ChangeCursor {
+        private final Connection connection;
+        private final PGConnection pg;
+        private final PreparedStatement read;
+        private long txid;
+        private long seq;
+        private long nextPruneNanos = System.nanoTime();
+
+        Cursor(Connection connection, long txid, long seq) throws SQLException {
+            this.connection = connection;
+            this.pg = connection.unwrap(PGConnection.class);
+            this.read = connection.prepareStatement(READ);
+            this.txid = txid;
+            this.seq = seq;
+        }
+
+        @Override
+        public ChangeBatch next() {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getMaxWaitMillis());
+            try {
+                if (System.nanoTime() - nextPruneNanos >= 0) {
+                    prune(connection);
+                    nextPruneNanos = System.nanoTime() + PRUNE_INTERVAL_NANOS;
+                }
+                while (true) {
+                    List<ChangeEvent> events = read();
+                    long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (!events.isEmpty() || left <= 0) return new ChangeBatch(events, txid + ":" + seq);
+                    // Returns early on a notification; 0 would mean wait forever.
+                    pg.getNotifications((int) Math.max(1, Math.min(left, settings.getPollIntervalMillis())));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Reading post changes failed", e);
+            }
+        }
+
+        private List<ChangeEvent> read() throws SQLException {
+            read.setLong(1, txid);
+            read.setLong(2, seq);
+            read.setInt(3, settings.getMaxBatchSize());
+            List<ChangeEvent> events = new ArrayList<>();
+            try (ResultSet rs = read.executeQuery()) {
+                while (rs.next()) {
+                    txid = rs.getLong(1);
+                    seq = rs.getLong(2);
+                    ChangeEvent.Type type = switch (rs.getString(3)) {
+                        case "I" -> ChangeEvent.Type.CREATE;
+                        case "U" -> ChangeEvent.Type.UPDATE;
+                        default -> ChangeEvent.Type.DELETE;
+                    };
+                    events.add(new ChangeEvent(type, (UUID) rs.getObject(4), rs.getTimestamp(5).toInstant()));
+                }
+            }
+            return events;
+        }
+
+        @Override
+        public void close() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+public final class PostgresConnectionPool implements DataSource, AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final PostgresPoolSettings settings;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public PostgresConnectionPool(String url, String user, String password, PostgresPoolSettings settings) {
+        this.url = Objects.requireNonNull(url, "url");
+        this.user = user;
+        this.password = password;
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+
+        try {
+            for (int i = 0; i < settings.getMinSize(); i++) {
+                idle.offerLast(open());
+            }
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Failed to pre-warm PostgreSQL connection pool", e);
+        }
+
+        if (settings.getEvictionIntervalMillis() > 0) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "postgres-pool-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = settings.getEvictionIntervalMillis();
+            evictor.scheduleWithFixedDelay(this::evictAndTopUp, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+    }
+
+    public PostgresPoolSettings getSettings() {
+        return settings;
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(
+                total.get(),
+                active.get(),
+                idle.size(),
+                permits.getQueueLength(),
+                borrowCount.sum(),
+                timeoutCount.sum(),
+                createdCount.sum(),
+                evictedCount.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get()
+        );
+    }
+
+    /** Connections borrowed right now; cheaper than {@link #stats()} for routing decisions. */
+    int activeCount() {
+        return active.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException(
+                    "Timed out after " + settings.getConnectionTimeoutMillis() + "ms waiting for a connection (" + stats() + ")"
+            );
+        }
+
+        try {
+            PooledConnection pc = takeValidIdle();
+            if (pc == null) pc = open();
+            active.incrementAndGet();
+            borrowCount.increment();
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (!settings.isValidateOnBorrow() || isValid(pc)) return pc;
+            discard(pc);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.physical.isValid(settings.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        total.incrementAndGet();
+        try {
+            Connection c = DriverManager.getConnection(url, user, password);
+            PooledConnection pc;
+            try {
+                pc = new PooledConnection(c, c.getTransactionIsolation());
+            } catch (SQLException | RuntimeException e) {
+                c.close();
+                throw e;
+            }
+            createdCount.increment();
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        total.decrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        boolean reusable = !closed && reset(pc);
+        active.decrementAndGet();
+        if (reusable) {
+            pc.lastUsedNanos = System.nanoTime();
+            idle.offerFirst(pc);
+        } else {
+            discard(pc);
+        }
+        permits.release();
+    }
+
+    private static boolean reset(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) return false;
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (pc.isolationChanged) {
+                pc.physical.setTransactionIsolation(pc.defaultIsolation);
+                pc.isolationChanged = false;
+            }
+            if (pc.physical.isReadOnly()) pc.physical.setReadOnly(false);
+            pc.physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void evictAndTopUp() {
+        if (closed) return;
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.getIdleTimeoutMillis());
+        if (settings.getIdleTimeoutMillis() > 0) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total.get() > settings.getMinSize()) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsedNanos < idleTimeoutNanos) break;
+                if (idle.removeLastOccurrence(pc)) {
+                    evictedCount.increment();
+                    discard(pc);
+                }
+            }
+        }
+        while (!closed && total.get() < settings.getMinSize()) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (evictor != null) evictor.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            discard(pc);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool is bound to its configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final int defaultIsolation;
+        // Set through a handle, so release only pays the round trip to restore it when it was changed.
+        private volatile boolean isolationChanged;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private PooledConnection(Connection physical, int defaultIsolation) {
+            this.physical = physical;
+            this.defaultIsolation = defaultIsolation;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this)
+            );
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        // Closing may race between threads (a virtual thread and its caller, say); only one releases.
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (released.compareAndSet(false, true)) release(pc);
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released.get() || pc.physical.isClosed();
+                }
+                // Never the physical connection, which could be closed or changed behind the pool's
+                // back. PGConnection is let through for COPY, LISTEN and query cancellation.
+                case "unwrap" -> {
+                    Class<?> iface = (Class<?>) args[0];
+                    if (iface.isInstance(proxy)) return proxy;
+                    if (iface != PGConnection.class) throw new SQLException("Not a wrapper for " + iface.getName());
+                    if (released.get()) throw new SQLException("Connection has been returned to the pool");
+                    return pc.physical.unwrap(PGConnection.class);
+                }
+                case "isWrapperFor" -> {
+                    Class<?> iface = (Class<?>) args[0];
+                    return iface.isInstance(proxy) || iface == PGConnection.class;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + pc.physical + (released.get() ? ", released]" : "]");
+                }
+                default -> {
+                    if (released.get()) throw new SQLException("Connection has been returned to the pool");
+                    if (method.getName().equals("setTransactionIsolation")) pc.isolationChanged = true;
+                    Object result;
+                    try {
+                        result = method.invoke(pc.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement || result instanceof DatabaseMetaData) {
+                        return handing((Connection) proxy, method.getReturnType(), result);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps a statement or metadata object so its {@code getConnection()} returns the pooled handle.
+     * Otherwise a caller could reach the physical connection and close it behind the pool's back.
+     */
+    private static Object handing(Connection handle, Class<?> type, Object target) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection" -> {
+                    return handle;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,377 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.util.SqlScriptRunner;
+import com.ict.socialmedia.post.util.SqlTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the scripts under {@value #LOCATION}, named {@code V<n>__<description>.sql}, in version
+ * order, and records each in {@code schema_history} with a checksum of its text. At startup the
+ * applied ones are skipped; one whose text changed after it was applied, or a new one older than
+ * the newest applied, stops startup instead of leaving the schema in an unknown state.
+ *
+ * <p>A database set up before {@code schema_history} existed runs every script like a new one:
+ * the scripts only create what is missing, so they bring it to the current schema whatever
+ * state it was left in.
+ *
+ * <p>A script runs in one transaction, history row included, unless it has statements PostgreSQL
+ * refuses inside one ({@code CONCURRENTLY}, {@code VACUUM}, ...). Then every statement commits
+ * on its own and the script must be safe to re-run from the top if it stops halfway, as it is
+ * not recorded until it finishes. Each statement waits at most the lock timeout for its locks,
+ * so it cannot queue every query on the table behind it, and is retried with back-off.
+ *
+ * <p>{@code CREATE INDEX CONCURRENTLY} on partitioned posts (which PostgreSQL rejects) is
+ * rewritten into a concurrent build on each partition, an {@code ON ONLY} index on the parent,
+ * and attaching the two. An invalid index left behind by a failed concurrent build is dropped
+ * before the build is tried again.
+ */
+public final class PostgresMigrator {
+    private static final Logger log = LoggerFactory.getLogger(PostgresMigrator.class);
+
+    public static final String LOCATION = "db/postgres/migration";
+    public static final long DEFAULT_LOCK_TIMEOUT_MILLIS = 5_000;
+    public static final int DEFAULT_ATTEMPTS = 5;
+    private static final long LOCK_KEY = 0x6d6967726174L;
+    private static final Pattern VERSIONED = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern NON_TRANSACTIONAL = Pattern.compile(
+            "(?is)(?:(?:CREATE|DROP|ALTER|REINDEX)\\b.*\\bCONCURRENTLY\\b|VACUUM\\b|CREATE\\s+DATABASE\\b).*");
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+            "(?is)CREATE\\s+(UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)\\s+ON\\s+(?:ONLY\\s+)?(\\w+)\\s+(.*)");
+    private static final int MAX_IDENTIFIER = 63;
+
+    private final Connection c;
+    private final long lockTimeoutMillis;
+    private final int attempts;
+
+    public PostgresMigrator(Connection c) {
+        this(c, DEFAULT_LOCK_TIMEOUT_MILLIS, DEFAULT_ATTEMPTS);
+    }
+
+    public PostgresMigrator(Connection c, long lockTimeoutMillis, int attempts) {
+        if (lockTimeoutMillis < 1) throw new IllegalArgumentException("lockTimeoutMillis must be >= 1");
+        if (attempts < 1) throw new IllegalArgumentException("attempts must be >= 1");
+        this.c = Objects.requireNonNull(c, "c");
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.attempts = attempts;
+    }
+
+    /** Applies pending versioned scripts. Waits while another instance is migrating. @return scripts applied */
+    public int migrate() throws SQLException {
+        List<Script> scripts = versionedScripts();
+        lock();
+        try {
+            createHistory();
+            Map<String, Integer> applied = applied();
+            int newest = 0;
+            for (Script s : scripts) {
+                if (applied.containsKey(s.key())) newest = s.version();
+            }
+            int count = 0;
+            for (Script s : scripts) {
+                Integer checksum = applied.get(s.key());
+                if (checksum != null) {
+                    if (checksum != s.checksum()) {
+                        throw new IllegalStateException(s.resource() + " changed after it was applied (checksum "
+                                + checksum + ", now " + s.checksum() + "); add a new version instead of editing it");
+                    }
+                    continue;
+                }
+                if (s.version() < newest) {
+                    throw new IllegalStateException(s.resource() + " is older than applied V" + newest + "; renumber it");
+                }
+                apply(s);
+                count++;
+            }
+            return count;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Runs a script that is kept current rather than versioned (seed data, say) if it was never
+     * run or its text changed since. @return whether it ran
+     */
+    public boolean applyRepeatable(String resource) throws SQLException {
+        String sql = SqlScriptRunner.readClasspathText(resource);
+        Script s = new Script("R__" + resource.substring(resource.lastIndexOf('/') + 1), 0, resource, sql, checksum(sql));
+        lock();
+        try {
+            createHistory();
+            if (Objects.equals(applied().get(s.key()), s.checksum())) return false;
+            apply(s);
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    private void apply(Script s) throws SQLException {
+        List<String> statements = SqlTokenizer.statements(s.sql());
+        boolean transactional = statements.stream().noneMatch(st -> NON_TRANSACTIONAL.matcher(st).matches());
+        long start = System.nanoTime();
+        if (transactional) {
+            retrying(s.resource(), () -> {
+                c.setAutoCommit(false);
+                try (Statement st = c.createStatement()) {
+                    st.execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+                    for (String sql : statements) st.execute(sql);
+                    record(s, (System.nanoTime() - start) / 1_000_000);
+                    c.commit();
+                } catch (SQLException e) {
+                    c.rollback();
+                    throw e;
+                } finally {
+                    c.setAutoCommit(true);
+                }
+            });
+        } else {
+            for (String sql : statements) {
+                retrying(s.resource(), () -> executeOutsideTransaction(sql));
+            }
+            record(s, (System.nanoTime() - start) / 1_000_000);
+        }
+        log.info("Applied {} in {} ms{}", s.resource(), (System.nanoTime() - start) / 1_000_000,
+                transactional ? "" : " (statement by statement)");
+    }
+
+    private void executeOutsideTransaction(String sql) throws SQLException {
+        Matcher m = CONCURRENT_INDEX.matcher(sql);
+        if (!m.matches()) {
+            withLockTimeout(sql);
+            return;
+        }
+        String unique = m.group(1) == null ? "" : "UNIQUE ";
+        String name = m.group(3);
+        String table = m.group(4);
+        String definition = m.group(5);
+        dropIfInvalid(name);
+        if (!"p".equals(relkind(table))) {
+            withLockTimeout(sql);
+            return;
+        }
+        if (m.group(2) == null && relkind(name) != null) {
+            throw new SQLException("relation \"" + name + "\" already exists", "42P07");
+        }
+        for (String partition : partitions(table)) {
+            String child = childIndexName(partition, name);
+            dropIfInvalid(child);
+            withLockTimeout("CREATE " + unique + "INDEX CONCURRENTLY IF NOT EXISTS " + child + " ON " + partition + " " + definition);
+        }
+        // Created invalid and without a build; valid once every partition's index is attached.
+        withLockTimeout("CREATE " + unique + "INDEX IF NOT EXISTS " + name + " ON ONLY " + table + " " + definition);
+        for (String partition : partitions(table)) {
+            String child = childIndexName(partition, name);
+            if (!exists("SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass('" + name + "')", child)) {
+                withLockTimeout("ALTER INDEX " + name + " ATTACH PARTITION " + child);
+            }
+        }
+    }
+
+    static String childIndexName(String partition, String index) {
+        String n = partition + "_" + index;
+        if (n.length() <= MAX_IDENTIFIER) return n;
+        String hash = Integer.toHexString(n.hashCode());
+        return n.substring(0, MAX_IDENTIFIER - hash.length() - 1) + "_" + hash;
+    }
+
+    private void dropIfInvalid(String index) throws SQLException {
+        if (exists("SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid"
+                + " WHERE i.indexrelid = to_regclass(?) AND NOT i.indisvalid AND c.relkind = 'i'", index)) {
+            log.warn("Dropping invalid index {} left by an interrupted build", index);
+            withLockTimeout("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+    }
+
+    private void withLockTimeout(String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("SET lock_timeout = " + lockTimeoutMillis);
+            try {
+                st.execute(sql);
+            } finally {
+                st.execute("RESET lock_timeout");
+            }
+        }
+    }
+
+    private void retrying(String what, SqlAction action) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return;
+            } catch (SQLException e) {
+                // 55P03: lock_not_available
+                if (!"55P03".equals(e.getSQLState()) || attempt == attempts) throw e;
+                log.info("{}: lock timeout (attempt {} of {}), retrying", what, attempt, attempts);
+                try {
+                    Thread.sleep(attempt * lockTimeoutMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void createHistory() throws SQLException {
+        if (relkind("schema_history") != null) return;
+        try (Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_history ("
+                    + "version TEXT PRIMARY KEY, "
+                    + "script TEXT NOT NULL, "
+                    + "checksum INT NOT NULL, "
+                    + "applied_at TIMESTAMPTZ NOT NULL DEFAULT now(), "
+                    + "execution_ms BIGINT NOT NULL)");
+        }
+    }
+
+    private Map<String, Integer> applied() throws SQLException {
+        Map<String, Integer> out = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_history")) {
+            while (rs.next()) out.put(rs.getString(1), rs.getInt(2));
+        }
+        return out;
+    }
+
+    private void record(Script s, long millis) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO schema_history (version, script, checksum, execution_ms) VALUES (?, ?, ?, ?)"
+                        + " ON CONFLICT (version) DO UPDATE SET script = EXCLUDED.script, checksum = EXCLUDED.checksum,"
+                        + " applied_at = now(), execution_ms = EXCLUDED.execution_ms")) {
+            ps.setString(1, s.key());
+            ps.setString(2, s.resource());
+            ps.setInt(3, s.checksum());
+            ps.setLong(4, millis);
+            ps.executeUpdate();
+        }
+    }
+
+    private void lock() throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+        }
+    }
+
+    private void unlock() throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+        }
+    }
+
+    private String relkind(String relation) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT relkind FROM pg_class WHERE oid = to_regclass(?)")) {
+            ps.setString(1, relation);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private List<String> partitions(String table) throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass(?) AND c.relkind = 'r' ORDER BY c.relname")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(rs.getString(1));
+            }
+        }
+        return out;
+    }
+
+    private boolean exists(String sql, String param) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, param);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    static int checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    static List<Script> versionedScripts() {
+        List<Script> out = new ArrayList<>();
+        for (String file : list(LOCATION)) {
+            Matcher m = VERSIONED.matcher(file);
+            if (!m.matches()) {
+                if (file.endsWith(".sql")) throw new IllegalStateException("Migration name not V<n>__<description>.sql: " + file);
+                continue;
+            }
+            String resource = LOCATION + "/" + file;
+            String sql = SqlScriptRunner.readClasspathText(resource);
+            out.add(new Script(m.group(1), Integer.parseInt(m.group(1)), resource, sql, checksum(sql)));
+        }
+        out.sort(Comparator.comparingInt(Script::version));
+        for (int i = 1; i < out.size(); i++) {
+            if (out.get(i).version() == out.get(i - 1).version()) {
+                throw new IllegalStateException("Two migrations with version " + out.get(i).version());
+            }
+        }
+        return out;
+    }
+
+    // File names in a classpath directory, from the file system or from inside the jar.
+    private static List<String> list(String dir) {
+        try {
+            URL url = PostgresMigrator.class.getClassLoader().getResource(dir);
+            if (url == null) throw new IllegalStateException("Migration directory not found on classpath: " + dir);
+            URI uri = url.toURI();
+            if (!"jar".equals(uri.getScheme())) return names(Path.of(uri));
+            FileSystem fs;
+            try {
+                fs = FileSystems.getFileSystem(uri);
+            } catch (FileSystemNotFoundException e) {
+                fs = FileSystems.newFileSystem(uri, Map.of());
+            }
+            return names(fs.getPath(dir));
+        } catch (IOException | java.net.URISyntaxException e) {
+            throw new IllegalStateException("Failed to list " + dir, e);
+        }
+    }
+
+    private static List<String> names(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString()).toList();
+        }
+    }
+
+    record Script(String key, int version, String resource, String sql, int checksum) {
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
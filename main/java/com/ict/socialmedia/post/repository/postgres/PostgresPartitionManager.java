@@ -0,0 +1,497 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code posts} range-partitioned by {@code created_at}: converts a plain table once,
+ * creates partitions ahead of time, and detaches (and drops) the ones past retention.
+ *
+ * <p>The partition key has to be part of every unique index, so the parent's key is
+ * {@code (id, created_at)} and id uniqueness moves to {@code post_locator (id, created_at)}, kept
+ * by row triggers on posts: the insert trigger claims the id and skips the row if it is taken,
+ * the delete trigger releases it. {@link PostgresPostRepository} reads {@code created_at} from
+ * there first, so a lookup by id touches one partition instead of probing all of them.
+ *
+ * <p>Conversion is online: writes keep going while the locator is backfilled and the old table
+ * is checked against the cutoff; only the final rename-and-attach takes an exclusive lock, under
+ * a lock timeout with retries. The old table becomes partition {@code posts_legacy}, holding
+ * everything before the cutoff (it is not split up), and leaves through retention like any other
+ * partition. Needs PostgreSQL 13 (before-row triggers on partitioned tables); detaching uses
+ * {@code CONCURRENTLY} from 14 on. Truncating posts skips the delete trigger and leaves stale
+ * locator rows behind.
+ *
+ * <p>The change-log triggers ({@link PostgresChangeFeed}) move to the new parent in the swap.
+ * Posts leaving with a retired partition produce no delete events.
+ */
+public final class PostgresPartitionManager {
+    private static final Logger log = LoggerFactory.getLogger(PostgresPartitionManager.class);
+
+    private static final String PARENT = "posts";
+    private static final String STAGING = "posts_partitioned";
+    private static final String LEGACY = "posts_legacy";
+    private static final String LEGACY_BOUND = "posts_legacy_bound";
+    private static final String LEGACY_KEY = "posts_legacy_id_created_at_key";
+    // Session advisory lock: one instance converts or maintains at a time.
+    private static final long LOCK_KEY = 0x706f737473L;
+    private static final int BATCH = 10_000;
+    private static final int DDL_ATTEMPTS = 10;
+    private static final String LOCK_TIMEOUT = "5s";
+    // The cutoff must stay in the future until the swap; writes at or past it fail before then.
+    private static final Duration CUTOFF_MARGIN = Duration.ofDays(1);
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_posts_created_at", "(created_at DESC)",
+            "idx_posts_author_created", "(author, created_at DESC, id DESC)",
+            "idx_posts_visibility_created", "(visibility, created_at DESC, id DESC)",
+            "idx_posts_search", "USING GIN (search_vector)"
+    );
+    private static final Pattern BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final DateTimeFormatter LITERAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssx").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter PARSE = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true).optionalEnd()
+            .appendPattern("x")
+            .toFormatter();
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final PostgresPartitionSettings settings;
+    private ScheduledExecutorService scheduler;
+
+    public PostgresPartitionManager(String jdbcUrl, String user, String password, PostgresPartitionSettings settings) {
+        this.jdbcUrl = Objects.requireNonNull(jdbcUrl, "jdbcUrl");
+        this.user = Objects.requireNonNull(user, "user");
+        this.password = Objects.requireNonNull(password, "password");
+        this.settings = Objects.requireNonNull(settings, "settings");
+    }
+
+    /** True if posts is partitioned and has its locator, i.e. id lookups can go through it. */
+    public static boolean isPartitioned(DataSource dataSource) {
+        String sql = "SELECT c.relkind = 'p' AND to_regclass('post_locator') IS NOT NULL FROM pg_class c WHERE c.oid = to_regclass('posts')";
+        try (Connection c = dataSource.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to inspect posts partitioning", e);
+        }
+    }
+
+    /** Converts posts if it is still a plain table (waiting for another instance doing the same), then maintains it. */
+    public void ensurePartitioned() {
+        try (Connection c = connect()) {
+            if (c.getMetaData().getDatabaseMajorVersion() < 13) {
+                throw new IllegalStateException("Partitioned posts need PostgreSQL 13 or later");
+            }
+            // Session lock; released when the connection closes.
+            query(c, "SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            if (!"p".equals(relkind(c, PARENT))) convert(c);
+            maintain(c);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to partition posts", e);
+        }
+    }
+
+    /** Creates upcoming partitions and retires old ones, unless another instance is already at it. */
+    public void maintain() {
+        try (Connection c = connect()) {
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+                if (!rs.next() || !rs.getBoolean(1)) return;
+            }
+            maintain(c);
+        } catch (Exception e) {
+            throw new RuntimeException("Partition maintenance failed", e);
+        }
+    }
+
+    /** Runs {@link #maintain()} every maintenance interval on a daemon thread. */
+    public synchronized void start() {
+        long every = settings.getMaintenanceIntervalMillis();
+        if (scheduler != null || every == 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "posts-partition-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (RuntimeException e) {
+                log.warn("Partition maintenance failed; retrying in {} ms", every, e);
+            }
+        }, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    /** Cancels the schedule started by {@link #start()}; a run in progress is interrupted and picked up by the next start. */
+    public synchronized void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    private Connection connect() throws SQLException {
+        Connection c = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement st = c.createStatement()) {
+            // Partition bounds are printed in the session time zone; parse them in UTC.
+            st.execute("SET TIME ZONE 'UTC'");
+        } catch (SQLException e) {
+            c.close();
+            throw e;
+        }
+        return c;
+    }
+
+    // Every step checks what a previous, interrupted run already did.
+    private void convert(Connection c) throws SQLException {
+        log.info("Partitioning posts by created_at ({})", settings.getInterval());
+        exec(c, "CREATE TABLE IF NOT EXISTS post_locator (id UUID PRIMARY KEY, created_at TIMESTAMPTZ NOT NULL)");
+        exec(c, "CREATE INDEX IF NOT EXISTS idx_post_locator_created_at ON post_locator (created_at)");
+        exec(c, "CREATE OR REPLACE FUNCTION posts_locator_claim() RETURNS trigger LANGUAGE plpgsql AS $$\n"
+                + "BEGIN\n"
+                + "  INSERT INTO post_locator (id, created_at) VALUES (NEW.id, NEW.created_at) ON CONFLICT (id) DO NOTHING;\n"
+                + "  IF NOT FOUND THEN\n"
+                + "    RETURN NULL;\n"
+                + "  END IF;\n"
+                + "  RETURN NEW;\n"
+                + "END $$");
+        exec(c, "CREATE OR REPLACE FUNCTION posts_locator_release() RETURNS trigger LANGUAGE plpgsql AS $$\n"
+                + "BEGIN\n"
+                + "  DELETE FROM post_locator WHERE id = OLD.id AND created_at = OLD.created_at;\n"
+                + "  RETURN NULL;\n"
+                + "END $$");
+        addTriggers(c, PARENT);
+        backfillLocator(c);
+
+        // The parent's key is (id, created_at); attaching finds this one instead of building it under lock.
+        if (!exists(c, "SELECT 1 FROM pg_index WHERE indexrelid = to_regclass(?) AND indisvalid", LEGACY_KEY)) {
+            exec(c, "DROP INDEX CONCURRENTLY IF EXISTS " + LEGACY_KEY);
+            exec(c, "CREATE UNIQUE INDEX CONCURRENTLY " + LEGACY_KEY + " ON posts (id, created_at)");
+        }
+        if (!exists(c, "SELECT 1 FROM pg_constraint WHERE conrelid = 'posts'::regclass AND conname = ?", LEGACY_KEY)) {
+            ddl(c, "ALTER TABLE posts ADD CONSTRAINT " + LEGACY_KEY + " UNIQUE USING INDEX " + LEGACY_KEY);
+        }
+
+        Instant cutoff = relkind(c, STAGING) == null ? null : partitions(c, STAGING).stream()
+                .map(Partition::from).filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null);
+        if (cutoff == null) cutoff = chooseCutoff(Instant.now());
+        // Validated, the check lets ATTACH skip scanning the old table for rows outside its range.
+        ddl(c, "ALTER TABLE posts DROP CONSTRAINT IF EXISTS " + LEGACY_BOUND,
+                "ALTER TABLE posts ADD CONSTRAINT " + LEGACY_BOUND + " CHECK (created_at < " + literal(cutoff) + ") NOT VALID");
+        exec(c, "ALTER TABLE posts VALIDATE CONSTRAINT " + LEGACY_BOUND);
+
+        createStaging(c, cutoff);
+        if (!Instant.now().isBefore(cutoff)) {
+            throw new IllegalStateException("Conversion passed its cutoff " + cutoff + "; run it again to pick a new one");
+        }
+        ddl(c,
+                "LOCK TABLE posts IN ACCESS EXCLUSIVE MODE",
+                "DROP TRIGGER posts_locator_claim ON posts",
+                "DROP TRIGGER posts_locator_release ON posts",
+                "DROP TRIGGER IF EXISTS post_changes_insert ON posts",
+                "DROP TRIGGER IF EXISTS post_changes_update ON posts",
+                "DROP TRIGGER IF EXISTS post_changes_delete ON posts",
+                "ALTER TABLE posts RENAME TO " + LEGACY,
+                "ALTER TABLE " + STAGING + " RENAME TO posts",
+                "ALTER TABLE posts ATTACH PARTITION " + LEGACY + " FOR VALUES FROM (MINVALUE) TO (" + literal(cutoff) + ")",
+                "ALTER TABLE " + LEGACY + " DROP CONSTRAINT " + LEGACY_BOUND);
+
+        // A delete racing the backfill can leave a locator row with nothing behind it.
+        exec(c, "DELETE FROM post_locator l WHERE NOT EXISTS "
+                + "(SELECT 1 FROM posts p WHERE p.id = l.id AND p.created_at = l.created_at)");
+        log.info("posts is partitioned; rows before {} are in {}", cutoff, LEGACY);
+    }
+
+    private static void addTriggers(Connection c, String table) throws SQLException {
+        if (!exists(c, "SELECT 1 FROM pg_trigger WHERE tgrelid = to_regclass(?) AND tgname = 'posts_locator_claim'", table)) {
+            ddl(c, "CREATE TRIGGER posts_locator_claim BEFORE INSERT ON " + table
+                    + " FOR EACH ROW EXECUTE FUNCTION posts_locator_claim()");
+        }
+        if (!exists(c, "SELECT 1 FROM pg_trigger WHERE tgrelid = to_regclass(?) AND tgname = 'posts_locator_release'", table)) {
+            ddl(c, "CREATE TRIGGER posts_locator_release AFTER DELETE ON " + table
+                    + " FOR EACH ROW EXECUTE FUNCTION posts_locator_release()");
+        }
+    }
+
+    // The change log (V5) is fed by statement triggers, which only fire on the table a statement names.
+    private static void addChangeTriggers(Connection c, String table) throws SQLException {
+        if (!exists(c, "SELECT 1 FROM pg_proc WHERE proname = ?", "post_changes_record")) return;
+        String[][] triggers = {{"post_changes_insert", "INSERT", "NEW TABLE AS new_rows"},
+                {"post_changes_update", "UPDATE", "NEW TABLE AS new_rows"},
+                {"post_changes_delete", "DELETE", "OLD TABLE AS old_rows"}};
+        for (String[] t : triggers) {
+            if (exists(c, "SELECT 1 FROM pg_trigger WHERE tgrelid = to_regclass(?) AND tgname = '" + t[0] + "'", table)) continue;
+            ddl(c, "CREATE TRIGGER " + t[0] + " AFTER " + t[1] + " ON " + table
+                    + " REFERENCING " + t[2] + " FOR EACH STATEMENT EXECUTE FUNCTION post_changes_record()");
+        }
+    }
+
+    // Keyset batches in their own transactions; rows inserted meanwhile are claimed by the trigger.
+    private static void backfillLocator(Connection c) throws SQLException {
+        String sql = "WITH batch AS (SELECT id, created_at FROM posts WHERE id %s ? ORDER BY id LIMIT " + BATCH + "), "
+                + "ins AS (INSERT INTO post_locator (id, created_at) SELECT id, created_at FROM batch ON CONFLICT (id) DO NOTHING RETURNING 1) "
+                + "SELECT (SELECT id FROM batch ORDER BY id DESC LIMIT 1), (SELECT count(*) FROM ins)";
+        long rows = 0;
+        try (PreparedStatement first = c.prepareStatement(String.format(sql, ">="));
+             PreparedStatement next = c.prepareStatement(String.format(sql, ">"))) {
+            // uuids compare as unsigned bytes: the nil uuid is the smallest, and >= keeps it in.
+            PreparedStatement ps = first;
+            Object last = new UUID(0, 0);
+            while (true) {
+                ps.setObject(1, last);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    if (rs.getObject(1) == null) break;
+                    last = rs.getObject(1);
+                    rows += rs.getLong(2);
+                }
+                ps = next;
+            }
+        }
+        log.info("post_locator backfilled ({} rows)", rows);
+    }
+
+    private void createStaging(Connection c, Instant cutoff) throws SQLException {
+        StringBuilder checks = new StringBuilder();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = 'posts'::regclass AND contype = 'c' AND conname <> ?")) {
+            ps.setString(1, LEGACY_BOUND);
+            try (ResultSet rs = ps.executeQuery()) {
+                // ATTACH matches CHECK constraints by name.
+                while (rs.next()) checks.append(", CONSTRAINT ").append(rs.getString(1)).append(' ').append(rs.getString(2));
+            }
+        }
+        exec(c, "CREATE TABLE IF NOT EXISTS " + STAGING + " ("
+                + "id UUID NOT NULL, "
+                + "author VARCHAR(100) NOT NULL, "
+                + "content TEXT NOT NULL, "
+                + "visibility VARCHAR(16) NOT NULL, "
+                + "likes INT NOT NULL DEFAULT 0, "
+                + "created_at TIMESTAMPTZ NOT NULL, "
+                + "updated_at TIMESTAMPTZ NOT NULL, "
+                + "version BIGINT NOT NULL DEFAULT 0, "
+                + "search_vector TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', content)) STORED, "
+                + "CONSTRAINT posts_part_pkey PRIMARY KEY (id, created_at)" + checks
+                + ") PARTITION BY RANGE (created_at)");
+
+        // Index names are per schema: the old table's move aside so the parent can own them.
+        for (String name : INDEXES.keySet()) {
+            if (exists(c, "SELECT 1 FROM pg_index WHERE indexrelid = to_regclass(?) AND indrelid = 'posts'::regclass", name)) {
+                exec(c, "ALTER INDEX " + name + " RENAME TO " + name + "_legacy");
+            }
+        }
+        for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+            exec(c, "CREATE INDEX IF NOT EXISTS " + index.getKey() + " ON " + STAGING + " " + index.getValue());
+        }
+        addTriggers(c, STAGING);
+        addChangeTriggers(c, STAGING);
+        createPartitions(c, STAGING, cutoff);
+    }
+
+    private void maintain(Connection c) throws SQLException {
+        PostgresPartitionSettings.Interval interval = settings.getInterval();
+        createPartitions(c, PARENT, start(interval.floor(today())));
+        if (settings.getRetain() > 0) {
+            retire(c, start(interval.plus(interval.floor(today()), -settings.getRetain())));
+        }
+    }
+
+    /**
+     * Adds partitions from the end of the last one (or {@code notBefore} if there are none) until
+     * {@code premake} intervals past the current one are covered. Ranges stay contiguous even if
+     * the interval setting changed: the first new one may be shorter, to get back on a boundary.
+     */
+    private void createPartitions(Connection c, String parent, Instant notBefore) throws SQLException {
+        PostgresPartitionSettings.Interval interval = settings.getInterval();
+        Instant next = partitions(c, parent).stream()
+                .map(Partition::to).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(notBefore);
+        LocalDate base = date(notBefore).isAfter(today()) ? date(notBefore) : today();
+        Instant horizon = start(interval.plus(interval.floor(base), settings.getPremake() + 1L));
+        for (Instant lo = next; lo.isBefore(horizon); ) {
+            Instant hi = start(interval.plus(interval.floor(date(lo)), 1));
+            String name = "posts_p" + SUFFIX.format(date(lo));
+            ddl(c, "CREATE TABLE " + name + " PARTITION OF " + parent
+                    + " FOR VALUES FROM (" + literal(lo) + ") TO (" + literal(hi) + ")");
+            log.info("Created partition {} [{}, {})", name, lo, hi);
+            lo = hi;
+        }
+    }
+
+    private void retire(Connection c, Instant threshold) throws SQLException {
+        boolean concurrently = c.getMetaData().getDatabaseMajorVersion() >= 14;
+        for (Partition p : partitions(c, PARENT)) {
+            if (p.to() == null || p.to().isAfter(threshold)) continue;
+            if (p.detachPending()) {
+                // A concurrent detach that was interrupted; it can only be finished.
+                exec(c, "ALTER TABLE posts DETACH PARTITION " + p.name() + " FINALIZE");
+            } else if (concurrently) {
+                exec(c, "ALTER TABLE posts DETACH PARTITION " + p.name() + " CONCURRENTLY");
+            } else {
+                ddl(c, "ALTER TABLE posts DETACH PARTITION " + p.name());
+            }
+            if (settings.isDropDetached()) ddl(c, "DROP TABLE " + p.name());
+            releaseLocators(c, p);
+            log.info("Retired partition {} [{}, {}){}", p.name(), p.from() == null ? "-inf" : p.from(), p.to(),
+                    settings.isDropDetached() ? "" : "; kept as a detached table");
+        }
+    }
+
+    private static void releaseLocators(Connection c, Partition p) throws SQLException {
+        String range = p.from() == null ? "created_at < ?" : "created_at >= ? AND created_at < ?";
+        try (PreparedStatement ps = c.prepareStatement("DELETE FROM post_locator WHERE id IN "
+                + "(SELECT id FROM post_locator WHERE " + range + " LIMIT " + BATCH + ")")) {
+            int i = 1;
+            if (p.from() != null) ps.setTimestamp(i++, Timestamp.from(p.from()));
+            ps.setTimestamp(i, Timestamp.from(p.to()));
+            while (ps.executeUpdate() > 0) {
+                // one batch per transaction
+            }
+        }
+    }
+
+    private Instant chooseCutoff(Instant now) {
+        PostgresPartitionSettings.Interval interval = settings.getInterval();
+        LocalDate b = interval.plus(interval.floor(date(now)), 1);
+        while (start(b).isBefore(now.plus(CUTOFF_MARGIN))) b = interval.plus(b, 1);
+        return start(b);
+    }
+
+    private static List<Partition> partitions(Connection c, String parent) throws SQLException {
+        boolean pending = c.getMetaData().getDatabaseMajorVersion() >= 14;
+        String sql = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), " + (pending ? "i.inhdetachpending" : "false")
+                + " FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass(?) AND c.relkind IN ('r', 'p')";
+        List<Partition> out = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, parent);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Matcher m = BOUND.matcher(rs.getString(2));
+                    if (!m.find()) continue;
+                    out.add(new Partition(rs.getString(1), bound(m.group(1)), bound(m.group(2)), rs.getBoolean(3)));
+                }
+            }
+        }
+        out.sort(Comparator.comparing(Partition::to, Comparator.nullsLast(Comparator.naturalOrder())));
+        return out;
+    }
+
+    // 'yyyy-MM-dd HH:mm:ss[.f]+00', or MINVALUE/MAXVALUE as null.
+    static Instant bound(String value) {
+        String v = value.trim();
+        if (!v.startsWith("'")) return null;
+        return OffsetDateTime.parse(v.substring(1, v.length() - 1), PARSE).toInstant();
+    }
+
+    static String literal(Instant t) {
+        return "'" + LITERAL.format(t) + "'";
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static LocalDate date(Instant t) {
+        return LocalDate.ofInstant(t, ZoneOffset.UTC);
+    }
+
+    private static Instant start(LocalDate d) {
+        return d.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static String relkind(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT relkind FROM pg_class WHERE oid = to_regclass(?)")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static boolean exists(Connection c, String sql, String param) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, param);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void query(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.executeQuery(sql).close();
+        }
+    }
+
+    // Autocommit, for statements that must run outside a transaction block or take no strong lock.
+    private static void exec(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    /**
+     * Runs statements that take strong locks in one transaction that gives up after
+     * {@link #LOCK_TIMEOUT} rather than queue every query on posts behind it, and tries again.
+     */
+    private static void ddl(Connection c, String... statements) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                for (String sql : statements) st.execute(sql);
+                c.commit();
+                return;
+            } catch (SQLException e) {
+                c.rollback();
+                // 55P03: lock_not_available
+                if (!"55P03".equals(e.getSQLState()) || attempt == DDL_ATTEMPTS) throw e;
+                log.debug("Lock timeout on attempt {}: {}", attempt, statements[0]);
+                sleep(attempt * 1_000L);
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a lock", e);
+        }
+    }
+
+    private record Partition(String name, Instant from, Instant to, boolean detachPending) {
+    }
+}
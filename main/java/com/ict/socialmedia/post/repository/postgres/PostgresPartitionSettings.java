@@ -0,0 +1,91 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.Objects;
+
+/** How {@link PostgresPartitionManager} splits posts by {@code created_at} and how long it keeps them. */
+public final class PostgresPartitionSettings {
+    private final Interval interval;
+    private final int premake;
+    private final int retain;
+    private final boolean dropDetached;
+    private final long maintenanceIntervalMillis;
+
+    /**
+     * @param premake                   partitions created ahead of the current one
+     * @param retain                    whole intervals kept before the current one; 0 keeps everything
+     * @param dropDetached              drop partitions past retention, or only detach them (they
+     *                                  stay behind as plain tables for archiving)
+     * @param maintenanceIntervalMillis how often a running app re-checks partitions; 0 only at start
+     */
+    public PostgresPartitionSettings(
+            Interval interval,
+            int premake,
+            int retain,
+            boolean dropDetached,
+            long maintenanceIntervalMillis
+    ) {
+        if (premake < 1) throw new IllegalArgumentException("premake must be >= 1");
+        if (retain < 0) throw new IllegalArgumentException("retain must be >= 0");
+        if (maintenanceIntervalMillis < 0) throw new IllegalArgumentException("maintenanceIntervalMillis must be >= 0");
+        this.interval = Objects.requireNonNull(interval, "interval");
+        this.premake = premake;
+        this.retain = retain;
+        this.dropDetached = dropDetached;
+        this.maintenanceIntervalMillis = maintenanceIntervalMillis;
+    }
+
+    public static PostgresPartitionSettings defaults() {
+        return new PostgresPartitionSettings(Interval.MONTH, 3, 0, true, 3_600_000);
+    }
+
+    public Interval getInterval() {
+        return interval;
+    }
+
+    public int getPremake() {
+        return premake;
+    }
+
+    public int getRetain() {
+        return retain;
+    }
+
+    public boolean isDropDetached() {
+        return dropDetached;
+    }
+
+    public long getMaintenanceIntervalMillis() {
+        return maintenanceIntervalMillis;
+    }
+
+    /** Partition width. Boundaries fall on UTC midnights; weeks start on Monday. */
+    public enum Interval {
+        DAY, WEEK, MONTH;
+
+        public static Interval parseOrDefault(String s, Interval def) {
+            if (s == null || s.isBlank()) return def;
+            return valueOf(s.trim().toUpperCase(Locale.ROOT));
+        }
+
+        /** Start of the interval containing {@code d}. */
+        LocalDate floor(LocalDate d) {
+            return switch (this) {
+                case DAY -> d;
+                case WEEK -> d.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> d.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate plus(LocalDate d, long n) {
+            return switch (this) {
+                case DAY -> d.plusDays(n);
+                case WEEK -> d.plusWeeks(n);
+                case MONTH -> d.plusMonths(n);
+            };
+        }
+    }
+}
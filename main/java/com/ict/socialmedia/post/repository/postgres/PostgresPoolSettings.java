@@ -0,0 +1,66 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+public final class PostgresPoolSettings {
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long evictionIntervalMillis;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSeconds;
+
+    public PostgresPoolSettings(
+            int minSize,
+            int maxSize,
+            long connectionTimeoutMillis,
+            long idleTimeoutMillis,
+            long evictionIntervalMillis,
+            boolean validateOnBorrow,
+            int validationTimeoutSeconds
+    ) {
+        if (minSize < 0) throw new IllegalArgumentException("minSize must be >= 0");
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        if (minSize > maxSize) throw new IllegalArgumentException("minSize must be <= maxSize");
+        if (connectionTimeoutMillis < 0) throw new IllegalArgumentException("connectionTimeoutMillis must be >= 0");
+        if (validationTimeoutSeconds < 0) throw new IllegalArgumentException("validationTimeoutSeconds must be >= 0");
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.evictionIntervalMillis = evictionIntervalMillis;
+        this.validateOnBorrow = validateOnBorrow;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public static PostgresPoolSettings defaults() {
+        return new PostgresPoolSettings(2, 10, 5_000, 300_000, 30_000, true, 2);
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+}
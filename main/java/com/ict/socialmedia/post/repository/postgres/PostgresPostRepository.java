@@ -2,33 +2,160 @@ package com.ict.socialmedia.post.repository.postgres;
 
 import com.ict.socialmedia.post.model.Post;
 import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.DuplicatePostException;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
 import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.QueryPlan;
+import com.ict.socialmedia.post.repository.QueryScope;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchHit;
+import com.ict.socialmedia.post.repository.SearchPage;
+import com.ict.socialmedia.post.repository.search.TextAnalyzer;
 
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class PostgresPostRepository implements PostRepository {
-    private final String url;
-    private final String user;
-    private final String password;
+@SuppressWarnings("try") // close() passes on whatever the wrapped repositories throw
+public class PostgresPostRepository implements PostRepository, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    /** Serves {@link #findByAuthor}: equality on author, then newest first. */
+    public static final String AUTHOR_TIMELINE_INDEX = "idx_posts_author_created";
+    /** Serves {@link #findPublicFeed}: equality on visibility, then newest first. */
+    public static final String VISIBILITY_FEED_INDEX = "idx_posts_visibility_created";
+
+    private static final String COLUMNS = "id, author, content, visibility, likes, created_at, updated_at, version";
+    private static final int INSERT_PARAMS = 8;
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SET = "UPDATE posts SET author = ?, content = ?, visibility = ?, likes = ?, updated_at = ?, version = version + 1";
+    // Partitioned posts: the locator supplies created_at, so the executor prunes to one partition.
+    private static final String BY_ID = "id = ?";
+    private static final String BY_LOCATED_ID = "(id, created_at) = (SELECT id, created_at FROM post_locator WHERE id = ?)";
+    // PostgreSQL caps a statement at 65535 bind parameters.
+    private static final int MAX_INSERT_ROWS = 65535 / INSERT_PARAMS;
+
+    private final DataSource dataSource;
+    private final PostgresReplicaRouter replicas;
+    private final int batchSize;
+    private final int fetchSize;
+    private final String byId;
+    private final String updateSql;
+    private final String updateIfVersionSql;
+    private final String incrementLikesSql;
+    private final String deleteAllSql;
 
     public PostgresPostRepository(String url, String user, String password) {
-        this.url = url;
-        this.user = user;
-        this.password = password;
+        this(new PostgresConnectionPool(url, user, password, PostgresPoolSettings.defaults()));
+    }
+
+    public PostgresPostRepository(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public PostgresPostRepository(DataSource dataSource, int batchSize) {
+        this(dataSource, batchSize, DEFAULT_FETCH_SIZE);
+    }
+
+    public PostgresPostRepository(DataSource dataSource, int batchSize, int fetchSize) {
+        this(dataSource, batchSize, fetchSize, false);
+    }
+
+    /**
+     * @param partitioned posts is partitioned by {@link PostgresPartitionManager}; lookups by id
+     *                    then go through its locator table. Plain id lookups stay correct on a
+     *                    partitioned table, they just probe every partition.
+     */
+    public PostgresPostRepository(DataSource dataSource, int batchSize, int fetchSize, boolean partitioned) {
+        this(dataSource, batchSize, fetchSize, partitioned, null);
+    }
+
+    /**
+     * @param replicas when not null, reads go through it to read replicas; its primary must be
+     *                 {@code dataSource}. Closed with the repository.
+     */
+    public PostgresPostRepository(DataSource dataSource, int batchSize, int fetchSize, boolean partitioned,
+                                  PostgresReplicaRouter replicas) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        if (fetchSize < 1) throw new IllegalArgumentException("fetchSize must be >= 1");
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        if (replicas != null && replicas.getPrimary() != dataSource) {
+            throw new IllegalArgumentException("replicas must route writes to dataSource");
+        }
+        this.replicas = replicas;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.byId = partitioned ? BY_LOCATED_ID : BY_ID;
+        this.updateSql = UPDATE_SET + " WHERE " + byId;
+        this.updateIfVersionSql = UPDATE_SET + " WHERE " + byId + " AND version = ? RETURNING " + COLUMNS;
+        this.incrementLikesSql = "UPDATE posts SET likes = GREATEST(likes + ?, 0), updated_at = ?, version = version + 1 WHERE " + byId;
+        this.deleteAllSql = partitioned
+                ? "DELETE FROM posts WHERE (id, created_at) IN (SELECT id, created_at FROM post_locator WHERE id = ANY(?)) RETURNING id"
+                : "DELETE FROM posts WHERE id = ANY(?) RETURNING id";
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /** Empty when every read goes to the primary. */
+    public Optional<PostgresReplicaRouter> getReplicas() {
+        return Optional.ofNullable(replicas);
     }
 
     private Connection getConnection() {
+        return connect(false);
+    }
+
+    // A replica's, when there are replicas and this caller has not just written.
+    private Connection getReadConnection() {
+        return connect(true);
+    }
+
+    private Connection connect(boolean read) {
         try {
-            return DriverManager.getConnection(url, user, password);
+            Connection c = replicas == null ? dataSource.getConnection()
+                    : read ? replicas.readConnection() : replicas.writeConnection();
+            QueryScope scope = QueryScope.current();
+            if (scope == null) return c;
+            try {
+                return ScopedConnection.wrap(c, scope);
+            } catch (SQLException | RuntimeException e) {
+                c.close();
+                throw e;
+            }
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to connect to PostgreSQL", e);
         }
@@ -36,8 +163,8 @@ public class PostgresPostRepository implements PostRepository {
 
     @Override
     public List<Post> findAll() {
-        String sql = "SELECT id, author, content, visibility, likes, created_at, updated_at FROM posts ORDER BY created_at DESC";
-        try (Connection c = getConnection();
+        String sql = "SELECT " + COLUMNS + " FROM posts ORDER BY created_at DESC, id DESC";
+        try (Connection c = getReadConnection();
              PreparedStatement ps = c.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             List<Post> out = new ArrayList<>();
@@ -50,10 +177,256 @@ public class PostgresPostRepository implements PostRepository {
         }
     }
 
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        SelectQuery q = select(filter, after);
+        q.sql.append(" LIMIT ?");
+        q.params.add(limit + 1);
+
+        try (Connection c = getReadConnection();
+             PreparedStatement ps = q.prepare(c)) {
+            List<Post> rows = new ArrayList<>(limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(map(rs));
+                }
+            }
+            return PostPage.fromOverfetch(rows, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("findPage failed", e);
+        }
+    }
+
+    /**
+     * Matches through the GIN index on the generated {@code search_vector} column. Query words are
+     * OR-ed into a tsquery (PostgreSQL applies its English stemmer and stop words to them) and
+     * ranked by {@code ts_rank}, which only depends on the row, so rank cursors stay valid. Ranking
+     * reads every matching row; the index only narrows which rows those are.
+     */
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        String tsQuery = String.join(" | ", TextAnalyzer.tokens(query));
+        if (tsQuery.isEmpty()) return SearchPage.empty();
+        SelectQuery q = new SelectQuery("SELECT " + COLUMNS + ", ts_rank(search_vector, q) AS score"
+                + " FROM posts, to_tsquery('english', ?) q WHERE search_vector @@ q");
+        q.params.add(tsQuery);
+        where(q, filter);
+        if (after != null) {
+            // ts_rank is a real; the cursor's score came from one, so the float comparison is exact.
+            float score = (float) after.getScore();
+            Timestamp ts = Timestamp.from(after.getPosition().getCreatedAt());
+            q.sql.append(" AND (ts_rank(search_vector, q) < ? OR (ts_rank(search_vector, q) = ?"
+                    + " AND (created_at < ? OR (created_at = ? AND id < ?))))");
+            q.params.add(score);
+            q.params.add(score);
+            q.params.add(ts);
+            q.params.add(ts);
+            q.params.add(after.getPosition().getId());
+        }
+        q.sql.append(" ORDER BY score DESC, created_at DESC, id DESC LIMIT ?");
+        q.params.add(limit + 1);
+
+        try (Connection c = getReadConnection();
+             PreparedStatement ps = q.prepare(c)) {
+            List<SearchHit> rows = new ArrayList<>(limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new SearchHit(map(rs), rs.getFloat("score")));
+                }
+            }
+            return SearchPage.fromOverfetch(rows, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("search failed", e);
+        }
+    }
+
+    /**
+     * Plans the query {@link #findPage} would run, without running it. Sequential scans, bitmap
+     * scans and sorts are disabled for the planning transaction, so the plan shows which index
+     * can serve the page in order. That holds whatever the table's size and statistics, which
+     * decide between such a range and a cheaper-looking scan plus sort. A plan that still scans
+     * the table or sorts means no index can.
+     */
+    public QueryPlan explainPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        SelectQuery q = select(filter, after);
+        q.sql.insert(0, "EXPLAIN ").append(" LIMIT ?");
+        q.params.add(limit + 1);
+
+        try (Connection c = getReadConnection()) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.execute("SET LOCAL enable_seqscan = off");
+                st.execute("SET LOCAL enable_bitmapscan = off");
+                st.execute("SET LOCAL enable_sort = off");
+                st.execute("SET LOCAL enable_incremental_sort = off");
+            }
+            List<String> indexes = new ArrayList<>();
+            boolean fullScan = false;
+            boolean sorted = false;
+            StringBuilder raw = new StringBuilder();
+            try (PreparedStatement ps = q.prepare(c);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String line = rs.getString(1);
+                    raw.append(line).append('\n');
+                    String node = line.replaceFirst("^[\\s\\->]*", "");
+                    int using = node.indexOf(" using ");
+                    if (node.startsWith("Index Scan") || node.startsWith("Index Only Scan")) {
+                        indexes.add(node.substring(using + 7).split(" ")[0]);
+                    } else if (node.startsWith("Bitmap Index Scan on ")) {
+                        indexes.add(node.substring(21).split(" ")[0]);
+                    } else if (node.startsWith("Seq Scan")) {
+                        fullScan = true;
+                    } else if (node.startsWith("Sort") || node.startsWith("Incremental Sort") || node.startsWith("Bitmap Heap Scan")) {
+                        // A bitmap heap scan returns rows in physical order, so the page needs a sort.
+                        sorted = true;
+                    }
+                }
+                return new QueryPlan(parentIndexes(c, indexes), fullScan, sorted, raw.toString());
+            } finally {
+                c.rollback();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("explain failed", e);
+        }
+    }
+
+    // A partitioned table is scanned through each partition's copy of an index; report the parent's.
+    private static List<String> parentIndexes(Connection c, List<String> indexes) throws SQLException {
+        if (indexes.isEmpty()) return indexes;
+        Map<String, String> parents = new HashMap<>();
+        Array names = c.createArrayOf("text", indexes.toArray());
+        try (PreparedStatement ps = c.prepareStatement("SELECT c.relname, p.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent"
+                + " WHERE c.relname = ANY(?) AND p.relkind = 'I'")) {
+            ps.setArray(1, names);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) parents.put(rs.getString(1), rs.getString(2));
+            }
+        } finally {
+            names.free();
+        }
+        Set<String> out = new LinkedHashSet<>();
+        for (String index : indexes) out.add(parents.getOrDefault(index, index));
+        return List.copyOf(out);
+    }
+
+    /**
+     * Reads through a server-side cursor: autocommit is switched off so pgjdbc fetches
+     * {@code fetchSize} rows per round trip instead of buffering the whole result. Closing the
+     * stream closes the result set and returns the connection (the pool rolls back the read-only
+     * transaction).
+     */
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        SelectQuery q = select(filter, null);
+        Connection c = getReadConnection();
+        PreparedStatement ps = null;
+        try {
+            c.setAutoCommit(false);
+            ps = q.prepare(c);
+            ps.setFetchSize(fetchSize);
+            ResultSet rs = ps.executeQuery();
+            PreparedStatement stmt = ps;
+            Iterator<Post> it = new Iterator<>() {
+                private Boolean ready;
+
+                @Override
+                public boolean hasNext() {
+                    if (ready == null) {
+                        try {
+                            ready = rs.next();
+                        } catch (SQLException e) {
+                            throw new RuntimeException("stream failed", e);
+                        }
+                    }
+                    return ready;
+                }
+
+                @Override
+                public Post next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    ready = null;
+                    try {
+                        return map(rs);
+                    } catch (Exception e) {
+                        throw new RuntimeException("stream failed", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> closeQuietly(rs, stmt, c));
+        } catch (Exception e) {
+            closeQuietly(null, ps, c);
+            throw new RuntimeException("stream failed", e);
+        }
+    }
+
+    private static SelectQuery select(PostFilter filter, PostCursor after) {
+        SelectQuery q = new SelectQuery("SELECT " + COLUMNS + " FROM posts WHERE TRUE");
+        where(q, filter);
+        if (after != null) {
+            // created_at <= ? is the sargable part served by idx_posts_created_at; the OR breaks ties on id.
+            Timestamp ts = Timestamp.from(after.getCreatedAt());
+            q.sql.append(" AND created_at <= ? AND (created_at < ? OR id < ?)");
+            q.params.add(ts);
+            q.params.add(ts);
+            q.params.add(after.getId());
+        }
+        q.sql.append(" ORDER BY created_at DESC, id DESC");
+        return q;
+    }
+
+    private static void where(SelectQuery q, PostFilter filter) {
+        PostFilter f = filter == null ? PostFilter.all() : filter;
+        if (f.getAuthor() != null) {
+            q.sql.append(" AND author = ?");
+            q.params.add(f.getAuthor());
+        }
+        if (!f.getVisibilities().isEmpty()) {
+            StringJoiner in = new StringJoiner(", ", " AND visibility IN (", ")");
+            for (Visibility v : f.getVisibilities()) {
+                in.add("?");
+                q.params.add(v.name());
+            }
+            q.sql.append(in);
+        }
+    }
+
+    private static final class SelectQuery {
+        private final StringBuilder sql;
+        private final List<Object> params = new ArrayList<>();
+
+        private SelectQuery(String base) {
+            this.sql = new StringBuilder(base);
+        }
+
+        private PreparedStatement prepare(Connection c) throws SQLException {
+            PreparedStatement ps = c.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }
+    }
+
+    private static void closeQuietly(ResultSet rs, Statement st, Connection c) {
+        for (AutoCloseable r : new AutoCloseable[]{rs, st, c}) {
+            if (r == null) continue;
+            try {
+                r.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
     @Override
     public Optional<Post> findById(UUID id) {
-        String sql = "SELECT id, author, content, visibility, likes, created_at, updated_at FROM posts WHERE id = ?";
-        try (Connection c = getConnection();
+        String sql = "SELECT " + COLUMNS + " FROM posts WHERE " + byId;
+        try (Connection c = getReadConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setObject(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -67,18 +440,18 @@ public class PostgresPostRepository implements PostRepository {
 
     @Override
     public Post create(Post post) {
-        String sql = "INSERT INTO posts (id, author, content, visibility, likes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO posts (" + COLUMNS + ") VALUES " + INSERT_ROW;
         try (Connection c = getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setObject(1, post.getId());
-            ps.setString(2, post.getAuthor());
-            ps.setString(3, post.getContent());
-            ps.setString(4, post.getVisibility().name());
-            ps.setInt(5, post.getLikes());
-            ps.setTimestamp(6, Timestamp.from(post.getCreatedAt()));
-            ps.setTimestamp(7, Timestamp.from(post.getUpdatedAt()));
-            ps.executeUpdate();
+            bindInsert(ps, 1, post);
+            // The partition locator's trigger skips a duplicate id instead of raising an error.
+            if (ps.executeUpdate() == 0) throw new DuplicatePostException(post.getId());
             return post;
+        } catch (DuplicatePostException e) {
+            throw e;
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) throw new DuplicatePostException(post.getId(), e);
+            throw new RuntimeException("create failed", e);
         } catch (Exception e) {
             throw new RuntimeException("create failed", e);
         }
@@ -86,15 +459,9 @@ public class PostgresPostRepository implements PostRepository {
 
     @Override
     public boolean update(Post post) {
-        String sql = "UPDATE posts SET author = ?, content = ?, visibility = ?, likes = ?, updated_at = ? WHERE id = ?";
         try (Connection c = getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, post.getAuthor());
-            ps.setString(2, post.getContent());
-            ps.setString(3, post.getVisibility().name());
-            ps.setInt(4, post.getLikes());
-            ps.setTimestamp(5, Timestamp.from(post.getUpdatedAt()));
-            ps.setObject(6, post.getId());
+             PreparedStatement ps = c.prepareStatement(updateSql)) {
+            bindUpdate(ps, post);
             return ps.executeUpdate() > 0;
         } catch (Exception e) {
             throw new RuntimeException("update failed", e);
@@ -103,7 +470,7 @@ public class PostgresPostRepository implements PostRepository {
 
     @Override
     public boolean delete(UUID id) {
-        String sql = "DELETE FROM posts WHERE id = ?";
+        String sql = "DELETE FROM posts WHERE " + byId;
         try (Connection c = getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setObject(1, id);
@@ -113,7 +480,222 @@ public class PostgresPostRepository implements PostRepository {
         }
     }
 
-    private static Post map(ResultSet rs) throws Exception {
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        String sql = "DELETE FROM posts WHERE " + byId + " AND version = ?";
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setObject(1, id);
+            ps.setLong(2, expectedVersion);
+            return ps.executeUpdate() > 0;
+        } catch (Exception e) {
+            throw new RuntimeException("deleteIfVersion failed", e);
+        }
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(
+            UUID id,
+            long expectedVersion,
+            String author,
+            String content,
+            Visibility visibility,
+            int likes,
+            Instant updatedAt
+    ) {
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(updateIfVersionSql)) {
+            ps.setString(1, author);
+            ps.setString(2, content);
+            ps.setString(3, visibility.name());
+            ps.setInt(4, likes);
+            ps.setTimestamp(5, Timestamp.from(updatedAt));
+            ps.setObject(6, id);
+            ps.setLong(7, expectedVersion);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return Optional.empty();
+                return Optional.of(map(rs));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("updateIfVersion failed", e);
+        }
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(incrementLikesSql)) {
+            ps.setInt(1, delta);
+            ps.setTimestamp(2, Timestamp.from(Instant.now()));
+            ps.setObject(3, id);
+            return ps.executeUpdate() > 0;
+        } catch (Exception e) {
+            throw new RuntimeException("incrementLikes failed", e);
+        }
+    }
+
+    @Override
+    public BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        List<Map.Entry<UUID, Integer>> list = List.copyOf(deltas.entrySet());
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        Timestamp now = Timestamp.from(Instant.now());
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(incrementLikesSql)) {
+            c.setAutoCommit(false);
+            for (int from = 0; from < list.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, list.size());
+                for (int i = from; i < to; i++) {
+                    ps.setInt(1, list.get(i).getValue());
+                    ps.setTimestamp(2, now);
+                    ps.setObject(3, list.get(i).getKey());
+                    ps.addBatch();
+                }
+                try {
+                    int[] counts = ps.executeBatch();
+                    c.commit();
+                    for (int i = from; i < to; i++) {
+                        int n = counts[i - from];
+                        UUID id = list.get(i).getKey();
+                        out[i] = n > 0 || n == Statement.SUCCESS_NO_INFO ? BatchResult.Item.applied(id) : BatchResult.Item.notFound(id);
+                    }
+                } catch (BatchUpdateException e) {
+                    c.rollback();
+                    ps.clearBatch();
+                    for (int i = from; i < to; i++) {
+                        out[i] = BatchResult.Item.failed(list.get(i).getKey(), e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("incrementLikesAll failed", e);
+        }
+        return BatchResult.of(out);
+    }
+
+    @Override
+    public BatchResult createAll(Collection<Post> posts) {
+        List<Post> list = List.copyOf(posts);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        int chunk = Math.min(batchSize, MAX_INSERT_ROWS);
+        try (Connection c = getConnection()) {
+            for (int from = 0; from < list.size(); from += chunk) {
+                insertChunk(c, list, from, Math.min(from + chunk, list.size()), out);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("createAll failed", e);
+        }
+        return BatchResult.of(out);
+    }
+
+    private static void insertChunk(Connection c, List<Post> list, int from, int to, BatchResult.Item[] out) {
+        StringJoiner rows = new StringJoiner(", ", "INSERT INTO posts (" + COLUMNS + ") VALUES ", " ON CONFLICT DO NOTHING RETURNING id");
+        for (int i = from; i < to; i++) rows.add(INSERT_ROW);
+
+        try (PreparedStatement ps = c.prepareStatement(rows.toString())) {
+            int param = 1;
+            for (int i = from; i < to; i++) {
+                bindInsert(ps, param, list.get(i));
+                param += INSERT_PARAMS;
+            }
+            Set<UUID> inserted = new HashSet<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) inserted.add((UUID) rs.getObject(1));
+            }
+            for (int i = from; i < to; i++) {
+                UUID id = list.get(i).getId();
+                out[i] = inserted.remove(id) ? BatchResult.Item.applied(id) : BatchResult.Item.duplicate(id);
+            }
+        } catch (SQLException e) {
+            for (int i = from; i < to; i++) {
+                out[i] = BatchResult.Item.failed(list.get(i).getId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Post> posts) {
+        List<Post> list = List.copyOf(posts);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(updateSql)) {
+            c.setAutoCommit(false);
+            for (int from = 0; from < list.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, list.size());
+                for (int i = from; i < to; i++) {
+                    bindUpdate(ps, list.get(i));
+                    ps.addBatch();
+                }
+                try {
+                    int[] counts = ps.executeBatch();
+                    c.commit();
+                    for (int i = from; i < to; i++) {
+                        int n = counts[i - from];
+                        UUID id = list.get(i).getId();
+                        out[i] = n > 0 || n == Statement.SUCCESS_NO_INFO ? BatchResult.Item.applied(id) : BatchResult.Item.notFound(id);
+                    }
+                } catch (BatchUpdateException e) {
+                    c.rollback();
+                    ps.clearBatch();
+                    for (int i = from; i < to; i++) {
+                        out[i] = BatchResult.Item.failed(list.get(i).getId(), e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("updateAll failed", e);
+        }
+        return BatchResult.of(out);
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        List<UUID> list = List.copyOf(ids);
+        BatchResult.Item[] out = new BatchResult.Item[list.size()];
+        try (Connection c = getConnection();
+             PreparedStatement ps = c.prepareStatement(deleteAllSql)) {
+            for (int from = 0; from < list.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, list.size());
+                Array arr = c.createArrayOf("uuid", list.subList(from, to).toArray());
+                ps.setArray(1, arr);
+                Set<UUID> deleted = new HashSet<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) deleted.add((UUID) rs.getObject(1));
+                } finally {
+                    arr.free();
+                }
+                for (int i = from; i < to; i++) {
+                    UUID id = list.get(i);
+                    out[i] = deleted.remove(id) ? BatchResult.Item.applied(id) : BatchResult.Item.notFound(id);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("deleteAll failed", e);
+        }
+        return BatchResult.of(out);
+    }
+
+    private static void bindInsert(PreparedStatement ps, int first, Post post) throws SQLException {
+        ps.setObject(first, post.getId());
+        ps.setString(first + 1, post.getAuthor());
+        ps.setString(first + 2, post.getContent());
+        ps.setString(first + 3, post.getVisibility().name());
+        ps.setInt(first + 4, post.getLikes());
+        ps.setTimestamp(first + 5, Timestamp.from(post.getCreatedAt()));
+        ps.setTimestamp(first + 6, Timestamp.from(post.getUpdatedAt()));
+        ps.setLong(first + 7, post.getVersion());
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Post post) throws SQLException {
+        ps.setString(1, post.getAuthor());
+        ps.setString(2, post.getContent());
+        ps.setString(3, post.getVisibility().name());
+        ps.setInt(4, post.getLikes());
+        ps.setTimestamp(5, Timestamp.from(post.getUpdatedAt()));
+        ps.setObject(6, post.getId());
+    }
+
+    // Package-private for the mapping microbenchmarks.
+    static Post map(ResultSet rs) throws Exception {
         UUID id = (UUID) rs.getObject("id");
         String author = rs.getString("author");
         String content = rs.getString("content");
@@ -121,7 +703,16 @@ public class PostgresPostRepository implements PostRepository {
         int likes = rs.getInt("likes");
         Instant createdAt = rs.getTimestamp("created_at").toInstant();
         Instant updatedAt = rs.getTimestamp("updated_at").toInstant();
-        return new Post(id, author, content, visibility, likes, createdAt, updatedAt);
+        long version = rs.getLong("version");
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (replicas != null) replicas.close();
+        if (dataSource instanceof AutoCloseable closable) {
+            closable.close();
+        }
     }
 }
 
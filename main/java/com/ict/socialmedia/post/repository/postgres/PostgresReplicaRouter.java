@@ -0,0 +1,260 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.repository.CallerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends reads to streaming replicas and writes to the primary.
+ *
+ * <p>A reader gets the less busy of two randomly picked healthy replicas (by borrowed
+ * connections, for pools). A daemon thread checks every replica on each interval: one that
+ * fails the check, or has not replayed what the primary had written more than the lag limit ago,
+ * leaves the rotation until a later check passes. A replica whose connection fails at read time
+ * leaves it at once, and that read goes to the primary. With no healthy replica every read does.
+ *
+ * <p>Read-your-writes: a write marks its {@link CallerContext caller}, and for the configured
+ * window after the write's connection is returned that caller's reads go to the primary. A write
+ * that changed nothing (a lost compare-and-set) marks it too, so the re-read that follows is not
+ * served stale.
+ *
+ * <p>A server that is not in recovery (a second ordinary database standing in for a replica) is
+ * treated as never lagging.
+ */
+public final class PostgresReplicaRouter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PostgresReplicaRouter.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final PostgresReplicaSettings settings;
+    private final long readYourWritesNanos;
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ScheduledExecutorService checker;
+    private volatile Replica[] healthy = new Replica[0];
+
+    /**
+     * @param replicas by name (for logs and stats), in a stable order; closed with the router when
+     *                 {@link AutoCloseable}. No replica is used before its first check passes.
+     */
+    public PostgresReplicaRouter(DataSource primary, Map<String, ? extends DataSource> replicas, PostgresReplicaSettings settings) {
+        this.primary = Objects.requireNonNull(primary, "primary");
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(settings.getReadYourWritesMillis());
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, ds) -> list.add(new Replica(name, ds)));
+        this.replicas = List.copyOf(list);
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "postgres-replica-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, 0, settings.getHealthCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public PostgresReplicaSettings getSettings() {
+        return settings;
+    }
+
+    /** Reads that went to the primary: no healthy replica, a failed replica, or read-your-writes. */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public List<ReplicaStatus> status() {
+        List<ReplicaStatus> out = new ArrayList<>(replicas.size());
+        for (Replica r : replicas) out.add(new ReplicaStatus(r.name, r.healthy, r.lagMillis, r.reads.sum()));
+        return out;
+    }
+
+    /** A primary connection for a write; see the class comment for read-your-writes. */
+    Connection writeConnection() throws SQLException {
+        if (readYourWritesNanos == 0) return primary.getConnection();
+        String caller = CallerContext.currentOrThread();
+        lastWriteNanos.put(caller, System.nanoTime());
+        Connection c = primary.getConnection();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) lastWriteNanos.put(caller, System.nanoTime());
+                    try {
+                        return method.invoke(c, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+        );
+    }
+
+    Connection readConnection() throws SQLException {
+        Replica r = pinnedToPrimary() ? null : pick();
+        if (r != null) {
+            try {
+                Connection c = r.dataSource.getConnection();
+                r.reads.increment();
+                return c;
+            } catch (SQLTransientConnectionException e) {
+                // pool exhausted: busy, not broken
+            } catch (SQLException e) {
+                markDown(r, e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    private boolean pinnedToPrimary() {
+        if (readYourWritesNanos == 0 || lastWriteNanos.isEmpty()) return false;
+        String caller = CallerContext.currentOrThread();
+        Long at = lastWriteNanos.get(caller);
+        if (at == null) return false;
+        if (System.nanoTime() - at < readYourWritesNanos) return true;
+        lastWriteNanos.remove(caller, at);
+        return false;
+    }
+
+    // Power of two choices: nearly as even as least-busy, without scanning every replica.
+    private Replica pick() {
+        Replica[] h = healthy;
+        if (h.length == 0) return null;
+        if (h.length == 1) return h[0];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(h.length);
+        int j = random.nextInt(h.length - 1);
+        if (j >= i) j++;
+        return load(h[j]) < load(h[i]) ? h[j] : h[i];
+    }
+
+    private static int load(Replica r) {
+        return r.dataSource instanceof PostgresConnectionPool pool ? pool.activeCount() : 0;
+    }
+
+    private void checkAll() {
+        try {
+            String primaryLsn = primaryLsn();
+            for (Replica r : replicas) check(r, primaryLsn);
+            long now = System.nanoTime();
+            lastWriteNanos.values().removeIf(at -> now - at >= readYourWritesNanos);
+        } catch (RuntimeException e) {
+            log.warn("Replica check failed", e);
+        }
+    }
+
+    private String primaryLsn() {
+        try (Connection c = primary.getConnection(); Statement st = c.createStatement()) {
+            st.setQueryTimeout(settings.getHealthCheckTimeoutSeconds());
+            try (ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lag is 0 once the replica has replayed the primary's WAL position sampled just before,
+     * otherwise the age of the last transaction it replayed. Comparing against the primary keeps
+     * an idle primary from looking like lag and a replica cut off from it from looking current.
+     * Without the primary's position only liveness is checked.
+     */
+    private void check(Replica r, String primaryLsn) {
+        long lag;
+        try (Connection c = r.dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT pg_is_in_recovery(), "
+                     + "COALESCE(pg_last_wal_replay_lsn() >= ?::pg_lsn, true), "
+                     + "EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000")) {
+            ps.setQueryTimeout(settings.getHealthCheckTimeoutSeconds());
+            ps.setString(1, primaryLsn == null ? "0/0" : primaryLsn);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                if (!rs.getBoolean(1) || rs.getBoolean(2)) {
+                    lag = 0;
+                } else {
+                    double age = rs.getDouble(3);
+                    lag = rs.wasNull() ? Long.MAX_VALUE : (long) age;
+                }
+            }
+        } catch (SQLException e) {
+            markDown(r, e.getMessage());
+            return;
+        }
+        r.lagMillis = lag;
+        if (lag > settings.getMaxLagMillis()) {
+            markDown(r, "lagging " + (lag == Long.MAX_VALUE ? "(nothing replayed yet)" : lag + " ms"));
+        } else if (!r.healthy) {
+            r.healthy = true;
+            refreshHealthy();
+            log.info("Replica {} in rotation (lag {} ms)", r.name, lag);
+        }
+    }
+
+    private synchronized void markDown(Replica r, String reason) {
+        if (!r.healthy) return;
+        r.healthy = false;
+        refreshHealthy();
+        log.warn("Replica {} out of rotation: {}", r.name, reason);
+    }
+
+    private synchronized void refreshHealthy() {
+        healthy = replicas.stream().filter(x -> x.healthy).toArray(Replica[]::new);
+    }
+
+    @Override
+    public void close() {
+        checker.shutdownNow();
+        for (Replica r : replicas) {
+            if (r.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+
+    public record ReplicaStatus(String name, boolean healthy, long lagMillis, long reads) {
+        @Override
+        public String toString() {
+            String lag = lagMillis < 0 ? "?" : lagMillis == Long.MAX_VALUE ? "inf" : lagMillis + "ms";
+            return name + (healthy ? " up" : " down") + " lag=" + lag + " reads=" + reads;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        }
+    }
+}
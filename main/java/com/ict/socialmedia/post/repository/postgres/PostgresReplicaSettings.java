@@ -0,0 +1,53 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+/** How {@link PostgresReplicaRouter} checks read replicas and when it keeps reads on the primary. */
+public final class PostgresReplicaSettings {
+    private final long healthCheckIntervalMillis;
+    private final int healthCheckTimeoutSeconds;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+
+    /**
+     * @param healthCheckIntervalMillis how often each replica's liveness and replay lag is checked
+     * @param healthCheckTimeoutSeconds a check slower than this counts as a failure
+     * @param maxLagMillis              a replica further behind the primary is taken out of rotation
+     *                                  until it catches up
+     * @param readYourWritesMillis      after a caller writes, its reads go to the primary for this
+     *                                  long; 0 turns that off
+     */
+    public PostgresReplicaSettings(
+            long healthCheckIntervalMillis,
+            int healthCheckTimeoutSeconds,
+            long maxLagMillis,
+            long readYourWritesMillis
+    ) {
+        if (healthCheckIntervalMillis < 1) throw new IllegalArgumentException("healthCheckIntervalMillis must be >= 1");
+        if (healthCheckTimeoutSeconds < 1) throw new IllegalArgumentException("healthCheckTimeoutSeconds must be >= 1");
+        if (maxLagMillis < 0) throw new IllegalArgumentException("maxLagMillis must be >= 0");
+        if (readYourWritesMillis < 0) throw new IllegalArgumentException("readYourWritesMillis must be >= 0");
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        this.healthCheckTimeoutSeconds = healthCheckTimeoutSeconds;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    public static PostgresReplicaSettings defaults() {
+        return new PostgresReplicaSettings(1_000, 2, 5_000, 5_000);
+    }
+
+    public long getHealthCheckIntervalMillis() {
+        return healthCheckIntervalMillis;
+    }
+
+    public int getHealthCheckTimeoutSeconds() {
+        return healthCheckTimeoutSeconds;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public long getReadYourWritesMillis() {
+        return readYourWritesMillis;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.repository.QueryScope;
+import org.postgresql.PGConnection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ties a borrowed connection to the caller's {@link QueryScope}: cancelling the scope sends a
+ * PostgreSQL cancel request for whatever statement is running on it, and closing the connection
+ * detaches the hook before the connection goes back to the pool.
+ */
+final class ScopedConnection {
+    private ScopedConnection() {
+    }
+
+    static Connection wrap(Connection c, QueryScope scope) throws SQLException {
+        scope.checkActive();
+        QueryScope.Registration registration = scope.onCancel(() -> {
+            try {
+                c.unwrap(PGConnection.class).cancelQuery();
+            } catch (SQLException ignored) {
+            }
+        });
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) registration.close();
+                    try {
+                        return method.invoke(c, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+        );
+    }
+}
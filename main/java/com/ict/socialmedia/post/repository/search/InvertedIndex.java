@@ -0,0 +1,79 @@
+package com.ict.socialmedia.post.repository.search;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Term to post-id postings for the in-process backends. Only membership is stored; callers score
+ * candidates from the current content with {@link TermScorer}, which keeps the index at one set
+ * entry per distinct term per post.
+ *
+ * <p>Writers must serialize changes to the same post (the repositories hold its stripe lock);
+ * writers on different posts and readers run concurrently. Each posting set is created and
+ * dropped inside the map's per-key compute, so an add never lands in a set that a concurrent
+ * remove has just discarded.
+ */
+public final class InvertedIndex {
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+
+    public void add(UUID id, String text) {
+        for (String term : new HashSet<>(TextAnalyzer.terms(text))) {
+            postings.compute(term, (t, ids) -> {
+                if (ids == null) ids = ConcurrentHashMap.newKeySet();
+                ids.add(id);
+                return ids;
+            });
+        }
+    }
+
+    public void remove(UUID id, String text) {
+        for (String term : new HashSet<>(TextAnalyzer.terms(text))) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /** Moves a post's postings from its old text to its new text, touching only terms that differ. */
+    public void replace(UUID id, String oldText, String newText) {
+        if (oldText.equals(newText)) return;
+        Set<String> before = new HashSet<>(TextAnalyzer.terms(oldText));
+        Set<String> after = new HashSet<>(TextAnalyzer.terms(newText));
+        for (String term : after) {
+            if (!before.contains(term)) {
+                postings.compute(term, (t, ids) -> {
+                    if (ids == null) ids = ConcurrentHashMap.newKeySet();
+                    ids.add(id);
+                    return ids;
+                });
+            }
+        }
+        for (String term : before) {
+            if (!after.contains(term)) {
+                postings.computeIfPresent(term, (t, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    /** Ids of posts containing any of {@code terms}, possibly including some just changed or removed. */
+    public Set<UUID> candidates(List<String> terms) {
+        Set<UUID> out = new HashSet<>();
+        for (String term : terms) {
+            Set<UUID> ids = postings.get(term);
+            if (ids != null) out.addAll(ids);
+        }
+        return out;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+}
@@ -0,0 +1,39 @@
+package com.ict.socialmedia.post.repository.search;
+
+import java.util.List;
+
+/**
+ * Relevance of one post to a query from the post alone: BM25's saturating term frequency with
+ * length normalization against a fixed typical length, summed over the query terms it contains.
+ * There is no inverse document frequency, so a score never changes because other posts were
+ * written, which keeps search cursors stable the way {@code ts_rank} keeps them in PostgreSQL.
+ */
+public final class TermScorer {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TYPICAL_LENGTH = 24;
+
+    private TermScorer() {
+    }
+
+    /** 0 when the text contains none of {@code queryTerms}. */
+    public static double score(List<String> queryTerms, String text) {
+        List<String> terms = TextAnalyzer.terms(text);
+        int[] tf = new int[queryTerms.size()];
+        boolean any = false;
+        for (String t : terms) {
+            int i = queryTerms.indexOf(t);
+            if (i >= 0) {
+                tf[i]++;
+                any = true;
+            }
+        }
+        if (!any) return 0;
+        double norm = K1 * (1 - B + B * terms.size() / TYPICAL_LENGTH);
+        double score = 0;
+        for (int f : tf) {
+            if (f > 0) score += f * (K1 + 1) / (f + norm);
+        }
+        return score;
+    }
+}
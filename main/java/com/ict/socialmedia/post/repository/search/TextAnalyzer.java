@@ -0,0 +1,74 @@
+package com.ict.socialmedia.post.repository.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into search terms for the in-process backends: runs of letters and digits,
+ * lowercased, English stop words dropped, and a light suffix stem (plurals, -ing, -ed) so
+ * "posts" finds "post". Deliberately simpler than PostgreSQL's or MongoDB's English stemmers;
+ * each backend only has to agree with itself.
+ */
+public final class TextAnalyzer {
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "i",
+            "if", "in", "into", "is", "it", "its", "my", "no", "not", "of", "on", "or", "our", "so",
+            "that", "the", "their", "then", "there", "these", "they", "this", "to", "was", "we",
+            "were", "will", "with", "you", "your"
+    );
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Lowercased words in order, before stop words and stemming; safe to pass to a database's own
+     * query parser since they contain only letters and digits.
+     */
+    public static List<String> tokens(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(cp = text.codePointAt(i))) {
+                i += Character.charCount(cp);
+            }
+            if (i - start <= MAX_TOKEN_LENGTH) out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        return out;
+    }
+
+    /** Index terms in order, repeats kept (their count is the term frequency). */
+    public static List<String> terms(String text) {
+        List<String> out = new ArrayList<>();
+        for (String t : tokens(text)) {
+            if (!STOP_WORDS.contains(t)) out.add(stem(t));
+        }
+        return out;
+    }
+
+    /** Distinct query terms in order. */
+    public static List<String> queryTerms(String query) {
+        return new ArrayList<>(new LinkedHashSet<>(terms(query)));
+    }
+
+    static String stem(String w) {
+        int n = w.length();
+        if (n > 4 && w.endsWith("ies")) return w.substring(0, n - 3) + "y";
+        if (n > 4 && w.endsWith("sses")) return w.substring(0, n - 2);
+        if (n > 5 && w.endsWith("ing")) return w.substring(0, n - 3);
+        if (n > 4 && w.endsWith("ed")) return w.substring(0, n - 2);
+        if (n > 3 && w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) return w.substring(0, n - 1);
+        return w;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ict.socialmedia.post.repository.search;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchHit;
+import com.ict.socialmedia.post.repository.SearchPage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code limit + 1} hits ranked after a cursor, in a bounded heap whose head is the
+ * worst hit kept, so ranking n candidates costs O(n log limit) and holds only one page.
+ */
+public final class TopHits {
+    private static final Comparator<SearchHit> RANK = Comparator.comparing(SearchCursor::of);
+
+    private final SearchCursor after;
+    private final int limit;
+    private final PriorityQueue<SearchHit> worstFirst;
+
+    public TopHits(SearchCursor after, int limit) {
+        this.after = after;
+        this.limit = limit;
+        this.worstFirst = new PriorityQueue<>(limit + 2, RANK.reversed());
+    }
+
+    public void offer(Post post, double score) {
+        if (score <= 0) return;
+        SearchCursor key = SearchCursor.of(post, score);
+        if (after != null && key.compareTo(after) <= 0) return;
+        if (worstFirst.size() > limit && key.compareTo(SearchCursor.of(worstFirst.peek())) >= 0) return;
+        worstFirst.add(new SearchHit(post, score));
+        if (worstFirst.size() > limit + 1) worstFirst.poll();
+    }
+
+    public SearchPage toPage() {
+        List<SearchHit> rows = new ArrayList<>(worstFirst);
+        rows.sort(RANK);
+        return SearchPage.fromOverfetch(rows, limit);
+    }
+}
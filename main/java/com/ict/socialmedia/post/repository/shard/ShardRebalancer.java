@@ -0,0 +1,100 @@
+package com.ict.socialmedia.post.repository.shard;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Moves every post that sits on a shard other than its owner to the owner: after shards are
+ * added, that is the share each new shard now wins. Each shard is streamed once; misplaced posts
+ * are copied to their owner in batches with createAll and then deleted from where they were.
+ *
+ * <p>A post already on its owner (copied by an earlier run that stopped before deleting) counts
+ * as copied and is only deleted from the old shard, so an interrupted run can simply be
+ * repeated. Run it with the repository in rebalancing mode so reads find posts not yet moved,
+ * and with writes stopped: a post updated on its old shard between being copied and being
+ * deleted would lose that update.
+ */
+public final class ShardRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardedPostRepository repo;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardedPostRepository repo, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        this.repo = Objects.requireNonNull(repo, "repo");
+        this.batchSize = batchSize;
+    }
+
+    public Result run() {
+        ShardRouter router = repo.getRouter();
+        List<PostRepository> shards = repo.getShards();
+        long scanned = 0;
+        long moved = 0;
+        long failed = 0;
+        for (int source = 0; source < shards.size(); source++) {
+            List<List<Post>> pending = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) pending.add(new ArrayList<>());
+            long sourceMoved = 0;
+            try (Stream<Post> posts = shards.get(source).stream(PostFilter.all())) {
+                for (Post p : (Iterable<Post>) posts::iterator) {
+                    scanned++;
+                    int owner = router.shardOf(p.getId());
+                    if (owner == source) continue;
+                    List<Post> batch = pending.get(owner);
+                    batch.add(p);
+                    if (batch.size() >= batchSize) {
+                        long ok = move(shards.get(source), shards.get(owner), batch);
+                        sourceMoved += ok;
+                        failed += batch.size() - ok;
+                        batch.clear();
+                    }
+                }
+            }
+            for (int owner = 0; owner < shards.size(); owner++) {
+                List<Post> batch = pending.get(owner);
+                if (batch.isEmpty()) continue;
+                long ok = move(shards.get(source), shards.get(owner), batch);
+                sourceMoved += ok;
+                failed += batch.size() - ok;
+            }
+            moved += sourceMoved;
+            log.info("Shard {}: moved {} post(s) to their owners", router.getNames().get(source), sourceMoved);
+        }
+        return new Result(scanned, moved, failed);
+    }
+
+    private static long move(PostRepository source, PostRepository target, List<Post> batch) {
+        BatchResult created = target.createAll(batch);
+        List<UUID> copied = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            UUID id = batch.get(i).getId();
+            BatchResult.Item item = created.getItems().get(i);
+            // A duplicate was copied by an earlier, interrupted run.
+            if (item.getStatus() == BatchResult.Status.APPLIED || item.getStatus() == BatchResult.Status.DUPLICATE) {
+                copied.add(id);
+            } else {
+                log.warn("Could not copy post {}: {}", id, item.getError());
+            }
+        }
+        source.deleteAll(copied);
+        return copied.size();
+    }
+
+    public record Result(long scanned, long moved, long failed) {
+        @Override
+        public String toString() {
+            return "scanned=" + scanned + ", moved=" + moved + ", failed=" + failed;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ict.socialmedia.post.repository.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Maps a post id to a shard by rendezvous (highest random weight) hashing: every shard scores
+ * the id and the highest score owns it. Scores depend only on the shard's name and the id, so
+ * adding a shard moves only the ids it now wins (about 1/N of them, all onto the new shard) and
+ * removing one moves only its own; the order shards are listed in does not matter.
+ */
+public final class ShardRouter {
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_]+");
+
+    private final List<String> names;
+    private final long[] seeds;
+
+    public ShardRouter(List<String> names) {
+        if (names.isEmpty()) throw new IllegalArgumentException("at least one shard is required");
+        if (new HashSet<>(names).size() != names.size()) throw new IllegalArgumentException("duplicate shard name in " + names);
+        this.names = List.copyOf(names);
+        this.seeds = new long[names.size()];
+        for (int i = 0; i < seeds.length; i++) {
+            String name = names.get(i);
+            if (!NAME.matcher(name).matches()) throw new IllegalArgumentException("Shard names are letters, digits and _: " + name);
+            seeds[i] = seed(name);
+        }
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /** Index into {@link #getNames()} of the shard that owns {@code id}. */
+    public int shardOf(UUID id) {
+        int best = 0;
+        long bestScore = score(seeds[0], id);
+        for (int i = 1; i < seeds.length; i++) {
+            long s = score(seeds[i], id);
+            if (Long.compareUnsigned(s, bestScore) > 0) {
+                best = i;
+                bestScore = s;
+            }
+        }
+        return best;
+    }
+
+    static long score(long seed, UUID id) {
+        return mix(mix(seed ^ id.getMostSignificantBits()) ^ id.getLeastSignificantBits());
+    }
+
+    // 64-bit FNV-1a of the name: stable across JVMs, unlike String.hashCode's 32 bits.
+    private static long seed(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 finalizer.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,395 @@
+package com.ict.socialmedia.post.repository.shard;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.CallerContext;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.QueryScope;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchHit;
+import com.ict.socialmedia.post.repository.SearchPage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spreads posts over several repositories (any mix of backends) by a {@link ShardRouter hash of
+ * the id}. Lookups and writes by id go to the owning shard only; batches are split by shard and
+ * the parts run in parallel.
+ *
+ * <p>Listings, timelines and search ask every shard in parallel for the same page and merge the
+ * answers: each shard's rows are already newest first, so a k-way merge yields the first
+ * {@code limit} overall without sorting. {@link #stream} merges the shards' own streams the
+ * same way, holding one row per shard, so exports never collect a whole shard. Search scores are
+ * merged as they are, which ranks fairly only when the shards are the same kind of backend. A
+ * shard that fails fails the whole call.
+ *
+ * <p>While {@code rebalancing}, a post may still sit on the shard that owned it before shards
+ * were added, so a miss on the owner is retried on the others (see {@link ShardRebalancer}).
+ */
+@SuppressWarnings("try") // close() passes on whatever the wrapped repositories throw
+public class ShardedPostRepository implements PostRepository, AutoCloseable {
+    private static final Comparator<SearchHit> RANK = Comparator.comparing(SearchCursor::of);
+
+    private final List<PostRepository> shards;
+    private final ShardRouter router;
+    private final boolean rebalancing;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-", 0).factory());
+
+    /** @param shards by name, as in the config; names decide placement, so they must not change */
+    public ShardedPostRepository(Map<String, ? extends PostRepository> shards, boolean rebalancing) {
+        this.router = new ShardRouter(List.copyOf(shards.keySet()));
+        this.shards = List.copyOf(shards.values());
+        this.rebalancing = rebalancing;
+    }
+
+    public ShardRouter getRouter() {
+        return router;
+    }
+
+    /** In {@link ShardRouter#getNames()} order. */
+    public List<PostRepository> getShards() {
+        return shards;
+    }
+
+    public boolean isRebalancing() {
+        return rebalancing;
+    }
+
+    private PostRepository owner(UUID id) {
+        return shards.get(router.shardOf(id));
+    }
+
+    @Override
+    public List<Post> findAll() {
+        try (Stream<Post> all = stream(PostFilter.all())) {
+            return all.toList();
+        }
+    }
+
+    @Override
+    public PostPage findPage(PostCursor after, int limit, PostFilter filter) {
+        PostRepository.checkLimit(limit);
+        return merge(fanOut(i -> shards.get(i).findPage(after, limit, filter)), limit);
+    }
+
+    @Override
+    public PostPage findByAuthor(String author, Set<Visibility> visibilities, PostCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        return merge(fanOut(i -> shards.get(i).findByAuthor(author, visibilities, after, limit)), limit);
+    }
+
+    @Override
+    public PostPage findPublicFeed(PostCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        return merge(fanOut(i -> shards.get(i).findPublicFeed(after, limit)), limit);
+    }
+
+    // A shard with another page returned a full one, so it cannot be behind the merged page's end.
+    private static PostPage merge(List<PostPage> pages, int limit) {
+        List<Iterator<Post>> sources = new ArrayList<>(pages.size());
+        boolean more = false;
+        for (PostPage p : pages) {
+            sources.add(p.getItems().iterator());
+            more |= p.hasNext();
+        }
+        MergingIterator merged = new MergingIterator(sources);
+        List<Post> items = new ArrayList<>(limit);
+        while (items.size() < limit && merged.hasNext()) items.add(merged.next());
+        more |= merged.hasNext();
+        return new PostPage(items, more && !items.isEmpty() ? PostCursor.of(items.get(items.size() - 1)) : null);
+    }
+
+    @Override
+    public Stream<Post> stream(PostFilter filter) {
+        List<Stream<Post>> streams = new ArrayList<>(shards.size());
+        try {
+            for (PostRepository shard : shards) streams.add(shard.stream(filter));
+            List<Iterator<Post>> sources = streams.stream().map(Stream::iterator).toList();
+            // The first row is where each shard runs its query, so fetch those concurrently.
+            fanOut(i -> sources.get(i).hasNext());
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator(sources),
+                            Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> closeAll(streams));
+        } catch (RuntimeException e) {
+            closeAll(streams);
+            throw e;
+        }
+    }
+
+    private static void closeAll(List<Stream<Post>> streams) {
+        RuntimeException first = null;
+        for (Stream<Post> s : streams) {
+            try {
+                s.close();
+            } catch (RuntimeException e) {
+                if (first == null) first = e;
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    @Override
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        PostRepository.checkLimit(limit);
+        List<SearchPage> pages = fanOut(i -> shards.get(i).search(query, filter, after, limit));
+        List<SearchHit> hits = new ArrayList<>();
+        boolean more = false;
+        for (SearchPage p : pages) {
+            hits.addAll(p.getHits());
+            more |= p.hasNext();
+        }
+        hits.sort(RANK);
+        more |= hits.size() > limit;
+        List<SearchHit> page = hits.size() > limit ? hits.subList(0, limit) : hits;
+        return new SearchPage(page, more && !page.isEmpty() ? SearchCursor.of(page.get(page.size() - 1)) : null);
+    }
+
+    @Override
+    public Optional<Post> findById(UUID id) {
+        int owner = router.shardOf(id);
+        Optional<Post> found = shards.get(owner).findById(id);
+        if (found.isPresent() || !rebalancing) return found;
+        for (int i = 0; i < shards.size(); i++) {
+            if (i == owner) continue;
+            found = shards.get(i).findById(id);
+            if (found.isPresent()) return found;
+        }
+        return found;
+    }
+
+    @Override
+    public Post create(Post post) {
+        return owner(post.getId()).create(post);
+    }
+
+    @Override
+    public boolean update(Post post) {
+        return onOwnerOrElsewhere(post.getId(), shard -> shard.update(post), Boolean.FALSE);
+    }
+
+    @Override
+    public Optional<Post> updateIfVersion(UUID id, long expectedVersion, String author, String content,
+                                          Visibility visibility, int likes, Instant updatedAt) {
+        return onOwnerOrElsewhere(id,
+                shard -> shard.updateIfVersion(id, expectedVersion, author, content, visibility, likes, updatedAt),
+                Optional.empty());
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return onOwnerOrElsewhere(id, shard -> shard.delete(id), Boolean.FALSE);
+    }
+
+    @Override
+    public boolean deleteIfVersion(UUID id, long expectedVersion) {
+        return onOwnerOrElsewhere(id, shard -> shard.deleteIfVersion(id, expectedVersion), Boolean.FALSE);
+    }
+
+    @Override
+    public boolean incrementLikes(UUID id, int delta) {
+        return onOwnerOrElsewhere(id, shard -> shard.incrementLikes(id, delta), Boolean.FALSE);
+    }
+
+    private <T> T onOwnerOrElsewhere(UUID id, Function<PostRepository, T> op, T miss) {
+        int owner = router.shardOf(id);
+        T result = op.apply(shards.get(owner));
+        if (!rebalancing || !result.equals(miss)) return result;
+        for (int i = 0; i < shards.size(); i++) {
+            if (i == owner) continue;
+            result = op.apply(shards.get(i));
+            if (!result.equals(miss)) return result;
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult createAll(Collection<Post> posts) {
+        return routeBatch(List.copyOf(posts), Post::getId, PostRepository::createAll, null);
+    }
+
+    @Override
+    public BatchResult updateAll(Collection<Post> posts) {
+        return routeBatch(List.copyOf(posts), Post::getId, PostRepository::updateAll, this::update);
+    }
+
+    @Override
+    public BatchResult deleteAll(Collection<UUID> ids) {
+        return routeBatch(List.copyOf(ids), id -> id, PostRepository::deleteAll, this::delete);
+    }
+
+    @Override
+    public BatchResult incrementLikesAll(Map<UUID, Integer> deltas) {
+        return routeBatch(List.copyOf(deltas.entrySet()), Map.Entry::getKey, (shard, part) -> {
+            Map<UUID, Integer> m = new LinkedHashMap<>();
+            for (Map.Entry<UUID, Integer> e : part) m.put(e.getKey(), e.getValue());
+            return shard.incrementLikesAll(m);
+        }, e -> incrementLikes(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Splits {@code inputs} by owning shard, runs each part on its shard in parallel and puts the
+     * results back in input order. While rebalancing, NOT_FOUND items are retried one by one
+     * through {@code single}, which looks on the other shards too.
+     */
+    private <T> BatchResult routeBatch(List<T> inputs, Function<T, UUID> idOf,
+                                       BiFunction<PostRepository, List<T>, BatchResult> call,
+                                       Function<T, Boolean> single) {
+        if (inputs.isEmpty()) return new BatchResult(List.of());
+        List<List<T>> parts = new ArrayList<>(shards.size());
+        List<List<Integer>> positions = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            parts.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < inputs.size(); i++) {
+            int shard = router.shardOf(idOf.apply(inputs.get(i)));
+            parts.get(shard).add(inputs.get(i));
+            positions.get(shard).add(i);
+        }
+        List<BatchResult> results = fanOut(i -> parts.get(i).isEmpty() ? null : call.apply(shards.get(i), parts.get(i)));
+        BatchResult.Item[] out = new BatchResult.Item[inputs.size()];
+        for (int s = 0; s < shards.size(); s++) {
+            if (results.get(s) == null) continue;
+            List<BatchResult.Item> items = results.get(s).getItems();
+            for (int j = 0; j < items.size(); j++) {
+                int at = positions.get(s).get(j);
+                BatchResult.Item item = items.get(j);
+                if (rebalancing && single != null && item.getStatus() == BatchResult.Status.NOT_FOUND) {
+                    try {
+                        if (single.apply(inputs.get(at))) item = BatchResult.Item.applied(item.getId());
+                    } catch (RuntimeException e) {
+                        item = BatchResult.Item.failed(item.getId(), String.valueOf(e.getMessage()));
+                    }
+                }
+                out[at] = item;
+            }
+        }
+        return BatchResult.of(out);
+    }
+
+    /**
+     * Runs {@code task} for every shard index concurrently, each in the caller's {@link QueryScope}
+     * and {@link CallerContext}, and returns the results in shard order. The first failure cancels
+     * the rest and is rethrown.
+     */
+    @SuppressWarnings("try") // the binding is only held for the scope
+    private <T> List<T> fanOut(IntFunction<T> task) {
+        int n = shards.size();
+        if (n == 1) {
+            List<T> one = new ArrayList<>(1);
+            one.add(task.apply(0));
+            return one;
+        }
+        QueryScope scope = QueryScope.current();
+        String caller = CallerContext.current();
+        List<Future<T>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int shard = i;
+            futures.add(executor.submit(() -> {
+                try (CallerContext.Binding ignored = CallerContext.bind(caller)) {
+                    return scope == null ? task.apply(shard) : scope.call(() -> task.apply(shard));
+                }
+            }));
+        }
+        List<T> out = new ArrayList<>(n);
+        try {
+            for (Future<T> f : futures) out.add(f.get());
+            return out;
+        } catch (ExecutionException e) {
+            // Not cancel(true): interrupting a virtual thread in a socket read closes the socket,
+            // which would poison a pooled connection.
+            futures.forEach(f -> f.cancel(false));
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new RuntimeException("Shard call failed", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for shards");
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        Exception first = null;
+        for (PostRepository shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    if (first == null) first = e;
+                }
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    /** Merges iterators that are each newest first into one, holding one row per source. */
+    private static final class MergingIterator implements Iterator<Post> {
+        private final List<Iterator<Post>> sources;
+        private final PriorityQueue<Head> heads;
+        private boolean started;
+
+        private MergingIterator(List<Iterator<Post>> sources) {
+            this.sources = sources;
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing(Head::position));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                for (int i = 0; i < sources.size(); i++) advance(i);
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Post next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Head h = heads.poll();
+            advance(h.source());
+            return h.post();
+        }
+
+        private void advance(int source) {
+            Iterator<Post> it = sources.get(source);
+            if (it.hasNext()) {
+                Post p = it.next();
+                heads.add(new Head(p, PostCursor.of(p), source));
+            }
+        }
+
+        private record Head(Post post, PostCursor position, int source) {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ict.socialmedia.post.service;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.CallerContext;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.QueryScope;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link PostService}. Each call runs the blocking JDBC/Mongo code on its
+ * own virtual thread, so thousands of requests can be in flight without a thread per request
+ * sitting in the OS scheduler; a semaphore caps how many of them reach the backend at once (for
+ * PostgreSQL, typically the pool size) and the rest park cheaply until a permit frees up.
+ *
+ * <p>Every call runs inside a {@link QueryScope}. When the returned future is cancelled or times
+ * out, the scope is cancelled too, which aborts the running statement or closes the cursor.
+ */
+public class AsyncPostService implements AutoCloseable {
+    public static final Duration NO_TIMEOUT = Duration.ZERO;
+
+    private final PostService service;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration defaultTimeout;
+
+    public AsyncPostService(PostService service, int maxConcurrency, Duration defaultTimeout) {
+        this(service, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("post-async-", 0).factory()), true,
+                maxConcurrency, defaultTimeout);
+    }
+
+    /**
+     * Runs calls on {@code executor} instead of virtual threads, e.g. to compare against a fixed
+     * platform-thread pool. The executor is not shut down by {@link #close()}.
+     */
+    public AsyncPostService(PostService service, ExecutorService executor, int maxConcurrency, Duration defaultTimeout) {
+        this(service, executor, false, maxConcurrency, defaultTimeout);
+    }
+
+    private AsyncPostService(PostService service, ExecutorService executor, boolean ownsExecutor,
+                             int maxConcurrency, Duration defaultTimeout) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be >= 1");
+        if (defaultTimeout.isNegative()) throw new IllegalArgumentException("defaultTimeout must be >= 0");
+        this.service = Objects.requireNonNull(service, "service");
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public CompletableFuture<PostPage> list(PostCursor after, int limit, PostFilter filter) {
+        return submit(() -> service.list(after, limit, filter), defaultTimeout);
+    }
+
+    public CompletableFuture<Optional<Post>> get(UUID id) {
+        return submit(() -> service.get(id), defaultTimeout);
+    }
+
+    public CompletableFuture<Optional<Post>> get(UUID id, Duration timeout) {
+        return submit(() -> service.get(id), timeout);
+    }
+
+    /**
+     * Looks up every id concurrently, each under its own permit. The result has one entry per id,
+     * in order, null where the post does not exist.
+     */
+    public CompletableFuture<List<Post>> getAll(Collection<UUID> ids) {
+        List<CompletableFuture<Optional<Post>>> lookups = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            lookups.add(get(id));
+        }
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+                .whenComplete((v, e) -> {
+                    if (e != null) lookups.forEach(f -> f.cancel(true));
+                })
+                .thenApply(v -> {
+                    List<Post> out = new ArrayList<>(lookups.size());
+                    for (CompletableFuture<Optional<Post>> f : lookups) {
+                        out.add(f.join().orElse(null));
+                    }
+                    return out;
+                });
+    }
+
+    public CompletableFuture<Post> create(String author, String content, Visibility visibility, int likes) {
+        return submit(() -> service.create(author, content, visibility, likes), defaultTimeout);
+    }
+
+    /** See {@link PostService#update(UUID, long, String, String, Visibility, int)}. */
+    public CompletableFuture<Optional<Post>> update(UUID id, long expectedVersion, String author, String content,
+                                                    Visibility visibility, int likes) {
+        return submit(() -> service.update(id, expectedVersion, author, content, visibility, likes), defaultTimeout);
+    }
+
+    public CompletableFuture<Boolean> delete(UUID id) {
+        return submit(() -> service.delete(id), defaultTimeout);
+    }
+
+    public CompletableFuture<Boolean> delete(UUID id, long expectedVersion) {
+        return submit(() -> service.delete(id, expectedVersion), defaultTimeout);
+    }
+
+    public CompletableFuture<Boolean> like(UUID id) {
+        return submit(() -> service.like(id), defaultTimeout);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /** Calls waiting for a permit. */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Runs {@code body} on the executor inside a fresh {@link QueryScope}, for the submitting
+     * thread's {@link CallerContext caller}. A zero timeout means none. Time spent waiting for a
+     * permit counts against the timeout.
+     */
+    @SuppressWarnings("try") // the binding is only held for the scope
+    public <T> CompletableFuture<T> submit(Supplier<T> body, Duration timeout) {
+        QueryScope scope = timeout.isZero() ? new QueryScope() : new QueryScope(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        String caller = CallerContext.currentOrThread();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                long wait = scope.remainingMillis();
+                if (wait < 0) {
+                    permits.acquire();
+                } else if (!permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                    result.completeExceptionally(new TimeoutException("No permit within " + timeout));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try (CallerContext.Binding ignored = CallerContext.bind(caller)) {
+                result.complete(scope.call(body));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                permits.release();
+            }
+        });
+        result.whenComplete((v, e) -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CancellationException || cause instanceof TimeoutException) {
+                // Not cancel(true): interrupting a virtual thread blocked in a socket read closes
+                // the socket, which would poison a pooled connection. The scope aborts the query.
+                scope.cancel();
+                task.cancel(false);
+            }
+        });
+        return timeout.isZero() ? result : result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (!ownsExecutor) return;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
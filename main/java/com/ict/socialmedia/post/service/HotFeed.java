@@ -0,0 +1,215 @@
+package com.ict.socialmedia.post.service;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.PostCursor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The newest posts of one visibility, newest first, in a fixed ring: slot {@code (head + i) %
+ * capacity} holds the i-th newest. A new post at the front only moves {@code head}; anything else
+ * shifts the entries between the change and one end.
+ *
+ * <p>Invariant: the ring holds exactly the newest {@code size} posts of its visibility, and when
+ * {@code complete} is set, all of them. A write that cannot keep that (a post older than the
+ * window while some posts are not loaded) is dropped rather than stored out of place.
+ *
+ * <p>Writers take the write lock. Readers copy under an optimistic stamp and retry if a writer
+ * got in between, falling back to the read lock only after repeated collisions.
+ */
+final class HotFeed {
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
+
+    private final int capacity;
+    private final Post[] ring;
+    private final StampedLock lock = new StampedLock();
+    private int head;
+    private int size;
+    private boolean complete;
+    private long modCount;
+
+    HotFeed(int capacity) {
+        this.capacity = capacity;
+        this.ring = new Post[capacity];
+    }
+
+    /** Up to {@code n} newest posts, and whether they are every post of this visibility. */
+    Snapshot snapshot(int n) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) continue;
+            Snapshot s = copy(n);
+            if (lock.validate(stamp)) return s;
+        }
+        long stamp = lock.readLock();
+        try {
+            return copy(n);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // May see a torn state under an optimistic stamp; indexes stay in bounds, and the caller
+    // discards the result if the stamp does not validate.
+    private Snapshot copy(int n) {
+        int h = head;
+        int count = Math.min(Math.min(size, n), capacity);
+        boolean all = complete && count == size;
+        Post[] out = new Post[count];
+        for (int i = 0; i < count; i++) {
+            out[i] = ring[Math.floorMod(h + i, capacity)];
+        }
+        return new Snapshot(Arrays.asList(out), all);
+    }
+
+    long modCount() {
+        long stamp = lock.readLock();
+        try {
+            return modCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean contains(UUID id) {
+        long stamp = lock.readLock();
+        try {
+            return indexOf(id) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Adds a post in order, or drops it if it falls outside the window. */
+    void insert(Post p) {
+        long stamp = lock.writeLock();
+        try {
+            modCount++;
+            PostCursor key = PostCursor.of(p);
+            int at = 0;
+            while (at < size && PostCursor.of(slot(at)).compareTo(key) < 0) at++;
+            if (at == size && (size == capacity || !complete)) {
+                // Older than everything held: only kept while the ring still holds every post.
+                complete = false;
+                return;
+            }
+            if (size == capacity) {
+                complete = false;
+                size--;
+            }
+            if (at == 0) {
+                head = Math.floorMod(head - 1, capacity);
+            } else {
+                for (int i = size; i > at; i--) setSlot(i, slot(i - 1));
+            }
+            setSlot(at, p);
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Swaps in a newer copy of a post already held (createdAt never changes, so the position is
+     * kept). Copies with a lower version than the held one are stale and ignored.
+     *
+     * @return false if the post is not held
+     */
+    boolean replace(Post p) {
+        long stamp = lock.writeLock();
+        try {
+            int i = indexOf(p.getId());
+            if (i < 0) return false;
+            if (p.getVersion() >= slot(i).getVersion()) {
+                modCount++;
+                setSlot(i, p);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Adds {@code delta} likes to the held copy, if any, without changing its version. */
+    void addLikes(UUID id, int delta) {
+        long stamp = lock.writeLock();
+        try {
+            int i = indexOf(id);
+            if (i < 0) return;
+            Post p = slot(i);
+            modCount++;
+            setSlot(i, p.withUpdatedFields(p.getAuthor(), p.getContent(), p.getVisibility(),
+                    Math.max(0, p.getLikes() + delta), p.getUpdatedAt()));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Drops a post; the window shrinks by one but stays exact. */
+    boolean remove(UUID id) {
+        long stamp = lock.writeLock();
+        try {
+            int i = indexOf(id);
+            if (i < 0) return false;
+            modCount++;
+            for (int j = i; j < size - 1; j++) setSlot(j, slot(j + 1));
+            setSlot(size - 1, null);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the contents with {@code newestFirst} unless some write happened since
+     * {@code expectedModCount} was read, in which case the load may already be stale.
+     *
+     * @return whether the load was installed
+     */
+    boolean reload(List<Post> newestFirst, boolean all, long expectedModCount) {
+        long stamp = lock.writeLock();
+        try {
+            if (modCount != expectedModCount) return false;
+            modCount++;
+            Arrays.fill(ring, null);
+            head = 0;
+            size = Math.min(newestFirst.size(), capacity);
+            for (int i = 0; i < size; i++) ring[i] = newestFirst.get(i);
+            complete = all && newestFirst.size() <= capacity;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int indexOf(UUID id) {
+        for (int i = 0; i < size; i++) {
+            if (slot(i).getId().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    private Post slot(int i) {
+        return ring[(head + i) % capacity];
+    }
+
+    private void setSlot(int i, Post p) {
+        ring[(head + i) % capacity] = p;
+    }
+
+    record Snapshot(List<Post> posts, boolean complete) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.ict.socialmedia.post.service;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Materialized "newest posts" feeds, one {@link HotFeed} ring per {@link Visibility}, kept up to
+ * date by {@link PostService} as it writes. The first page of an unfiltered or visibility-only
+ * listing is merged from the rings without a database call; deeper pages, author filters, pages
+ * of {@code capacity} posts or more, and feeds that are too short for the page go to the
+ * repository.
+ *
+ * <p>Only writes made through the owning service are seen (buffered likes as soon as they are
+ * accepted, even though {@link LikeAccumulator} writes them later). Rows changed behind its back, by another
+ * process or an import, show their old copy until the next {@link #warm}.
+ */
+public final class HotFeeds {
+    private static final Logger log = LoggerFactory.getLogger(HotFeeds.class);
+    private static final Comparator<Post> NEWEST_FIRST = Comparator.comparing(PostCursor::of);
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final int capacity;
+    private final Map<Visibility, HotFeed> feeds = new EnumMap<>(Visibility.class);
+    // Ids deleted recently, so an update that raced the delete does not bring the post back.
+    private final Set<UUID> deleted = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<UUID> deletedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deletedCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** @param capacity posts kept per visibility; at most {@link PostRepository#MAX_PAGE_SIZE} */
+    public HotFeeds(int capacity) {
+        if (capacity < 1 || capacity > PostRepository.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + PostRepository.MAX_PAGE_SIZE);
+        }
+        this.capacity = capacity;
+        for (Visibility v : Visibility.values()) feeds.put(v, new HotFeed(capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Loads every feed from {@code repo}: one page of {@code capacity} rows per visibility. */
+    public void warm(PostRepository repo) {
+        for (Visibility v : Visibility.values()) warm(repo, v);
+    }
+
+    void warm(PostRepository repo, Visibility v) {
+        HotFeed feed = feeds.get(v);
+        PostFilter filter = PostFilter.all().withVisibilities(List.of(v));
+        for (int attempt = 0; attempt < RELOAD_ATTEMPTS; attempt++) {
+            long mark = feed.modCount();
+            PostPage page = repo.findPage(null, capacity, filter);
+            if (feed.reload(page.getItems(), !page.hasNext(), mark)) return;
+        }
+        // Busy feed: it keeps what it has and the next short read tries again.
+        log.debug("{} feed not reloaded: concurrent writes", v);
+    }
+
+    /** Whether a page of {@code limit} posts is small enough for the feeds to ever answer. */
+    boolean serves(int limit) {
+        return limit < capacity;
+    }
+
+    /**
+     * The first page of posts with any of {@code visibilities} (empty for all), if every feed
+     * involved holds enough posts to answer it exactly. Pages the feeds cannot serve are not
+     * counted as misses.
+     */
+    Optional<PostPage> firstPage(int limit, Set<Visibility> visibilities) {
+        PostRepository.checkLimit(limit);
+        if (!serves(limit)) return Optional.empty();
+        Set<Visibility> wanted = visibilities.isEmpty() ? Set.of(Visibility.values()) : visibilities;
+        List<Post> merged = new ArrayList<>();
+        for (Visibility v : wanted) {
+            HotFeed.Snapshot s = feeds.get(v).snapshot(limit + 1);
+            if (s.posts().size() <= limit && !s.complete()) {
+                misses.increment();
+                return Optional.empty();
+            }
+            merged.addAll(s.posts());
+        }
+        if (wanted.size() > 1) merged.sort(NEWEST_FIRST);
+        hits.increment();
+        return Optional.of(PostPage.fromOverfetch(merged.subList(0, Math.min(merged.size(), limit + 1)), limit));
+    }
+
+    /**
+     * Visibilities among {@code visibilities} (empty for all) whose feed cannot serve {@code limit}
+     * but would after a reload. None for a page the feeds cannot serve at all, since reloading
+     * would not change that.
+     */
+    List<Visibility> shortFeeds(int limit, Set<Visibility> visibilities) {
+        List<Visibility> out = new ArrayList<>();
+        if (!serves(limit)) return out;
+        for (Visibility v : visibilities.isEmpty() ? Set.of(Visibility.values()) : visibilities) {
+            HotFeed.Snapshot s = feeds.get(v).snapshot(limit + 1);
+            if (s.posts().size() <= limit && !s.complete()) out.add(v);
+        }
+        return out;
+    }
+
+    void created(Post p) {
+        feeds.get(p.getVisibility()).insert(p);
+    }
+
+    void updated(Post p) {
+        if (deleted.contains(p.getId())) return;
+        for (Map.Entry<Visibility, HotFeed> e : feeds.entrySet()) {
+            if (e.getKey() == p.getVisibility()) {
+                if (!e.getValue().replace(p)) e.getValue().insert(p);
+            } else {
+                e.getValue().remove(p.getId());
+            }
+        }
+    }
+
+    void deleted(UUID id) {
+        if (deleted.add(id)) {
+            deletedOrder.add(id);
+            if (deletedCount.incrementAndGet() > capacity) {
+                UUID oldest = deletedOrder.poll();
+                if (oldest != null) {
+                    deleted.remove(oldest);
+                    deletedCount.decrementAndGet();
+                }
+            }
+        }
+        for (HotFeed f : feeds.values()) {
+            if (f.remove(id)) return;
+        }
+    }
+
+    boolean holds(UUID id) {
+        for (HotFeed f : feeds.values()) {
+            if (f.contains(id)) return true;
+        }
+        return false;
+    }
+
+    /** Buffered likes: the held copy's count moves now, its version and updatedAt at the next write. */
+    void liked(UUID id, int delta) {
+        for (HotFeed f : feeds.values()) f.addLikes(id, delta);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("HotFeeds{capacity=").append(capacity);
+        feeds.forEach((v, f) -> sb.append(", ").append(v).append('=').append(f.size()));
+        return sb.append(", hits=").append(hits.sum()).append(", misses=").append(misses.sum()).append('}').toString();
+    }
+}
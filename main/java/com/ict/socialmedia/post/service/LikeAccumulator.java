@@ -0,0 +1,152 @@
+package com.ict.socialmedia.post.service;
+
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for like counters. Callers add deltas to a per-post {@link LongAdder}
+ * (striped, so a hot post does not serialize its likers) and a background task periodically
+ * flushes the coalesced deltas through {@link PostRepository#incrementLikesAll}.
+ *
+ * <p>Deltas are collected into epochs. A flush seals the current epoch and swaps in a fresh one,
+ * waits for writers that entered the old epoch to leave, then drains it. Since nothing can touch
+ * a sealed, quiesced epoch, every increment is counted exactly once.
+ *
+ * <p>The writer count is a single atomic rather than a striped adder: a writer registers before
+ * checking the seal and the flusher seals before reading the count, so one of them always sees
+ * the other. A {@link LongAdder} sum is not an atomic snapshot and could read zero while a writer
+ * that already passed the check is still adding.
+ */
+public final class LikeAccumulator implements AutoCloseable {
+    private final PostRepository repo;
+    private final ScheduledExecutorService flusher;
+    private volatile Epoch current = new Epoch();
+    private final Object flushLock = new Object();
+
+    private final LongAdder accepted = new LongAdder();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public LikeAccumulator(PostRepository repo, long flushIntervalMillis) {
+        if (flushIntervalMillis < 1) throw new IllegalArgumentException("flushIntervalMillis must be >= 1");
+        this.repo = Objects.requireNonNull(repo, "repo");
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "like-accumulator-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(UUID id, int delta) {
+        Objects.requireNonNull(id, "id");
+        while (true) {
+            Epoch e = current;
+            e.writers.incrementAndGet();
+            try {
+                if (e.sealed) continue;
+                e.deltas.computeIfAbsent(id, k -> new LongAdder()).add(delta);
+                accepted.add(delta);
+                return;
+            } finally {
+                e.writers.decrementAndGet();
+            }
+        }
+    }
+
+    /** Sum of deltas accepted but not yet written to the repository. */
+    public long pending() {
+        return accepted.sum() - flushed.get();
+    }
+
+    /** Flushes everything accepted so far; returns the number of posts written. */
+    public int flush() {
+        synchronized (flushLock) {
+            Epoch old = current;
+            current = new Epoch();
+            old.sealed = true;
+            while (old.writers.get() != 0) {
+                Thread.onSpinWait();
+            }
+
+            Map<UUID, Integer> batch = new HashMap<>();
+            long total = 0;
+            for (Map.Entry<UUID, LongAdder> e : old.deltas.entrySet()) {
+                long sum = e.getValue().sum();
+                if (sum == 0) continue;
+                int delta = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, sum));
+                batch.put(e.getKey(), delta);
+                total += sum;
+            }
+            if (batch.isEmpty()) return 0;
+
+            flushes.incrementAndGet();
+            try {
+                BatchResult r = repo.incrementLikesAll(batch);
+                long done = total;
+                for (BatchResult.Item item : r.getItems()) {
+                    if (item.getStatus() == BatchResult.Status.FAILED) {
+                        int delta = batch.get(item.getId());
+                        current.deltas.computeIfAbsent(item.getId(), k -> new LongAdder()).add(delta);
+                        done -= delta;
+                    }
+                }
+                flushed.addAndGet(done);
+                return r.count(BatchResult.Status.APPLIED);
+            } catch (RuntimeException ex) {
+                // Keep the deltas for the next attempt. Writing into current directly is safe:
+                // only flush() seals epochs and we hold flushLock.
+                failedFlushes.incrementAndGet();
+                for (Map.Entry<UUID, Integer> e : batch.entrySet()) {
+                    current.deltas.computeIfAbsent(e.getKey(), k -> new LongAdder()).add(e.getValue());
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LikeAccumulator{pending=" + pending() +
+                ", flushed=" + flushed.get() +
+                ", flushes=" + flushes.get() +
+                ", failedFlushes=" + failedFlushes.get() + '}';
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static final class Epoch {
+        private final ConcurrentHashMap<UUID, LongAdder> deltas = new ConcurrentHashMap<>();
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean sealed;
+    }
+}
@@ -2,22 +2,82 @@ package com.ict.socialmedia.post.service;
 
 import com.ict.socialmedia.post.model.Post;
 import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
 import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.SearchCursor;
+import com.ict.socialmedia.post.repository.SearchPage;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class PostService implements AutoCloseable {
+    public static final int DEFAULT_UPDATE_ATTEMPTS = 5;
 
-public class PostService {
     private final PostRepository repo;
+    private final LikeAccumulator likes;
+    private final HotFeeds feeds;
 
     public PostService(PostRepository repo) {
+        this(repo, null);
+    }
+
+    /**
+     * @param likes optional write-behind buffer for {@link #like}; null writes every like through
+     */
+    public PostService(PostRepository repo, LikeAccumulator likes) {
+        this(repo, likes, null);
+    }
+
+    /**
+     * @param feeds optional newest-posts feeds, warmed here and kept current by this service's
+     *              writes; null reads every page from the repository
+     */
+    public PostService(PostRepository repo, LikeAccumulator likes, HotFeeds feeds) {
         this.repo = repo;
+        this.likes = likes;
+        this.feeds = feeds;
+        if (feeds != null) feeds.warm(repo);
+    }
+
+    public PostPage list(PostCursor after, int limit) {
+        return list(after, limit, PostFilter.all());
     }
 
-    public List<Post> list() {
-        return repo.findAll();
+    /**
+     * The first page of a listing without an author filter comes from the hot feeds when they hold
+     * enough posts; everything else, and a feed that has run short, reads the repository (and
+     * reloads the short feeds). A page at least as large as the feeds goes straight to the
+     * repository without touching them.
+     */
+    public PostPage list(PostCursor after, int limit, PostFilter filter) {
+        if (feeds == null || after != null || filter == null || filter.getAuthor() != null || !feeds.serves(limit)) {
+            return repo.findPage(after, limit, filter);
+        }
+        Optional<PostPage> hot = feeds.firstPage(limit, filter.getVisibilities());
+        if (hot.isPresent()) return hot.get();
+        PostPage page = repo.findPage(null, limit, filter);
+        for (Visibility v : feeds.shortFeeds(limit, filter.getVisibilities())) {
+            feeds.warm(repo, v);
+        }
+        return page;
+    }
+
+    /** Every post matching {@code filter}, newest first, read through {@link PostRepository#stream}. */
+    public List<Post> listAll(PostFilter filter) {
+        try (Stream<Post> s = repo.stream(filter)) {
+            return s.toList();
+        }
+    }
+
+    /** Ranked full-text search over content; see {@link PostRepository#search}. */
+    public SearchPage search(String query, PostFilter filter, SearchCursor after, int limit) {
+        return repo.search(query, filter, after, limit);
     }
 
     public Optional<Post> get(UUID id) {
@@ -27,19 +87,93 @@ public class PostService {
     public Post create(String author, String content, Visibility visibility, int likes) {
         Instant now = Instant.now();
         Post p = new Post(UUID.randomUUID(), author, content, visibility, likes, now, now);
-        return repo.create(p);
+        Post created = repo.create(p);
+        if (feeds != null) feeds.created(created);
+        return created;
+    }
+
+    /**
+     * Single round trip: applies the change only if the post is still at {@code expectedVersion}
+     * (typically the version of the copy the caller edited). Empty means missing or stale.
+     */
+    public Optional<Post> update(UUID id, long expectedVersion, String author, String content, Visibility visibility, int likes) {
+        Optional<Post> saved = repo.updateIfVersion(id, expectedVersion, author, content, visibility, likes, Instant.now());
+        if (feeds != null) saved.ifPresent(feeds::updated);
+        return saved;
     }
 
+    /**
+     * Last writer wins. This is a read plus a conditional write, repeated on conflict, so at least
+     * two round trips; only {@link #update(UUID, long, String, String, Visibility, int)} is one.
+     *
+     * @throws UpdateConflictException if every attempt lost the race
+     */
     public boolean update(UUID id, String author, String content, Visibility visibility, int likes) {
-        Optional<Post> existing = repo.findById(id);
-        if (existing.isEmpty()) return false;
-        Post updated = existing.get().withUpdatedFields(author, content, visibility, likes, Instant.now());
-        return repo.update(updated);
+        return updateWithRetry(id, p -> p.withUpdatedFields(author, content, visibility, likes, Instant.now()), DEFAULT_UPDATE_ATTEMPTS)
+                .isPresent();
+    }
+
+    /**
+     * Read-modify-write with optimistic locking: re-reads and re-applies {@code change} whenever
+     * another writer got in between. Returns empty if the post does not exist.
+     *
+     * @throws UpdateConflictException if every attempt lost the race
+     */
+    public Optional<Post> updateWithRetry(UUID id, UnaryOperator<Post> change, int maxAttempts) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Optional<Post> current = repo.findById(id);
+            if (current.isEmpty()) return Optional.empty();
+            Post p = change.apply(current.get());
+            Optional<Post> saved = repo.updateIfVersion(
+                    id, current.get().getVersion(), p.getAuthor(), p.getContent(), p.getVisibility(), p.getLikes(), p.getUpdatedAt());
+            if (saved.isPresent()) {
+                if (feeds != null) feeds.updated(saved.get());
+                return saved;
+            }
+        }
+        throw new UpdateConflictException(id, maxAttempts);
     }
 
     public boolean delete(UUID id) {
-        return repo.delete(id);
+        boolean removed = repo.delete(id);
+        if (removed && feeds != null) feeds.deleted(id);
+        return removed;
+    }
+
+    /** Single round trip: deletes only if the post is still at {@code expectedVersion}. False means missing or stale. */
+    public boolean delete(UUID id, long expectedVersion) {
+        boolean removed = repo.deleteIfVersion(id, expectedVersion);
+        if (removed && feeds != null) feeds.deleted(id);
+        return removed;
+    }
+
+    /**
+     * Adds one like. With a write-behind accumulator the like is buffered and this always returns
+     * true; otherwise it is a single atomic increment and returns false for an unknown id.
+     */
+    public boolean like(UUID id) {
+        if (likes != null) {
+            likes.add(id, 1);
+            if (feeds != null) feeds.liked(id, 1);
+            return true;
+        }
+        boolean liked = repo.incrementLikes(id, 1);
+        // The increment also bumps version and updatedAt, so a held copy is re-read rather than patched.
+        if (liked && feeds != null && feeds.holds(id)) repo.findById(id).ifPresent(feeds::updated);
+        return liked;
+    }
+
+    public LikeAccumulator getLikeAccumulator() {
+        return likes;
     }
-}
 
+    public HotFeeds getHotFeeds() {
+        return feeds;
+    }
 
+    @Override
+    public void close() {
+        if (likes != null) likes.close();
+    }
+}
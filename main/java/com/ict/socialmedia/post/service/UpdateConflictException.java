@@ -0,0 +1,18 @@
+package com.ict.socialmedia.post.service;
+
+import java.util.UUID;
+
+public class UpdateConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+
+    public UpdateConflictException(UUID id, int attempts) {
+        super("Post " + id + " kept changing concurrently; gave up after " + attempts + " attempt(s)");
+        this.id = id;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ict.socialmedia.post.transfer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/** How {@link PostMigrator} splits, paces and records a copy between repositories. */
+public final class MigrationSettings {
+    private final Duration window;
+    private final int workers;
+    private final int batchSize;
+    private final int rowsPerSecond;
+    private final Path checkpoint;
+
+    /**
+     * @param window        createdAt span of one unit of work; windows sit on a fixed grid from the
+     *                      epoch, so a resumed run sees the same ones
+     * @param workers       windows copied at once
+     * @param batchSize     rows per source page and per target createAll
+     * @param rowsPerSecond cap on rows read from the source across all workers; 0 for none
+     * @param checkpoint    file recording finished windows, or null to always start over
+     */
+    public MigrationSettings(Duration window, int workers, int batchSize, int rowsPerSecond, Path checkpoint) {
+        if (window.toMillis() < 1) throw new IllegalArgumentException("window must be at least 1ms");
+        if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        if (rowsPerSecond < 0) throw new IllegalArgumentException("rowsPerSecond must be >= 0");
+        this.window = Objects.requireNonNull(window, "window");
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.rowsPerSecond = rowsPerSecond;
+        this.checkpoint = checkpoint;
+    }
+
+    public static MigrationSettings defaults() {
+        return new MigrationSettings(Duration.ofDays(1), 4, 1000, 0, Path.of("migration.checkpoint"));
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public Path getCheckpoint() {
+        return checkpoint;
+    }
+}
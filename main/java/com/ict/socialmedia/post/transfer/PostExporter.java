@@ -0,0 +1,137 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes posts to an NDJSON or CSV file straight from {@link PostRepository#stream}. Each record
+ * is encoded into a reused buffer that is drained to the file channel as it fills, so heap use
+ * does not grow with the number of rows.
+ */
+public class PostExporter {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final PostRepository repo;
+
+    public PostExporter(PostRepository repo) {
+        this.repo = Objects.requireNonNull(repo, "repo");
+    }
+
+    public long exportTo(Path file, PostFileFormat format, PostFilter filter) {
+        try (Stream<Post> posts = repo.stream(filter);
+             FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long rows = format == PostFileFormat.CSV ? exportCsv(posts.iterator(), ch) : exportNdjson(posts.iterator(), ch);
+            ch.force(false);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export to " + file, e);
+        }
+    }
+
+    // NDJSON goes straight to UTF-8 bytes; the writer's buffer is reused for every record.
+    private static long exportNdjson(Iterator<Post> posts, FileChannel ch) throws IOException {
+        PostJsonWriter out = new PostJsonWriter(BUFFER_SIZE + 64 * 1024);
+        long rows = 0;
+        while (posts.hasNext()) {
+            out.write(posts.next()).newline();
+            rows++;
+            if (out.size() >= BUFFER_SIZE) out.drainTo(ch);
+        }
+        out.drainTo(ch);
+        return rows;
+    }
+
+    private static long exportCsv(Iterator<Post> posts, FileChannel ch) throws IOException {
+        ChannelWriter out = new ChannelWriter(ch);
+        StringBuilder record = new StringBuilder(1024);
+        record.append(String.join(",", PostFileFormat.CSV_COLUMNS)).append('\n');
+        out.write(record);
+        long rows = 0;
+        while (posts.hasNext()) {
+            record.setLength(0);
+            writeCsv(posts.next(), record);
+            record.append('\n');
+            out.write(record);
+            rows++;
+        }
+        out.drain();
+        return rows;
+    }
+
+    private static void writeCsv(Post p, StringBuilder out) {
+        out.append(p.getId()).append(',');
+        csvField(p.getAuthor(), out);
+        out.append(',');
+        csvField(p.getContent(), out);
+        out.append(',').append(p.getVisibility().name())
+                .append(',').append(p.getLikes())
+                .append(',').append(p.getCreatedAt())
+                .append(',').append(p.getUpdatedAt())
+                .append(',').append(p.getVersion());
+    }
+
+    private static void csvField(String s, StringBuilder out) {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(s);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static final class ChannelWriter {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        private ChannelWriter(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        private void write(CharSequence chars) throws IOException {
+            CharBuffer in = CharBuffer.wrap(chars);
+            encoder.reset();
+            while (true) {
+                CoderResult r = encoder.encode(in, buf, true);
+                if (r.isOverflow()) {
+                    drain();
+                    continue;
+                }
+                if (r.isError()) r.throwException();
+                break;
+            }
+            while (encoder.flush(buf).isOverflow()) drain();
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ict.socialmedia.post.transfer;
+
+import java.nio.file.Path;
+
+public enum PostFileFormat {
+    NDJSON,
+    CSV;
+
+    static final String[] CSV_COLUMNS = {"id", "author", "content", "visibility", "likes", "createdAt", "updatedAt", "version"};
+
+    public static PostFileFormat fromFileName(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".csv") ? CSV : NDJSON;
+    }
+
+    public static PostFileFormat parseOrDefault(String raw, PostFileFormat fallback) {
+        if (raw == null || raw.isBlank()) return fallback;
+        try {
+            return PostFileFormat.valueOf(raw.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams posts out of an NDJSON or CSV file one record at a time. CSV files need a header row
+ * naming the columns (see {@link PostFileFormat#CSV_COLUMNS}); column order is free.
+ */
+public class PostFileReader implements Iterator<Post>, Closeable {
+    private final BufferedReader in;
+    private final PostFileFormat format;
+    private final String source;
+    private String[] header;
+    private long record;
+    private Post next;
+
+    public PostFileReader(BufferedReader in, PostFileFormat format, String source) {
+        this.in = in;
+        this.format = format;
+        this.source = source;
+    }
+
+    public static PostFileReader open(Path file, PostFileFormat format) {
+        try {
+            return new PostFileReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), format, file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open " + file, e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = readNext();
+        return next != null;
+    }
+
+    @Override
+    public Post next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Post p = next;
+        next = null;
+        return p;
+    }
+
+    private Post readNext() {
+        try {
+            return format == PostFileFormat.CSV ? readCsv() : readNdjson();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + source, e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(source + ": bad record " + record + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Post readNdjson() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            record++;
+            if (!line.isBlank()) return PostJson.parse(line);
+        }
+        return null;
+    }
+
+    private Post readCsv() throws IOException {
+        if (header == null) {
+            List<String> h = readCsvRecord();
+            if (h == null) return null;
+            header = h.stream().map(String::trim).toArray(String[]::new);
+        }
+        List<String> values;
+        do {
+            values = readCsvRecord();
+            if (values == null) return null;
+            record++;
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            fields.put(header[i], values.get(i));
+        }
+        return PostJson.fromFields(fields);
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks.
+    private List<String> readCsvRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) return null;
+        List<String> out = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IllegalArgumentException("Unterminated quoted field");
+                if (c == '"') {
+                    in.mark(1);
+                    int n = in.read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        in.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                out.add(field.toString());
+                return out;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
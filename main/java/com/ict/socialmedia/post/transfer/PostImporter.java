@@ -0,0 +1,82 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.RepositoryDecorator;
+import com.ict.socialmedia.post.repository.postgres.PostgresBulkLoader;
+import com.ict.socialmedia.post.repository.postgres.PostgresPostRepository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Loads posts from an NDJSON/CSV file into a repository. PostgreSQL goes through
+ * {@link PostgresBulkLoader} (COPY); other backends fall back to chunked createAll.
+ */
+public class PostImporter {
+    private final PostRepository repo;
+    private final int batchSize;
+
+    public PostImporter(PostRepository repo, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+        this.repo = Objects.requireNonNull(repo, "repo");
+        this.batchSize = batchSize;
+    }
+
+    public static final class Summary {
+        private final long read;
+        private final long inserted;
+
+        Summary(long read, long inserted) {
+            this.read = read;
+            this.inserted = inserted;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        @Override
+        public String toString() {
+            return "read=" + read + ", inserted=" + inserted + ", skipped=" + (read - inserted);
+        }
+    }
+
+    /**
+     * @param staged PostgreSQL only: load through a temp table and skip ids that already exist,
+     *               making re-runs idempotent. Other backends always skip duplicates per row.
+     */
+    public Summary importFile(Path file, PostFileFormat format, boolean staged) {
+        try (PostFileReader reader = PostFileReader.open(file, format)) {
+            Optional<PostgresPostRepository> pg = RepositoryDecorator.unwrap(repo, PostgresPostRepository.class);
+            if (pg.isPresent()) {
+                // COPY only inserts new ids, so a cache in front of the repository cannot go stale.
+                PostgresBulkLoader.Result r = new PostgresBulkLoader(pg.get().getDataSource()).load(reader, staged);
+                return new Summary(r.getCopied(), r.getInserted());
+            }
+            long read = 0;
+            long inserted = 0;
+            List<Post> chunk = new ArrayList<>(batchSize);
+            while (reader.hasNext()) {
+                chunk.add(reader.next());
+                read++;
+                if (chunk.size() == batchSize) {
+                    inserted += repo.createAll(chunk).count(BatchResult.Status.APPLIED);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inserted += repo.createAll(chunk).count(BatchResult.Status.APPLIED);
+            }
+            return new Summary(read, inserted);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public final class PostJson {
+    private static final PostJsonReader READER = new PostJsonReader();
+
+    private PostJson() {
+    }
+
+    public static void write(Post p, StringBuilder out) {
+        out.append("{\"id\":\"").append(p.getId()).append('"');
+        out.append(",\"author\":");
+        quote(p.getAuthor(), out);
+        out.append(",\"content\":");
+        quote(p.getContent(), out);
+        out.append(",\"visibility\":\"").append(p.getVisibility().name()).append('"');
+        out.append(",\"likes\":").append(p.getLikes());
+        out.append(",\"createdAt\":\"").append(p.getCreatedAt()).append('"');
+        out.append(",\"updatedAt\":\"").append(p.getUpdatedAt()).append('"');
+        out.append(",\"version\":").append(p.getVersion());
+        out.append('}');
+    }
+
+    public static String toJson(Post p) {
+        StringBuilder sb = new StringBuilder(128 + p.getContent().length());
+        write(p, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Parses one JSON object. Missing id/timestamps are generated, missing visibility defaults to
+     * PUBLIC and missing likes to 0, matching what the console "create" command does.
+     */
+    public static Post parse(String json) {
+        return READER.read(json);
+    }
+
+    /** Parses one JSON object into its top-level fields; nested objects and arrays come back as null. */
+    public static Map<String, Object> parseFields(String json) {
+        return new Parser(json).object();
+    }
+
+    static Post fromFields(Map<String, ?> fields) {
+        Instant now = Instant.now();
+        UUID id = blank(fields, "id") ? UUID.randomUUID() : UUID.fromString(str(fields, "id").trim());
+        String author = required(fields, "author");
+        String content = required(fields, "content");
+        Visibility visibility = Visibility.parseOrDefault(str(fields, "visibility"), Visibility.PUBLIC);
+        Object rawLikes = fields.get("likes");
+        int likes = blank(fields, "likes") ? 0
+                : rawLikes instanceof Number n ? n.intValue() : Integer.parseInt(rawLikes.toString().trim());
+        Instant createdAt = blank(fields, "createdAt") ? now : Instant.parse(str(fields, "createdAt").trim());
+        Instant updatedAt = blank(fields, "updatedAt") ? createdAt : Instant.parse(str(fields, "updatedAt").trim());
+        Object rawVersion = fields.get("version");
+        long version = blank(fields, "version") ? 0
+                : rawVersion instanceof Number n ? n.longValue() : Long.parseLong(rawVersion.toString().trim());
+        return new Post(id, author, content, visibility, likes, createdAt, updatedAt, version);
+    }
+
+    private static boolean blank(Map<String, ?> fields, String key) {
+        String v = str(fields, key);
+        return v == null || v.isBlank();
+    }
+
+    private static String str(Map<String, ?> fields, String key) {
+        Object v = fields.get(key);
+        return v == null ? null : v.toString();
+    }
+
+    private static String required(Map<String, ?> fields, String key) {
+        String v = str(fields, key);
+        if (v == null) throw new IllegalArgumentException("Missing field: " + key);
+        return v;
+    }
+
+    public static void quote(String s, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        private Parser(String s) {
+            this.s = s;
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> out = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+                return out;
+            }
+            while (true) {
+                String key = string();
+                expect(':');
+                out.put(key, value());
+                char c = next();
+                if (c == '}') return out;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') return string();
+            if (c == '{' || c == '[') {
+                skipNested();
+                return null;
+            }
+            if (s.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (s.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (s.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            int start = pos;
+            while (pos < s.length() && "+-.eE0123456789".indexOf(s.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("Unexpected character");
+            String num = s.substring(start, pos);
+            return num.contains(".") || num.contains("e") || num.contains("E") ? (Number) Double.parseDouble(num) : (Number) Long.parseLong(num);
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= s.length()) throw error("Unterminated string");
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> throw error("Bad escape");
+                }
+            }
+        }
+
+        private void skipNested() {
+            int depth = 0;
+            do {
+                char c = s.charAt(pos);
+                if (c == '"') {
+                    string();
+                    continue;
+                }
+                if (c == '{' || c == '[') depth++;
+                if (c == '}' || c == ']') depth--;
+                pos++;
+            } while (depth > 0);
+        }
+
+        private char peek() {
+            skipWhitespace();
+            if (pos >= s.length()) throw error("Unexpected end of input");
+            return s.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw error("Expected '" + c + "'");
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at offset " + pos);
+        }
+    }
+}
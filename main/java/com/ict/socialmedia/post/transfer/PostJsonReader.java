@@ -0,0 +1,479 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Decodes one JSON post object directly from UTF-8 bytes, the counterpart of
+ * {@link PostJsonWriter}. Field names are matched against pre-encoded names without building
+ * strings, and ids, timestamps and visibilities are parsed in place; only author and content become
+ * {@code String}s. Unknown fields are skipped. Defaults follow {@link PostJson#parse}: a missing id
+ * or timestamp is generated, visibility defaults to PUBLIC, likes and version to 0, and likes or
+ * version may also be given as strings.
+ *
+ * <p>Stateless; one instance can be shared.
+ */
+public final class PostJsonReader {
+    private static final byte[] F_ID = ascii("id");
+    private static final byte[] F_AUTHOR = ascii("author");
+    private static final byte[] F_CONTENT = ascii("content");
+    private static final byte[] F_VISIBILITY = ascii("visibility");
+    private static final byte[] F_LIKES = ascii("likes");
+    private static final byte[] F_CREATED_AT = ascii("createdAt");
+    private static final byte[] F_UPDATED_AT = ascii("updatedAt");
+    private static final byte[] F_VERSION = ascii("version");
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+    private static final byte[][] VISIBILITY_NAMES = new byte[VISIBILITIES.length][];
+
+    static {
+        for (Visibility v : VISIBILITIES) VISIBILITY_NAMES[v.ordinal()] = ascii(v.name());
+    }
+
+    public Post read(String json) {
+        byte[] b = json.getBytes(StandardCharsets.UTF_8);
+        return read(b, 0, b.length);
+    }
+
+    public Post read(byte[] json) {
+        return read(json, 0, json.length);
+    }
+
+    /** Parses the object in {@code json[offset, offset + length)}; trailing whitespace is allowed. */
+    public Post read(byte[] json, int offset, int length) {
+        Cursor c = new Cursor(json, offset, offset + length);
+        UUID id = null;
+        String author = null;
+        String content = null;
+        Visibility visibility = null;
+        int likes = 0;
+        Instant createdAt = null;
+        Instant updatedAt = null;
+        long version = 0;
+
+        c.expect('{');
+        if (c.peek() == '}') {
+            c.pos++;
+        } else {
+            while (true) {
+                c.expect('"');
+                int keyStart = c.pos;
+                int keyEnd = c.skipStringBody();
+                c.expect(':');
+                c.skipWhitespace();
+                if (c.isNull()) {
+                    c.pos += 4;
+                } else if (c.keyIs(keyStart, keyEnd, F_ID)) {
+                    id = c.uuidOrNull();
+                } else if (c.keyIs(keyStart, keyEnd, F_AUTHOR)) {
+                    author = c.scalarString();
+                } else if (c.keyIs(keyStart, keyEnd, F_CONTENT)) {
+                    content = c.scalarString();
+                } else if (c.keyIs(keyStart, keyEnd, F_VISIBILITY)) {
+                    visibility = c.visibility();
+                } else if (c.keyIs(keyStart, keyEnd, F_LIKES)) {
+                    likes = c.intValue(c.integer(0));
+                } else if (c.keyIs(keyStart, keyEnd, F_CREATED_AT)) {
+                    createdAt = c.instantOrNull();
+                } else if (c.keyIs(keyStart, keyEnd, F_UPDATED_AT)) {
+                    updatedAt = c.instantOrNull();
+                } else if (c.keyIs(keyStart, keyEnd, F_VERSION)) {
+                    version = c.integer(0);
+                } else {
+                    c.skipValue();
+                }
+                char next = c.next();
+                if (next == '}') break;
+                if (next != ',') throw c.error("Expected ',' or '}'");
+            }
+        }
+        c.skipWhitespace();
+        if (c.pos != c.end) throw c.error("Trailing data");
+
+        if (author == null) throw new IllegalArgumentException("Missing field: author");
+        if (content == null) throw new IllegalArgumentException("Missing field: content");
+        if (createdAt == null) createdAt = Instant.now();
+        if (updatedAt == null) updatedAt = createdAt;
+        return new Post(
+                id == null ? UUID.randomUUID() : id,
+                author,
+                content,
+                visibility == null ? Visibility.PUBLIC : visibility,
+                likes,
+                createdAt,
+                updatedAt,
+                version
+        );
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Cursor {
+        private final byte[] b;
+        private final int end;
+        private int pos;
+
+        private Cursor(byte[] b, int pos, int end) {
+            this.b = b;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (b[pos] == ' ' || b[pos] == '\t' || b[pos] == '\n' || b[pos] == '\r')) pos++;
+        }
+
+        private char peek() {
+            skipWhitespace();
+            if (pos >= end) throw error("Unexpected end of input");
+            return (char) (b[pos] & 0xFF);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw error("Expected '" + c + "'");
+        }
+
+        private boolean isNull() {
+            return pos + 4 <= end && b[pos] == 'n' && b[pos + 1] == 'u' && b[pos + 2] == 'l' && b[pos + 3] == 'l';
+        }
+
+        /** Advances past the closing quote of a string whose opening quote was consumed; returns the end of its body. */
+        private int skipStringBody() {
+            while (pos < end) {
+                byte c = b[pos++];
+                if (c == '"') return pos - 1;
+                if (c == '\\') pos++;
+            }
+            throw error("Unterminated string");
+        }
+
+        private boolean keyIs(int start, int stop, byte[] name) {
+            if (stop - start != name.length) return false;
+            for (int i = 0; i < name.length; i++) {
+                if (b[start + i] != name[i]) return false;
+            }
+            return true;
+        }
+
+        /** A string value, or the literal text of a number/boolean (as {@link PostJson} accepts them). */
+        private String scalarString() {
+            if (b[pos] == '{' || b[pos] == '[') {
+                skipValue();
+                return null;
+            }
+            if (b[pos] != '"') return literal();
+            pos++;
+            int start = pos;
+            while (pos < end) {
+                byte c = b[pos];
+                if (c == '"') {
+                    String s = new String(b, start, pos - start, StandardCharsets.UTF_8);
+                    pos++;
+                    return s;
+                }
+                if (c == '\\') return escapedString(start);
+                pos++;
+            }
+            throw error("Unterminated string");
+        }
+
+        /**
+         * Unescapes into a byte array and decodes it once. Escaped lone surrogates cannot be
+         * represented in UTF-8, so those strings take the slower char-by-char path instead.
+         */
+        private String escapedString(int start) {
+            int close = start;
+            while (close < end && b[close] != '"') {
+                close += b[close] == '\\' ? 2 : 1;
+            }
+            if (close >= end) throw error("Unterminated string");
+            byte[] out = new byte[close - start];
+            int n = 0;
+            int p = start;
+            while (p < close) {
+                byte c = b[p];
+                if (c != '\\') {
+                    out[n++] = c;
+                    p++;
+                    continue;
+                }
+                byte e = b[p + 1];
+                p += 2;
+                switch (e) {
+                    case '"', '\\', '/' -> out[n++] = e;
+                    case 'n' -> out[n++] = '\n';
+                    case 'r' -> out[n++] = '\r';
+                    case 't' -> out[n++] = '\t';
+                    case 'b' -> out[n++] = '\b';
+                    case 'f' -> out[n++] = '\f';
+                    case 'u' -> {
+                        if (p + 4 > close) throw error("Bad escape");
+                        int cp = (int) hexRun(p, 4);
+                        p += 4;
+                        if (Character.isHighSurrogate((char) cp) && p + 6 <= close && b[p] == '\\' && b[p + 1] == 'u') {
+                            int low = (int) hexRun(p + 2, 4);
+                            if (Character.isLowSurrogate((char) low)) {
+                                cp = Character.toCodePoint((char) cp, (char) low);
+                                p += 6;
+                            }
+                        }
+                        if (Character.isSurrogate((char) cp) && cp <= 0xFFFF) {
+                            pos = start;
+                            return escapedStringChars(start);
+                        }
+                        n = utf8(out, n, cp);
+                    }
+                    default -> throw error("Bad escape");
+                }
+            }
+            pos = close + 1;
+            return new String(out, 0, n, StandardCharsets.UTF_8);
+        }
+
+        // A \\uXXXX escape is 6 bytes and encodes to at most 3, or 12 to 4 for a pair, so it fits.
+        private static int utf8(byte[] out, int n, int cp) {
+            if (cp < 0x80) {
+                out[n++] = (byte) cp;
+            } else if (cp < 0x800) {
+                out[n++] = (byte) (0xC0 | cp >> 6);
+                out[n++] = (byte) (0x80 | cp & 0x3F);
+            } else if (cp < 0x10000) {
+                out[n++] = (byte) (0xE0 | cp >> 12);
+                out[n++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | cp & 0x3F);
+            } else {
+                out[n++] = (byte) (0xF0 | cp >> 18);
+                out[n++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[n++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | cp & 0x3F);
+            }
+            return n;
+        }
+
+        private String escapedStringChars(int start) {
+            StringBuilder sb = new StringBuilder(end - start);
+            while (true) {
+                if (pos >= end) throw error("Unterminated string");
+                byte c = b[pos];
+                if (c == '"') {
+                    pos++;
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    int runStart = pos;
+                    while (pos < end && b[pos] != '"' && b[pos] != '\\') pos++;
+                    sb.append(new String(b, runStart, pos - runStart, StandardCharsets.UTF_8));
+                    continue;
+                }
+                if (pos + 1 >= end) throw error("Unterminated string");
+                byte e = b[pos + 1];
+                pos += 2;
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append((char) e);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > end) throw error("Bad escape");
+                        sb.append((char) hexRun(pos, 4));
+                        pos += 4;
+                    }
+                    default -> throw error("Bad escape");
+                }
+            }
+        }
+
+        private String literal() {
+            int start = pos;
+            while (pos < end && b[pos] != ',' && b[pos] != '}' && b[pos] != ' ' && b[pos] != '\n'
+                    && b[pos] != '\r' && b[pos] != '\t') {
+                pos++;
+            }
+            if (start == pos) throw error("Unexpected character");
+            return new String(b, start, pos - start, StandardCharsets.US_ASCII);
+        }
+
+        private int hexValue(byte c) {
+            if (c >= '0' && c <= '9') return c - '0';
+            if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+            if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+            throw error("Bad hex digit");
+        }
+
+        private UUID uuidOrNull() {
+            if (b[pos] == '"' && pos + 37 < end && b[pos + 37] == '"'
+                    && b[pos + 9] == '-' && b[pos + 14] == '-' && b[pos + 19] == '-' && b[pos + 24] == '-') {
+                int p = pos + 1;
+                long msb = hexRun(p, 8) << 32 | hexRun(p + 9, 4) << 16 | hexRun(p + 14, 4);
+                long lsb = hexRun(p + 19, 4) << 48 | hexRun(p + 24, 12);
+                pos += 38;
+                return new UUID(msb, lsb);
+            }
+            String s = scalarString();
+            return s == null || s.isBlank() ? null : UUID.fromString(s.trim());
+        }
+
+        private long hexRun(int p, int digits) {
+            long v = 0;
+            for (int i = 0; i < digits; i++) v = v << 4 | hexValue(b[p + i]);
+            return v;
+        }
+
+        private Visibility visibility() {
+            if (b[pos] == '"') {
+                for (int i = 0; i < VISIBILITY_NAMES.length; i++) {
+                    byte[] name = VISIBILITY_NAMES[i];
+                    if (pos + name.length + 1 < end && b[pos + name.length + 1] == '"' && keyIs(pos + 1, pos + 1 + name.length, name)) {
+                        pos += name.length + 2;
+                        return VISIBILITIES[i];
+                    }
+                }
+            }
+            return Visibility.parseOrDefault(scalarString(), null);
+        }
+
+        private long integer(long fallback) {
+            if (b[pos] == '"') {
+                String s = scalarString();
+                return s == null || s.isBlank() ? fallback : Long.parseLong(s.trim());
+            }
+            int start = pos;
+            boolean negative = b[pos] == '-';
+            if (negative) pos++;
+            // Accumulated negatively so Long.MIN_VALUE fits.
+            long v = 0;
+            int digits = 0;
+            boolean overflow = false;
+            while (pos < end && b[pos] >= '0' && b[pos] <= '9') {
+                int d = b[pos++] - '0';
+                if (v < (Long.MIN_VALUE + d) / 10) overflow = true;
+                v = v * 10 - d;
+                digits++;
+            }
+            if (digits == 0) throw error("Expected a number");
+            if (pos < end && (b[pos] == '.' || b[pos] == 'e' || b[pos] == 'E')) {
+                // Fractional numbers are truncated, as PostJson does.
+                pos = start;
+                double d = Double.parseDouble(literal());
+                if (!(d >= Long.MIN_VALUE && d < 0x1p63)) throw error("Number out of range");
+                return (long) d;
+            }
+            if (overflow || (!negative && v == Long.MIN_VALUE)) throw error("Number out of range");
+            return negative ? v : -v;
+        }
+
+        private int intValue(long v) {
+            if (v != (int) v) throw error("Number out of range");
+            return (int) v;
+        }
+
+        private Instant instantOrNull() {
+            if (b[pos] == '"') {
+                Instant fast = isoInstant(pos + 1);
+                if (fast != null) return fast;
+            }
+            String s = scalarString();
+            return s == null || s.isBlank() ? null : Instant.parse(s.trim());
+        }
+
+        /** yyyy-MM-ddTHH:mm:ss[.f{1,9}]Z, or null to fall back to {@link Instant#parse}. */
+        private Instant isoInstant(int p) {
+            if (p + 20 > end || b[p + 4] != '-' || b[p + 7] != '-' || b[p + 10] != 'T' || b[p + 13] != ':' || b[p + 16] != ':') {
+                return null;
+            }
+            int year = dec(p, 4);
+            int month = dec(p + 5, 2);
+            int day = dec(p + 8, 2);
+            int hour = dec(p + 11, 2);
+            int minute = dec(p + 14, 2);
+            int second = dec(p + 17, 2);
+            if ((year | month | day | hour | minute | second) < 0 || month < 1 || month > 12 || day < 1
+                    || day > 31 || hour > 23 || minute > 59 || second > 59) {
+                return null;
+            }
+            int q = p + 19;
+            int nano = 0;
+            if (q < end && b[q] == '.') {
+                q++;
+                int digits = 0;
+                while (q < end && b[q] >= '0' && b[q] <= '9' && digits < 9) {
+                    nano = nano * 10 + (b[q++] - '0');
+                    digits++;
+                }
+                if (digits == 0) return null;
+                for (int i = digits; i < 9; i++) nano *= 10;
+            }
+            if (q + 1 >= end || b[q] != 'Z' || b[q + 1] != '"') return null;
+            // civil date -> days (H. Hinnant's algorithm)
+            int y = month <= 2 ? year - 1 : year;
+            int era = Math.floorDiv(y, 400);
+            int yoe = y - era * 400;
+            int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+            int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+            long days = era * 146_097L + doe - 719_468;
+            if (day > 28 && dayOutOfMonth(year, month, day)) return null;
+            pos = q + 2;
+            return Instant.ofEpochSecond(days * 86_400 + hour * 3600 + minute * 60 + second, nano);
+        }
+
+        private static boolean dayOutOfMonth(int year, int month, int day) {
+            int max = switch (month) {
+                case 4, 6, 9, 11 -> 30;
+                case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+                default -> 31;
+            };
+            return day > max;
+        }
+
+        private int dec(int p, int digits) {
+            int v = 0;
+            for (int i = 0; i < digits; i++) {
+                int d = b[p + i] - '0';
+                if (d < 0 || d > 9) return -1;
+                v = v * 10 + d;
+            }
+            return v;
+        }
+
+        private void skipValue() {
+            char c = peek();
+            if (c == '"') {
+                pos++;
+                skipStringBody();
+                return;
+            }
+            if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    byte x = b[pos++];
+                    if (x == '"') {
+                        skipStringBody();
+                        continue;
+                    }
+                    if (x == '{' || x == '[') depth++;
+                    if (x == '}' || x == ']') depth--;
+                } while (depth > 0 && pos < end);
+                if (depth > 0) throw error("Unterminated value");
+                return;
+            }
+            literal();
+        }
+
+        private IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at offset " + pos);
+        }
+    }
+}
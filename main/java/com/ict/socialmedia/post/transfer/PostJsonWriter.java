@@ -0,0 +1,344 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Encodes posts as UTF-8 JSON straight into a reusable byte buffer, in the same shape as
+ * {@link PostJson}. Field names and visibility values are pre-encoded, UUIDs, numbers and
+ * timestamps are formatted digit by digit, and strings are escaped and UTF-8 encoded in one pass,
+ * so steady-state encoding allocates nothing once the buffer has grown to fit the largest record.
+ *
+ * <p>Not thread-safe: use one writer per response or export. Call {@link #reset()} (or one of the
+ * drain methods) to reuse it.
+ */
+public final class PostJsonWriter {
+    private static final byte[] ID = ascii("{\"id\":\"");
+    private static final byte[] AUTHOR = ascii("\",\"author\":");
+    private static final byte[] CONTENT = ascii(",\"content\":");
+    private static final byte[] VISIBILITY = ascii(",\"visibility\":");
+    private static final byte[] LIKES = ascii(",\"likes\":");
+    private static final byte[] CREATED_AT = ascii(",\"createdAt\":\"");
+    private static final byte[] UPDATED_AT = ascii("\",\"updatedAt\":\"");
+    private static final byte[] VERSION = ascii("\",\"version\":");
+    private static final byte[][] VISIBILITY_VALUES = new byte[Visibility.values().length][];
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    // Largest single field that is not a string: a long, a UUID, or an ISO timestamp.
+    private static final int SCALAR_MAX = 40;
+
+    static {
+        for (Visibility v : Visibility.values()) {
+            VISIBILITY_VALUES[v.ordinal()] = ascii("\"" + v.name() + "\"");
+        }
+    }
+
+    private byte[] buf;
+    private int len;
+    private boolean firstInArray;
+
+    public PostJsonWriter() {
+        this(4096);
+    }
+
+    public PostJsonWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(64, initialCapacity)];
+    }
+
+    /** Appends one post as a JSON object. */
+    public PostJsonWriter write(Post p) {
+        raw(ID);
+        uuid(p.getId());
+        raw(AUTHOR);
+        string(p.getAuthor());
+        raw(CONTENT);
+        string(p.getContent());
+        raw(VISIBILITY);
+        raw(VISIBILITY_VALUES[p.getVisibility().ordinal()]);
+        raw(LIKES);
+        number(p.getLikes());
+        raw(CREATED_AT);
+        instant(p.getCreatedAt());
+        raw(UPDATED_AT);
+        instant(p.getUpdatedAt());
+        raw(VERSION);
+        number(p.getVersion());
+        byte1('}');
+        return this;
+    }
+
+    public PostJsonWriter beginArray() {
+        byte1('[');
+        firstInArray = true;
+        return this;
+    }
+
+    /** Appends a post as the next array element. */
+    public PostJsonWriter element(Post p) {
+        if (!firstInArray) byte1(',');
+        firstInArray = false;
+        return write(p);
+    }
+
+    public PostJsonWriter endArray() {
+        byte1(']');
+        return this;
+    }
+
+    public PostJsonWriter newline() {
+        byte1('\n');
+        return this;
+    }
+
+    /**
+     * Writes {@code posts} as one JSON array to {@code out}, draining the buffer whenever it passes
+     * {@code flushThreshold} bytes, so the array is never materialized as a list or a whole body.
+     *
+     * @return the number of posts written
+     */
+    public long writeArray(Iterator<Post> posts, OutputStream out, int flushThreshold) throws IOException {
+        long n = 0;
+        beginArray();
+        while (posts.hasNext()) {
+            element(posts.next());
+            n++;
+            if (len >= flushThreshold) drainTo(out);
+        }
+        endArray();
+        drainTo(out);
+        return n;
+    }
+
+    /** Bytes written since the last reset or drain. */
+    public int size() {
+        return len;
+    }
+
+    public void reset() {
+        len = 0;
+        firstInArray = false;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, len);
+    }
+
+    /** Copies the pending bytes to {@code out} and empties the buffer. */
+    public void drainTo(OutputStream out) throws IOException {
+        out.write(buf, 0, len);
+        len = 0;
+    }
+
+    /**
+     * Copies as many pending bytes as fit into {@code target}; the rest stay pending.
+     *
+     * @return true if the buffer is now empty
+     */
+    public boolean drainTo(ByteBuffer target) {
+        int n = Math.min(len, target.remaining());
+        target.put(buf, 0, n);
+        System.arraycopy(buf, n, buf, 0, len - n);
+        len -= n;
+        return len == 0;
+    }
+
+    public void drainTo(WritableByteChannel ch) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(buf, 0, len);
+        while (b.hasRemaining()) ch.write(b);
+        len = 0;
+    }
+
+    // --- encoding ---
+
+    private void ensure(int extra) {
+        int need = len + extra;
+        if (need > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(need, buf.length * 2));
+        }
+    }
+
+    private void raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void byte1(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void uuid(UUID id) {
+        ensure(36);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        byte[] b = buf;
+        int p = len;
+        p = hex(b, p, msb >>> 32, 8);
+        b[p++] = '-';
+        p = hex(b, p, msb >>> 16, 4);
+        b[p++] = '-';
+        p = hex(b, p, msb, 4);
+        b[p++] = '-';
+        p = hex(b, p, lsb >>> 48, 4);
+        b[p++] = '-';
+        p = hex(b, p, lsb, 12);
+        len = p;
+    }
+
+    private static int hex(byte[] b, int p, long v, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            b[p + i] = HEX[(int) (v & 0xF)];
+            v >>>= 4;
+        }
+        return p + digits;
+    }
+
+    private void number(long v) {
+        ensure(SCALAR_MAX);
+        if (v == Long.MIN_VALUE) {
+            raw(ascii(Long.toString(v)));
+            return;
+        }
+        if (v < 0) {
+            buf[len++] = '-';
+            v = -v;
+        }
+        len = digits(buf, len, v);
+    }
+
+    private static int digits(byte[] b, int p, long v) {
+        int n = 1;
+        for (long t = v; t >= 10; t /= 10) n++;
+        for (int i = p + n - 1; i >= p; i--) {
+            b[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        return p + n;
+    }
+
+    private static int padded(byte[] b, int p, int v, int width) {
+        for (int i = p + width - 1; i >= p; i--) {
+            b[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        return p + width;
+    }
+
+    /**
+     * ISO-8601 in UTC exactly as {@link Instant#toString()} prints it (seconds always present,
+     * fraction in groups of three digits, trailing zero groups dropped) for years 0000-9999.
+     */
+    private void instant(Instant t) {
+        long seconds = t.getEpochSecond();
+        long days = Math.floorDiv(seconds, 86_400);
+        int secOfDay = Math.floorMod(seconds, 86_400);
+        // days -> civil date (H. Hinnant's algorithm, proleptic Gregorian)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int doe = (int) (z - era * 146_097);
+        int yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long year = yoe + era * 400;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        if (month <= 2) year++;
+        if (year < 0 || year > 9999) {
+            raw(ascii(t.toString()));
+            return;
+        }
+        ensure(SCALAR_MAX);
+        byte[] b = buf;
+        int p = padded(b, len, (int) year, 4);
+        b[p++] = '-';
+        p = padded(b, p, month, 2);
+        b[p++] = '-';
+        p = padded(b, p, day, 2);
+        b[p++] = 'T';
+        p = padded(b, p, secOfDay / 3600, 2);
+        b[p++] = ':';
+        p = padded(b, p, secOfDay / 60 % 60, 2);
+        b[p++] = ':';
+        p = padded(b, p, secOfDay % 60, 2);
+        int nano = t.getNano();
+        if (nano > 0) {
+            b[p++] = '.';
+            if (nano % 1_000_000 == 0) {
+                p = padded(b, p, nano / 1_000_000, 3);
+            } else if (nano % 1000 == 0) {
+                p = padded(b, p, nano / 1000, 6);
+            } else {
+                p = padded(b, p, nano, 9);
+            }
+        }
+        b[p++] = 'Z';
+        len = p;
+    }
+
+    /** Quoted, escaped and UTF-8 encoded in one pass. */
+    private void string(String s) {
+        int n = s.length();
+        ensure(n * 6 + 2);
+        byte[] b = buf;
+        int p = len;
+        b[p++] = '"';
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    b[p++] = (byte) c;
+                    continue;
+                }
+                b[p++] = '\\';
+                switch (c) {
+                    case '"' -> b[p++] = '"';
+                    case '\\' -> b[p++] = '\\';
+                    case '\n' -> b[p++] = 'n';
+                    case '\r' -> b[p++] = 'r';
+                    case '\t' -> b[p++] = 't';
+                    case '\b' -> b[p++] = 'b';
+                    case '\f' -> b[p++] = 'f';
+                    default -> {
+                        b[p++] = 'u';
+                        b[p++] = '0';
+                        b[p++] = '0';
+                        b[p++] = HEX[c >> 4];
+                        b[p++] = HEX[c & 0xF];
+                    }
+                }
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | c >> 6);
+                b[p++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[p++] = (byte) (0xF0 | cp >> 18);
+                b[p++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                b[p++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                b[p++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: replaced, as String.getBytes(UTF_8) does.
+                b[p++] = '?';
+            } else {
+                b[p++] = (byte) (0xE0 | c >> 12);
+                b[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+                b[p++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        b[p++] = '"';
+        len = p;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,345 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.repository.BatchResult;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostPage;
+import com.ict.socialmedia.post.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Copies every post from one repository to another (PostgreSQL to MongoDB, say) without holding
+ * more than a page per worker in memory.
+ *
+ * <p>The createdAt range is cut into windows on a fixed grid; empty stretches are skipped by
+ * asking the source for the newest post before each window. Workers copy windows in parallel,
+ * each reading newest first with {@code findPage} (so every backend serves it from its listing
+ * index) and writing with {@code createAll}. Ids already in the target count as copied, so a
+ * window cut short by a crash is simply copied again. Each finished window is appended to the
+ * checkpoint file with its row count and checksum, and a rerun skips those windows. A window in
+ * which any post failed to copy is not recorded, so a rerun copies it again.
+ *
+ * <p>Posts created after the run planned its windows, or changed in a window already copied,
+ * are not picked up: {@link #verify} compares every window's count and checksum on both sides,
+ * and with {@code repair} re-copies the windows that differ, overwriting target rows and
+ * deleting ones the source no longer has.
+ */
+public final class PostMigrator {
+    private static final Logger log = LoggerFactory.getLogger(PostMigrator.class);
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final PostRepository source;
+    private final PostRepository target;
+    private final MigrationSettings settings;
+    private final RateLimiter limiter;
+
+    public PostMigrator(PostRepository source, PostRepository target, MigrationSettings settings) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.target = Objects.requireNonNull(target, "target");
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.limiter = settings.getRowsPerSecond() == 0 ? null : new RateLimiter(settings.getRowsPerSecond());
+    }
+
+    public Summary migrate() {
+        Checkpoint checkpoint = Checkpoint.open(settings.getCheckpoint(), settings.getWindow().toMillis());
+        AtomicLong read = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        AtomicLong existing = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failedWindows = new AtomicInteger();
+        int windows = runWindows(List.of(source), w -> {
+            if (checkpoint.isDone(w)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            Tally tally = new Tally();
+            AtomicLong windowFailed = new AtomicLong();
+            scan(source, w, true, batch -> {
+                tally.add(batch);
+                read.addAndGet(batch.size());
+                BatchResult r = target.createAll(batch);
+                for (BatchResult.Item item : r.getItems()) {
+                    if (item.getStatus() == BatchResult.Status.APPLIED) {
+                        written.incrementAndGet();
+                    } else if (item.getStatus() == BatchResult.Status.DUPLICATE) {
+                        existing.incrementAndGet();
+                    } else {
+                        windowFailed.incrementAndGet();
+                        log.warn("Could not copy post {}: {}", item.getId(), item.getError());
+                    }
+                }
+            });
+            if (windowFailed.get() == 0) {
+                checkpoint.done(w, tally);
+            } else {
+                // Left out of the checkpoint so a rerun copies the window again.
+                failed.addAndGet(windowFailed.get());
+                failedWindows.incrementAndGet();
+            }
+        });
+        return new Summary(windows, skipped.get(), failedWindows.get(), read.get(), written.get(), existing.get(), failed.get());
+    }
+
+    /**
+     * Compares row counts and checksums of every window on both sides. With {@code repair}, a
+     * window that differs is copied again with target rows overwritten and extra ones deleted.
+     */
+    public VerifyReport verify(boolean repair) {
+        List<String> mismatches = new ArrayList<>();
+        AtomicLong sourceRows = new AtomicLong();
+        AtomicLong targetRows = new AtomicLong();
+        AtomicInteger repaired = new AtomicInteger();
+        int windows = runWindows(List.of(source, target), w -> {
+            Tally s = new Tally();
+            Tally t = new Tally();
+            scan(source, w, true, s::add);
+            scan(target, w, false, t::add);
+            sourceRows.addAndGet(s.rows);
+            targetRows.addAndGet(t.rows);
+            if (s.rows == t.rows && s.checksum == t.checksum) return;
+            String line = w + ": source " + s + ", target " + t;
+            synchronized (mismatches) {
+                mismatches.add(line);
+            }
+            log.warn("Window differs: {}", line);
+            if (repair) {
+                repair(w);
+                repaired.incrementAndGet();
+            }
+        });
+        return new VerifyReport(windows, sourceRows.get(), targetRows.get(), List.copyOf(mismatches), repaired.get());
+    }
+
+    private void repair(Window w) {
+        Set<UUID> inSource = new HashSet<>();
+        scan(source, w, true, batch -> {
+            List<Post> missing = new ArrayList<>();
+            for (Post p : batch) inSource.add(p.getId());
+            BatchResult created = target.createAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                if (created.getItems().get(i).getStatus() == BatchResult.Status.DUPLICATE) missing.add(batch.get(i));
+            }
+            if (!missing.isEmpty()) target.updateAll(missing);
+        });
+        List<UUID> extra = new ArrayList<>();
+        scan(target, w, false, batch -> {
+            for (Post p : batch) {
+                if (!inSource.contains(p.getId())) extra.add(p.getId());
+            }
+        });
+        if (!extra.isEmpty()) target.deleteAll(extra);
+    }
+
+    /**
+     * Plans windows from the newest post down, jumping over empty stretches, and runs {@code work}
+     * on each with the configured parallelism. Planning looks at every repository in
+     * {@code repos}, so verification also covers windows only the target has rows in.
+     *
+     * @return windows planned
+     */
+    private int runWindows(List<PostRepository> repos, Consumer<Window> work) {
+        long size = settings.getWindow().toMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(settings.getWorkers(), r -> {
+            Thread t = new Thread(r, "post-migrator");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            Instant newest = newestBefore(repos, null);
+            if (newest == null) return 0;
+            long end = Math.floorDiv(newest.toEpochMilli(), size) * size + size;
+            while (true) {
+                Window w = new Window(end - size, end);
+                futures.add(pool.submit(() -> work.accept(w)));
+                Instant older = newestBefore(repos, Instant.ofEpochMilli(w.start));
+                if (older == null) break;
+                end = Math.floorDiv(older.toEpochMilli(), size) * size + size;
+            }
+            for (Future<?> f : futures) f.get();
+            return futures.size();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Migration failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Migration interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // The newest createdAt strictly before {@code before} (null: overall) across the repositories.
+    private static Instant newestBefore(List<PostRepository> repos, Instant before) {
+        PostCursor after = before == null ? null : new PostCursor(before, MIN_ID);
+        Instant newest = null;
+        for (PostRepository repo : repos) {
+            PostPage page = repo.findPage(after, 1, PostFilter.all());
+            if (page.getItems().isEmpty()) continue;
+            Instant at = page.getItems().get(0).getCreatedAt();
+            if (newest == null || at.isAfter(newest)) newest = at;
+        }
+        return newest;
+    }
+
+    /**
+     * Hands {@code sink} the window's posts a page at a time, newest first. A cursor at
+     * (window end, smallest id) starts strictly before the end on every backend.
+     */
+    private void scan(PostRepository repo, Window w, boolean limited, Consumer<List<Post>> sink) {
+        PostCursor after = new PostCursor(Instant.ofEpochMilli(w.end), MIN_ID);
+        Instant start = Instant.ofEpochMilli(w.start);
+        while (true) {
+            PostPage page = repo.findPage(after, settings.getBatchSize(), PostFilter.all());
+            List<Post> rows = page.getItems();
+            int n = 0;
+            while (n < rows.size() && !rows.get(n).getCreatedAt().isBefore(start)) n++;
+            if (limited && limiter != null && !rows.isEmpty()) limiter.acquire(rows.size());
+            if (n > 0) sink.accept(n == rows.size() ? rows : rows.subList(0, n));
+            if (n < rows.size() || !page.hasNext()) return;
+            after = page.getNext();
+        }
+    }
+
+    /**
+     * Order-independent digest of a post's content, so two backends that return a window in
+     * different orders still agree. Timestamps count in milliseconds, MongoDB's precision; the
+     * version is left out, being each store's own optimistic-lock counter.
+     */
+    static long rowHash(Post p) {
+        long h = p.getId().getMostSignificantBits() * 0x9e3779b97f4a7c15L ^ p.getId().getLeastSignificantBits();
+        h = h * 31 + p.getCreatedAt().toEpochMilli();
+        h = h * 31 + p.getUpdatedAt().toEpochMilli();
+        h = h * 31 + p.getLikes();
+        h = h * 31 + p.getVisibility().ordinal();
+        h = h * 31 + Objects.hashCode(p.getAuthor());
+        h = h * 31 + Objects.hashCode(p.getContent());
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private record Window(long start, long end) {
+        @Override
+        public String toString() {
+            return "[" + Instant.ofEpochMilli(start) + ", " + Instant.ofEpochMilli(end) + ")";
+        }
+    }
+
+    private static final class Tally {
+        private long rows;
+        private long checksum;
+
+        private void add(List<Post> batch) {
+            for (Post p : batch) checksum += rowHash(p);
+            rows += batch.size();
+        }
+
+        @Override
+        public String toString() {
+            return rows + " rows, checksum " + Long.toHexString(checksum);
+        }
+    }
+
+    /**
+     * Finished windows, one line each, appended as they finish. The header pins the window size:
+     * a checkpoint written with another grid would skip the wrong ranges, so it is refused.
+     */
+    private static final class Checkpoint {
+        private static final String HEADER = "# post migration checkpoint, window millis ";
+
+        private final Path file;
+        private final Set<Long> done;
+
+        private Checkpoint(Path file, Set<Long> done) {
+            this.file = file;
+            this.done = done;
+        }
+
+        static Checkpoint open(Path file, long windowMillis) {
+            Set<Long> done = new HashSet<>();
+            if (file == null) return new Checkpoint(null, done);
+            try {
+                if (Files.exists(file)) {
+                    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                    if (lines.isEmpty() || !lines.get(0).equals(HEADER + windowMillis)) {
+                        throw new IllegalStateException("Checkpoint " + file + " was written with another window size; delete it to start over");
+                    }
+                    for (String line : lines.subList(1, lines.size())) {
+                        if (line.startsWith("done ")) done.add(Long.parseLong(line.split(" ")[1]));
+                    }
+                    log.info("Resuming from {}: {} window(s) already copied", file, done.size());
+                } else {
+                    Files.writeString(file, HEADER + windowMillis + "\n", StandardCharsets.UTF_8);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open checkpoint " + file, e);
+            }
+            return new Checkpoint(file, done);
+        }
+
+        boolean isDone(Window w) {
+            synchronized (done) {
+                return done.contains(w.start);
+            }
+        }
+
+        void done(Window w, Tally tally) {
+            synchronized (done) {
+                done.add(w.start);
+                if (file == null) return;
+                String line = "done " + w.start + " " + w.end + " " + tally.rows + " " + Long.toHexString(tally.checksum) + "\n";
+                try {
+                    Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write checkpoint " + file, e);
+                }
+            }
+        }
+    }
+
+    /** {@code failedWindows} had at least one post that could not be copied; a rerun retries them. */
+    public record Summary(int windows, int skippedWindows, int failedWindows, long read, long written, long existing, long failed) {
+        @Override
+        public String toString() {
+            return "windows=" + windows + " (already done " + skippedWindows + ", failed " + failedWindows + "), read=" + read
+                    + ", written=" + written + ", alreadyInTarget=" + existing + ", failed=" + failed;
+        }
+    }
+
+    public record VerifyReport(int windows, long sourceRows, long targetRows, List<String> mismatches, int repaired) {
+        public boolean matches() {
+            return mismatches.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "windows=" + windows + ", sourceRows=" + sourceRows + ", targetRows=" + targetRows
+                    + ", mismatched=" + mismatches.size() + (repaired > 0 ? ", repaired=" + repaired : "");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ict.socialmedia.post.transfer;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+// Paces callers to a steady rate: each acquire reserves the next free slot and sleeps until it.
+final class RateLimiter {
+    private final double nanosPerPermit;
+    private long nextFreeNanos = System.nanoTime();
+
+    RateLimiter(int permitsPerSecond) {
+        if (permitsPerSecond < 1) throw new IllegalArgumentException("permitsPerSecond must be >= 1");
+        this.nanosPerPermit = 1e9 / permitsPerSecond;
+    }
+
+    void acquire(int permits) {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Idle time does not bank permits beyond one second's worth.
+            long start = Math.max(nextFreeNanos, now - TimeUnit.SECONDS.toNanos(1));
+            nextFreeNanos = start + (long) (permits * nanosPerPermit);
+            wait = start - now;
+        }
+        if (wait <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while rate limited");
+        }
+    }
+}
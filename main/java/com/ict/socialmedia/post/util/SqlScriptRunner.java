@@ -6,7 +6,6 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 
 public final class SqlScriptRunner {
@@ -15,10 +14,10 @@ public final class SqlScriptRunner {
 
     public static void runClasspathResource(Connection connection, String resourcePath) {
         String sql = readClasspathText(resourcePath);
-        runSqlStatements(connection, splitStatements(sql));
+        runSqlStatements(connection, SqlTokenizer.statements(sql));
     }
 
-    private static String readClasspathText(String resourcePath) {
+    public static String readClasspathText(String resourcePath) {
         try (InputStream in = SqlScriptRunner.class.getClassLoader().getResourceAsStream(resourcePath)) {
             if (in == null) {
                 throw new IllegalStateException("SQL resource not found: " + resourcePath);
@@ -36,17 +35,6 @@ public final class SqlScriptRunner {
         }
     }
 
-    private static List<String> splitStatements(String sql) {
-        String[] parts = sql.split(";");
-        List<String> statements = new ArrayList<>();
-        for (String p : parts) {
-            String s = p.trim();
-            if (s.isEmpty()) continue;
-            statements.add(s);
-        }
-        return statements;
-    }
-
     private static void runSqlStatements(Connection connection, List<String> statements) {
         try (Statement st = connection.createStatement()) {
             for (String s : statements) {
@@ -0,0 +1,119 @@
+package com.ict.socialmedia.post.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a PostgreSQL script into statements at top-level semicolons. Semicolons inside string
+ * literals ({@code '...'}, with {@code ''} and, in {@code E'...'}, backslash escapes), quoted
+ * identifiers, dollar-quoted bodies ({@code $$...$$}, {@code $tag$...$tag$}) and comments
+ * ({@code --} to end of line, nested {@code /* *}{@code /}) do not end a statement.
+ *
+ * <p>Comments are dropped (outside quoted text, where they are part of the value); statements
+ * that are empty without them are skipped.
+ */
+public final class SqlTokenizer {
+    private SqlTokenizer() {
+    }
+
+    public static List<String> statements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int n = script.length();
+        int i = 0;
+        while (i < n) {
+            char c = script.charAt(i);
+            if (c == '-' && i + 1 < n && script.charAt(i + 1) == '-') {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? n : end;
+                current.append(' ');
+            } else if (c == '/' && i + 1 < n && script.charAt(i + 1) == '*') {
+                i = skipBlockComment(script, i);
+                current.append(' ');
+            } else if (c == '\'') {
+                boolean escapes = i > 0 && (script.charAt(i - 1) == 'E' || script.charAt(i - 1) == 'e')
+                        && (i < 2 || !isIdentifierPart(script.charAt(i - 2)));
+                int end = skipQuoted(script, i, '\'', escapes);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '"') {
+                int end = skipQuoted(script, i, '"', false);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '$' && (i == 0 || !isIdentifierPart(script.charAt(i - 1)))) {
+                int end = skipDollarQuoted(script, i);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == ';') {
+                add(out, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        add(out, current);
+        return out;
+    }
+
+    private static void add(List<String> out, StringBuilder current) {
+        String s = current.toString().trim();
+        if (!s.isEmpty()) out.add(s);
+        current.setLength(0);
+    }
+
+    // Returns the index just past the closing quote.
+    private static int skipQuoted(String s, int open, char quote, boolean backslashEscapes) {
+        int i = open + 1;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < s.length() && s.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated " + quote + " quote starting at offset " + open);
+    }
+
+    // A $ that does not open a tag ($1 parameters, say) is just a character.
+    private static int skipDollarQuoted(String s, int open) {
+        int i = open + 1;
+        while (i < s.length() && isIdentifierPart(s.charAt(i)) && s.charAt(i) != '$') i++;
+        if (i >= s.length() || s.charAt(i) != '$' || (i > open + 1 && Character.isDigit(s.charAt(open + 1)))) {
+            return open + 1;
+        }
+        String tag = s.substring(open, i + 1);
+        int close = s.indexOf(tag, i + 1);
+        if (close < 0) throw new IllegalArgumentException("Unterminated " + tag + " quote starting at offset " + open);
+        return close + tag.length();
+    }
+
+    private static int skipBlockComment(String s, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < s.length() - 1) {
+            if (s.charAt(i) == '/' && s.charAt(i + 1) == '*') {
+                depth++;
+                i += 2;
+            } else if (s.charAt(i) == '*' && s.charAt(i + 1) == '/') {
+                depth--;
+                i += 2;
+                if (depth == 0) return i;
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated comment starting at offset " + open);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -11,6 +11,3 @@ CREATE TABLE IF NOT EXISTS posts (
 );
 
 CREATE INDEX IF NOT EXISTS idx_posts_created_at ON posts (created_at DESC);
-CREATE INDEX IF NOT EXISTS idx_posts_author ON posts (author);
-
-
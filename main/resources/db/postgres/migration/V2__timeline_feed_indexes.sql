@@ -0,0 +1,5 @@
+-- Author timelines and the public feed: equality on the first column, then newest first, so a
+-- keyset page is one index range already in order. The first also covers plain author lookups.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_author_created ON posts (author, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_visibility_created ON posts (visibility, created_at DESC, id DESC);
+DROP INDEX CONCURRENTLY IF EXISTS idx_posts_author;
@@ -0,0 +1,2 @@
+-- Optimistic locking: bumped on every write, checked by conditional updates
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Full-text search over content: kept current by PostgreSQL on every insert and update
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+  GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_search ON posts USING GIN (search_vector);
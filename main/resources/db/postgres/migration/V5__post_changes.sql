@@ -0,0 +1,48 @@
+-- Change log behind PostgresChangeFeed: one row per created, updated or deleted post, written by
+-- statement-level triggers (one INSERT ... SELECT per statement, however many rows it touched).
+-- Readers order by (txid, seq) and only read transactions older than every running one, so a
+-- slow transaction's rows can never land behind a position a reader has already passed.
+CREATE TABLE IF NOT EXISTS post_changes (
+  txid BIGINT NOT NULL DEFAULT txid_current(),
+  seq BIGINT GENERATED ALWAYS AS IDENTITY,
+  op CHAR(1) NOT NULL CHECK (op IN ('I', 'U', 'D')),
+  post_id UUID NOT NULL,
+  updated_at TIMESTAMPTZ NOT NULL,
+  changed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (txid, seq)
+);
+
+-- The newest position pruning has removed; a resume token before it may have missed changes.
+CREATE TABLE IF NOT EXISTS post_changes_horizon (
+  id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+  txid BIGINT NOT NULL,
+  seq BIGINT NOT NULL
+);
+INSERT INTO post_changes_horizon (txid, seq) VALUES (0, 0) ON CONFLICT (id) DO NOTHING;
+
+-- NOTIFY wakes readers at once. Notifying transactions serialize briefly at commit, so at high
+-- write rates it can be turned off with ALTER DATABASE ... SET posts.change_notify = 'off';
+-- readers then find changes on their next poll.
+CREATE OR REPLACE FUNCTION post_changes_record() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    INSERT INTO post_changes (op, post_id, updated_at) SELECT 'D', id, now() FROM old_rows;
+  ELSE
+    INSERT INTO post_changes (op, post_id, updated_at) SELECT left(TG_OP, 1), id, updated_at FROM new_rows;
+  END IF;
+  IF FOUND AND coalesce(current_setting('posts.change_notify', true), '') <> 'off' THEN
+    -- Identical notifications in one transaction are delivered once.
+    PERFORM pg_notify('post_changes', '');
+  END IF;
+  RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS post_changes_insert ON posts;
+CREATE TRIGGER post_changes_insert AFTER INSERT ON posts
+  REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE PROCEDURE post_changes_record();
+DROP TRIGGER IF EXISTS post_changes_update ON posts;
+CREATE TRIGGER post_changes_update AFTER UPDATE ON posts
+  REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE PROCEDURE post_changes_record();
+DROP TRIGGER IF EXISTS post_changes_delete ON posts;
+CREATE TRIGGER post_changes_delete AFTER DELETE ON posts
+  REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE PROCEDURE post_changes_record();
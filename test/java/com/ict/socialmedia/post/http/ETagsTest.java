@@ -0,0 +1,31 @@
+package com.ict.socialmedia.post.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ETagsTest {
+    private static final String TAG = "\"65920080.0\"";
+
+    @Test
+    void ifNoneMatchUsesTheWeakComparison() {
+        assertTrue(ETags.matches(TAG, TAG));
+        assertTrue(ETags.matches("W/" + TAG, TAG));
+        assertTrue(ETags.matches("\"other\", W/" + TAG, TAG));
+        assertTrue(ETags.matches("*", TAG));
+        assertFalse(ETags.matches("\"other\"", TAG));
+        assertFalse(ETags.matches(null, TAG));
+    }
+
+    @Test
+    void ifMatchUsesTheStrongComparison() {
+        assertTrue(ETags.matchesStrong(TAG, TAG));
+        assertTrue(ETags.matchesStrong("\"other\" , " + TAG, TAG));
+        assertTrue(ETags.matchesStrong("*", TAG));
+        assertFalse(ETags.matchesStrong("W/" + TAG, TAG));
+        assertFalse(ETags.matchesStrong(TAG, "W/" + TAG));
+        assertFalse(ETags.matchesStrong("\"other\"", TAG));
+        assertFalse(ETags.matchesStrong(null, TAG));
+    }
+}
@@ -0,0 +1,256 @@
+package com.ict.socialmedia.post.repository;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link PostRepository} must share, so callers can swap backends. A subclass per
+ * backend supplies an empty repository; timestamps are kept to milliseconds, the coarsest any
+ * backend stores.
+ */
+public abstract class PostRepositoryContract {
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    protected PostRepository repo;
+
+    /** An empty repository; closed after each test if it is {@link AutoCloseable}. */
+    protected abstract PostRepository newRepository() throws Exception;
+
+    @BeforeEach
+    void open() throws Exception {
+        repo = newRepository();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        if (repo instanceof AutoCloseable c) c.close();
+    }
+
+    @Test
+    void createdPostReadsBackUnchanged() {
+        Post p = post("alice", Visibility.PUBLIC, T0);
+        repo.create(p);
+
+        Post stored = repo.findById(p.getId()).orElseThrow();
+        assertSameFields(p, stored);
+        assertEquals(p.getVersion(), stored.getVersion());
+        assertTrue(repo.findById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void duplicateIdIsRejected() {
+        Post p = post("alice", Visibility.PUBLIC, T0);
+        repo.create(p);
+
+        assertThrows(DuplicatePostException.class, () -> repo.create(post(p.getId(), "bob", Visibility.PUBLIC, T0)));
+        assertEquals("alice", repo.findById(p.getId()).orElseThrow().getAuthor());
+
+        Post fresh = post("carol", Visibility.PUBLIC, T0);
+        BatchResult result = repo.createAll(List.of(fresh, post(p.getId(), "bob", Visibility.PUBLIC, T0)));
+        assertEquals(BatchResult.Status.APPLIED, statusOf(result, fresh.getId()));
+        assertEquals(BatchResult.Status.DUPLICATE, statusOf(result, p.getId()));
+        assertTrue(repo.findById(fresh.getId()).isPresent());
+        assertEquals("alice", repo.findById(p.getId()).orElseThrow().getAuthor());
+    }
+
+    @Test
+    void pagesAreNewestFirstWithIdsBreakingTiesUnsigned() {
+        List<Post> posts = new ArrayList<>();
+        // Ids on both sides of the sign bit, several sharing a timestamp.
+        long[] highs = {0x0000_0000_0000_0001L, 0x7fff_ffff_ffff_ffffL, 0x8000_0000_0000_0000L, 0xffff_ffff_ffff_fffeL};
+        for (int t = 0; t < 3; t++) {
+            for (long high : highs) {
+                posts.add(post(new UUID(high, t), "alice", Visibility.PUBLIC, T0.plusSeconds(t)));
+            }
+        }
+        repo.createAll(posts);
+
+        List<UUID> expected = posts.stream()
+                .sorted(Comparator.comparing(PostCursor::of))
+                .map(Post::getId)
+                .toList();
+        assertEquals(expected, ids(repo.findAll()));
+
+        List<UUID> paged = new ArrayList<>();
+        PostCursor after = null;
+        do {
+            PostPage page = repo.findPage(after, 5, PostFilter.all());
+            paged.addAll(ids(page.getItems()));
+            after = page.getNext();
+        } while (after != null);
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void filtersByAuthorAndVisibility() {
+        Post a1 = repo.create(post("alice", Visibility.PUBLIC, T0));
+        Post a2 = repo.create(post("alice", Visibility.PRIVATE, T0.plusSeconds(1)));
+        Post b1 = repo.create(post("bob", Visibility.PUBLIC, T0.plusSeconds(2)));
+
+        assertEquals(List.of(a2.getId(), a1.getId()),
+                ids(repo.findPage(null, 10, PostFilter.all().withAuthor("alice")).getItems()));
+        assertEquals(List.of(b1.getId(), a1.getId()),
+                ids(repo.findPage(null, 10, PostFilter.all().withVisibilities(Set.of(Visibility.PUBLIC))).getItems()));
+        assertEquals(List.of(a1.getId()),
+                ids(repo.findByAuthor("alice", Set.of(Visibility.PUBLIC), null, 10).getItems()));
+        assertEquals(List.of(b1.getId(), a1.getId()), ids(repo.findPublicFeed(null, 10).getItems()));
+    }
+
+    @Test
+    void updatesBumpTheVersion() {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+        Instant later = T0.plusSeconds(60);
+
+        assertTrue(repo.update(new Post(p.getId(), "alice", "edited", Visibility.PRIVATE, 3, p.getCreatedAt(), later)));
+        Post updated = repo.findById(p.getId()).orElseThrow();
+        assertEquals(p.getVersion() + 1, updated.getVersion());
+        assertEquals("edited", updated.getContent());
+        assertEquals(Visibility.PRIVATE, updated.getVisibility());
+        assertEquals(3, updated.getLikes());
+        assertEquals(later, updated.getUpdatedAt());
+        assertEquals(p.getCreatedAt(), updated.getCreatedAt());
+
+        assertFalse(repo.update(post("alice", Visibility.PUBLIC, T0)));
+    }
+
+    @Test
+    void updateIfVersionAppliesOnlyOnTheExpectedVersion() {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+
+        Post updated = repo.updateIfVersion(p.getId(), p.getVersion(), "alice", "v2", Visibility.PUBLIC, 0, T0.plusSeconds(1))
+                .orElseThrow();
+        assertEquals(p.getVersion() + 1, updated.getVersion());
+        assertEquals("v2", updated.getContent());
+
+        assertTrue(repo.updateIfVersion(p.getId(), p.getVersion(), "alice", "stale", Visibility.PUBLIC, 0, T0.plusSeconds(2))
+                .isEmpty());
+        assertEquals("v2", repo.findById(p.getId()).orElseThrow().getContent());
+        assertTrue(repo.updateIfVersion(UUID.randomUUID(), 0, "alice", "x", Visibility.PUBLIC, 0, T0).isEmpty());
+    }
+
+    @Test
+    void deleteIfVersionAppliesOnlyOnTheExpectedVersion() {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+        assertTrue(repo.incrementLikes(p.getId(), 1));
+
+        assertFalse(repo.deleteIfVersion(p.getId(), p.getVersion()));
+        assertTrue(repo.findById(p.getId()).isPresent());
+        assertTrue(repo.deleteIfVersion(p.getId(), p.getVersion() + 1));
+        assertTrue(repo.findById(p.getId()).isEmpty());
+        assertFalse(repo.deleteIfVersion(p.getId(), p.getVersion() + 1));
+    }
+
+    @Test
+    void likesClampAtZeroAndBumpTheVersion() {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+
+        assertTrue(repo.incrementLikes(p.getId(), 5));
+        Post liked = repo.findById(p.getId()).orElseThrow();
+        assertEquals(5, liked.getLikes());
+        assertEquals(p.getVersion() + 1, liked.getVersion());
+
+        assertTrue(repo.incrementLikes(p.getId(), -8));
+        Post clamped = repo.findById(p.getId()).orElseThrow();
+        assertEquals(0, clamped.getLikes());
+        assertEquals(p.getVersion() + 2, clamped.getVersion());
+
+        assertFalse(repo.incrementLikes(UUID.randomUUID(), 1));
+        BatchResult result = repo.incrementLikesAll(Map.of(p.getId(), 2, UUID.randomUUID(), 1));
+        assertEquals(1, result.count(BatchResult.Status.APPLIED));
+        assertEquals(1, result.count(BatchResult.Status.NOT_FOUND));
+        assertEquals(2, repo.findById(p.getId()).orElseThrow().getLikes());
+    }
+
+    @Test
+    void concurrentLikesAreNotLost() throws Exception {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+        int threads = 8;
+        int perThread = 50;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    for (int j = 0; j < perThread; j++) repo.incrementLikes(p.getId(), 1);
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Post stored = repo.findById(p.getId()).orElseThrow();
+        assertEquals(threads * perThread, stored.getLikes());
+        assertEquals(p.getVersion() + threads * perThread, stored.getVersion());
+    }
+
+    @Test
+    void deletesReportWhatWasThere() {
+        Post p = repo.create(post("alice", Visibility.PUBLIC, T0));
+        Post q = repo.create(post("alice", Visibility.PUBLIC, T0.plusSeconds(1)));
+
+        assertTrue(repo.delete(p.getId()));
+        assertFalse(repo.delete(p.getId()));
+        assertTrue(repo.findById(p.getId()).isEmpty());
+
+        BatchResult result = repo.deleteAll(List.of(q.getId(), p.getId()));
+        assertEquals(BatchResult.Status.APPLIED, statusOf(result, q.getId()));
+        assertEquals(BatchResult.Status.NOT_FOUND, statusOf(result, p.getId()));
+        assertTrue(repo.findAll().isEmpty());
+
+        BatchResult updates = repo.updateAll(List.of(q));
+        assertEquals(BatchResult.Status.NOT_FOUND, statusOf(updates, q.getId()));
+    }
+
+    private static Post post(String author, Visibility visibility, Instant createdAt) {
+        return post(UUID.randomUUID(), author, visibility, createdAt);
+    }
+
+    private static Post post(UUID id, String author, Visibility visibility, Instant createdAt) {
+        Instant at = createdAt.truncatedTo(ChronoUnit.MILLIS);
+        return new Post(id, author, "post by " + author, visibility, 0, at, at);
+    }
+
+    private static void assertSameFields(Post expected, Post actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getVisibility(), actual.getVisibility());
+        assertEquals(expected.getLikes(), actual.getLikes());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+    }
+
+    private static BatchResult.Status statusOf(BatchResult result, UUID id) {
+        return result.getItems().stream()
+                .filter(i -> i.getId().equals(id))
+                .findFirst()
+                .orElseThrow()
+                .getStatus();
+    }
+
+    private static List<UUID> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ict.socialmedia.post.repository.file;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.PostRepositoryContract;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilePostRepositoryTest extends PostRepositoryContract {
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Override
+    protected PostRepository newRepository() {
+        return new FilePostRepository(FileStoreSettings.defaults(dir));
+    }
+
+    @Test
+    void tornTailIsCutAndZeroed() throws IOException {
+        FilePostRepository files = reopen();
+        Post a = files.create(post(T0));
+        Post b = files.create(post(T0.plusSeconds(1)));
+        Post c = files.create(post(T0.plusSeconds(2)));
+        files.close();
+        int tornAt = Segment.encodePut(a).remaining();
+        corrupt(0, tornAt + 20);
+
+        files = reopen();
+        assertTrue(files.findById(a.getId()).isPresent());
+        assertTrue(files.findById(b.getId()).isEmpty());
+        assertTrue(files.findById(c.getId()).isEmpty());
+        files.close();
+        byte[] bytes = Files.readAllBytes(dir.resolve("small").resolve(Segment.fileName(0)));
+        for (int i = tornAt; i < bytes.length; i++) assertEquals(0, bytes[i], "byte " + i);
+    }
+
+    @Test
+    void appendOverATornRecordDoesNotReplayWhatFollowedIt() throws IOException {
+        FilePostRepository files = reopen();
+        Post p = files.create(post(T0));
+        assertTrue(files.incrementLikes(p.getId(), 1));
+        assertTrue(files.delete(p.getId()));
+        files.close();
+        // The like is torn, the delete after it reached disk.
+        corrupt(0, Segment.encodePut(p).remaining() + 20);
+
+        files = reopen();
+        assertEquals(0, files.findById(p.getId()).orElseThrow().getLikes());
+        // Same length as the torn like, so the old delete would start right after it.
+        assertTrue(files.incrementLikes(p.getId(), 2));
+        files.close();
+
+        files = reopen();
+        assertEquals(2, files.findById(p.getId()).orElseThrow().getLikes());
+    }
+
+    @Test
+    void corruptSealedSegmentFailsTheOpen() throws IOException {
+        FilePostRepository files = reopen();
+        Post first = files.create(post(T0));
+        while (files.segmentCount() < 2) files.create(post(T0));
+        files.close();
+        corrupt(0, Segment.encodePut(first).remaining() + 20);
+
+        assertThrows(UncheckedIOException.class, this::reopen);
+    }
+
+    @Test
+    void compactedLogReopensWithTheSamePosts() {
+        FilePostRepository files = reopen();
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 120; i++) posts.add(files.create(post(T0.plusSeconds(i))));
+        for (int i = 0; i < 80; i++) assertTrue(files.incrementLikes(posts.get(i).getId(), i + 1));
+        for (int i = 0; i < 120; i += 7) assertTrue(files.delete(posts.get(i).getId()));
+        int before = files.segmentCount();
+
+        assertTrue(files.compact() > 0);
+        List<Post> expected = files.findAll();
+        files.close();
+
+        files = reopen();
+        assertTrue(files.segmentCount() <= before);
+        assertEquals(snapshot(expected), snapshot(files.findAll()));
+    }
+
+    // Small segments, no background compaction, beside the contract's repository; the last one
+    // opened is closed after the test.
+    private FilePostRepository reopen() {
+        FilePostRepository files = new FilePostRepository(
+                new FileStoreSettings(dir.resolve("small"), SEGMENT_BYTES, FsyncPolicy.GROUP, 100, 0, 0.5));
+        ((FilePostRepository) repo).close();
+        repo = files;
+        return files;
+    }
+
+    private void corrupt(long segment, int position) throws IOException {
+        try (FileChannel ch = FileChannel.open(dir.resolve("small").resolve(Segment.fileName(segment)), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), position);
+        }
+    }
+
+    private static Post post(Instant at) {
+        return new Post(UUID.randomUUID(), "alice", "post by alice", Visibility.PUBLIC, 0, at, at);
+    }
+
+    private static List<String> snapshot(List<Post> posts) {
+        return posts.stream().map(p -> p.getId() + "/" + p.getVersion() + "/" + p.getLikes()).toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ict.socialmedia.post.repository.memory;
+
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.PostRepositoryContract;
+
+class InMemoryPostRepositoryTest extends PostRepositoryContract {
+    @Override
+    protected PostRepository newRepository() {
+        return new InMemoryPostRepository(4);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ict.socialmedia.post.repository.mongo;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.PostRepositoryContract;
+import com.ict.socialmedia.post.repository.QueryPlan;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The shared contract, plus query plans: a feed query that stops being an index range fails the build. */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoPostRepositoryTest extends PostRepositoryContract {
+    private static final PostCursor CURSOR = new PostCursor(Instant.parse("2024-01-01T00:02:30Z"),
+            new UUID(Long.MAX_VALUE, Long.MAX_VALUE));
+
+    static final String DATABASE = "social_media";
+    static final String COLLECTION = "posts";
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    static MongoClient client;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @Override
+    protected PostRepository newRepository() {
+        client.getDatabase(DATABASE).getCollection(COLLECTION).drop();
+        MongoBootstrapper.bootstrapIfEnabled(true, client, DATABASE, COLLECTION, false);
+        return new MongoPostRepository(MONGO.getReplicaSetUrl(), DATABASE, COLLECTION);
+    }
+
+    @Test
+    void authorTimelineIsAnIndexRange() {
+        seed();
+        PostFilter timeline = PostFilter.all().withAuthor("author-1");
+        assertRange(null, timeline, MongoPostRepository.AUTHOR_TIMELINE_INDEX);
+        assertRange(CURSOR, timeline, MongoPostRepository.AUTHOR_TIMELINE_INDEX);
+        assertRange(CURSOR, timeline.withVisibilities(List.of(Visibility.PUBLIC, Visibility.FRIENDS)),
+                MongoPostRepository.AUTHOR_TIMELINE_INDEX);
+    }
+
+    @Test
+    void publicFeedIsAnIndexRange() {
+        seed();
+        assertRange(null, PostRepository.PUBLIC_FEED, MongoPostRepository.VISIBILITY_FEED_INDEX);
+        assertRange(CURSOR, PostRepository.PUBLIC_FEED, MongoPostRepository.VISIBILITY_FEED_INDEX);
+    }
+
+    private void assertRange(PostCursor after, PostFilter filter, String index) {
+        QueryPlan plan = ((MongoPostRepository) repo).explainPage(after, 20, filter);
+        assertTrue(plan.isIndexRange(index), () -> "expected a range of " + index + ", got " + plan + "\n" + plan.getRaw());
+    }
+
+    private void seed() {
+        List<Post> posts = new ArrayList<>();
+        Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+        Visibility[] visibilities = Visibility.values();
+        for (int i = 0; i < 300; i++) {
+            Instant at = t0.plusSeconds(i);
+            posts.add(new Post(UUID.randomUUID(), "author-" + (i % 10), "post " + i,
+                    visibilities[i % visibilities.length], 0, at, at));
+        }
+        assertTrue(repo.createAll(posts).allApplied());
+    }
+}
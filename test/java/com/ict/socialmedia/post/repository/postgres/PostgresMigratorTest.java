@@ -0,0 +1,105 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.util.SqlScriptRunner;
+import com.ict.socialmedia.post.util.SqlTokenizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs the shipped scripts against an empty schema per test. */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresMigratorTest {
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private Connection c;
+
+    @BeforeEach
+    void emptySchema() throws SQLException {
+        c = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        execute("DROP SCHEMA public CASCADE");
+        execute("CREATE SCHEMA public");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        c.close();
+    }
+
+    @Test
+    void appliesEveryScriptOnce() throws SQLException {
+        int scripts = PostgresMigrator.versionedScripts().size();
+
+        assertEquals(scripts, new PostgresMigrator(c).migrate());
+        assertEquals(scripts, count("SELECT count(*) FROM schema_history"));
+        assertEquals(0, new PostgresMigrator(c).migrate());
+    }
+
+    @Test
+    void concurrentIndexBuildsRunOutsideATransaction() throws SQLException {
+        new PostgresMigrator(c).migrate();
+
+        for (String index : new String[]{PostgresPostRepository.AUTHOR_TIMELINE_INDEX,
+                PostgresPostRepository.VISIBILITY_FEED_INDEX, "idx_posts_search"}) {
+            assertEquals(1, count("SELECT count(*) FROM pg_index WHERE indexrelid = to_regclass('" + index + "') AND indisvalid"),
+                    index);
+        }
+        assertEquals(0, count("SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_posts_author')"));
+        assertTrue(c.getAutoCommit());
+    }
+
+    @Test
+    void editedScriptStopsStartup() throws SQLException {
+        new PostgresMigrator(c).migrate();
+        execute("UPDATE schema_history SET checksum = checksum + 1 WHERE version = '1'");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new PostgresMigrator(c).migrate());
+        assertTrue(e.getMessage().contains("changed after it was applied"), e.getMessage());
+    }
+
+    @Test
+    void scriptOlderThanTheNewestAppliedStopsStartup() throws SQLException {
+        new PostgresMigrator(c).migrate();
+        execute("DELETE FROM schema_history WHERE version = '3'");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new PostgresMigrator(c).migrate());
+        assertTrue(e.getMessage().contains("older than applied V5"), e.getMessage());
+    }
+
+    @Test
+    void databaseFromBeforeTheHistoryIsBroughtCurrent() throws SQLException {
+        String v1 = SqlScriptRunner.readClasspathText(PostgresMigrator.LOCATION + "/V1__create_posts.sql");
+        for (String sql : SqlTokenizer.statements(v1)) execute(sql);
+        execute("INSERT INTO posts (id, author, content, visibility, likes, created_at, updated_at)"
+                + " VALUES (gen_random_uuid(), 'alice', 'kept', 'PUBLIC', 0, now(), now())");
+
+        assertEquals(PostgresMigrator.versionedScripts().size(), new PostgresMigrator(c).migrate());
+        assertEquals(1, count("SELECT count(*) FROM posts WHERE version = 0 AND search_vector IS NOT NULL"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ict.socialmedia.post.repository.postgres;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.PostCursor;
+import com.ict.socialmedia.post.repository.PostFilter;
+import com.ict.socialmedia.post.repository.PostRepository;
+import com.ict.socialmedia.post.repository.PostRepositoryContract;
+import com.ict.socialmedia.post.repository.QueryPlan;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The shared contract, plus query plans: a feed query that stops being an index range fails the build. */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresPostRepositoryTest extends PostRepositoryContract {
+    private static final PostCursor CURSOR = new PostCursor(Instant.parse("2024-01-01T00:02:30Z"),
+            new UUID(Long.MAX_VALUE, Long.MAX_VALUE));
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("social_media");
+
+    @BeforeAll
+    static void migrate() {
+        PostgresBootstrapper.bootstrapIfEnabled(true, POSTGRES.getJdbcUrl(), "postgres",
+                POSTGRES.getUsername(), POSTGRES.getPassword(), false);
+    }
+
+    @Override
+    protected PostRepository newRepository() throws Exception {
+        try (Connection c = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             Statement st = c.createStatement()) {
+            st.execute("TRUNCATE posts");
+        }
+        return new PostgresPostRepository(new PostgresConnectionPool(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword(), PostgresPoolSettings.defaults()));
+    }
+
+    @Test
+    void authorTimelineIsAnIndexRange() {
+        seed();
+        PostFilter timeline = PostFilter.all().withAuthor("author-1");
+        assertRange(null, timeline, PostgresPostRepository.AUTHOR_TIMELINE_INDEX);
+        assertRange(CURSOR, timeline, PostgresPostRepository.AUTHOR_TIMELINE_INDEX);
+        assertRange(CURSOR, timeline.withVisibilities(List.of(Visibility.PUBLIC, Visibility.FRIENDS)),
+                PostgresPostRepository.AUTHOR_TIMELINE_INDEX);
+    }
+
+    @Test
+    void publicFeedIsAnIndexRange() {
+        seed();
+        assertRange(null, PostRepository.PUBLIC_FEED, PostgresPostRepository.VISIBILITY_FEED_INDEX);
+        assertRange(CURSOR, PostRepository.PUBLIC_FEED, PostgresPostRepository.VISIBILITY_FEED_INDEX);
+    }
+
+    private void assertRange(PostCursor after, PostFilter filter, String index) {
+        QueryPlan plan = ((PostgresPostRepository) repo).explainPage(after, 20, filter);
+        assertTrue(plan.isIndexRange(index), () -> "expected a range of " + index + ", got " + plan + "\n" + plan.getRaw());
+    }
+
+    private void seed() {
+        List<Post> posts = new ArrayList<>();
+        Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+        Visibility[] visibilities = Visibility.values();
+        for (int i = 0; i < 300; i++) {
+            Instant at = t0.plusSeconds(i);
+            posts.add(new Post(UUID.randomUUID(), "author-" + (i % 10), "post " + i,
+                    visibilities[i % visibilities.length], 0, at, at));
+        }
+        assertTrue(repo.createAll(posts).allApplied());
+    }
+}
@@ -0,0 +1,66 @@
+package com.ict.socialmedia.post.service;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import com.ict.socialmedia.post.repository.memory.InMemoryPostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LikeAccumulatorTest {
+    @Test
+    void noIncrementIsLostWhileFlushesRace() throws Exception {
+        InMemoryPostRepository repo = new InMemoryPostRepository();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Instant now = Instant.now();
+            ids.add(repo.create(new Post(UUID.randomUUID(), "alice", "post " + i, Visibility.PUBLIC, 0, now, now)).getId());
+        }
+
+        int threads = 8;
+        int perThread = 20_000;
+        AtomicBoolean adding = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        // The scheduled flush runs every millisecond on top of the explicit flushes below.
+        LikeAccumulator likes = new LikeAccumulator(repo, 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) likes.add(ids.get(i % ids.size()), 1);
+                    return null;
+                }));
+            }
+            Future<?> flusher = pool.submit(() -> {
+                start.await();
+                while (adding.get()) likes.flush();
+                return null;
+            });
+            start.countDown();
+            for (Future<?> w : writers) w.get();
+            adding.set(false);
+            flusher.get();
+        } finally {
+            likes.close();
+            pool.shutdownNow();
+        }
+
+        int expectedPerPost = threads * perThread / ids.size();
+        for (UUID id : ids) {
+            assertEquals(expectedPerPost, repo.findById(id).orElseThrow().getLikes());
+        }
+        assertEquals(0, likes.pending());
+    }
+}
@@ -0,0 +1,121 @@
+package com.ict.socialmedia.post.transfer;
+
+import com.ict.socialmedia.post.model.Post;
+import com.ict.socialmedia.post.model.Visibility;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PostJsonReaderTest {
+    private static final PostJsonReader READER = new PostJsonReader();
+    private static final UUID ID = UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+    private static final Instant T0 = Instant.parse("2024-02-29T12:34:56.789Z");
+
+    @Test
+    void roundTripsWhatBothWritersProduce() {
+        Post p = new Post(ID, "al\"ice\\", "line\none\ttab \u0001 caf\u00e9 \ud83d\ude00", Visibility.FRIENDS,
+                42, T0, T0.plusNanos(1), 7);
+
+        assertSame(p, READER.read(new PostJsonWriter().write(p).toByteArray()));
+        assertSame(p, READER.read(PostJson.toJson(p)));
+    }
+
+    @Test
+    void unescapesLikeTheReferenceParser() {
+        assertContent("\"/\\\b\f\n\r\t", "\\\"\\/\\\\\\b\\f\\n\\r\\t");
+        assertContent("caf\u00e9 \u20ac", "caf\\u00e9 \\u20AC");
+        assertContent("caf\u00e9", "caf\u00e9");
+        assertContent("\ud83d\ude00", "\\ud83d\\ude00");
+        assertContent("a\ud83d\ude00b", "a\ud83d\ude00b");
+    }
+
+    @Test
+    void keepsLoneSurrogates() {
+        assertContent("x\ud800y", "x\\ud800y");
+        assertContent("\udc00", "\\udc00");
+        assertContent("\ud83d\\n", "\\ud83d\\\\n");
+        assertContent("\ud83dA", "\\ud83d\\u0041");
+    }
+
+    @Test
+    void rejectsBadEscapes() {
+        assertThrows(IllegalArgumentException.class, () -> READER.read(json("\"content\":\"\\x\"")));
+        assertThrows(IllegalArgumentException.class, () -> READER.read(json("\"content\":\"\\u12\"")));
+        assertThrows(IllegalArgumentException.class, () -> READER.read(json("\"content\":\"open")));
+    }
+
+    @Test
+    void parsesInstantsLikeInstantParse() {
+        for (String s : new String[]{
+                "2024-02-29T00:00:00Z", "2000-02-29T23:59:59Z", "1970-01-01T00:00:00Z", "1969-12-31T23:59:59Z",
+                "0001-01-01T00:00:00Z", "9999-12-31T23:59:59Z", "2024-12-31T00:00:00.5Z",
+                "2024-03-01T00:00:00.000000001Z", "2024-03-01T00:00:00.123456789Z", "2024-03-01T00:00:00.120Z",
+                "+12024-03-01T00:00:00Z", "2024-03-01T00:00:00+02:00", "2024-02-28T24:00:00Z",
+                "2016-12-31T23:59:60Z", "2024-03-01T00:00:00.Z"}) {
+            assertEquals(Instant.parse(s), READER.read(json("\"createdAt\":\"" + s + "\"")).getCreatedAt(), s);
+        }
+    }
+
+    @Test
+    void rejectsInstantsThatInstantParseRejects() {
+        for (String s : new String[]{
+                "2023-02-29T00:00:00Z", "1900-02-29T00:00:00Z", "2024-04-31T00:00:00Z", "2024-13-01T00:00:00Z",
+                "2024-01-01T25:00:00Z", "2024-01-01T00:00:00.1234567891Z",
+                "2024-01-01T00:00:00"}) {
+            assertThrows(DateTimeParseException.class, () -> Instant.parse(s), s);
+            assertThrows(DateTimeParseException.class, () -> READER.read(json("\"createdAt\":\"" + s + "\"")), s);
+        }
+    }
+
+    @Test
+    void readsNumbersLikeTheReferenceParser() {
+        for (String likes : new String[]{"0", "2147483647", "3.9", "1e3", "\"12\"", "\"\""}) {
+            String json = json("\"likes\":" + likes);
+            assertEquals(reference(json).getLikes(), READER.read(json).getLikes(), likes);
+        }
+        assertEquals(Long.MAX_VALUE, READER.read(json("\"version\":9223372036854775807")).getVersion());
+    }
+
+    @Test
+    void rejectsOutOfRangeNumbers() {
+        for (String field : new String[]{
+                "\"likes\":2147483648", "\"likes\":-2147483649", "\"likes\":1e10",
+                "\"version\":9223372036854775808", "\"version\":-9223372036854775809",
+                "\"version\":99999999999999999999", "\"version\":1e19", "\"version\":\"9223372036854775808\""}) {
+            assertThrows(IllegalArgumentException.class, () -> READER.read(json(field)), field);
+        }
+    }
+
+    private static String json(String field) {
+        return "{\"id\":\"" + ID + "\",\"author\":\"a\",\"content\":\"c\",\"createdAt\":\"" + T0 + "\"," + field + "}";
+    }
+
+    private static void assertContent(String expected, String escaped) {
+        String json = "{\"id\":\"" + ID + "\",\"author\":\"a\",\"content\":\"" + escaped + "\",\"createdAt\":\"" + T0 + "\"}";
+        assertEquals(expected, reference(json).getContent());
+        assertEquals(expected, READER.read(json).getContent());
+        assertEquals(expected, READER.read(json.getBytes(StandardCharsets.UTF_8)).getContent());
+    }
+
+    // The map-based parser PostJson used before the byte reader existed.
+    private static Post reference(String json) {
+        return PostJson.fromFields(PostJson.parseFields(json));
+    }
+
+    private static void assertSame(Post expected, Post actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getVisibility(), actual.getVisibility());
+        assertEquals(expected.getLikes(), actual.getLikes());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+}
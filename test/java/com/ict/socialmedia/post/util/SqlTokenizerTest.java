@@ -0,0 +1,61 @@
+package com.ict.socialmedia.post.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SqlTokenizerTest {
+    @Test
+    void splitsAtTopLevelSemicolonsAndSkipsEmptyStatements() {
+        assertEquals(List.of("SELECT 1", "SELECT 2"), SqlTokenizer.statements(" SELECT 1;;\n SELECT 2 ; ; "));
+    }
+
+    @Test
+    void quotedTextKeepsItsSemicolons() {
+        assertEquals(List.of("SELECT 'a;b', 'it''s;'", "SELECT \"odd;name\" FROM t"),
+                SqlTokenizer.statements("SELECT 'a;b', 'it''s;'; SELECT \"odd;name\" FROM t;"));
+    }
+
+    @Test
+    void backslashEscapesOnlyInEscapeStrings() {
+        assertEquals(List.of("SELECT E'it\\'s; fine'", "SELECT e'\\\\'"),
+                SqlTokenizer.statements("SELECT E'it\\'s; fine'; SELECT e'\\\\';"));
+        // In a standard string a backslash is literal, so the quote after it closes the string.
+        assertEquals(List.of("SELECT 'a\\'", "SELECT 1"), SqlTokenizer.statements("SELECT 'a\\'; SELECT 1"));
+        // The E of an identifier does not start an escape string.
+        assertEquals(List.of("SELECT name'\\'", "SELECT 2"), SqlTokenizer.statements("SELECT name'\\'; SELECT 2"));
+    }
+
+    @Test
+    void dollarQuotedBodiesKeepTheirSemicolons() {
+        String fn = "CREATE FUNCTION f() RETURNS int AS $$ BEGIN RETURN 1; END; $$ LANGUAGE plpgsql";
+        String tagged = "DO $body$ BEGIN PERFORM '$$;'; END $body$";
+        assertEquals(List.of(fn, tagged, "SELECT 2"), SqlTokenizer.statements(fn + ";\n" + tagged + "; SELECT 2;"));
+    }
+
+    @Test
+    void positionalParametersAndIdentifierDollarsAreNotQuotes() {
+        assertEquals(List.of("PREPARE p AS SELECT $1, $2", "SELECT a$b FROM t"),
+                SqlTokenizer.statements("PREPARE p AS SELECT $1, $2; SELECT a$b FROM t;"));
+    }
+
+    @Test
+    void commentsAreDroppedIncludingNestedBlocks() {
+        // A comment becomes a space, so the words on either side stay apart.
+        assertEquals(List.of("SELECT   1", "SELECT 2"), SqlTokenizer.statements(
+                "-- a; line\nSELECT /* outer /* inner; */ still; comment */ 1; SELECT 2; -- trailing;"));
+        assertEquals(List.of("SELECT '-- not; a comment'"), SqlTokenizer.statements("SELECT '-- not; a comment'"));
+        assertEquals(List.of(), SqlTokenizer.statements("/* only */ -- comments\n;"));
+    }
+
+    @Test
+    void unterminatedTextIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SqlTokenizer.statements("SELECT 'open"));
+        assertThrows(IllegalArgumentException.class, () -> SqlTokenizer.statements("SELECT $$ open"));
+        assertThrows(IllegalArgumentException.class, () -> SqlTokenizer.statements("SELECT 1 /* /* */"));
+        assertThrows(IllegalArgumentException.class, () -> SqlTokenizer.statements("SELECT \"open"));
+    }
+}